@@ -0,0 +1,88 @@
+package com.tmrfcb.datingapp.config;
+
+import com.tmrfcb.datingapp.domain.Country;
+import com.tmrfcb.datingapp.domain.Facebook;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+/**
+ * Entity graphs as the REST resources and the search index serialize them: a profile with its location and swipes,
+ * and a match with its conversation.
+ */
+final class EntityGraphs {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2026, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC);
+
+    private EntityGraphs() {}
+
+    /**
+     * @param relations the number of swipes of the profile, one in ten of which matched.
+     */
+    static UserApp userApp(int relations) {
+        Location location = new Location()
+            .id(1L)
+            .streetAddress("12 rue de Rivoli")
+            .postalCode("75004")
+            .city("Paris")
+            .stateProvince("Ile-de-France")
+            .latitude(48.8559)
+            .longitude(2.3585)
+            .geohash("u09tvw0f")
+            .country(new Country().id(1L).countryName("France"));
+        UserApp userApp = new UserApp()
+            .id(1L)
+            .firstName("Camille")
+            .lastName("Martin")
+            .email("camille.martin@example.com")
+            .phoneNumber("+33612345678")
+            .birthDate(LocalDate.of(1994, 5, 17))
+            .facebook(new Facebook().id(1L))
+            .location(location);
+        for (int i = 0; i < relations; i++) {
+            Relation relation = new Relation()
+                .id((long) i)
+                .userIdOfOther(Long.toString(1000L + i))
+                .relationType(i % 3 == 0 ? RelationType.DISLIKE : RelationType.LIKE);
+            if (i % 10 == 0) {
+                relation.matchRelation(new MatchRelation().id((long) i).matchDate(START.plusHours(i)).userLowId(1L).userHighId(1000L + i));
+            }
+            userApp.addRelation(relation);
+        }
+        return userApp;
+    }
+
+    /**
+     * @param messages the number of messages of the conversation.
+     */
+    static MatchRelation matchRelation(int messages) {
+        MatchRelation matchRelation = new MatchRelation()
+            .id(1L)
+            .matchDate(START)
+            .userLowId(1L)
+            .userHighId(2L)
+            .relation(new Relation().id(1L).userIdOfOther("2").relationType(RelationType.SUPERLIKE));
+        for (int i = 0; i < messages; i++) {
+            matchRelation.addMessage(message(i));
+        }
+        return matchRelation;
+    }
+
+    static Message message(int index) {
+        boolean even = index % 2 == 0;
+        return new Message()
+            .id((long) index)
+            .senderId(even ? "1" : "2")
+            .receiverId(even ? "2" : "1")
+            .messageTitle("Message " + index)
+            .messageContent("Hi! Are you free for a drink near the Marais on Friday evening? I know a nice place.")
+            .messageDate(START.plusMinutes(index))
+            .matchRelation(new MatchRelation().id(1L).matchDate(START).userLowId(1L).userHighId(2L));
+    }
+}
@@ -0,0 +1,91 @@
+package com.tmrfcb.datingapp.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.UserApp;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+
+/**
+ * Cost of {@link ElasticsearchConfiguration.CustomEntityMapper} converting the indexed documents, each way going
+ * through a JSON string: {@code mapObject} on indexing, {@code readObject} on reading search hits. The
+ * {@code write*} benchmarks are the serialization of {@link StreamingElasticsearchRestTemplate}, straight to bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class EntityMapperBenchmark {
+
+    @Param({ "1", "50" })
+    private int relations;
+
+    private EntityMapper entityMapper;
+
+    private ObjectMapper objectMapper;
+
+    private UserApp userApp;
+
+    private Message message;
+
+    private Map<String, Object> userAppSource;
+
+    private Map<String, Object> messageSource;
+
+    @Setup(Level.Trial)
+    public void configure() {
+        objectMapper = JacksonSerializationBenchmark.objectMapper();
+        entityMapper = new ElasticsearchConfiguration(objectMapper).getEntityMapper();
+
+        userApp = EntityGraphs.userApp(relations);
+        message = EntityGraphs.message(0);
+        userAppSource = entityMapper.mapObject(userApp);
+        messageSource = entityMapper.mapObject(message);
+    }
+
+    @Benchmark
+    public Map<String, Object> mapUserApp() {
+        return entityMapper.mapObject(userApp);
+    }
+
+    @Benchmark
+    public Map<String, Object> mapMessage() {
+        return entityMapper.mapObject(message);
+    }
+
+    @Benchmark
+    public byte[] writeUserApp() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userApp);
+    }
+
+    @Benchmark
+    public byte[] writeMessage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public UserApp readUserApp() {
+        return entityMapper.readObject(userAppSource, UserApp.class);
+    }
+
+    @Benchmark
+    public Message readMessage() {
+        return entityMapper.readObject(messageSource, Message.class);
+    }
+}
@@ -0,0 +1,116 @@
+package com.tmrfcb.datingapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.UserApp;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Jackson serialization and deserialization of the entity graphs returned by the REST resources, with the modules of
+ * {@link JacksonConfiguration} and the defaults of Spring Boot.
+ * <p>
+ * The {@link ElasticsearchConfiguration} entity mapper reconfigures the shared {@link ObjectMapper}, so it is applied
+ * here too, as in the application context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class JacksonSerializationBenchmark {
+
+    @Param({ "1", "50" })
+    private int size;
+
+    private ObjectMapper objectMapper;
+
+    private UserApp userApp;
+
+    private MatchRelation matchRelation;
+
+    private Message message;
+
+    private byte[] userAppJson;
+
+    private byte[] matchRelationJson;
+
+    private byte[] messageJson;
+
+    @Setup(Level.Trial)
+    public void configure() throws IOException {
+        objectMapper = objectMapper();
+        new ElasticsearchConfiguration(objectMapper).getEntityMapper();
+
+        userApp = EntityGraphs.userApp(size);
+        matchRelation = EntityGraphs.matchRelation(size);
+        message = EntityGraphs.message(0);
+        userAppJson = objectMapper.writeValueAsBytes(userApp);
+        matchRelationJson = objectMapper.writeValueAsBytes(matchRelation);
+        messageJson = objectMapper.writeValueAsBytes(message);
+    }
+
+    /**
+     * @return a mapper configured as the one of the application context, before the entity mapper reconfigures it.
+     */
+    static ObjectMapper objectMapper() {
+        JacksonConfiguration configuration = new JacksonConfiguration();
+        return Jackson2ObjectMapperBuilder
+            .json()
+            .modules(
+                configuration.javaTimeModule(),
+                configuration.jdk8TimeModule(),
+                configuration.hibernate5Module(),
+                configuration.problemModule(),
+                configuration.constraintViolationProblemModule()
+            )
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    @Benchmark
+    public byte[] writeUserApp() throws IOException {
+        return objectMapper.writeValueAsBytes(userApp);
+    }
+
+    @Benchmark
+    public byte[] writeMatchRelation() throws IOException {
+        return objectMapper.writeValueAsBytes(matchRelation);
+    }
+
+    @Benchmark
+    public byte[] writeMessage() throws IOException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public UserApp readUserApp() throws IOException {
+        return objectMapper.readValue(userAppJson, UserApp.class);
+    }
+
+    @Benchmark
+    public MatchRelation readMatchRelation() throws IOException {
+        return objectMapper.readValue(matchRelationJson, MatchRelation.class);
+    }
+
+    @Benchmark
+    public Message readMessage() throws IOException {
+        return objectMapper.readValue(messageJson, Message.class);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tmrfcb.datingapp.config.audit;
+
+import com.tmrfcb.datingapp.domain.PersistentAuditEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * Cost of {@link AuditEventConverter}: converting a page of stored events for {@code /management/audits}, and
+ * converting the data of an authentication event before it is stored.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx1g" })
+public class AuditEventConverterBenchmark {
+
+    @Param({ "20", "1000" })
+    private int events;
+
+    private AuditEventConverter converter;
+
+    private List<PersistentAuditEvent> persistentAuditEvents;
+
+    private Map<String, Object> data;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        converter = new AuditEventConverter();
+        persistentAuditEvents = new ArrayList<>(events);
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        for (int i = 0; i < events; i++) {
+            PersistentAuditEvent event = new PersistentAuditEvent();
+            event.setId((long) i);
+            event.setPrincipal("user" + i % 50);
+            event.setAuditEventDate(start.plusSeconds(i));
+            event.setAuditEventType(i % 10 == 0 ? "AUTHENTICATION_FAILURE" : "AUTHENTICATION_SUCCESS");
+            Map<String, String> eventData = new HashMap<>();
+            eventData.put("remoteAddress", "192.168.0." + i % 256);
+            eventData.put("sessionId", "session" + i);
+            if (i % 10 == 0) {
+                eventData.put("type", "org.springframework.security.authentication.BadCredentialsException");
+                eventData.put("message", "Bad credentials");
+            }
+            event.setData(eventData);
+            persistentAuditEvents.add(event);
+        }
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.0.1");
+        request.getSession();
+        data = new HashMap<>();
+        data.put("details", new WebAuthenticationDetails(request));
+        data.put("type", "org.springframework.security.authentication.BadCredentialsException");
+        data.put("message", "Bad credentials");
+    }
+
+    @Benchmark
+    public List<AuditEvent> convertToAuditEvent() {
+        return converter.convertToAuditEvent(persistentAuditEvents);
+    }
+
+    @Benchmark
+    public Map<String, String> convertDataToStrings() {
+        return converter.convertDataToStrings(data);
+    }
+}
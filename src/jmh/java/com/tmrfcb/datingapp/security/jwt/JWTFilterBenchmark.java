@@ -0,0 +1,115 @@
+package com.tmrfcb.datingapp.security.jwt;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import io.github.jhipster.config.JHipsterProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import javax.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Cost of authenticating a request in {@link JWTFilter}, against the former path which built a parser, verified the
+ * signature and split the authorities twice per request, once to validate the token and once to read it.
+ * <p>
+ * Requests pick a token at random among {@code tokens} signed-in users: up to the size of the token cache, nearly all
+ * requests hit the cache; far above it, nearly all miss it and show the cost of the single remaining parse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class JWTFilterBenchmark {
+
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> {};
+
+    @Param({ "1", "1000", "100000" })
+    private int tokens;
+
+    private Key key;
+
+    private JWTFilter filter;
+
+    private String[] jwts;
+
+    private MockHttpServletRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void signIn() {
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        TokenProvider tokenProvider = new TokenProvider(properties, new ApplicationProperties());
+        tokenProvider.init();
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(BASE64_SECRET));
+        filter = new JWTFilter(tokenProvider);
+
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        jwts = new String[tokens];
+        requests = new MockHttpServletRequest[tokens];
+        for (int i = 0; i < tokens; i++) {
+            jwts[i] = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("user" + i, "", authorities), false);
+            requests[i] = new MockHttpServletRequest("GET", "/api/user-apps");
+            requests[i].addHeader(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + jwts[i]);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Authentication filter() throws Exception {
+        MockHttpServletRequest request = requests[ThreadLocalRandom.current().nextInt(tokens)];
+        filter.doFilter(request, new MockHttpServletResponse(), NOOP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Authentication parseTwice() {
+        String jwt = jwts[ThreadLocalRandom.current().nextInt(tokens)];
+        // validateToken
+        Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt);
+        // getAuthentication
+        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+        Collection<? extends GrantedAuthority> authorities = Arrays
+            .stream(claims.get("auth").toString().split(","))
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+        User principal = new User(claims.getSubject(), "", authorities);
+        return new UsernamePasswordAuthenticationToken(principal, jwt, authorities);
+    }
+}
@@ -0,0 +1,82 @@
+package com.tmrfcb.datingapp.security.jwt;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import io.github.jhipster.config.JHipsterProperties;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Cost of each public operation of {@link TokenProvider}. Requests pick a token at random among {@code tokens}
+ * signed-in users, so that a single token always hits the token cache, and {@code 100000} tokens mostly miss it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class TokenProviderBenchmark {
+
+    private static final String BASE64_SECRET =
+        "fd54a45s65fds737b9aafcb3412e07ed99b267f33413274720ddbb7f6c5e64e9f14075f2d7ed041592f0b7657baf8";
+
+    @Param({ "1", "100000" })
+    private int tokens;
+
+    private TokenProvider tokenProvider;
+
+    private Authentication authentication;
+
+    private String[] jwts;
+
+    @Setup(Level.Trial)
+    public void signIn() {
+        JHipsterProperties properties = new JHipsterProperties();
+        properties.getSecurity().getAuthentication().getJwt().setBase64Secret(BASE64_SECRET);
+        tokenProvider = new TokenProvider(properties, new ApplicationProperties());
+        tokenProvider.init();
+
+        List<GrantedAuthority> authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"));
+        authentication = new UsernamePasswordAuthenticationToken("user", "", authorities);
+        jwts = new String[tokens];
+        for (int i = 0; i < tokens; i++) {
+            jwts[i] = tokenProvider.createToken(new UsernamePasswordAuthenticationToken("user" + i, "", authorities), false);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean validateToken() {
+        return tokenProvider.validateToken(jwts[ThreadLocalRandom.current().nextInt(tokens)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Authentication getAuthentication() {
+        return tokenProvider.getAuthentication(jwts[ThreadLocalRandom.current().nextInt(tokens)]);
+    }
+
+    @Benchmark
+    public String createToken() {
+        return tokenProvider.createToken(authentication, false);
+    }
+}
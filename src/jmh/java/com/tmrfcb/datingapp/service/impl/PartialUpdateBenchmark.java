@@ -0,0 +1,154 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.LocationRepository;
+import com.tmrfcb.datingapp.repository.MessageRepository;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.search.LocationSearchRepository;
+import com.tmrfcb.datingapp.repository.search.MessageSearchRepository;
+import com.tmrfcb.datingapp.repository.search.RelationSearchRepository;
+import com.tmrfcb.datingapp.service.DesirabilityService;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.InboxService;
+import com.tmrfcb.datingapp.service.LocationService;
+import com.tmrfcb.datingapp.service.MessageDeliveryService;
+import com.tmrfcb.datingapp.service.MessageService;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.RelationService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import java.lang.reflect.Proxy;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the partial-update merge of the {@code *ServiceImpl} classes, without the transaction, the database or the
+ * search index: repositories return the same existing entity, and the services notified of the update do nothing.
+ * <p>
+ * Stubs are plain {@link Proxy} instances rather than mocks, whose bookkeeping would outweigh the merge itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx1g" })
+public class PartialUpdateBenchmark {
+
+    private MessageService messageService;
+
+    private LocationService locationService;
+
+    private RelationService relationService;
+
+    private Message messagePatch;
+
+    private Location locationPatch;
+
+    private Relation relationPatch;
+
+    @Setup(Level.Trial)
+    public void configure() {
+        Message message = new Message()
+            .id(1L)
+            .senderId("1")
+            .receiverId("2")
+            .messageTitle("Hello")
+            .messageContent("Hi!")
+            .messageDate(ZonedDateTime.of(2026, 1, 1, 20, 0, 0, 0, ZoneOffset.UTC));
+        messageService =
+            new MessageServiceImpl(
+                repository(MessageRepository.class, message),
+                stub(MessageSearchRepository.class),
+                stub(SearchIndexService.class),
+                stub(MessageDeliveryService.class),
+                stub(InboxService.class),
+                stub(DomainEventService.class)
+            );
+        messagePatch = new Message().id(1L).messageContent("Hi! Are you free on Friday?");
+
+        Location location = new Location().id(1L).city("Paris").postalCode("75004").latitude(48.8559).longitude(2.3585);
+        locationService =
+            new LocationServiceImpl(
+                repository(LocationRepository.class, location),
+                stub(LocationSearchRepository.class),
+                stub(SearchIndexService.class),
+                stub(NearbyUserService.class),
+                stub(ProfileCardService.class)
+            );
+        locationPatch = new Location().id(1L).latitude(48.8606).longitude(2.3376);
+
+        Relation relation = new Relation().id(1L).userIdOfOther("2").relationType(RelationType.LIKE);
+        relationService =
+            new RelationServiceImpl(
+                repository(RelationRepository.class, relation),
+                stub(RelationSearchRepository.class),
+                stub(SearchIndexService.class),
+                stub(SeenProfileService.class),
+                stub(DesirabilityService.class)
+            );
+        relationPatch = new Relation().id(1L).relationType(RelationType.SUPERLIKE);
+    }
+
+    @Benchmark
+    public Optional<Message> message() {
+        return messageService.partialUpdate(messagePatch);
+    }
+
+    @Benchmark
+    public Optional<Location> location() {
+        return locationService.partialUpdate(locationPatch);
+    }
+
+    @Benchmark
+    public Optional<Relation> relation() {
+        return relationService.partialUpdate(relationPatch);
+    }
+
+    /**
+     * @return a repository finding {@code existing} by any id, and saving entities by returning them.
+     */
+    private static <T> T repository(Class<T> type, Object existing) {
+        Optional<Object> found = Optional.of(existing);
+        return type.cast(
+            Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "findById":
+                            return found;
+                        case "save":
+                            return args[0];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            )
+        );
+    }
+
+    /**
+     * @return an implementation doing nothing, for interfaces of which only methods returning {@code void} are called.
+     */
+    private static <T> T stub(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> null));
+    }
+}
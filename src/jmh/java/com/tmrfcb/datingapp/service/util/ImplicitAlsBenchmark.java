@@ -0,0 +1,111 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Training time of {@link ImplicitAls}, and throughput of folding in a user then scoring a page of candidates, on
+ * synthetic swipes: one swipe in three is a dislike, and the popularity of the swiped users follows a half-normal law,
+ * as a few profiles get most of the swipes.
+ * <p>
+ * The defaults fit a laptop; the production sizing is checked with e.g.
+ * {@code -Djmh.args="ImplicitAlsBenchmark.train -p swipes=100000000 -p users=10000000 -jvmArgs -Xmx24g"} on the
+ * target box.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class ImplicitAlsBenchmark {
+
+    @Param({ "10000000" })
+    private int swipes;
+
+    @Param({ "1000000" })
+    private int users;
+
+    @Param({ "32" })
+    private int rank;
+
+    @Param({ "10" })
+    private int iterations;
+
+    @Param({ "200" })
+    private int candidates;
+
+    private SparseMatrix userItems;
+
+    private ForkJoinPool pool;
+
+    private ImplicitAls.Factors factors;
+
+    private int[] candidateItems;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        Random random = new Random(42);
+        LongIndex swipers = new LongIndex(users);
+        LongIndex swiped = new LongIndex(users);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder(swipes);
+        for (int swipe = 0; swipe < swipes; swipe++) {
+            long swiper = random.nextInt(users);
+            long profile = (long) Math.min(users - 1, Math.abs(random.nextGaussian()) * users / 4);
+            builder.add(swipers.add(swiper), swiped.add(profile), random.nextInt(3) == 0 ? -1f : 1f);
+        }
+        userItems = builder.build(swipers.size(), swiped.size());
+        factors = new ImplicitAls(rank, 1, 0.1, 10, 42L).train(userItems, pool).itemsOnly();
+        candidateItems = new int[candidates];
+        for (int i = 0; i < candidates; i++) {
+            candidateItems[i] = random.nextInt(factors.items());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public ImplicitAls.Factors train() {
+        return new ImplicitAls(rank, iterations, 0.1, 10, 42L).train(userItems, pool);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Warmup(iterations = 3, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    public float foldInAndScore() {
+        Random random = ThreadLocalRandom.current();
+        int[] items = new int[20];
+        float[] values = new float[20];
+        for (int i = 0; i < items.length; i++) {
+            items[i] = random.nextInt(factors.items());
+            values[i] = random.nextInt(3) == 0 ? -1f : 1f;
+        }
+        float[] userVector = factors.foldIn(items, values, items.length);
+        float best = Float.NEGATIVE_INFINITY;
+        for (int item : candidateItems) {
+            best = Math.max(best, factors.score(userVector, item));
+        }
+        return best;
+    }
+}
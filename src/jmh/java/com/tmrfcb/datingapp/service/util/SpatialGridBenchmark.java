@@ -0,0 +1,96 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of {@link SpatialGrid} k-nearest queries and position updates against a synthetic population spread over
+ * western Europe, with a denser cluster around Paris.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx2g" })
+public class SpatialGridBenchmark {
+
+    private static final double MIN_LATITUDE = 36;
+
+    private static final double MAX_LATITUDE = 56;
+
+    private static final double MIN_LONGITUDE = -10;
+
+    private static final double MAX_LONGITUDE = 20;
+
+    @Param({ "1000000" })
+    private int users;
+
+    @Param({ "20" })
+    private int k;
+
+    @Param({ "50" })
+    private double radiusKm;
+
+    private SpatialGrid grid;
+
+    @Setup(Level.Trial)
+    public void populate() {
+        grid = new SpatialGrid(0.02, 64);
+        Random random = new Random(42);
+        for (long userId = 0; userId < users; userId++) {
+            if (userId % 5 == 0) {
+                grid.put(userId, 48.86 + random.nextGaussian() * 0.1, 2.35 + random.nextGaussian() * 0.15);
+            } else {
+                grid.put(userId, randomLatitude(random), randomLongitude(random));
+            }
+        }
+    }
+
+    @Benchmark
+    public SpatialGrid.Neighbours nearest() {
+        Random random = ThreadLocalRandom.current();
+        return grid.nearest(randomLatitude(random), randomLongitude(random), k, radiusKm);
+    }
+
+    @Benchmark
+    public SpatialGrid.Neighbours nearestInDenseArea() {
+        Random random = ThreadLocalRandom.current();
+        return grid.nearest(48.86 + random.nextGaussian() * 0.1, 2.35 + random.nextGaussian() * 0.15, k, radiusKm);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public SpatialGrid.Neighbours nearestConcurrently() {
+        Random random = ThreadLocalRandom.current();
+        return grid.nearest(randomLatitude(random), randomLongitude(random), k, radiusKm);
+    }
+
+    @Benchmark
+    public void move() {
+        Random random = ThreadLocalRandom.current();
+        grid.put(random.nextInt(users), randomLatitude(random), randomLongitude(random));
+    }
+
+    private static double randomLatitude(Random random) {
+        return MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+    }
+
+    private static double randomLongitude(Random random) {
+        return MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+    }
+}
@@ -0,0 +1,140 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+/**
+ * Local stand-in for Elasticsearch, answering the REST calls of Jest with minimal successful responses: documents are
+ * acknowledged but not stored, and searches find nothing.
+ * <p>
+ * Requests cost the application the serialization and the HTTP round trip, but no indexing nor searching, so that the
+ * load test measures the application rather than the search cluster. Requests are counted by kind for the report.
+ */
+final class ElasticsearchStandIn implements AutoCloseable {
+
+    private static final String ACKNOWLEDGED = "{\"acknowledged\":true}";
+
+    private static final String EMPTY_SEARCH =
+        "{\"took\":0,\"timed_out\":false,\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}," +
+        "\"hits\":{\"total\":0,\"max_score\":null,\"hits\":[]}}";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16, new CustomizableThreadFactory("elasticsearch-stand-in-"));
+
+    private final ConcurrentMap<String, LongAdder> requests = new ConcurrentHashMap<>();
+
+    ElasticsearchStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 128);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * @return the number of requests received, by kind: {@code search}, {@code bulk}, {@code index}, {@code delete}
+     * or {@code admin}.
+     */
+    Map<String, Long> getRequests() {
+        Map<String, Long> counts = new TreeMap<>();
+        requests.forEach((kind, count) -> counts.put(kind, count.sum()));
+        return counts;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            while (body.read(buffer) >= 0) {
+                // Drain the request, so that the connection can be kept alive
+            }
+        }
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String kind;
+        String response;
+        if (path.contains("/_search") || path.contains("/_count")) {
+            kind = "search";
+            response = path.contains("/_count") ? "{\"count\":0}" : EMPTY_SEARCH;
+        } else if (path.endsWith("/_bulk")) {
+            kind = "bulk";
+            response = "{\"took\":0,\"errors\":false,\"items\":[]}";
+        } else if ("DELETE".equals(method) && segments(path) >= 2) {
+            kind = "delete";
+            response = documentWriteResponse(path, "deleted") + ",\"found\":true}";
+        } else if (("PUT".equals(method) || "POST".equals(method)) && segments(path) >= 3 && !path.contains("/_")) {
+            kind = "index";
+            response = documentWriteResponse(path, "created") + ",\"created\":true}";
+        } else if ("GET".equals(method) && "/".equals(path)) {
+            kind = "admin";
+            response = "{\"name\":\"stand-in\",\"version\":{\"number\":\"6.8.8\"},\"tagline\":\"You Know, for Search\"}";
+        } else {
+            kind = "admin";
+            response = ACKNOWLEDGED;
+        }
+        requests.computeIfAbsent(kind, key -> new LongAdder()).increment();
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        if ("HEAD".equals(method)) {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * The fields the high level REST client requires of an index or delete response, without the closing brace.
+     */
+    private static String documentWriteResponse(String path, String result) {
+        String[] segments = path.substring(1).split("/");
+        return (
+            "{\"_index\":\"" +
+            segments[0] +
+            "\",\"_type\":\"" +
+            (segments.length >= 3 ? segments[1] : "_doc") +
+            "\",\"_id\":\"" +
+            segments[segments.length - 1] +
+            "\",\"_version\":1,\"result\":\"" +
+            result +
+            "\",\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},\"_seq_no\":0,\"_primary_term\":1"
+        );
+    }
+
+    private static int segments(String path) {
+        int segments = 0;
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments++;
+            }
+        }
+        return segments;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
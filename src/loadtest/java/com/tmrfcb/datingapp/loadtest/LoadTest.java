@@ -0,0 +1,137 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import com.tmrfcb.datingapp.DatingApp;
+import com.tmrfcb.datingapp.config.KafkaTestContainer;
+import com.tmrfcb.datingapp.security.AuthoritiesConstants;
+import com.tmrfcb.datingapp.security.jwt.TokenProvider;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.RecommendationService;
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.client.RestTemplate;
+import org.testcontainers.containers.KafkaContainer;
+
+/**
+ * Load test of the application, run with the {@code loadtest} Maven profile, see the README.
+ * <p>
+ * Starts Kafka in a Testcontainer and a local {@link ElasticsearchStandIn}, then the application on a random port
+ * against the H2 database of the tests or a MySQL Testcontainer. Seeds the database with {@link SeedDataGenerator},
+ * runs the {@link Workload} through a warmup then the measured duration, and writes a {@link LoadTestReport}. Options
+ * are the {@code loadtest.*} system properties of {@link LoadTestOptions}.
+ */
+public final class LoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private LoadTest() {}
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = new LoadTestOptions();
+        log.info("Starting the load test with {}", options);
+        // Keep a connection alive per virtual user, instead of the 5 of the JDK
+        System.setProperty("http.maxConnections", Integer.toString(options.threads));
+        try (
+            ElasticsearchStandIn elasticsearch = options.elasticsearchUrl.isEmpty() ? new ElasticsearchStandIn() : null;
+            KafkaContainer kafka = options.kafka ? KafkaTestContainer.newKafkaContainer() : null
+        ) {
+            if (kafka != null) {
+                kafka.start();
+            }
+            String elasticsearchUrl = elasticsearch != null ? elasticsearch.getUrl() : options.elasticsearchUrl;
+            Map<String, Object> properties = new HashMap<>();
+            properties.put("spring.data.jest.uri", elasticsearchUrl);
+            properties.put("spring.elasticsearch.jest.uris", elasticsearchUrl);
+            properties.put("spring.elasticsearch.rest.uris", elasticsearchUrl);
+            properties.put("application.domain-events.enabled", kafka != null);
+            if (kafka != null) {
+                properties.put("kafka.bootstrap-servers", kafka.getBootstrapServers());
+            }
+            QueryCounter queryCounter = new QueryCounter();
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(DatingApp.class)
+                .profiles("mysql".equals(options.database) ? new String[] { "testcontainers", "loadtest" } : new String[] { "loadtest" })
+                .properties(properties)
+                .initializers(queryCounter)
+                .run(args);
+            try {
+                run(options, context, queryCounter, elasticsearch);
+            } finally {
+                context.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void run(
+        LoadTestOptions options,
+        ConfigurableApplicationContext context,
+        QueryCounter queryCounter,
+        ElasticsearchStandIn elasticsearch
+    ) throws Exception {
+        Workload.SeedData seedData = new SeedDataGenerator(context.getBean(DataSource.class), options).generate();
+        context.getBean(NearbyUserService.class).rebuild();
+        if (context.getEnvironment().getProperty("application.recommender.enabled", Boolean.class, true)) {
+            log.info("Training the recommendation model on the seeded swipes");
+            context.getBean(RecommendationService.class).train();
+        }
+
+        List<GrantedAuthority> authorities = Arrays.asList(
+            new SimpleGrantedAuthority(AuthoritiesConstants.USER),
+            new SimpleGrantedAuthority(AuthoritiesConstants.ADMIN)
+        );
+        String token = context.getBean(TokenProvider.class).createToken(new UsernamePasswordAuthenticationToken("loadtest", "", authorities), true);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        Workload workload = new Workload(new RestTemplate(new SimpleClientHttpRequestFactory()), "http://localhost:" + port, token, options, seedData);
+
+        log.info("Warming up for {} s with {} virtual users", options.warmupSeconds, options.threads);
+        ExecutorService virtualUsers = workload.start();
+        TimeUnit.SECONDS.sleep(options.warmupSeconds);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            workload.getStatistics().get(operation).latencies();
+            workload.getStatistics().get(operation).errorsThenReset();
+            queryCounter.recorder(operation.name()).getIntervalHistogram();
+        }
+        Map<String, Long> elasticsearchRequestsBefore = elasticsearch != null ? elasticsearch.getRequests() : null;
+
+        log.info("Measuring for {} s", options.durationSeconds);
+        long start = System.nanoTime();
+        TimeUnit.SECONDS.sleep(options.durationSeconds);
+        LoadTestReport report = new LoadTestReport(options, (System.nanoTime() - start) / 1e9);
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Workload.OperationStatistics statistics = workload.getStatistics().get(operation);
+            Histogram latencies = statistics.latencies();
+            long errors = statistics.errorsThenReset();
+            Histogram queries = queryCounter.recorder(operation.name()).getIntervalHistogram();
+            if (latencies.getTotalCount() > 0) {
+                report.addOperation(operation, latencies, errors, queries, statistics.lastError());
+            }
+        }
+        if (elasticsearch != null) {
+            Map<String, Long> elasticsearchRequests = elasticsearch.getRequests();
+            elasticsearchRequests.replaceAll((kind, count) -> count - elasticsearchRequestsBefore.getOrDefault(kind, 0L));
+            report.put("elasticsearchRequests", elasticsearchRequests);
+        }
+        workload.stop();
+        virtualUsers.awaitTermination(1, TimeUnit.MINUTES);
+
+        log.info("Load test results:\n{}", report.toTable());
+        File reportFile = new File(options.reportFile);
+        report.write(reportFile);
+        log.info("Wrote the load test report to {}", reportFile.getAbsolutePath());
+    }
+}
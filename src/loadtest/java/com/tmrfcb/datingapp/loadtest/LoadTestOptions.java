@@ -0,0 +1,123 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Options of a load test run, read from the {@code loadtest.*} system properties.
+ */
+final class LoadTestOptions {
+
+    private static final String DEFAULT_MIX = "profile=25,card=15,swipe=30,match=5,message=10,history=10,search=5";
+
+    /**
+     * Seeded users, each with a location.
+     */
+    final int users = Integer.getInteger("loadtest.users", 1_000_000);
+
+    /**
+     * Seeded swipes per user, on users picked with a popularity bias.
+     */
+    final int swipesPerUser = Integer.getInteger("loadtest.swipes-per-user", 20);
+
+    /**
+     * Share of the seeded likes answered by a like, which makes a match.
+     */
+    final double matchRate = Double.parseDouble(System.getProperty("loadtest.match-rate", "0.05"));
+
+    /**
+     * Seeded messages per match.
+     */
+    final int messagesPerMatch = Integer.getInteger("loadtest.messages-per-match", 10);
+
+    /**
+     * Seed of the data generator and of the workload, so that two runs send the same requests.
+     */
+    final long seed = Long.getLong("loadtest.seed", 42L);
+
+    /**
+     * Virtual users, each sending its next request as soon as it has the response to the previous one.
+     */
+    final int threads = Integer.getInteger("loadtest.threads", 32);
+
+    final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 30);
+
+    final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 300);
+
+    /**
+     * {@code h2} for the in-memory database of the tests, or {@code mysql} for a MySQL Testcontainer.
+     */
+    final String database = System.getProperty("loadtest.database", "h2");
+
+    /**
+     * Start a Kafka Testcontainer for the domain events, which are disabled otherwise.
+     */
+    final boolean kafka = Boolean.parseBoolean(System.getProperty("loadtest.kafka", "true"));
+
+    /**
+     * Elasticsearch to index into and search, or empty for an {@link ElasticsearchStandIn}.
+     */
+    final String elasticsearchUrl = System.getProperty("loadtest.elasticsearch-url", "");
+
+    /**
+     * Relative weights of the operations of the workload, see {@link Workload.Operation}.
+     */
+    final Map<Workload.Operation, Integer> mix = parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX));
+
+    final String reportFile = System.getProperty(
+        "loadtest.report-file",
+        "target/loadtest-" + DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC).format(Instant.now()) + ".json"
+    );
+
+    private static Map<Workload.Operation, Integer> parseMix(String mix) {
+        Map<Workload.Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid entry in loadtest.mix: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in loadtest.mix: " + entry);
+            }
+            weights.put(Workload.Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("loadtest.mix has no operation");
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return (
+            "users=" +
+            users +
+            ", swipesPerUser=" +
+            swipesPerUser +
+            ", matchRate=" +
+            matchRate +
+            ", messagesPerMatch=" +
+            messagesPerMatch +
+            ", seed=" +
+            seed +
+            ", threads=" +
+            threads +
+            ", warmupSeconds=" +
+            warmupSeconds +
+            ", durationSeconds=" +
+            durationSeconds +
+            ", database=" +
+            database +
+            ", kafka=" +
+            kafka +
+            ", elasticsearchUrl=" +
+            (elasticsearchUrl.isEmpty() ? "stand-in" : elasticsearchUrl) +
+            ", mix=" +
+            mix
+        );
+    }
+}
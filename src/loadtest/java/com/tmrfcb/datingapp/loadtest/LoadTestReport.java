@@ -0,0 +1,113 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Report of the measured part of a load test, by operation: throughput, latency percentiles and JDBC statements per
+ * request. It is printed as a table and written as JSON, to compare runs.
+ */
+final class LoadTestReport {
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    private final List<Map<String, Object>> operations = new ArrayList<>();
+
+    private final double seconds;
+
+    LoadTestReport(LoadTestOptions options, double seconds) {
+        this.seconds = seconds;
+        report.put("options", options.toString());
+        report.put("seconds", seconds);
+        report.put("operations", operations);
+    }
+
+    /**
+     * @param latencies the latencies of the requests, in microseconds.
+     * @param queries the statements executed per request, as counted by the application.
+     */
+    void addOperation(Workload.Operation operation, Histogram latencies, long errors, Histogram queries, String lastError) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("operation", operation.name().toLowerCase());
+        entry.put("requests", latencies.getTotalCount());
+        entry.put("errors", errors);
+        entry.put("throughput", latencies.getTotalCount() / seconds);
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", latencies.getMean() / 1000);
+        latency.put("p50", latencies.getValueAtPercentile(50) / 1000d);
+        latency.put("p90", latencies.getValueAtPercentile(90) / 1000d);
+        latency.put("p95", latencies.getValueAtPercentile(95) / 1000d);
+        latency.put("p99", latencies.getValueAtPercentile(99) / 1000d);
+        latency.put("p999", latencies.getValueAtPercentile(99.9) / 1000d);
+        latency.put("max", latencies.getMaxValue() / 1000d);
+        entry.put("latencyMillis", latency);
+        Map<String, Object> queriesPerRequest = new LinkedHashMap<>();
+        queriesPerRequest.put("mean", queries.getMean());
+        queriesPerRequest.put("p95", queries.getValueAtPercentile(95));
+        queriesPerRequest.put("max", queries.getMaxValue());
+        entry.put("queriesPerRequest", queriesPerRequest);
+        if (lastError != null && errors > 0) {
+            entry.put("lastError", lastError);
+        }
+        operations.add(entry);
+    }
+
+    void put(String key, Object value) {
+        report.put(key, value);
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+    }
+
+    @SuppressWarnings("unchecked")
+    String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(
+            String.format(
+                "%-10s %10s %8s %10s %9s %9s %9s %9s %9s %9s%n",
+                "operation",
+                "requests",
+                "errors",
+                "req/s",
+                "p50 ms",
+                "p95 ms",
+                "p99 ms",
+                "max ms",
+                "queries",
+                "max q."
+            )
+        );
+        for (Map<String, Object> entry : operations) {
+            Map<String, Object> latency = (Map<String, Object>) entry.get("latencyMillis");
+            Map<String, Object> queries = (Map<String, Object>) entry.get("queriesPerRequest");
+            table.append(
+                String.format(
+                    "%-10s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d%n",
+                    entry.get("operation"),
+                    entry.get("requests"),
+                    entry.get("errors"),
+                    entry.get("throughput"),
+                    latency.get("p50"),
+                    latency.get("p95"),
+                    latency.get("p99"),
+                    latency.get("max"),
+                    queries.get("mean"),
+                    queries.get("max")
+                )
+            );
+        }
+        return table.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.sql.DataSource;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Counts the JDBC statements executed while serving each request of the load test, by operation.
+ * <p>
+ * Requests name their operation with the {@value #OPERATION_HEADER} header. The data sources of the application are
+ * wrapped to count the executions of statements on the thread serving the request: work handed over to other
+ * threads, such as the outbox relays, is not counted. A JDBC batch counts as one execution.
+ */
+final class QueryCounter implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    static final String OPERATION_HEADER = "X-Load-Test-Operation";
+
+    private final ThreadLocal<long[]> executions = new ThreadLocal<>();
+
+    private final ConcurrentMap<String, Recorder> recorders = new ConcurrentHashMap<>();
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        context
+            .getBeanFactory()
+            .addBeanPostProcessor(
+                new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource && !(bean instanceof CountingDataSource)
+                            ? new CountingDataSource((DataSource) bean)
+                            : bean;
+                    }
+                }
+            );
+        FilterRegistrationBean<CountingFilter> filter = new FilterRegistrationBean<>(new CountingFilter());
+        filter.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        context.getBeanFactory().registerSingleton("loadTestQueryCountingFilter", filter);
+    }
+
+    /**
+     * @return the statements executed per request of an operation.
+     */
+    Recorder recorder(String operation) {
+        return recorders.computeIfAbsent(operation, key -> new Recorder(3));
+    }
+
+    private <T> T counting(T target, Class<T> type) {
+        return type.cast(
+            Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[] { type },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    if (method.getName().startsWith("execute")) {
+                        long[] count = executions.get();
+                        if (count != null) {
+                            count[0]++;
+                        }
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return isStatementFactory(method) && result != null ? countingStatement(result, method) : result;
+                }
+            )
+        );
+    }
+
+    private static boolean isStatementFactory(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType.isInterface() && Statement.class.isAssignableFrom(returnType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object countingStatement(Object statement, Method factory) {
+        return counting(statement, (Class<Object>) factory.getReturnType());
+    }
+
+    private final class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource targetDataSource) {
+            super(targetDataSource);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return counting(super.getConnection(), Connection.class);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return counting(super.getConnection(username, password), Connection.class);
+        }
+    }
+
+    private final class CountingFilter extends OncePerRequestFilter {
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+            String operation = request.getHeader(OPERATION_HEADER);
+            if (operation == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            long[] count = new long[1];
+            executions.set(count);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                executions.remove();
+                recorder(operation).recordValue(count[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.service.util.GeoUtils;
+import com.tmrfcb.datingapp.service.util.LongIndex;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Seeded generator of the dating data of a load test, inserted by JDBC batches into an empty database.
+ * <p>
+ * Users live around a few cities. The swiped users follow a half-normal law of popularity, as a few profiles get most
+ * of the swipes: six swipes in ten are likes, one in ten a super like. A share of the likes is answered, which makes
+ * a match with a conversation. Two users are related by a single swipe and its answer, whoever swiped first. Samples
+ * of the matches and of the unanswered likes are kept for the workload, which writes to the conversations and answers
+ * the likes.
+ */
+final class SeedDataGenerator {
+
+    static final int SAMPLE_SIZE = 100_000;
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int USERS_PER_TRANSACTION = 10_000;
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private static final String[] FIRST_NAMES = { "Camille", "Louise", "Emma", "Jade", "Hugo", "Lucas", "Arthur", "Leo", "Alex", "Sacha" };
+
+    private static final String[] LAST_NAMES = { "Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand" };
+
+    private static final Object[][] CITIES = {
+        { "Paris", "Ile-de-France", "75001", 48.8566, 2.3522 },
+        { "Lyon", "Auvergne-Rhone-Alpes", "69001", 45.7640, 4.8357 },
+        { "Marseille", "Provence-Alpes-Cote d'Azur", "13001", 43.2965, 5.3698 },
+        { "Lille", "Hauts-de-France", "59000", 50.6292, 3.0573 },
+        { "Bordeaux", "Nouvelle-Aquitaine", "33000", 44.8378, -0.5792 },
+    };
+
+    private final Logger log = LoggerFactory.getLogger(SeedDataGenerator.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final LoadTestOptions options;
+
+    private final Random random;
+
+    private final LongIndex swipedPairs = new LongIndex();
+
+    private final List<Workload.Match> matches = new ArrayList<>();
+
+    private final List<long[]> pendingLikes = new ArrayList<>();
+
+    private long matchCount;
+
+    private long relationCount;
+
+    private long messageCount;
+
+    private long likeCount;
+
+    SeedDataGenerator(DataSource dataSource, LoadTestOptions options) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.options = options;
+        this.random = new Random(options.seed);
+    }
+
+    /**
+     * Insert the users, with their locations, then their swipes, matches and messages.
+     *
+     * @return the samples of the generated data that the workload needs.
+     */
+    Workload.SeedData generate() {
+        long start = System.currentTimeMillis();
+        Integer existing = jdbcTemplate.queryForObject("select count(*) from user_app", Integer.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("The load test seeds an empty database, but it has " + existing + " users");
+        }
+        for (long from = 1; from <= options.users; from += USERS_PER_TRANSACTION) {
+            long first = from;
+            long to = Math.min(options.users + 1L, from + USERS_PER_TRANSACTION);
+            transactionTemplate.execute(status -> insertUsers(first, to));
+        }
+        log.info("Inserted {} users in {} ms", options.users, System.currentTimeMillis() - start);
+        for (long from = 1; from <= options.users; from += USERS_PER_TRANSACTION) {
+            long first = from;
+            long to = Math.min(options.users + 1L, from + USERS_PER_TRANSACTION);
+            transactionTemplate.execute(status -> insertSwipes(first, to));
+            log.info("Inserted the swipes of {} users out of {}", to - 1, options.users);
+        }
+        restartIdentities();
+        log.info(
+            "Seeded {} users, {} relations, {} matches and {} messages in {} ms",
+            options.users,
+            relationCount,
+            matchCount,
+            messageCount,
+            System.currentTimeMillis() - start
+        );
+        return new Workload.SeedData(options.users, matches, pendingLikes);
+    }
+
+    private Void insertUsers(long from, long to) {
+        List<Object[]> locations = new ArrayList<>(BATCH_SIZE);
+        List<Object[]> users = new ArrayList<>(BATCH_SIZE);
+        for (long id = from; id < to; id++) {
+            Object[] city = CITIES[random.nextInt(CITIES.length)];
+            double latitude = (double) city[3] + random.nextGaussian() * 0.05;
+            double longitude = (double) city[4] + random.nextGaussian() * 0.08;
+            locations.add(
+                new Object[] {
+                    id,
+                    random.nextInt(200) + " rue de la Republique",
+                    city[2],
+                    city[0],
+                    city[1],
+                    latitude,
+                    longitude,
+                    GeoUtils.encode(latitude, longitude, GeoUtils.MAX_PRECISION),
+                }
+            );
+            users.add(
+                new Object[] {
+                    id,
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    "user" + id + "@example.com",
+                    String.format("+336%08d", id),
+                    Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(random.nextInt(35 * 365))),
+                    id,
+                }
+            );
+            if (users.size() == BATCH_SIZE) {
+                flushUsers(locations, users);
+            }
+        }
+        flushUsers(locations, users);
+        return null;
+    }
+
+    private void flushUsers(List<Object[]> locations, List<Object[]> users) {
+        jdbcTemplate.batchUpdate(
+            "insert into location (id, street_address, postal_code, city, state_province, latitude, longitude, geohash) " +
+            "values (?, ?, ?, ?, ?, ?, ?, ?)",
+            locations
+        );
+        jdbcTemplate.batchUpdate(
+            "insert into user_app (id, first_name, last_name, email, phone_number, birth_date, location_id) values (?, ?, ?, ?, ?, ?, ?)",
+            users
+        );
+        locations.clear();
+        users.clear();
+    }
+
+    private Void insertSwipes(long from, long to) {
+        List<Object[]> matchRows = new ArrayList<>();
+        List<Object[]> relations = new ArrayList<>();
+        List<Object[]> messages = new ArrayList<>();
+        long[] swiped = new long[options.swipesPerUser];
+        for (long userId = from; userId < to; userId++) {
+            int count = 0;
+            for (int attempt = 0; count < swiped.length && attempt < swiped.length * 4; attempt++) {
+                long otherUserId = popularUser();
+                if (otherUserId != userId && swipedPairs.indexOf(pair(userId, otherUserId)) < 0) {
+                    swipedPairs.add(pair(userId, otherUserId));
+                    swiped[count++] = otherUserId;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                long otherUserId = swiped[i];
+                double draw = random.nextDouble();
+                RelationType relationType = draw < 0.1 ? RelationType.SUPERLIKE : draw < 0.6 ? RelationType.LIKE : RelationType.DISLIKE;
+                Long matchRelationId = null;
+                if (relationType != RelationType.DISLIKE) {
+                    likeCount++;
+                    if (random.nextDouble() < options.matchRate) {
+                        matchRelationId = match(userId, otherUserId, matchRows, relations, messages);
+                    } else {
+                        sample(pendingLikes, new long[] { userId, otherUserId }, likeCount);
+                    }
+                }
+                relations.add(new Object[] { ++relationCount, Long.toString(otherUserId), relationType.name(), matchRelationId, userId });
+            }
+            if (relations.size() >= BATCH_SIZE) {
+                flushSwipes(matchRows, relations, messages);
+            }
+        }
+        flushSwipes(matchRows, relations, messages);
+        return null;
+    }
+
+    /**
+     * Answer a like with a like, which makes a match, and write their conversation.
+     *
+     * @return the id of the match.
+     */
+    private long match(long userId, long otherUserId, List<Object[]> matchRows, List<Object[]> relations, List<Object[]> messages) {
+        long low = Math.min(userId, otherUserId);
+        long high = Math.max(userId, otherUserId);
+        long matchRelationId = ++matchCount;
+        Instant matchDate = START.plusSeconds(random.nextInt(180 * 24 * 3600));
+        matchRows.add(new Object[] { matchRelationId, Timestamp.from(matchDate), low, high });
+        relations.add(
+            new Object[] { ++relationCount, Long.toString(userId), RelationType.LIKE.name(), matchRelationId, otherUserId }
+        );
+        for (int i = 0; i < options.messagesPerMatch; i++) {
+            boolean fromUser = i % 2 == 0;
+            messages.add(
+                new Object[] {
+                    ++messageCount,
+                    Long.toString(fromUser ? userId : otherUserId),
+                    Long.toString(fromUser ? otherUserId : userId),
+                    "Message " + i,
+                    "Hi! Are you free for a drink on Friday evening?",
+                    Timestamp.from(matchDate.plusSeconds(60L * (i + 1))),
+                    matchRelationId,
+                }
+            );
+        }
+        sample(matches, new Workload.Match(matchRelationId, low, high), matchCount);
+        return matchRelationId;
+    }
+
+    private void flushSwipes(List<Object[]> matchRows, List<Object[]> relations, List<Object[]> messages) {
+        jdbcTemplate.batchUpdate("insert into match_relation (id, match_date, user_low_id, user_high_id) values (?, ?, ?, ?)", matchRows);
+        jdbcTemplate.batchUpdate(
+            "insert into relation (id, user_id_of_other, relation_type, match_relation_id, user_app_id) values (?, ?, ?, ?, ?)",
+            relations
+        );
+        jdbcTemplate.batchUpdate(
+            "insert into message (id, sender_id, receiver_id, message_title, message_content, message_date, match_relation_id) " +
+            "values (?, ?, ?, ?, ?, ?, ?)",
+            messages
+        );
+        matchRows.clear();
+        relations.clear();
+        messages.clear();
+    }
+
+    /**
+     * @return a user picked with a half-normal law, so that users with low ids are the most popular.
+     */
+    private long popularUser() {
+        return 1 + (long) Math.min(options.users - 1, Math.abs(random.nextGaussian()) * options.users / 4);
+    }
+
+    /**
+     * @return the key of the unordered pair of two users.
+     */
+    private long pair(long userId, long otherUserId) {
+        return Math.min(userId, otherUserId) * (options.users + 1L) + Math.max(userId, otherUserId);
+    }
+
+    /**
+     * Reservoir sampling of the {@code seen}-th element of a stream into {@code sample}.
+     */
+    private <T> void sample(List<T> sample, T element, long seen) {
+        if (sample.size() < SAMPLE_SIZE) {
+            sample.add(element);
+        } else {
+            long index = (long) (random.nextDouble() * seen);
+            if (index < SAMPLE_SIZE) {
+                sample.set((int) index, element);
+            }
+        }
+    }
+
+    /**
+     * The rows were inserted with explicit ids, which identity columns do not account for.
+     */
+    private void restartIdentities() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        restartIdentity(product, "location", options.users + 1L);
+        restartIdentity(product, "user_app", options.users + 1L);
+        restartIdentity(product, "relation", relationCount + 1);
+        restartIdentity(product, "match_relation", matchCount + 1);
+        restartIdentity(product, "message", messageCount + 1);
+    }
+
+    private void restartIdentity(String product, String table, long next) {
+        if ("H2".equalsIgnoreCase(product)) {
+            jdbcTemplate.execute("alter table " + table + " alter column id restart with " + next);
+        } else {
+            jdbcTemplate.execute("alter table " + table + " auto_increment = " + next);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.tmrfcb.datingapp.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The dating workload of the load test: virtual users send a weighted mix of operations to the REST API, each sending
+ * its next request as soon as it has the response to the previous one.
+ * <p>
+ * Latencies are measured by the client, from sending the request to reading the whole response. Statistics of the
+ * warmup are discarded.
+ */
+final class Workload {
+
+    /**
+     * The operations of the workload, as named in the {@code loadtest.mix} option.
+     */
+    enum Operation {
+        /**
+         * Read the profile of a user, popular users being read the most.
+         */
+        PROFILE,
+        /**
+         * Read the cards of a page of ten profiles.
+         */
+        CARD,
+        /**
+         * Swipe on a profile, popular profiles being swiped the most.
+         */
+        SWIPE,
+        /**
+         * Answer a like with a like, which creates a match.
+         */
+        MATCH,
+        /**
+         * Send a message to a match.
+         */
+        MESSAGE,
+        /**
+         * Read a page of the conversation with a match, following the cursor of the previous page if any.
+         */
+        HISTORY,
+        /**
+         * Search the users or the messages.
+         */
+        SEARCH,
+    }
+
+    static final class Match {
+
+        final long id;
+
+        final long userLowId;
+
+        final long userHighId;
+
+        Match(long id, long userLowId, long userHighId) {
+            this.id = id;
+            this.userLowId = userLowId;
+            this.userHighId = userHighId;
+        }
+    }
+
+    /**
+     * What the workload needs to know of the seeded data.
+     */
+    static final class SeedData {
+
+        final int users;
+
+        final List<Match> matches;
+
+        /**
+         * Unanswered likes, as the id of the user who liked then the id of the user who was liked.
+         */
+        final List<long[]> pendingLikes;
+
+        SeedData(int users, List<Match> matches, List<long[]> pendingLikes) {
+            this.users = users;
+            this.matches = matches;
+            this.pendingLikes = pendingLikes;
+        }
+    }
+
+    static final class OperationStatistics {
+
+        /**
+         * Latencies in microseconds.
+         */
+        private final Recorder latencies = new Recorder(3);
+
+        private final LongAdder errors = new LongAdder();
+
+        private volatile String lastError;
+
+        void record(long nanos, boolean error, String description) {
+            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            if (error) {
+                errors.increment();
+                lastError = description;
+            }
+        }
+
+        /**
+         * @return the latencies recorded since the previous call.
+         */
+        Histogram latencies() {
+            return latencies.getIntervalHistogram();
+        }
+
+        long errorsThenReset() {
+            return errors.sumThenReset();
+        }
+
+        String lastError() {
+            return lastError;
+        }
+    }
+
+    /**
+     * Small pages, so that the seeded conversations take a few pages to scroll through.
+     */
+    private static final int HISTORY_PAGE_SIZE = 5;
+
+    private static final String[] SEARCHED_NAMES = { "Camille", "Louise", "Hugo", "Lucas", "Sacha" };
+
+    private final Logger log = LoggerFactory.getLogger(Workload.class);
+
+    private final RestTemplate restTemplate;
+
+    private final String baseUrl;
+
+    private final String authorization;
+
+    private final LoadTestOptions options;
+
+    private final int users;
+
+    private final Map<Operation, OperationStatistics> statistics = new EnumMap<>(Operation.class);
+
+    private final Operation[] operations;
+
+    private final int[] cumulativeWeights;
+
+    private final AtomicReferenceArray<Match> matches = new AtomicReferenceArray<>(SeedDataGenerator.SAMPLE_SIZE);
+
+    private final AtomicInteger matchCount = new AtomicInteger();
+
+    private final ConcurrentLinkedQueue<long[]> pendingLikes;
+
+    private volatile boolean running;
+
+    Workload(RestTemplate restTemplate, String baseUrl, String token, LoadTestOptions options, SeedData seedData) {
+        this.restTemplate = restTemplate;
+        this.restTemplate.setErrorHandler(
+            new ResponseErrorHandler() {
+                @Override
+                public boolean hasError(ClientHttpResponse response) {
+                    return false;
+                }
+
+                @Override
+                public void handleError(ClientHttpResponse response) {
+                    // Error statuses are counted by exchange()
+                }
+            }
+        );
+        this.baseUrl = baseUrl;
+        this.authorization = "Bearer " + token;
+        this.options = options;
+        this.users = seedData.users;
+        for (Operation operation : Operation.values()) {
+            statistics.put(operation, new OperationStatistics());
+        }
+        List<Operation> weighted = new ArrayList<>();
+        List<Integer> cumulative = new ArrayList<>();
+        int total = 0;
+        for (Map.Entry<Operation, Integer> weight : options.mix.entrySet()) {
+            if (weight.getValue() > 0) {
+                total += weight.getValue();
+                weighted.add(weight.getKey());
+                cumulative.add(total);
+            }
+        }
+        this.operations = weighted.toArray(new Operation[0]);
+        this.cumulativeWeights = cumulative.stream().mapToInt(Integer::intValue).toArray();
+        for (Match match : seedData.matches) {
+            addMatch(match);
+        }
+        List<long[]> shuffled = new ArrayList<>(seedData.pendingLikes);
+        Collections.shuffle(shuffled, new Random(options.seed));
+        this.pendingLikes = new ConcurrentLinkedQueue<>(shuffled);
+    }
+
+    Map<Operation, OperationStatistics> getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Start the virtual users, and let them run until {@link #stop()}.
+     */
+    ExecutorService start() {
+        running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(options.threads, new CustomizableThreadFactory("virtual-user-"));
+        for (int i = 0; i < options.threads; i++) {
+            Random random = new Random(options.seed + i);
+            executor.execute(() -> runVirtualUser(random));
+        }
+        executor.shutdown();
+        return executor;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    private void runVirtualUser(Random random) {
+        String nextPage = null;
+        while (running) {
+            Operation operation = pick(random);
+            try {
+                switch (operation) {
+                    case PROFILE:
+                        get(operation, "/api/user-apps/" + popularUser(random), String.class);
+                        break;
+                    case CARD:
+                        StringBuilder ids = new StringBuilder();
+                        for (int i = 0; i < 10; i++) {
+                            ids.append(i == 0 ? "" : ",").append(1 + random.nextInt(users));
+                        }
+                        get(operation, "/api/profile-cards?ids=" + ids, String.class);
+                        break;
+                    case SWIPE:
+                        swipe(operation, 1 + random.nextInt(users), popularUser(random), randomRelationType(random));
+                        break;
+                    case MATCH:
+                        long[] like = pendingLikes.poll();
+                        if (like == null) {
+                            swipe(Operation.SWIPE, 1 + random.nextInt(users), popularUser(random), RelationType.LIKE);
+                        } else {
+                            swipe(operation, like[1], like[0], RelationType.LIKE);
+                        }
+                        break;
+                    case MESSAGE:
+                        sendMessage(operation, randomMatch(random), random);
+                        break;
+                    case HISTORY:
+                        nextPage = readHistory(operation, nextPage == null ? randomMatch(random) : null, nextPage);
+                        break;
+                    case SEARCH:
+                        if (random.nextBoolean()) {
+                            get(operation, "/api/_search/user-apps?query=" + SEARCHED_NAMES[random.nextInt(SEARCHED_NAMES.length)], String.class);
+                        } else {
+                            get(operation, "/api/_search/messages?query=drink", String.class);
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unknown operation " + operation);
+                }
+            } catch (RuntimeException e) {
+                log.debug("Request of {} failed", operation, e);
+            }
+        }
+    }
+
+    private void swipe(Operation operation, long userId, long otherUserId, RelationType relationType) {
+        if (userId == otherUserId) {
+            otherUserId = userId == users ? 1 : userId + 1;
+        }
+        Map<String, Object> swipe = new HashMap<>();
+        swipe.put("userId", userId);
+        swipe.put("otherUserId", otherUserId);
+        swipe.put("relationType", relationType);
+        JsonNode result = exchange(operation, HttpMethod.POST, "/api/relations/swipe", swipe, JsonNode.class);
+        JsonNode matchRelation = result != null ? result.path("matchRelation") : null;
+        if (matchRelation != null && matchRelation.hasNonNull("id")) {
+            addMatch(
+                new Match(matchRelation.get("id").asLong(), matchRelation.path("userLowId").asLong(), matchRelation.path("userHighId").asLong())
+            );
+        }
+    }
+
+    private void sendMessage(Operation operation, Match match, Random random) {
+        if (match == null) {
+            return;
+        }
+        boolean fromLow = random.nextBoolean();
+        Map<String, Object> message = new HashMap<>();
+        message.put("senderId", Long.toString(fromLow ? match.userLowId : match.userHighId));
+        message.put("receiverId", Long.toString(fromLow ? match.userHighId : match.userLowId));
+        message.put("messageTitle", "Hello");
+        message.put("messageContent", "Hi! Are you free for a drink on Friday evening?");
+        message.put("messageDate", Instant.now().toString());
+        message.put("matchRelation", Collections.singletonMap("id", match.id));
+        exchange(operation, HttpMethod.POST, "/api/messages", message, String.class);
+    }
+
+    /**
+     * @param next the url of the next page of the conversation being read, or {@code null} to read the latest page of
+     * the conversation with {@code match}.
+     * @return the url of the next page, or {@code null} at the start of the conversation.
+     */
+    private String readHistory(Operation operation, Match match, String next) {
+        if (next == null && match == null) {
+            return null;
+        }
+        String url = next != null ? next : "/api/match-relations/" + match.id + "/messages?limit=" + HISTORY_PAGE_SIZE;
+        JsonNode history = get(operation, url, JsonNode.class);
+        if (history == null || !history.hasNonNull("nextCursor")) {
+            return null;
+        }
+        return url.substring(0, url.indexOf('?')) + "?limit=" + HISTORY_PAGE_SIZE + "&before=" + history.get("nextCursor").asText();
+    }
+
+    private <T> T get(Operation operation, String url, Class<T> responseType) {
+        return exchange(operation, HttpMethod.GET, url, null, responseType);
+    }
+
+    private <T> T exchange(Operation operation, HttpMethod method, String url, Object body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        headers.set(QueryCounter.OPERATION_HEADER, operation.name());
+        if (body != null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<T> response = restTemplate.exchange(baseUrl + url, method, new HttpEntity<>(body, headers), responseType);
+            boolean error = response.getStatusCode().isError();
+            statistics.get(operation).record(System.nanoTime() - start, error, error ? method + " " + url + ": " + response.getStatusCode() : null);
+            return error ? null : response.getBody();
+        } catch (RestClientException e) {
+            statistics.get(operation).record(System.nanoTime() - start, true, method + " " + url + ": " + e.getMessage());
+            throw e;
+        }
+    }
+
+    private Operation pick(Random random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private void addMatch(Match match) {
+        int index = matchCount.getAndIncrement();
+        matches.set(index < matches.length() ? index : (int) ((index & Integer.MAX_VALUE) % matches.length()), match);
+    }
+
+    private Match randomMatch(Random random) {
+        int count = Math.min(matchCount.get(), matches.length());
+        return count == 0 ? null : matches.get(random.nextInt(count));
+    }
+
+    /**
+     * @return a user picked with the same half-normal law of popularity as the seeded swipes.
+     */
+    private long popularUser(Random random) {
+        return 1 + (long) Math.min(users - 1, Math.abs(random.nextGaussian()) * users / 4);
+    }
+
+    private static RelationType randomRelationType(Random random) {
+        double draw = random.nextDouble();
+        return draw < 0.1 ? RelationType.SUPERLIKE : draw < 0.6 ? RelationType.LIKE : RelationType.DISLIKE;
+    }
+}
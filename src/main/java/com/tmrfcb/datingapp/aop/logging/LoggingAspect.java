@@ -1,29 +1,64 @@
 package com.tmrfcb.datingapp.aop.logging;
 
+import com.tmrfcb.datingapp.config.ApplicationProperties;
 import io.github.jhipster.config.JHipsterConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
 
 /**
- * Aspect for logging execution of service and repository Spring components.
- *
- * By default, it only runs with the "dev" profile.
+ * Aspect for logging execution of service and repository Spring components, and for timing a sample of their calls.
+ * <p>
+ * Loggers and timers are looked up once per method. The aspect itself, timing, its sampling rate and the logging of
+ * arguments can be switched at runtime, see {@link com.tmrfcb.datingapp.management.MethodProfilingEndpoint}. While the
+ * aspect is disabled, the advice around the calls only reads a field; while it is enabled with timing off and the
+ * loggers not at debug level, it costs a map lookup and two field reads per call.
  */
 @Aspect
 public class LoggingAspect {
+    /**
+     * Timer of the sampled calls, tagged with the class and the name of the method.
+     */
+    public static final String METHOD_TIMER = "method.timed";
+
     private final Environment env;
 
-    public LoggingAspect(Environment env) {
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<Method, MethodProfile> profiles = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    private volatile boolean timing;
+
+    private volatile double sampleRate;
+
+    private volatile boolean logArguments;
+
+    public LoggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties.MethodProfiling properties) {
         this.env = env;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.isEnabled();
+        this.timing = properties.isTiming();
+        this.sampleRate = properties.getSampleRate();
+        this.logArguments = properties.isLogArguments();
     }
 
     /**
@@ -50,6 +85,44 @@ public class LoggingAspect {
         // Method is empty as this is just a Pointcut, the implementations are in the advices.
     }
 
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isTiming() {
+        return timing;
+    }
+
+    public void setTiming(boolean timing) {
+        this.timing = timing;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * @param sampleRate the share of the calls which are timed, between {@code 0} and {@code 1}.
+     */
+    public void setSampleRate(double sampleRate) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new IllegalArgumentException("The sample rate must be between 0 and 1");
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    public boolean isLogArguments() {
+        return logArguments;
+    }
+
+    public void setLogArguments(boolean logArguments) {
+        this.logArguments = logArguments;
+    }
+
     /**
      * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
      *
@@ -57,11 +130,20 @@ public class LoggingAspect {
      * @return {@link Logger} associated to the given {@link JoinPoint}.
      */
     private Logger logger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+        return profile(joinPoint.getSignature()).logger;
+    }
+
+    private MethodProfile profile(Signature signature) {
+        Method method = ((MethodSignature) signature).getMethod();
+        MethodProfile profile = profiles.get(method);
+        if (profile == null) {
+            profile = profiles.computeIfAbsent(method, key -> new MethodProfile(signature));
+        }
+        return profile;
     }
 
     /**
-     * Advice that logs methods throwing exceptions.
+     * Advice that logs methods throwing exceptions, whether or not the aspect is enabled.
      *
      * @param joinPoint join point for advice.
      * @param e exception.
@@ -88,7 +170,7 @@ public class LoggingAspect {
     }
 
     /**
-     * Advice that logs when a method is entered and exited.
+     * Advice that logs when a method is entered and exited, and times a sample of the calls, while the aspect is enabled.
      *
      * @param joinPoint join point for advice.
      * @return result.
@@ -96,19 +178,73 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        Logger log = logger(joinPoint);
+        if (!enabled) {
+            return joinPoint.proceed();
+        }
+        Signature signature = joinPoint.getSignature();
+        MethodProfile profile = profile(signature);
+        Logger log = profile.logger;
         if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+            if (logArguments) {
+                log.debug("Enter: {}() with argument[s] = {}", signature.getName(), Arrays.toString(joinPoint.getArgs()));
+            } else {
+                log.debug("Enter: {}()", signature.getName());
+            }
         }
+        long start = timing && ThreadLocalRandom.current().nextDouble() < sampleRate ? System.nanoTime() : 0;
         try {
             Object result = joinPoint.proceed();
             if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+                log.debug("Exit: {}() with result = {}", signature.getName(), result);
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            if (logArguments) {
+                log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), signature.getName());
+            } else {
+                log.error("Illegal argument in {}()", signature.getName());
+            }
             throw e;
+        } finally {
+            if (start != 0) {
+                profile.timer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * The logger and the timer of a method, the latter registered on its first sampled call.
+     */
+    private final class MethodProfile {
+
+        private final Logger logger;
+
+        private final String className;
+
+        private final String methodName;
+
+        private volatile Timer timer;
+
+        MethodProfile(Signature signature) {
+            this.logger = LoggerFactory.getLogger(signature.getDeclaringTypeName());
+            this.className = signature.getDeclaringType().getSimpleName();
+            this.methodName = signature.getName();
+        }
+
+        Timer timer() {
+            Timer current = timer;
+            if (current == null) {
+                current =
+                    Timer
+                        .builder(METHOD_TIMER)
+                        .description("Sampled calls of repository, service and REST methods")
+                        .tag("class", className)
+                        .tag("method", methodName)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .register(meterRegistry);
+                timer = current;
+            }
+            return current;
         }
     }
 }
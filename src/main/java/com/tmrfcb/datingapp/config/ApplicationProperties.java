@@ -1,5 +1,9 @@
 package com.tmrfcb.datingapp.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.MaxSizeConfig;
+import java.util.HashMap;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +13,1015 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link io.github.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final NearbyUsers nearbyUsers = new NearbyUsers();
+
+    private final SearchOutbox searchOutbox = new SearchOutbox();
+
+    private final Reindex reindex = new Reindex();
+
+    private final DomainEvents domainEvents = new DomainEvents();
+
+    private final NearCache nearCache = new NearCache();
+
+    private final SecondLevelCache secondLevelCache = new SecondLevelCache();
+
+    private final TokenCache tokenCache = new TokenCache();
+
+    private final CandidateFeed candidateFeed = new CandidateFeed();
+
+    private final Recommender recommender = new Recommender();
+
+    private final Desirability desirability = new Desirability();
+
+    private final MethodProfiling methodProfiling = new MethodProfiling();
+
+    private final Search search = new Search();
+
+    public NearbyUsers getNearbyUsers() {
+        return nearbyUsers;
+    }
+
+    public SearchOutbox getSearchOutbox() {
+        return searchOutbox;
+    }
+
+    public Reindex getReindex() {
+        return reindex;
+    }
+
+    public DomainEvents getDomainEvents() {
+        return domainEvents;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    public TokenCache getTokenCache() {
+        return tokenCache;
+    }
+
+    public CandidateFeed getCandidateFeed() {
+        return candidateFeed;
+    }
+
+    public Recommender getRecommender() {
+        return recommender;
+    }
+
+    public Desirability getDesirability() {
+        return desirability;
+    }
+
+    public MethodProfiling getMethodProfiling() {
+        return methodProfiling;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public static class NearbyUsers {
+
+        private double cellSizeDegrees = 0.02;
+
+        private int shardCount = 64;
+
+        private int maxResults = 200;
+
+        /**
+         * Largest search radius accepted by the nearby users and the discovery feed endpoints.
+         */
+        private double maxRadiusKm = 500;
+
+        public double getCellSizeDegrees() {
+            return cellSizeDegrees;
+        }
+
+        public void setCellSizeDegrees(double cellSizeDegrees) {
+            this.cellSizeDegrees = cellSizeDegrees;
+        }
+
+        public int getShardCount() {
+            return shardCount;
+        }
+
+        public void setShardCount(int shardCount) {
+            this.shardCount = shardCount;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public double getMaxRadiusKm() {
+            return maxRadiusKm;
+        }
+
+        public void setMaxRadiusKm(double maxRadiusKm) {
+            this.maxRadiusKm = maxRadiusKm;
+        }
+    }
+
+    public static class SearchOutbox {
+
+        /**
+         * When disabled, entities are indexed synchronously in the request instead of through the outbox.
+         */
+        private boolean enabled = true;
+
+        private long pollIntervalMs = 500;
+
+        private int batchSize = 500;
+
+        private int maxBatchesPerRun = 20;
+
+        private long initialBackoffMs = 1000;
+
+        private long maxBackoffMs = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchesPerRun() {
+            return maxBatchesPerRun;
+        }
+
+        public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+            this.maxBatchesPerRun = maxBatchesPerRun;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    public static class Reindex {
+
+        private int batchSize = 1000;
+
+        private int workers = 4;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+    }
+
+    public static class DomainEvents {
+
+        /**
+         * When disabled, no event is written to the outbox nor published.
+         */
+        private boolean enabled = true;
+
+        private String topic = "dating-app.domain-events";
+
+        private long pollIntervalMs = 500;
+
+        private int batchSize = 500;
+
+        private int maxBatchesPerRun = 20;
+
+        private long initialBackoffMs = 1000;
+
+        private long maxBackoffMs = 60000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getMaxBatchesPerRun() {
+            return maxBatchesPerRun;
+        }
+
+        public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+            this.maxBatchesPerRun = maxBatchesPerRun;
+        }
+
+        public long getInitialBackoffMs() {
+            return initialBackoffMs;
+        }
+
+        public void setInitialBackoffMs(long initialBackoffMs) {
+            this.initialBackoffMs = initialBackoffMs;
+        }
+
+        public long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    /**
+     * Local copies of the entries of the Hibernate second level cache regions of the domain, invalidated when the
+     * entries change on any member. Only the {@code READ_ONLY} and {@code NONSTRICT_READ_WRITE} regions get one, as a
+     * near cache would serve stale entries of a {@code READ_WRITE} region while it is updated.
+     */
+    public static class NearCache {
+
+        private boolean enabled = true;
+
+        private int maxSize = 10000;
+
+        private int timeToLiveSeconds = 300;
+
+        private int maxIdleSeconds = 0;
+
+        /**
+         * Settings of some regions, by name relative to the {@code com.tmrfcb.datingapp.domain} package, like
+         * {@code UserApp} or {@code [UserApp.relations]}. Unset values are taken from the settings above.
+         */
+        private Map<String, Region> regions = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+
+        public void setMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        public static class Region {
+
+            private Boolean enabled;
+
+            private Integer maxSize;
+
+            private Integer timeToLiveSeconds;
+
+            private Integer maxIdleSeconds;
+
+            public Boolean getEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(Boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(Integer maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Integer getMaxIdleSeconds() {
+                return maxIdleSeconds;
+            }
+
+            public void setMaxIdleSeconds(Integer maxIdleSeconds) {
+                this.maxIdleSeconds = maxIdleSeconds;
+            }
+        }
+    }
+
+    /**
+     * Sizing and eviction of the Hibernate second level cache regions of the domain, so that large regions cannot
+     * crowd out the small and hot ones.
+     */
+    public static class SecondLevelCache {
+
+        /**
+         * Maximum number of entries per member, or of megabytes with the {@code USED_HEAP_SIZE} policy.
+         */
+        private int maxSize = 10000;
+
+        private MaxSizeConfig.MaxSizePolicy maxSizePolicy = MaxSizeConfig.MaxSizePolicy.PER_NODE;
+
+        private EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+
+        /**
+         * Defaults to {@code jhipster.cache.hazelcast.time-to-live-seconds}.
+         */
+        private Integer timeToLiveSeconds;
+
+        private int maxIdleSeconds = 0;
+
+        /**
+         * Defaults to {@code jhipster.cache.hazelcast.backup-count}.
+         */
+        private Integer backupCount;
+
+        /**
+         * Settings of some regions, by name relative to the {@code com.tmrfcb.datingapp.domain} package, like
+         * {@code UserApp} or {@code [UserApp.relations]}. Unset values are taken from the settings above.
+         */
+        private Map<String, Region> regions = new HashMap<>();
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public MaxSizeConfig.MaxSizePolicy getMaxSizePolicy() {
+            return maxSizePolicy;
+        }
+
+        public void setMaxSizePolicy(MaxSizeConfig.MaxSizePolicy maxSizePolicy) {
+            this.maxSizePolicy = maxSizePolicy;
+        }
+
+        public EvictionPolicy getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+            this.evictionPolicy = evictionPolicy;
+        }
+
+        public Integer getTimeToLiveSeconds() {
+            return timeToLiveSeconds;
+        }
+
+        public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+            this.timeToLiveSeconds = timeToLiveSeconds;
+        }
+
+        public int getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+
+        public void setMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
+
+        public Integer getBackupCount() {
+            return backupCount;
+        }
+
+        public void setBackupCount(Integer backupCount) {
+            this.backupCount = backupCount;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public void setRegions(Map<String, Region> regions) {
+            this.regions = regions;
+        }
+
+        public static class Region {
+
+            private Integer maxSize;
+
+            private MaxSizeConfig.MaxSizePolicy maxSizePolicy;
+
+            private EvictionPolicy evictionPolicy;
+
+            private Integer timeToLiveSeconds;
+
+            private Integer maxIdleSeconds;
+
+            private Integer backupCount;
+
+            public Integer getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(Integer maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public MaxSizeConfig.MaxSizePolicy getMaxSizePolicy() {
+                return maxSizePolicy;
+            }
+
+            public void setMaxSizePolicy(MaxSizeConfig.MaxSizePolicy maxSizePolicy) {
+                this.maxSizePolicy = maxSizePolicy;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public Integer getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Integer timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Integer getMaxIdleSeconds() {
+                return maxIdleSeconds;
+            }
+
+            public void setMaxIdleSeconds(Integer maxIdleSeconds) {
+                this.maxIdleSeconds = maxIdleSeconds;
+            }
+
+            public Integer getBackupCount() {
+                return backupCount;
+            }
+
+            public void setBackupCount(Integer backupCount) {
+                this.backupCount = backupCount;
+            }
+        }
+    }
+
+    /**
+     * Local cache of the principals of the verified JWT tokens, so that the signature of a token is checked once.
+     */
+    public static class TokenCache {
+
+        /**
+         * Maximum number of tokens per member, past which the least recently used ones are evicted.
+         */
+        private int maxSize = 10000;
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+    }
+
+    /**
+     * Queues of ranked candidates served by the discovery feed.
+     */
+    public static class CandidateFeed {
+
+        /**
+         * Candidates kept in the queue of a user; at most {@code application.nearby-users.max-results}.
+         */
+        private int queueSize = 200;
+
+        /**
+         * Remaining candidates below which the queue is refilled in the background.
+         */
+        private int refillThreshold = 40;
+
+        /**
+         * Delay before a refill is requested again, when the previous one did not happen.
+         */
+        private long refillRetryMs = 10000;
+
+        private int refillThreads = 2;
+
+        private double defaultRadiusKm = 50;
+
+        private int maxPageSize = 50;
+
+        /**
+         * Queues older than this are rebuilt on their next read, to follow the moves of their user.
+         */
+        private int maxAgeSeconds = 3600;
+
+        private int maxIdleSeconds = 1800;
+
+        public int getQueueSize() {
+            return queueSize;
+        }
+
+        public void setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+        }
+
+        public int getRefillThreshold() {
+            return refillThreshold;
+        }
+
+        public void setRefillThreshold(int refillThreshold) {
+            this.refillThreshold = refillThreshold;
+        }
+
+        public long getRefillRetryMs() {
+            return refillRetryMs;
+        }
+
+        public void setRefillRetryMs(long refillRetryMs) {
+            this.refillRetryMs = refillRetryMs;
+        }
+
+        public int getRefillThreads() {
+            return refillThreads;
+        }
+
+        public void setRefillThreads(int refillThreads) {
+            this.refillThreads = refillThreads;
+        }
+
+        public double getDefaultRadiusKm() {
+            return defaultRadiusKm;
+        }
+
+        public void setDefaultRadiusKm(double defaultRadiusKm) {
+            this.defaultRadiusKm = defaultRadiusKm;
+        }
+
+        public int getMaxPageSize() {
+            return maxPageSize;
+        }
+
+        public void setMaxPageSize(int maxPageSize) {
+            this.maxPageSize = maxPageSize;
+        }
+
+        public int getMaxAgeSeconds() {
+            return maxAgeSeconds;
+        }
+
+        public void setMaxAgeSeconds(int maxAgeSeconds) {
+            this.maxAgeSeconds = maxAgeSeconds;
+        }
+
+        public int getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+
+        public void setMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
+    }
+
+    /**
+     * Collaborative filtering of the swipes, ranking the candidates of the discovery feed.
+     */
+    public static class Recommender {
+
+        /**
+         * When disabled, the model is not trained on startup nor on schedule, and candidates keep their distance order.
+         */
+        private boolean enabled = true;
+
+        private String trainingCron = "0 0 3 * * *";
+
+        private int rank = 32;
+
+        private int iterations = 10;
+
+        private double regularization = 0.1;
+
+        /**
+         * Scale of the confidence in a swipe, over the weights below.
+         */
+        private double alpha = 10;
+
+        private float likeWeight = 1;
+
+        private float superLikeWeight = 3;
+
+        private float dislikeWeight = 1;
+
+        /**
+         * Threads training the model; all the available processors when {@code 0}.
+         */
+        private int parallelism = 0;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTrainingCron() {
+            return trainingCron;
+        }
+
+        public void setTrainingCron(String trainingCron) {
+            this.trainingCron = trainingCron;
+        }
+
+        public int getRank() {
+            return rank;
+        }
+
+        public void setRank(int rank) {
+            this.rank = rank;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        public void setIterations(int iterations) {
+            this.iterations = iterations;
+        }
+
+        public double getRegularization() {
+            return regularization;
+        }
+
+        public void setRegularization(double regularization) {
+            this.regularization = regularization;
+        }
+
+        public double getAlpha() {
+            return alpha;
+        }
+
+        public void setAlpha(double alpha) {
+            this.alpha = alpha;
+        }
+
+        public float getLikeWeight() {
+            return likeWeight;
+        }
+
+        public void setLikeWeight(float likeWeight) {
+            this.likeWeight = likeWeight;
+        }
+
+        public float getSuperLikeWeight() {
+            return superLikeWeight;
+        }
+
+        public void setSuperLikeWeight(float superLikeWeight) {
+            this.superLikeWeight = superLikeWeight;
+        }
+
+        public float getDislikeWeight() {
+            return dislikeWeight;
+        }
+
+        public void setDislikeWeight(float dislikeWeight) {
+            this.dislikeWeight = dislikeWeight;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+    }
+
+    /**
+     * Elo ratings of the users, updated from the swipes they receive.
+     */
+    public static class Desirability {
+
+        /**
+         * When disabled, swipes are not recorded and ratings stay as they are.
+         */
+        private boolean enabled = true;
+
+        private long flushIntervalMs = 5000;
+
+        /**
+         * Largest change of rating of a swipe of weight {@code 1}, the K-factor of the Elo system.
+         */
+        private double maxRatingChange = 32;
+
+        private float likeWeight = 1;
+
+        private float superLikeWeight = 2;
+
+        private float dislikeWeight = 1;
+
+        /**
+         * Swipes buffered between two flushes, past which new swipes are not counted.
+         */
+        private long maxPendingSwipes = 1000000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFlushIntervalMs() {
+            return flushIntervalMs;
+        }
+
+        public void setFlushIntervalMs(long flushIntervalMs) {
+            this.flushIntervalMs = flushIntervalMs;
+        }
+
+        public double getMaxRatingChange() {
+            return maxRatingChange;
+        }
+
+        public void setMaxRatingChange(double maxRatingChange) {
+            this.maxRatingChange = maxRatingChange;
+        }
+
+        public float getLikeWeight() {
+            return likeWeight;
+        }
+
+        public void setLikeWeight(float likeWeight) {
+            this.likeWeight = likeWeight;
+        }
+
+        public float getSuperLikeWeight() {
+            return superLikeWeight;
+        }
+
+        public void setSuperLikeWeight(float superLikeWeight) {
+            this.superLikeWeight = superLikeWeight;
+        }
+
+        public float getDislikeWeight() {
+            return dislikeWeight;
+        }
+
+        public void setDislikeWeight(float dislikeWeight) {
+            this.dislikeWeight = dislikeWeight;
+        }
+
+        public long getMaxPendingSwipes() {
+            return maxPendingSwipes;
+        }
+
+        public void setMaxPendingSwipes(long maxPendingSwipes) {
+            this.maxPendingSwipes = maxPendingSwipes;
+        }
+    }
+
+    /**
+     * Logging and timing of the repository, service and REST methods by {@link com.tmrfcb.datingapp.aop.logging.LoggingAspect}.
+     * All the settings are initial values, which {@code /management/methodprofiling} changes at runtime.
+     */
+    public static class MethodProfiling {
+
+        /**
+         * When disabled, the advice around the methods only checks this flag: nothing is logged nor timed.
+         */
+        private boolean enabled = false;
+
+        private boolean timing = false;
+
+        /**
+         * Share of the calls which are timed, between {@code 0} and {@code 1}.
+         */
+        private double sampleRate = 0.01;
+
+        /**
+         * Log the arguments of the methods when entering them at debug level, and when they throw an
+         * {@link IllegalArgumentException}.
+         */
+        private boolean logArguments = false;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isTiming() {
+            return timing;
+        }
+
+        public void setTiming(boolean timing) {
+            this.timing = timing;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public boolean isLogArguments() {
+            return logArguments;
+        }
+
+        public void setLogArguments(boolean logArguments) {
+            this.logArguments = logArguments;
+        }
+    }
+
+    /**
+     * The Elasticsearch client behind the {@code *SearchRepository} and the reindexing: {@code jest}, or {@code rest} for
+     * {@link StreamingElasticsearchRestTemplate} on the high level REST client. The hosts, credentials and timeouts of
+     * the latter are the {@code spring.elasticsearch.rest} ones.
+     */
+    public static class Search {
+
+        private String client = "jest";
+
+        /**
+         * Connections of the pool of the {@code rest} client, in all and to each host.
+         */
+        private int maxConnections = 100;
+
+        private int maxConnectionsPerRoute = 50;
+
+        /**
+         * I/O dispatcher threads of the {@code rest} client, one per processor when {@code 0}.
+         */
+        private int ioThreads = 0;
+
+        /**
+         * Documents per bulk request of the {@code rest} client: larger saves are split into several requests, sent in
+         * parallel.
+         */
+        private int bulkSize = 500;
+
+        /**
+         * Bulk requests in flight at once, over all the saves of the {@code rest} client.
+         */
+        private int bulkConcurrentRequests = 4;
+
+        /**
+         * Refresh the index after each save and delete of the {@code rest} client, so that changes are searchable at
+         * once like with Jest. When {@code false}, they are searchable within the refresh interval of the index.
+         */
+        private boolean refreshOnWrite = true;
+
+        public String getClient() {
+            return client;
+        }
+
+        public void setClient(String client) {
+            this.client = client;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getBulkSize() {
+            return bulkSize;
+        }
+
+        public void setBulkSize(int bulkSize) {
+            this.bulkSize = bulkSize;
+        }
+
+        public int getBulkConcurrentRequests() {
+            return bulkConcurrentRequests;
+        }
+
+        public void setBulkConcurrentRequests(int bulkConcurrentRequests) {
+            this.bulkConcurrentRequests = bulkConcurrentRequests;
+        }
+
+        public boolean isRefreshOnWrite() {
+            return refreshOnWrite;
+        }
+
+        public void setRefreshOnWrite(boolean refreshOnWrite) {
+            this.refreshOnWrite = refreshOnWrite;
+        }
+    }
+}
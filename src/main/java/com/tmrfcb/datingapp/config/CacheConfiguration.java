@@ -3,13 +3,22 @@ package com.tmrfcb.datingapp.config;
 import com.hazelcast.config.*;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.core.HazelcastInstance;
+import com.tmrfcb.datingapp.service.CandidateFeedService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import com.tmrfcb.datingapp.service.impl.SeenProfilesMapLoader;
 import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.config.cache.PrefixedKeyGenerator;
+import java.util.Set;
+import java.util.TreeSet;
 import javax.annotation.PreDestroy;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.info.BuildProperties;
 import org.springframework.boot.info.GitProperties;
@@ -22,10 +31,16 @@ import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.Profiles;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
 
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
+    /**
+     * Prefix of the Hazelcast maps backing the Hibernate second level cache regions of the domain.
+     */
+    public static final String DOMAIN_REGION_PREFIX = "com.tmrfcb.datingapp.domain.";
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
 
@@ -63,7 +78,11 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(
+        JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
+        SeenProfilesMapLoader seenProfilesMapLoader
+    ) {
         log.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("datingApp");
         if (hazelCastInstance != null) {
@@ -108,7 +127,22 @@ public class CacheConfiguration {
 
         // Full reference is available at: https://docs.hazelcast.org/docs/management-center/3.9/manual/html/Deploying_and_Starting.html
         config.setManagementCenterConfig(initializeDefaultManagementCenterConfig(jHipsterProperties));
-        config.getMapConfigs().put("com.tmrfcb.datingapp.domain.*", initializeDomainMapConfig(jHipsterProperties));
+        config.getMapConfigs().put(DOMAIN_REGION_PREFIX + "*", initializeDomainMapConfig(jHipsterProperties, applicationProperties, null));
+        Set<String> regions = new TreeSet<>(applicationProperties.getSecondLevelCache().getRegions().keySet());
+        regions.addAll(applicationProperties.getNearCache().getRegions().keySet());
+        regions.addAll(nearCacheableEntityRegions());
+        for (String region : regions) {
+            config
+                .getMapConfigs()
+                .put(DOMAIN_REGION_PREFIX + region, initializeDomainMapConfig(jHipsterProperties, applicationProperties, region));
+        }
+        config.getMapConfigs().put(SeenProfileService.SEEN_PROFILES_MAP, initializeSeenProfilesMapConfig(jHipsterProperties, seenProfilesMapLoader));
+        config
+            .getMapConfigs()
+            .put(ProfileCardService.PROFILE_CARDS_CACHE, initializeProfileCardsMapConfig(jHipsterProperties, applicationProperties));
+        config
+            .getMapConfigs()
+            .put(CandidateFeedService.CANDIDATE_QUEUES_MAP, initializeCandidateQueuesMapConfig(jHipsterProperties, applicationProperties));
         return Hazelcast.newHazelcastInstance(config);
     }
 
@@ -150,9 +184,178 @@ public class CacheConfiguration {
         return mapConfig;
     }
 
-    private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties) {
+    /**
+     * Configuration of the regions of the domain, or of one of them.
+     *
+     * @param region the name of the region relative to the domain package, {@code null} for the defaults.
+     */
+    private MapConfig initializeDomainMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties, String region) {
+        ApplicationProperties.SecondLevelCache cache = applicationProperties.getSecondLevelCache();
+        ApplicationProperties.SecondLevelCache.Region cacheRegion = region == null ? null : cache.getRegions().get(region);
+        if (cacheRegion == null) {
+            cacheRegion = new ApplicationProperties.SecondLevelCache.Region();
+        }
         MapConfig mapConfig = new MapConfig();
+        mapConfig.setBackupCount(
+            valueOrDefault(cacheRegion.getBackupCount(), valueOrDefault(cache.getBackupCount(), jHipsterProperties.getCache().getHazelcast().getBackupCount()))
+        );
+
+        /*
+        Regions are bounded by number of entries per member, or by heap size,
+        so that the large and cold ones like Message cannot evict the small
+        and hot ones like Country.
+        */
+        mapConfig.setEvictionPolicy(valueOrDefault(cacheRegion.getEvictionPolicy(), cache.getEvictionPolicy()));
+        mapConfig.setMaxSizeConfig(
+            new MaxSizeConfig(
+                valueOrDefault(cacheRegion.getMaxSize(), cache.getMaxSize()),
+                valueOrDefault(cacheRegion.getMaxSizePolicy(), cache.getMaxSizePolicy())
+            )
+        );
+        mapConfig.setTimeToLiveSeconds(
+            valueOrDefault(
+                cacheRegion.getTimeToLiveSeconds(),
+                valueOrDefault(cache.getTimeToLiveSeconds(), jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds())
+            )
+        );
+        mapConfig.setMaxIdleSeconds(valueOrDefault(cacheRegion.getMaxIdleSeconds(), cache.getMaxIdleSeconds()));
+
+        ApplicationProperties.NearCache nearCache = applicationProperties.getNearCache();
+        ApplicationProperties.NearCache.Region nearCacheRegion = region == null ? null : nearCache.getRegions().get(region);
+        if (nearCacheRegion == null) {
+            nearCacheRegion = new ApplicationProperties.NearCache.Region();
+        }
+        if (region != null && valueOrDefault(nearCacheRegion.getEnabled(), nearCache.isEnabled())) {
+            /*
+            A near cache is invalidated asynchronously, after the change is
+            committed. READ_WRITE regions rely on the soft locks Hibernate puts
+            in the region while an entity is updated, which a near cache would
+            hide: those regions are read from their owner only.
+            */
+            CacheConcurrencyStrategy strategy = concurrencyStrategy(region);
+            if (allowsNearCache(strategy)) {
+                mapConfig.setNearCacheConfig(initializeDomainNearCacheConfig(nearCache, nearCacheRegion));
+            } else if (nearCacheRegion.getEnabled() != null) {
+                log.warn("No near cache for the second level cache region {}, which is {}", region, strategy);
+            }
+        }
+        return mapConfig;
+    }
+
+    /**
+     * The regions of the entities of the domain which can have a near cache, so that they get a map configuration of
+     * their own, whether or not they are configured.
+     */
+    private static Set<String> nearCacheableEntityRegions() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Cache.class));
+        Set<String> regions = new TreeSet<>();
+        for (BeanDefinition entity : scanner.findCandidateComponents(DOMAIN_REGION_PREFIX.substring(0, DOMAIN_REGION_PREFIX.length() - 1))) {
+            String region = entity.getBeanClassName().substring(DOMAIN_REGION_PREFIX.length());
+            if (allowsNearCache(concurrencyStrategy(region))) {
+                regions.add(region);
+            }
+        }
+        return regions;
+    }
+
+    private static boolean allowsNearCache(CacheConcurrencyStrategy strategy) {
+        return strategy == CacheConcurrencyStrategy.READ_ONLY || strategy == CacheConcurrencyStrategy.NONSTRICT_READ_WRITE;
+    }
+
+    /**
+     * The concurrency strategy of a region of the domain, from the {@link Cache} annotation of its entity or collection.
+     *
+     * @param region the name of the region relative to the domain package, like {@code UserApp} or
+     * {@code UserApp.relations}.
+     * @return the strategy, or {@code null} if the region is not cached.
+     */
+    private static CacheConcurrencyStrategy concurrencyStrategy(String region) {
+        int separator = region.indexOf('.');
+        try {
+            Class<?> entity = Class.forName(DOMAIN_REGION_PREFIX + (separator < 0 ? region : region.substring(0, separator)));
+            Cache cache = separator < 0
+                ? entity.getAnnotation(Cache.class)
+                : entity.getDeclaredField(region.substring(separator + 1)).getAnnotation(Cache.class);
+            return cache != null ? cache.usage() : null;
+        } catch (ClassNotFoundException | NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private NearCacheConfig initializeDomainNearCacheConfig(ApplicationProperties.NearCache nearCache, ApplicationProperties.NearCache.Region region) {
+        int maxSize = valueOrDefault(region.getMaxSize(), nearCache.getMaxSize());
+        int timeToLiveSeconds = valueOrDefault(region.getTimeToLiveSeconds(), nearCache.getTimeToLiveSeconds());
+        int maxIdleSeconds = valueOrDefault(region.getMaxIdleSeconds(), nearCache.getMaxIdleSeconds());
+        NearCacheConfig nearCacheConfig = new NearCacheConfig();
+
+        /*
+        Entries are dropped from every near cache as soon as they change on
+        any member. Hibernate only reads the cached entries to assemble new
+        entities, so they can be kept deserialized.
+        */
+        nearCacheConfig.setInvalidateOnChange(true);
+        nearCacheConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+
+        // Also keep the entries owned by this member, to skip their deserialization
+        nearCacheConfig.setCacheLocalEntries(true);
+        nearCacheConfig.setTimeToLiveSeconds(timeToLiveSeconds);
+        nearCacheConfig.setMaxIdleSeconds(maxIdleSeconds);
+        nearCacheConfig.setEvictionConfig(new EvictionConfig(maxSize, EvictionConfig.MaxSizePolicy.ENTRY_COUNT, EvictionPolicy.LRU));
+        return nearCacheConfig;
+    }
+
+    private static <T> T valueOrDefault(T value, T defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+
+    private MapConfig initializeSeenProfilesMapConfig(JHipsterProperties jHipsterProperties, SeenProfilesMapLoader seenProfilesMapLoader) {
+        MapConfig mapConfig = new MapConfig();
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+
+        /*
+        Seen profiles are updated in place by entry processors, so they are kept
+        deserialized. Sets of inactive users are dropped, and reloaded from the
+        database by the map loader on their next access.
+        */
+        mapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        mapConfig.setMaxIdleSeconds(3600);
+        mapConfig.setMapStoreConfig(
+            new MapStoreConfig()
+                .setEnabled(true)
+                .setImplementation(seenProfilesMapLoader)
+                .setInitialLoadMode(MapStoreConfig.InitialLoadMode.LAZY)
+        );
+        return mapConfig;
+    }
+
+    private MapConfig initializeProfileCardsMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        MapConfig mapConfig = new MapConfig();
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
         mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
+        mapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(100000, MaxSizeConfig.MaxSizePolicy.PER_NODE));
+
+        // Cards are immutable, so they are read from the near cache like the entities of the domain
+        if (applicationProperties.getNearCache().isEnabled()) {
+            mapConfig.setNearCacheConfig(
+                initializeDomainNearCacheConfig(applicationProperties.getNearCache(), new ApplicationProperties.NearCache.Region())
+            );
+        }
+        return mapConfig;
+    }
+
+    private MapConfig initializeCandidateQueuesMapConfig(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        MapConfig mapConfig = new MapConfig();
+        mapConfig.setBackupCount(jHipsterProperties.getCache().getHazelcast().getBackupCount());
+
+        /*
+        Queues are polled in place by entry processors, so they are kept
+        deserialized. Queues of inactive users are dropped, and rebuilt on
+        their next read.
+        */
+        mapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        mapConfig.setMaxIdleSeconds(applicationProperties.getCandidateFeed().getMaxIdleSeconds());
         return mapConfig;
     }
 
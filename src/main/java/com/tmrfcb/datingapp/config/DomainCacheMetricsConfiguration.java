@@ -0,0 +1,55 @@
+package com.tmrfcb.datingapp.config;
+
+import com.hazelcast.core.DistributedObject;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.HazelcastCacheMetrics;
+import java.util.HashSet;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Exports the statistics of the Hibernate second level cache regions of the domain, including their near caches: hits
+ * and misses of the regions ({@code cache.gets}) and of their near caches ({@code cache.near.requests}), get and put
+ * latencies ({@code cache.gets.latency}, {@code cache.puts.latency}) and sizes, tagged with the name of the region.
+ */
+@Configuration
+public class DomainCacheMetricsConfiguration {
+    private final Logger log = LoggerFactory.getLogger(DomainCacheMetricsConfiguration.class);
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Set<String> monitoredRegions = new HashSet<>();
+
+    public DomainCacheMetricsConfiguration(HazelcastInstance hazelcastInstance, MeterRegistry meterRegistry) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Monitor the regions, which Hibernate has created by the time the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void monitorDomainRegions() {
+        for (DistributedObject distributedObject : hazelcastInstance.getDistributedObjects()) {
+            String name = distributedObject.getName();
+            if (
+                distributedObject instanceof IMap &&
+                name.startsWith(CacheConfiguration.DOMAIN_REGION_PREFIX) &&
+                monitoredRegions.add(name)
+            ) {
+                String region = name.substring(CacheConfiguration.DOMAIN_REGION_PREFIX.length());
+                HazelcastCacheMetrics.monitor(meterRegistry, (IMap<?, ?>) distributedObject, Tags.of("region", region));
+            }
+        }
+        log.debug("Monitoring {} second level cache regions", monitoredRegions.size());
+    }
+}
@@ -9,6 +9,7 @@ import io.searchbox.client.JestClient;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.elasticsearch.ElasticsearchProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -36,6 +37,7 @@ public class ElasticsearchConfiguration {
 
     @Bean
     @Primary
+    @ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "jest", matchIfMissing = true)
     public ElasticsearchOperations elasticsearchTemplate(
         JestClient jestClient,
         ElasticsearchConverter elasticsearchConverter,
@@ -0,0 +1,91 @@
+package com.tmrfcb.datingapp.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.elasticsearch.rest.RestClientProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.elasticsearch.core.DefaultResultMapper;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.util.StringUtils;
+
+/**
+ * The {@code rest} client of the search repositories, selected with {@code application.search.client}, in place of the
+ * Jest one of {@link ElasticsearchConfiguration}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "rest")
+@EnableConfigurationProperties(RestClientProperties.class)
+public class ElasticsearchRestConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public RestHighLevelClient elasticsearchRestHighLevelClient(
+        RestClientProperties restClientProperties,
+        ApplicationProperties applicationProperties
+    ) {
+        ApplicationProperties.Search properties = applicationProperties.getSearch();
+        HttpHost[] hosts = restClientProperties.getUris().stream().map(HttpHost::create).toArray(HttpHost[]::new);
+        RestClientBuilder builder = RestClient
+            .builder(hosts)
+            .setRequestConfigCallback(
+                requestConfig ->
+                    requestConfig
+                        .setConnectTimeout((int) restClientProperties.getConnectionTimeout().toMillis())
+                        .setSocketTimeout((int) restClientProperties.getReadTimeout().toMillis())
+            )
+            .setHttpClientConfigCallback(
+                httpClient -> {
+                    httpClient.setMaxConnTotal(properties.getMaxConnections()).setMaxConnPerRoute(properties.getMaxConnectionsPerRoute());
+                    if (properties.getIoThreads() > 0) {
+                        httpClient.setDefaultIOReactorConfig(IOReactorConfig.custom().setIoThreadCount(properties.getIoThreads()).build());
+                    }
+                    if (StringUtils.hasText(restClientProperties.getUsername())) {
+                        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                        credentialsProvider.setCredentials(
+                            AuthScope.ANY,
+                            new UsernamePasswordCredentials(restClientProperties.getUsername(), restClientProperties.getPassword())
+                        );
+                        httpClient.setDefaultCredentialsProvider(credentialsProvider);
+                    }
+                    return httpClient;
+                }
+            );
+        return new RestHighLevelClient(builder);
+    }
+
+    /**
+     * @param entityMapper the mapper of the search hits, which also configures the {@link ObjectMapper} writing the
+     *     indexed documents.
+     */
+    @Bean
+    @Primary
+    public ElasticsearchOperations elasticsearchTemplate(
+        RestHighLevelClient client,
+        ElasticsearchConverter elasticsearchConverter,
+        SimpleElasticsearchMappingContext mappingContext,
+        EntityMapper entityMapper,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) {
+        return new StreamingElasticsearchRestTemplate(
+            client,
+            elasticsearchConverter,
+            new DefaultResultMapper(mappingContext, entityMapper),
+            objectMapper,
+            applicationProperties.getSearch()
+        );
+    }
+}
@@ -1,5 +1,6 @@
 package com.tmrfcb.datingapp.config;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -8,12 +9,36 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 @ConfigurationProperties(prefix = "kafka")
 public class KafkaProperties {
+    /**
+     * Producer settings applied unless configured otherwise: records are batched for a few milliseconds and compressed,
+     * and idempotence keeps retries from duplicating or reordering them. A send blocks its caller for at most
+     * {@code max.block.ms} while the metadata of the topic is fetched or the buffer is full, and fails once the record
+     * is not acknowledged within {@code delivery.timeout.ms}.
+     */
+    public static final Map<String, String> DEFAULT_PRODUCER_PROPS;
+
+    static {
+        Map<String, String> defaults = new HashMap<>();
+        defaults.put("acks", "all");
+        defaults.put("enable.idempotence", "true");
+        defaults.put("max.in.flight.requests.per.connection", "5");
+        defaults.put("linger.ms", "5");
+        defaults.put("batch.size", "65536");
+        defaults.put("compression.type", "lz4");
+        defaults.put("max.block.ms", "1000");
+        defaults.put("request.timeout.ms", "10000");
+        defaults.put("delivery.timeout.ms", "30000");
+        DEFAULT_PRODUCER_PROPS = Collections.unmodifiableMap(defaults);
+    }
+
     private String bootStrapServers = "localhost:9092";
 
     private Map<String, String> consumer = new HashMap<>();
 
     private Map<String, String> producer = new HashMap<>();
 
+    private final Sse sse = new Sse();
+
     public String getBootStrapServers() {
         return bootStrapServers;
     }
@@ -35,7 +60,8 @@ public class KafkaProperties {
     }
 
     public Map<String, Object> getProducerProps() {
-        Map<String, Object> properties = new HashMap<>(this.producer);
+        Map<String, Object> properties = new HashMap<>(DEFAULT_PRODUCER_PROPS);
+        properties.putAll(this.producer);
         if (!properties.containsKey("bootstrap.servers")) {
             properties.put("bootstrap.servers", this.bootStrapServers);
         }
@@ -45,4 +71,63 @@ public class KafkaProperties {
     public void setProducer(Map<String, String> producer) {
         this.producer = producer;
     }
+
+    public Sse getSse() {
+        return sse;
+    }
+
+    /**
+     * Settings of the Server-Sent Events streams of Kafka records.
+     */
+    public static class Sse {
+        private int pollThreads = 2;
+
+        private int sendThreads = 4;
+
+        private int bufferSize = 1000;
+
+        private int heartbeatSeconds = 5;
+
+        private int maxStreams = 100;
+
+        public int getPollThreads() {
+            return pollThreads;
+        }
+
+        public void setPollThreads(int pollThreads) {
+            this.pollThreads = pollThreads;
+        }
+
+        public int getSendThreads() {
+            return sendThreads;
+        }
+
+        public void setSendThreads(int sendThreads) {
+            this.sendThreads = sendThreads;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public int getHeartbeatSeconds() {
+            return heartbeatSeconds;
+        }
+
+        public void setHeartbeatSeconds(int heartbeatSeconds) {
+            this.heartbeatSeconds = heartbeatSeconds;
+        }
+
+        public int getMaxStreams() {
+            return maxStreams;
+        }
+
+        public void setMaxStreams(int maxStreams) {
+            this.maxStreams = maxStreams;
+        }
+    }
 }
@@ -1,7 +1,8 @@
 package com.tmrfcb.datingapp.config;
 
 import com.tmrfcb.datingapp.aop.logging.LoggingAspect;
-import io.github.jhipster.config.JHipsterConstants;
+import com.tmrfcb.datingapp.management.MethodProfilingEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 
@@ -10,8 +11,12 @@ import org.springframework.core.env.Environment;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    public LoggingAspect loggingAspect(Environment env, MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        return new LoggingAspect(env, meterRegistry, applicationProperties.getMethodProfiling());
+    }
+
+    @Bean
+    public MethodProfilingEndpoint methodProfilingEndpoint(LoggingAspect loggingAspect) {
+        return new MethodProfilingEndpoint(loggingAspect);
     }
 }
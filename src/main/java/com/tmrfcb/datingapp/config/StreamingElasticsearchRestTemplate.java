@@ -0,0 +1,196 @@
+package com.tmrfcb.datingapp.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.VersionType;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchRestTemplate;
+import org.springframework.data.elasticsearch.core.ResultsMapper;
+import org.springframework.data.elasticsearch.core.convert.ElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.util.Assert;
+
+/**
+ * An {@link ElasticsearchRestTemplate} for the write path of the search repositories.
+ * <p>
+ * Entities are serialized by the {@link ObjectMapper} straight to the UTF-8 bytes kept by the requests, instead of to a
+ * {@code String} first. Bulk saves are split into requests of {@code bulkSize} documents, sent asynchronously on the
+ * connection pool of the client, at most {@code bulkConcurrentRequests} at a time over all the callers, and awaited
+ * together, the failures of all of them being reported at once. Setting {@code refreshOnWrite} to {@code false} skips
+ * the refreshes the repositories ask for after each write, leaving changes to the refresh interval of the index.
+ */
+public class StreamingElasticsearchRestTemplate extends ElasticsearchRestTemplate {
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Search properties;
+
+    private final Semaphore bulkPermits;
+
+    public StreamingElasticsearchRestTemplate(
+        RestHighLevelClient client,
+        ElasticsearchConverter elasticsearchConverter,
+        ResultsMapper resultsMapper,
+        ObjectMapper objectMapper,
+        ApplicationProperties.Search properties
+    ) {
+        super(client, elasticsearchConverter, resultsMapper);
+        Assert.isTrue(properties.getBulkSize() > 0, "The bulk size must be positive");
+        Assert.isTrue(properties.getBulkConcurrentRequests() > 0, "The bulk concurrent requests must be positive");
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.bulkPermits = new Semaphore(properties.getBulkConcurrentRequests());
+    }
+
+    @Override
+    public String index(IndexQuery query) {
+        try {
+            return getClient().index(indexRequest(query), RequestOptions.DEFAULT).getId();
+        } catch (IOException e) {
+            throw new ElasticsearchException("Error while indexing document " + query.getId(), e);
+        }
+    }
+
+    @Override
+    public void bulkIndex(List<IndexQuery> queries) {
+        List<BulkRequest> requests = new ArrayList<>();
+        List<CompletableFuture<BulkResponse>> responses = new ArrayList<>();
+        BulkRequest request = new BulkRequest();
+        for (IndexQuery query : queries) {
+            request.add(indexRequest(query));
+            if (request.numberOfActions() == properties.getBulkSize()) {
+                requests.add(request);
+                responses.add(bulkAsync(request));
+                request = new BulkRequest();
+            }
+        }
+        if (request.numberOfActions() > 0) {
+            requests.add(request);
+            responses.add(bulkAsync(request));
+        }
+
+        // Every request is awaited before reporting, so that none is still in flight when the caller gets the error
+        Map<String, String> failedDocuments = new HashMap<>();
+        Throwable cause = null;
+        for (int i = 0; i < responses.size(); i++) {
+            try {
+                for (BulkItemResponse item : responses.get(i).join().getItems()) {
+                    if (item.isFailed()) {
+                        failedDocuments.put(item.getId(), item.getFailureMessage());
+                    }
+                }
+            } catch (CompletionException e) {
+                if (cause == null) {
+                    cause = e.getCause();
+                }
+                for (DocWriteRequest<?> failedRequest : requests.get(i).requests()) {
+                    failedDocuments.put(failedRequest.id(), String.valueOf(e.getCause().getMessage()));
+                }
+            }
+        }
+        if (!failedDocuments.isEmpty()) {
+            throw new ElasticsearchException(
+                "Bulk indexing has failures. Use ElasticsearchException.getFailedDocuments() for detailed messages [" +
+                failedDocuments +
+                "]",
+                cause,
+                failedDocuments
+            );
+        }
+    }
+
+    @Override
+    public void refresh(String indexName) {
+        if (properties.isRefreshOnWrite()) {
+            super.refresh(indexName);
+        }
+    }
+
+    @Override
+    public <T> void refresh(Class<T> clazz) {
+        if (properties.isRefreshOnWrite()) {
+            super.refresh(clazz);
+        }
+    }
+
+    private IndexRequest indexRequest(IndexQuery query) {
+        Object object = query.getObject();
+        String indexName = query.getIndexName();
+        String type = query.getType();
+        if (object != null && (indexName == null || type == null)) {
+            ElasticsearchPersistentEntity<?> persistentEntity = getPersistentEntityFor(object.getClass());
+            indexName = indexName != null ? indexName : persistentEntity.getIndexName();
+            type = type != null ? type : persistentEntity.getIndexType();
+        }
+        Assert.notNull(indexName, "No index defined for Query");
+        Assert.notNull(type, "No type defined for Query");
+
+        IndexRequest request = new IndexRequest(indexName, type, query.getId());
+        if (object != null) {
+            try {
+                request.source(objectMapper.writeValueAsBytes(object), XContentType.JSON);
+            } catch (JsonProcessingException e) {
+                throw new ElasticsearchException("Error while serializing document " + query.getId(), e);
+            }
+        } else if (query.getSource() != null) {
+            request.source(query.getSource(), XContentType.JSON);
+        } else {
+            throw new ElasticsearchException("Object or source is null, failed to index the document [id: " + query.getId() + "]");
+        }
+        if (query.getVersion() != null) {
+            request.version(query.getVersion());
+            request.versionType(VersionType.EXTERNAL);
+        }
+        if (query.getParentId() != null) {
+            request.parent(query.getParentId());
+        }
+        return request;
+    }
+
+    private CompletableFuture<BulkResponse> bulkAsync(BulkRequest request) {
+        CompletableFuture<BulkResponse> response = new CompletableFuture<>();
+        bulkPermits.acquireUninterruptibly();
+        try {
+            getClient()
+                .bulkAsync(
+                    request,
+                    RequestOptions.DEFAULT,
+                    new ActionListener<BulkResponse>() {
+                        @Override
+                        public void onResponse(BulkResponse bulkResponse) {
+                            bulkPermits.release();
+                            response.complete(bulkResponse);
+                        }
+
+                        @Override
+                        public void onFailure(Exception e) {
+                            bulkPermits.release();
+                            response.completeExceptionally(e);
+                        }
+                    }
+                );
+        } catch (RuntimeException e) {
+            bulkPermits.release();
+            throw e;
+        }
+        return response;
+    }
+}
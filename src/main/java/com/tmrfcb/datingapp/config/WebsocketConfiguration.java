@@ -0,0 +1,51 @@
+package com.tmrfcb.datingapp.config;
+
+import com.tmrfcb.datingapp.security.jwt.JWTChannelInterceptor;
+import com.tmrfcb.datingapp.security.jwt.TokenProvider;
+import io.github.jhipster.config.JHipsterProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+
+/**
+ * STOMP over WebSocket, used to push new messages to their recipient instead of having clients poll for them.
+ * <p>
+ * Each node runs the in-memory simple broker for its own sessions; messages reach the other nodes through
+ * {@link com.tmrfcb.datingapp.service.MessageDeliveryService}.
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebsocketConfiguration implements WebSocketMessageBrokerConfigurer {
+    public static final String MESSAGES_ENDPOINT = "/websocket/messages";
+
+    private final TokenProvider tokenProvider;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    public WebsocketConfiguration(TokenProvider tokenProvider, JHipsterProperties jHipsterProperties) {
+        this.tokenProvider = tokenProvider;
+        this.jHipsterProperties = jHipsterProperties;
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/queue");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        String[] allowedOrigins = jHipsterProperties.getCors().getAllowedOrigins() != null
+            ? jHipsterProperties.getCors().getAllowedOrigins().toArray(new String[0])
+            : new String[0];
+        registry.addEndpoint(MESSAGES_ENDPOINT).setAllowedOrigins(allowedOrigins);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new JWTChannelInterceptor(tokenProvider));
+    }
+}
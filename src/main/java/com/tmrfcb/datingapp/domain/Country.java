@@ -9,10 +9,13 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
 
 /**
  * A Country.
+ * <p>
+ * Countries are reference data which hardly ever change: their region is {@code NONSTRICT_READ_WRITE}, so that it can
+ * be read from a near cache.
  */
 @Entity
 @Table(name = "country")
-@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "country")
 public class Country implements Serializable {
 
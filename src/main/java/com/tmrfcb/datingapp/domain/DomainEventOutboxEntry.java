@@ -0,0 +1,127 @@
+package com.tmrfcb.datingapp.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * An encoded domain event waiting to be published to Kafka.
+ * <p>
+ * Entries are written in the transaction of the change itself, and removed once the event has been acknowledged.
+ */
+@Entity
+@Table(name = "domain_event_outbox")
+public class DomainEventOutboxEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_key", length = 50, nullable = false)
+    private String eventKey;
+
+    @Column(name = "event_sequence", nullable = false)
+    private long sequence;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private byte[] payload;
+
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public DomainEventOutboxEntry id(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public String getEventKey() {
+        return this.eventKey;
+    }
+
+    public DomainEventOutboxEntry eventKey(String eventKey) {
+        this.eventKey = eventKey;
+        return this;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public DomainEventOutboxEntry sequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public byte[] getPayload() {
+        return this.payload;
+    }
+
+    public DomainEventOutboxEntry payload(byte[] payload) {
+        this.payload = payload;
+        return this;
+    }
+
+    public void setPayload(byte[] payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public DomainEventOutboxEntry createdDate(Instant createdDate) {
+        this.createdDate = createdDate;
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DomainEventOutboxEntry)) {
+            return false;
+        }
+        return id != null && id.equals(((DomainEventOutboxEntry) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DomainEventOutboxEntry{" +
+            "id=" + getId() +
+            ", eventKey='" + getEventKey() + "'" +
+            ", sequence=" + getSequence() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
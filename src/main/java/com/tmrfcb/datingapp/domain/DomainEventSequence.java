@@ -0,0 +1,76 @@
+package com.tmrfcb.datingapp.domain;
+
+import java.io.Serializable;
+import javax.persistence.*;
+
+/**
+ * The last sequence number given to the domain events of a key.
+ * <p>
+ * The row of a key is updated in the transaction writing its events, and stays locked until that transaction ends, so
+ * that the events of a key are written, and committed, one transaction after the other.
+ */
+@Entity
+@Table(name = "domain_event_sequence")
+public class DomainEventSequence implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "event_key", length = 50)
+    private String eventKey;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    public String getEventKey() {
+        return this.eventKey;
+    }
+
+    public DomainEventSequence eventKey(String eventKey) {
+        this.eventKey = eventKey;
+        return this;
+    }
+
+    public void setEventKey(String eventKey) {
+        this.eventKey = eventKey;
+    }
+
+    public long getLastSequence() {
+        return this.lastSequence;
+    }
+
+    public DomainEventSequence lastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+        return this;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DomainEventSequence)) {
+            return false;
+        }
+        return eventKey != null && eventKey.equals(((DomainEventSequence) o).eventKey);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DomainEventSequence{" +
+            "eventKey='" + getEventKey() + "'" +
+            ", lastSequence=" + getLastSequence() +
+            "}";
+    }
+}
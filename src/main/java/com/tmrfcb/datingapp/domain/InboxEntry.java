@@ -0,0 +1,195 @@
+package com.tmrfcb.datingapp.domain;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import javax.persistence.*;
+
+/**
+ * The summary of a conversation in the inbox of one of its two users: the last message and how many messages the user
+ * has not read yet.
+ * <p>
+ * Entries are denormalized from {@link MatchRelation} and {@link Message}, and kept up to date as messages are sent, so
+ * that the inbox of a user is read from a single index range.
+ */
+@Entity
+@Table(name = "inbox_entry")
+public class InboxEntry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "match_relation_id", nullable = false)
+    private Long matchRelationId;
+
+    @Column(name = "other_user_id")
+    private Long otherUserId;
+
+    @Column(name = "last_message_id")
+    private Long lastMessageId;
+
+    @Column(name = "last_message_sender_id")
+    private String lastMessageSenderId;
+
+    @Column(name = "last_message_preview", length = 255)
+    private String lastMessagePreview;
+
+    @Column(name = "last_activity_date", nullable = false)
+    private ZonedDateTime lastActivityDate;
+
+    @Column(name = "unread_count", nullable = false)
+    private Integer unreadCount = 0;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public InboxEntry id(Long id) {
+        this.id = id;
+        return this;
+    }
+
+    public Long getOwnerId() {
+        return this.ownerId;
+    }
+
+    public InboxEntry ownerId(Long ownerId) {
+        this.ownerId = ownerId;
+        return this;
+    }
+
+    public void setOwnerId(Long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public Long getMatchRelationId() {
+        return this.matchRelationId;
+    }
+
+    public InboxEntry matchRelationId(Long matchRelationId) {
+        this.matchRelationId = matchRelationId;
+        return this;
+    }
+
+    public void setMatchRelationId(Long matchRelationId) {
+        this.matchRelationId = matchRelationId;
+    }
+
+    public Long getOtherUserId() {
+        return this.otherUserId;
+    }
+
+    public InboxEntry otherUserId(Long otherUserId) {
+        this.otherUserId = otherUserId;
+        return this;
+    }
+
+    public void setOtherUserId(Long otherUserId) {
+        this.otherUserId = otherUserId;
+    }
+
+    public Long getLastMessageId() {
+        return this.lastMessageId;
+    }
+
+    public InboxEntry lastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+        return this;
+    }
+
+    public void setLastMessageId(Long lastMessageId) {
+        this.lastMessageId = lastMessageId;
+    }
+
+    public String getLastMessageSenderId() {
+        return this.lastMessageSenderId;
+    }
+
+    public InboxEntry lastMessageSenderId(String lastMessageSenderId) {
+        this.lastMessageSenderId = lastMessageSenderId;
+        return this;
+    }
+
+    public void setLastMessageSenderId(String lastMessageSenderId) {
+        this.lastMessageSenderId = lastMessageSenderId;
+    }
+
+    public String getLastMessagePreview() {
+        return this.lastMessagePreview;
+    }
+
+    public InboxEntry lastMessagePreview(String lastMessagePreview) {
+        this.lastMessagePreview = lastMessagePreview;
+        return this;
+    }
+
+    public void setLastMessagePreview(String lastMessagePreview) {
+        this.lastMessagePreview = lastMessagePreview;
+    }
+
+    public ZonedDateTime getLastActivityDate() {
+        return this.lastActivityDate;
+    }
+
+    public InboxEntry lastActivityDate(ZonedDateTime lastActivityDate) {
+        this.lastActivityDate = lastActivityDate;
+        return this;
+    }
+
+    public void setLastActivityDate(ZonedDateTime lastActivityDate) {
+        this.lastActivityDate = lastActivityDate;
+    }
+
+    public Integer getUnreadCount() {
+        return this.unreadCount;
+    }
+
+    public InboxEntry unreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+        return this;
+    }
+
+    public void setUnreadCount(Integer unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InboxEntry)) {
+            return false;
+        }
+        return id != null && id.equals(((InboxEntry) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "InboxEntry{" +
+            "id=" + getId() +
+            ", ownerId=" + getOwnerId() +
+            ", matchRelationId=" + getMatchRelationId() +
+            ", otherUserId=" + getOtherUserId() +
+            ", lastMessageId=" + getLastMessageId() +
+            ", lastActivityDate='" + getLastActivityDate() + "'" +
+            ", unreadCount=" + getUnreadCount() +
+            "}";
+    }
+}
@@ -36,8 +36,17 @@ public class Location implements Serializable {
     @Column(name = "state_province")
     private String stateProvince;
 
-    @Column(name = "gps")
-    private Float gps;
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    /**
+     * Geohash of ({@link #latitude}, {@link #longitude}), maintained by the service layer and used for cell-prefix lookups.
+     */
+    @Column(name = "geohash", length = 12)
+    private String geohash;
 
     @OneToMany(mappedBy = "location")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
@@ -114,17 +123,43 @@ public class Location implements Serializable {
         this.stateProvince = stateProvince;
     }
 
-    public Float getGps() {
-        return this.gps;
+    public Double getLatitude() {
+        return this.latitude;
+    }
+
+    public Location latitude(Double latitude) {
+        this.latitude = latitude;
+        return this;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return this.longitude;
+    }
+
+    public Location longitude(Double longitude) {
+        this.longitude = longitude;
+        return this;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getGeohash() {
+        return this.geohash;
     }
 
-    public Location gps(Float gps) {
-        this.gps = gps;
+    public Location geohash(String geohash) {
+        this.geohash = geohash;
         return this;
     }
 
-    public void setGps(Float gps) {
-        this.gps = gps;
+    public void setGeohash(String geohash) {
+        this.geohash = geohash;
     }
 
     public Set<UserApp> getUserApps() {
@@ -205,7 +240,9 @@ public class Location implements Serializable {
             ", postalCode='" + getPostalCode() + "'" +
             ", city='" + getCity() + "'" +
             ", stateProvince='" + getStateProvince() + "'" +
-            ", gps=" + getGps() +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
+            ", geohash='" + getGeohash() + "'" +
             "}";
     }
 }
@@ -1,11 +1,13 @@
 package com.tmrfcb.datingapp.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.tmrfcb.datingapp.service.util.UserIdUtils;
 import java.io.Serializable;
 import java.time.ZonedDateTime;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
+import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.elasticsearch.annotations.FieldType;
@@ -14,7 +16,13 @@ import org.springframework.data.elasticsearch.annotations.FieldType;
  * A MatchRelation.
  */
 @Entity
-@Table(name = "match_relation")
+@Table(
+    name = "match_relation",
+    uniqueConstraints = @UniqueConstraint(
+        name = "ux_match_relation__user_low_id__user_high_id",
+        columnNames = { "user_low_id", "user_high_id" }
+    )
+)
 @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @org.springframework.data.elasticsearch.annotations.Document(indexName = "matchrelation")
 public class MatchRelation implements Serializable {
@@ -28,6 +36,20 @@ public class MatchRelation implements Serializable {
     @Column(name = "match_date")
     private ZonedDateTime matchDate;
 
+    /**
+     * Smallest id of the two matched users, so that a pair of users has a single match.
+     */
+    @NotNull
+    @Column(name = "user_low_id", nullable = false)
+    private Long userLowId;
+
+    /**
+     * Largest id of the two matched users.
+     */
+    @NotNull
+    @Column(name = "user_high_id", nullable = false)
+    private Long userHighId;
+
     @OneToMany(mappedBy = "matchRelation")
     @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonIgnoreProperties(value = { "matchRelation" }, allowSetters = true)
@@ -64,6 +86,32 @@ public class MatchRelation implements Serializable {
         this.matchDate = matchDate;
     }
 
+    public Long getUserLowId() {
+        return this.userLowId;
+    }
+
+    public MatchRelation userLowId(Long userLowId) {
+        this.userLowId = userLowId;
+        return this;
+    }
+
+    public void setUserLowId(Long userLowId) {
+        this.userLowId = userLowId;
+    }
+
+    public Long getUserHighId() {
+        return this.userHighId;
+    }
+
+    public MatchRelation userHighId(Long userHighId) {
+        this.userHighId = userHighId;
+        return this;
+    }
+
+    public void setUserHighId(Long userHighId) {
+        this.userHighId = userHighId;
+    }
+
     public Set<Message> getMessages() {
         return this.messages;
     }
@@ -114,6 +162,27 @@ public class MatchRelation implements Serializable {
         this.relation = relation;
     }
 
+    /**
+     * Fill the pair of users from the relation of the match when it is missing, and put it in order, whichever way the
+     * match is written.
+     */
+    @PrePersist
+    @PreUpdate
+    void orderUsers() {
+        if ((userLowId == null || userHighId == null) && relation != null && relation.getUserApp() != null) {
+            Long otherUserId = UserIdUtils.parseUserId(relation.getUserIdOfOther());
+            if (otherUserId != null) {
+                userLowId = relation.getUserApp().getId();
+                userHighId = otherUserId;
+            }
+        }
+        if (userLowId != null && userHighId != null && userLowId > userHighId) {
+            Long userId = userLowId;
+            userLowId = userHighId;
+            userHighId = userId;
+        }
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -139,6 +208,8 @@ public class MatchRelation implements Serializable {
         return "MatchRelation{" +
             "id=" + getId() +
             ", matchDate='" + getMatchDate() + "'" +
+            ", userLowId=" + getUserLowId() +
+            ", userHighId=" + getUserHighId() +
             "}";
     }
 }
@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.*;
+import javax.validation.constraints.*;
 import org.hibernate.annotations.Cache;
 import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.elasticsearch.annotations.FieldType;
@@ -40,6 +41,19 @@ public class UserApp implements Serializable {
     @Column(name = "birth_date")
     private LocalDate birthDate;
 
+    /**
+     * Login of the account owning the profile, the subject of its JWT, to which its WebSocket messages are pushed.
+     */
+    @Size(max = 50)
+    @Column(name = "login", length = 50, unique = true)
+    private String login;
+
+    /**
+     * Elo rating from the swipes received, only written by {@link com.tmrfcb.datingapp.service.DesirabilityService}.
+     */
+    @Column(name = "desirability", insertable = false, updatable = false)
+    private Double desirability = 1500d;
+
     @JsonIgnoreProperties(value = { "userApp" }, allowSetters = true)
     @OneToOne
     @JoinColumn(unique = true)
@@ -133,6 +147,23 @@ public class UserApp implements Serializable {
         this.birthDate = birthDate;
     }
 
+    public String getLogin() {
+        return this.login;
+    }
+
+    public UserApp login(String login) {
+        this.login = login;
+        return this;
+    }
+
+    public void setLogin(String login) {
+        this.login = login;
+    }
+
+    public Double getDesirability() {
+        return this.desirability;
+    }
+
     public Facebook getFacebook() {
         return this.facebook;
     }
@@ -219,6 +250,8 @@ public class UserApp implements Serializable {
             ", email='" + getEmail() + "'" +
             ", phoneNumber='" + getPhoneNumber() + "'" +
             ", birthDate='" + getBirthDate() + "'" +
+            ", login='" + getLogin() + "'" +
+            ", desirability=" + getDesirability() +
             "}";
     }
 }
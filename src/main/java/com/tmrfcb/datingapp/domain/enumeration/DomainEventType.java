@@ -0,0 +1,32 @@
+package com.tmrfcb.datingapp.domain.enumeration;
+
+/**
+ * The DomainEventType enumeration.
+ * <p>
+ * The code of each type is part of the binary format of the events: it must never change.
+ */
+public enum DomainEventType {
+    MATCH_CREATED(1),
+    MESSAGE_SENT(2),
+    USER_REPORTED(3),
+    LOCATION_CHANGED(4);
+
+    private final int code;
+
+    DomainEventType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static DomainEventType fromCode(int code) {
+        for (DomainEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown domain event type " + code);
+    }
+}
@@ -0,0 +1,9 @@
+package com.tmrfcb.datingapp.domain.enumeration;
+
+/**
+ * The SearchOperation enumeration.
+ */
+public enum SearchOperation {
+    INDEX,
+    DELETE,
+}
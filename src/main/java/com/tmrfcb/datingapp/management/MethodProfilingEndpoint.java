@@ -0,0 +1,58 @@
+package com.tmrfcb.datingapp.management;
+
+import com.tmrfcb.datingapp.aop.logging.LoggingAspect;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * {@code /management/methodprofiling} endpoint, switching the {@link LoggingAspect} and its timing at runtime.
+ * <p>
+ * {@code GET} returns the current settings. {@code POST} changes the {@code enabled}, {@code timing},
+ * {@code sampleRate} and {@code logArguments} parameters which are given, then returns the new settings. The timings are published as the
+ * {@value LoggingAspect#METHOD_TIMER} timer.
+ */
+@Endpoint(id = "methodprofiling")
+public class MethodProfilingEndpoint {
+
+    private final LoggingAspect loggingAspect;
+
+    public MethodProfilingEndpoint(LoggingAspect loggingAspect) {
+        this.loggingAspect = loggingAspect;
+    }
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("enabled", loggingAspect.isEnabled());
+        settings.put("timing", loggingAspect.isTiming());
+        settings.put("sampleRate", loggingAspect.getSampleRate());
+        settings.put("logArguments", loggingAspect.isLogArguments());
+        return settings;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(
+        @Nullable Boolean enabled,
+        @Nullable Boolean timing,
+        @Nullable Double sampleRate,
+        @Nullable Boolean logArguments
+    ) {
+        if (sampleRate != null) {
+            loggingAspect.setSampleRate(sampleRate);
+        }
+        if (timing != null) {
+            loggingAspect.setTiming(timing);
+        }
+        if (logArguments != null) {
+            loggingAspect.setLogArguments(logArguments);
+        }
+        if (enabled != null) {
+            loggingAspect.setEnabled(enabled);
+        }
+        return settings();
+    }
+}
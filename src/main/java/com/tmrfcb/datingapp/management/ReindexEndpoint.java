@@ -0,0 +1,48 @@
+package com.tmrfcb.datingapp.management;
+
+import com.tmrfcb.datingapp.service.ReindexService;
+import com.tmrfcb.datingapp.service.dto.ReindexProgressDTO;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /management/reindex} endpoint, rebuilding the Elasticsearch indexes from the database.
+ * <p>
+ * {@code GET} returns the progress of each index, with its throughput and estimated time to completion. {@code POST}
+ * starts rebuilding the indexes given as a comma-separated {@code indexes} parameter, or all of them.
+ */
+@Component
+@Endpoint(id = "reindex")
+public class ReindexEndpoint {
+
+    private final ReindexService reindexService;
+
+    public ReindexEndpoint(ReindexService reindexService) {
+        this.reindexService = reindexService;
+    }
+
+    @ReadOperation
+    public List<ReindexProgressDTO> progress() {
+        return reindexService.getProgress();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reindex(@Nullable String indexes) {
+        List<String> selected = indexes == null
+            ? Collections.emptyList()
+            : Arrays.stream(indexes.split(",")).map(String::trim).filter(index -> !index.isEmpty()).collect(Collectors.toList());
+        Map<String, Object> result = new HashMap<>();
+        result.put("started", reindexService.start(selected));
+        result.put("progress", reindexService.getProgress());
+        return result;
+    }
+}
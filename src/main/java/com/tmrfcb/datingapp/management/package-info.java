@@ -0,0 +1,4 @@
+/**
+ * Spring Boot Actuator endpoints.
+ */
+package com.tmrfcb.datingapp.management;
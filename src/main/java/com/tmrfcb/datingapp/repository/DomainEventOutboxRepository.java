@@ -0,0 +1,31 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.DomainEventOutboxEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the DomainEventOutboxEntry entity.
+ */
+@Repository
+public interface DomainEventOutboxRepository extends JpaRepository<DomainEventOutboxEntry, Long> {
+    /**
+     * Get the oldest pending events, in the order they were written.
+     *
+     * @param pageable the maximum number of events.
+     * @return the list of events.
+     */
+    @Query("select entry from DomainEventOutboxEntry entry order by entry.id")
+    List<DomainEventOutboxEntry> findOldest(Pageable pageable);
+
+    Optional<DomainEventOutboxEntry> findFirstByOrderByIdAsc();
+
+    @Modifying
+    @Query("delete from DomainEventOutboxEntry entry where entry.id in :ids")
+    void deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,29 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.DomainEventSequence;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the DomainEventSequence entity.
+ */
+@Repository
+public interface DomainEventSequenceRepository extends JpaRepository<DomainEventSequence, String> {
+    /**
+     * Reserve sequence numbers for the events of a key, locking its row until the end of the transaction.
+     *
+     * @param eventKey the key of the events.
+     * @param count the number of sequence numbers to reserve.
+     * @return the number of updated rows, 0 if the key has no row yet.
+     */
+    @Modifying
+    @Query(
+        "update DomainEventSequence eventSequence set eventSequence.lastSequence = eventSequence.lastSequence + :count " +
+        "where eventSequence.eventKey = :eventKey"
+    )
+    int increment(@Param("eventKey") String eventKey, @Param("count") long count);
+
+    @Query("select eventSequence.lastSequence from DomainEventSequence eventSequence where eventSequence.eventKey = :eventKey")
+    long findLastSequence(@Param("eventKey") String eventKey);
+}
@@ -0,0 +1,51 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.InboxEntry;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the InboxEntry entity.
+ */
+@Repository
+public interface InboxEntryRepository extends JpaRepository<InboxEntry, Long> {
+    /**
+     * Get the inbox of a user, most recent conversation first, served by the (owner_id, last_activity_date, id) index.
+     *
+     * @param ownerId the id of the user.
+     * @param pageable the pagination information.
+     * @return the page of entries.
+     */
+    @Query(
+        value = "select entry from InboxEntry entry where entry.ownerId = :ownerId " +
+        "order by entry.lastActivityDate desc, entry.id desc",
+        countQuery = "select count(entry) from InboxEntry entry where entry.ownerId = :ownerId"
+    )
+    Page<InboxEntry> findInbox(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Get and lock the entries of a conversation, one per user, to update them.
+     *
+     * @param matchRelationId the id of the matchRelation.
+     * @return the entries.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select entry from InboxEntry entry where entry.matchRelationId = :matchRelationId")
+    List<InboxEntry> findAllForUpdate(@Param("matchRelationId") Long matchRelationId);
+
+    @Modifying
+    @Query(
+        "update InboxEntry entry set entry.unreadCount = 0 " +
+        "where entry.ownerId = :ownerId and entry.matchRelationId = :matchRelationId"
+    )
+    int markRead(@Param("ownerId") Long ownerId, @Param("matchRelationId") Long matchRelationId);
+
+    @Modifying
+    @Query("delete from InboxEntry entry where entry.matchRelationId = :matchRelationId")
+    void deleteAllByMatchRelationId(@Param("matchRelationId") Long matchRelationId);
+}
@@ -1,7 +1,12 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.Location;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +14,49 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface LocationRepository extends JpaRepository<Location, Long> {}
+public interface LocationRepository extends LocationRepositoryWithGeoQueries, JpaRepository<Location, Long> {
+    /**
+     * Stream the position of every user having a located {@link Location}, without hydrating any entity.
+     * The stream must be consumed, and closed, within a transaction.
+     * <p>
+     * MySQL only reads the rows by batches of the fetch size with {@code useCursorFetch=true}, set in the data source
+     * properties: otherwise the whole result is buffered. H2 rejects the {@code Integer.MIN_VALUE} fetch size which
+     * would stream without it.
+     *
+     * @return the positions.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+        "select userApp.id as userId, location.latitude as latitude, location.longitude as longitude " +
+        "from UserApp userApp join userApp.location location " +
+        "where location.latitude is not null and location.longitude is not null"
+    )
+    Stream<UserPosition> streamUserPositions();
+
+    /**
+     * Get the position of a user, without hydrating any entity.
+     *
+     * @param userId the id of the user.
+     * @return the position, if the user has a located {@link Location}.
+     */
+    @Query(
+        "select userApp.id as userId, location.latitude as latitude, location.longitude as longitude " +
+        "from UserApp userApp join userApp.location location " +
+        "where userApp.id = :userId and location.latitude is not null and location.longitude is not null"
+    )
+    Optional<UserPosition> findUserPosition(@Param("userId") Long userId);
+
+    @Query("select userApp.id from UserApp userApp where userApp.location.id = :locationId")
+    List<Long> findUserIdsByLocationId(@Param("locationId") Long locationId);
+
+    /**
+     * Position of a user, as streamed by {@link #streamUserPositions()}.
+     */
+    interface UserPosition {
+        Long getUserId();
+
+        Double getLatitude();
+
+        Double getLongitude();
+    }
+}
@@ -0,0 +1,38 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.Location;
+import java.util.Collection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Geospatial queries for the {@link Location} entity.
+ */
+public interface LocationRepositoryWithGeoQueries {
+    /**
+     * Find the ids of the locations within a radius of a position, nearest first, among those whose geohash starts
+     * with one of the given cells and which are inside the given bounding box.
+     *
+     * @param cells the geohash cell prefixes.
+     * @param minLatitude the minimum latitude, inclusive.
+     * @param maxLatitude the maximum latitude, inclusive.
+     * @param minLongitude the minimum longitude, inclusive, or {@code null} to not restrict longitudes.
+     * @param maxLongitude the maximum longitude, inclusive, or {@code null} to not restrict longitudes.
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param radiusKm the radius, in kilometers.
+     * @param pageable the pagination information, whose sort is ignored.
+     * @return the page of ids.
+     */
+    Page<Long> findIdsNearby(
+        Collection<String> cells,
+        double minLatitude,
+        double maxLatitude,
+        Double minLongitude,
+        Double maxLongitude,
+        double latitude,
+        double longitude,
+        double radiusKm,
+        Pageable pageable
+    );
+}
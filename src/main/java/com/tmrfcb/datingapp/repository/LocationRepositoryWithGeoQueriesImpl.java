@@ -0,0 +1,149 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.service.util.GeoUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+
+/**
+ * Criteria based implementation of {@link LocationRepositoryWithGeoQueries}.
+ * <p>
+ * Each cell becomes a {@code geohash LIKE 'cell%'} range on the {@code idx_location__geohash} index, and the bounding box
+ * is evaluated on the same index entries, so matching rows are found without scanning the table. Only the id and the
+ * distance are selected, which the index entries also hold, and the database filters on the distance, orders by it and
+ * applies the limit of the page.
+ */
+public class LocationRepositoryWithGeoQueriesImpl implements LocationRepositoryWithGeoQueries {
+
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+
+    private final EntityManager entityManager;
+
+    public LocationRepositoryWithGeoQueriesImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Page<Long> findIdsNearby(
+        Collection<String> cells,
+        double minLatitude,
+        double maxLatitude,
+        Double minLongitude,
+        Double maxLongitude,
+        double latitude,
+        double longitude,
+        double radiusKm,
+        Pageable pageable
+    ) {
+        if (cells.isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, 0);
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Location> location = query.from(Location.class);
+        Expression<Double> haversine = haversine(cb, location, latitude, longitude);
+        Path<Long> id = location.get("id");
+        query
+            .multiselect(id, haversine)
+            .where(nearby(cb, location, cells, minLatitude, maxLatitude, minLongitude, maxLongitude, haversine, radiusKm))
+            .orderBy(cb.asc(haversine), cb.asc(id));
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        List<Long> ids = new ArrayList<>();
+        typedQuery.getResultList().forEach(tuple -> ids.add(tuple.get(0, Long.class)));
+
+        return PageableExecutionUtils.getPage(
+            ids,
+            pageable,
+            () -> {
+                CriteriaQuery<Long> countQuery = cb.createQuery(Long.class);
+                Root<Location> counted = countQuery.from(Location.class);
+                countQuery
+                    .select(cb.count(counted))
+                    .where(
+                        nearby(
+                            cb,
+                            counted,
+                            cells,
+                            minLatitude,
+                            maxLatitude,
+                            minLongitude,
+                            maxLongitude,
+                            haversine(cb, counted, latitude, longitude),
+                            radiusKm
+                        )
+                    );
+                return entityManager.createQuery(countQuery).getSingleResult();
+            }
+        );
+    }
+
+    private static Predicate[] nearby(
+        CriteriaBuilder cb,
+        Root<Location> location,
+        Collection<String> cells,
+        double minLatitude,
+        double maxLatitude,
+        Double minLongitude,
+        Double maxLongitude,
+        Expression<Double> haversine,
+        double radiusKm
+    ) {
+        Path<String> geohash = location.get("geohash");
+        List<Predicate> cellPredicates = new ArrayList<>(cells.size());
+        for (String cell : cells) {
+            cellPredicates.add(cb.like(geohash, cell + "%"));
+        }
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.or(cellPredicates.toArray(new Predicate[0])));
+        predicates.add(cb.between(location.get("latitude"), minLatitude, maxLatitude));
+        if (minLongitude != null && maxLongitude != null) {
+            predicates.add(cb.between(location.get("longitude"), minLongitude, maxLongitude));
+        }
+        predicates.add(cb.le(haversine, maxHaversine(radiusKm)));
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    /**
+     * The haversine of the central angle between a location and a position, in the {@code a} of
+     * {@link GeoUtils#haversineKm(double, double, double, double)}: it grows with the distance, so it is compared and
+     * ordered on in place of the distance, without the square root and arcsine of every row.
+     */
+    private static Expression<Double> haversine(CriteriaBuilder cb, Root<Location> location, double latitude, double longitude) {
+        Path<Double> otherLatitude = location.get("latitude");
+        Path<Double> otherLongitude = location.get("longitude");
+        Expression<Double> sinLat = cb.function("sin", Double.class, cb.prod(cb.diff(otherLatitude, latitude), RADIANS_PER_DEGREE / 2));
+        Expression<Double> sinLon = cb.function("sin", Double.class, cb.prod(cb.diff(otherLongitude, longitude), RADIANS_PER_DEGREE / 2));
+        Expression<Double> cosLat = cb.function("cos", Double.class, cb.prod(otherLatitude, RADIANS_PER_DEGREE));
+        return cb.sum(cb.prod(sinLat, sinLat), cb.prod(cb.prod(cosLat, Math.cos(Math.toRadians(latitude))), cb.prod(sinLon, sinLon)));
+    }
+
+    /**
+     * The haversine of the central angle of a distance, past which locations are out of the radius.
+     */
+    private static double maxHaversine(double radiusKm) {
+        double halfAngle = radiusKm / (2 * GeoUtils.EARTH_RADIUS_KM);
+        if (halfAngle >= Math.PI / 2) {
+            return 1;
+        }
+        double sinHalfAngle = Math.sin(halfAngle);
+        return sinHalfAngle * sinHalfAngle;
+    }
+}
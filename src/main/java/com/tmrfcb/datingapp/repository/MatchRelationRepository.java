@@ -1,7 +1,10 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.MatchRelation;
+import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +12,13 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MatchRelationRepository extends JpaRepository<MatchRelation, Long> {}
+public interface MatchRelationRepository extends JpaRepository<MatchRelation, Long> {
+    Optional<MatchRelation> findOneByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+
+    /**
+     * Get and lock a matchRelation, to serialize the updates of its conversation.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select matchRelation from MatchRelation matchRelation where matchRelation.id = :id")
+    Optional<MatchRelation> findOneForUpdate(@Param("id") Long id);
+}
@@ -1,7 +1,11 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.Message;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +13,41 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface MessageRepository extends JpaRepository<Message, Long> {}
+public interface MessageRepository extends JpaRepository<Message, Long> {
+    /**
+     * Get the newest messages of a conversation, served by the (match_relation_id, message_date, id) index.
+     */
+    @Query(
+        "select message from Message message " +
+        "where message.matchRelation.id = :matchRelationId and message.messageDate is not null " +
+        "order by message.messageDate desc, message.id desc"
+    )
+    List<Message> findLatestByMatchRelationId(@Param("matchRelationId") Long matchRelationId, Pageable pageable);
+
+    /**
+     * Get the messages of a conversation strictly older than a position, seeking the (match_relation_id, message_date, id)
+     * index so that the cost does not depend on how deep the position is.
+     */
+    @Query(
+        "select message from Message message " +
+        "where message.matchRelation.id = :matchRelationId " +
+        "and (message.messageDate < :messageDate or (message.messageDate = :messageDate and message.id < :id)) " +
+        "order by message.messageDate desc, message.id desc"
+    )
+    List<Message> findBeforeByMatchRelationId(
+        @Param("matchRelationId") Long matchRelationId,
+        @Param("messageDate") ZonedDateTime messageDate,
+        @Param("id") Long id,
+        Pageable pageable
+    );
+
+    /**
+     * Get the newest messages received by a user, served by the (receiver_id, message_date) index.
+     */
+    List<Message> findByReceiverIdOrderByMessageDateDesc(String receiverId, Pageable pageable);
+
+    /**
+     * Get the newest messages sent by a user, served by the (sender_id, message_date) index.
+     */
+    List<Message> findBySenderIdOrderByMessageDateDesc(String senderId, Pageable pageable);
+}
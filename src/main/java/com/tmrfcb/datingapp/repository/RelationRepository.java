@@ -1,7 +1,15 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +17,71 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface RelationRepository extends JpaRepository<Relation, Long> {}
+public interface RelationRepository extends JpaRepository<Relation, Long>, RelationRepositoryWithBatchInsert {
+    @Query(
+        "select relation.userIdOfOther from Relation relation " +
+        "where relation.userApp.id = :userAppId and relation.relationType is not null"
+    )
+    List<String> findSwipedUserIdsByUserAppId(@Param("userAppId") Long userAppId);
+
+    /**
+     * Stream every swipe, without hydrating any entity. The stream must be consumed, and closed, within a transaction.
+     * <p>
+     * MySQL only reads the rows by batches of the fetch size with {@code useCursorFetch=true}, set in the data source
+     * properties: otherwise the whole table is buffered. {@code Integer.MIN_VALUE} would stream too without it, but H2
+     * rejects a negative fetch size.
+     *
+     * @return the swipes.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query(
+        "select relation.userApp.id as userId, relation.userIdOfOther as userIdOfOther, relation.relationType as relationType " +
+        "from Relation relation where relation.userApp is not null and relation.relationType is not null"
+    )
+    Stream<Swipe> streamSwipes();
+
+    @Query(
+        "select relation.userApp.id as userId, relation.userIdOfOther as userIdOfOther, relation.relationType as relationType " +
+        "from Relation relation where relation.userApp.id = :userAppId and relation.relationType is not null"
+    )
+    List<Swipe> findSwipesByUserAppId(@Param("userAppId") Long userAppId);
+
+    /**
+     * Get the relations of a user towards another one, served by the (user_app_id, user_id_of_other, relation_type)
+     * index.
+     */
+    List<Relation> findByUserAppIdAndUserIdOfOther(Long userAppId, String userIdOfOther);
+
+    Optional<Relation> findFirstByUserAppIdAndUserIdOfOther(Long userAppId, String userIdOfOther);
+
+    /**
+     * Get the swipes of given types received by a user, such as its likes, served by the (user_id_of_other,
+     * relation_type) index.
+     */
+    List<Relation> findByUserIdOfOtherAndRelationTypeIn(String userIdOfOther, Collection<RelationType> relationTypes, Pageable pageable);
+
+    Optional<Relation> findFirstByUserAppIdAndUserIdOfOtherAndRelationTypeIn(
+        Long userAppId,
+        String userIdOfOther,
+        Collection<RelationType> relationTypes
+    );
+
+    List<Relation> findAllByUserAppIdInAndUserIdOfOtherIn(Collection<Long> userAppIds, Collection<String> userIdsOfOther);
+
+    List<Relation> findAllByUserAppIdInAndUserIdOfOtherInAndRelationTypeIn(
+        Collection<Long> userAppIds,
+        Collection<String> userIdsOfOther,
+        Collection<RelationType> relationTypes
+    );
+
+    /**
+     * Swipe of a user on another user's profile, as streamed by {@link #streamSwipes()}.
+     */
+    interface Swipe {
+        Long getUserId();
+
+        String getUserIdOfOther();
+
+        RelationType getRelationType();
+    }
+}
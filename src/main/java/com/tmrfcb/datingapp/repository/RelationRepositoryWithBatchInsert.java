@@ -0,0 +1,19 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.Relation;
+import java.util.List;
+
+/**
+ * Batch insertion of {@link Relation} entities.
+ */
+public interface RelationRepositoryWithBatchInsert {
+    /**
+     * Insert new relations using JDBC batches, and set their generated ids.
+     * <p>
+     * The relations are not attached to the persistence context: they must not be modified afterwards in the same
+     * transaction.
+     *
+     * @param relations the relations to insert, without id.
+     */
+    void insertAll(List<Relation> relations);
+}
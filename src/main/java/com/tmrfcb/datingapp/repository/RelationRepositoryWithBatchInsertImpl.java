@@ -0,0 +1,100 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.Objects;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * JDBC based implementation of {@link RelationRepositoryWithBatchInsert}.
+ * <p>
+ * Hibernate disables insert batching for entities with {@code IDENTITY} ids, as it needs each generated id right away,
+ * so {@code hibernate.jdbc.batch_size} is applied here on a plain {@link PreparedStatement} on the connection of the
+ * current transaction, reading the ids back from its generated keys.
+ */
+public class RelationRepositoryWithBatchInsertImpl implements RelationRepositoryWithBatchInsert {
+
+    private static final String INSERT_SQL =
+        "insert into relation (user_id_of_other, relation_type, match_relation_id, unmatch_relation_id, user_app_id) " +
+        "values (?, ?, ?, ?, ?)";
+
+    private static final int DEFAULT_BATCH_SIZE = 25;
+
+    private final EntityManager entityManager;
+
+    public RelationRepositoryWithBatchInsertImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void insertAll(List<Relation> relations) {
+        if (relations.isEmpty()) {
+            return;
+        }
+        int batchSize = batchSize();
+        Session session = entityManager.unwrap(Session.class);
+        // Pending changes, such as a new match referenced by the relations, must be written first
+        session.flush();
+        session.doWork(
+            connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int start = 0; start < relations.size(); start += batchSize) {
+                        List<Relation> batch = relations.subList(start, Math.min(relations.size(), start + batchSize));
+                        for (Relation relation : batch) {
+                            statement.setString(1, relation.getUserIdOfOther());
+                            statement.setString(2, relation.getRelationType() != null ? relation.getRelationType().name() : null);
+                            setId(statement, 3, relation.getMatchRelation() != null ? relation.getMatchRelation().getId() : null);
+                            setId(statement, 4, relation.getUnmatchRelation() != null ? relation.getUnmatchRelation().getId() : null);
+                            setId(statement, 5, relation.getUserApp() != null ? relation.getUserApp().getId() : null);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                        try (ResultSet keys = statement.getGeneratedKeys()) {
+                            for (Relation relation : batch) {
+                                if (!keys.next()) {
+                                    throw new IllegalStateException("Missing generated key for Relation " + relation);
+                                }
+                                relation.setId(keys.getLong(1));
+                            }
+                        }
+                    }
+                }
+            }
+        );
+
+        // The cached relations of the owners no longer match the table
+        SessionFactory sessionFactory = session.getSessionFactory();
+        relations
+            .stream()
+            .map(Relation::getUserApp)
+            .filter(Objects::nonNull)
+            .map(UserApp::getId)
+            .distinct()
+            .forEach(userAppId -> sessionFactory.getCache().evictCollectionData(UserApp.class.getName() + ".relations", userAppId));
+    }
+
+    private int batchSize() {
+        Object batchSize = entityManager.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        if (batchSize == null) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        int size = Integer.parseInt(batchSize.toString());
+        return size > 0 ? size : DEFAULT_BATCH_SIZE;
+    }
+
+    private static void setId(PreparedStatement statement, int index, Long id) throws SQLException {
+        if (id == null) {
+            statement.setNull(index, Types.BIGINT);
+        } else {
+            statement.setLong(index, id);
+        }
+    }
+}
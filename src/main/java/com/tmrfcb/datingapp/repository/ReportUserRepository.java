@@ -1,6 +1,7 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.ReportUser;
+import java.util.List;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
@@ -9,4 +10,11 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface ReportUserRepository extends JpaRepository<ReportUser, Long> {}
+public interface ReportUserRepository extends JpaRepository<ReportUser, Long> {
+    /**
+     * Get the reports of a user, served by the user_id index.
+     */
+    List<ReportUser> findByUserId(String userId);
+
+    long countByUserId(String userId);
+}
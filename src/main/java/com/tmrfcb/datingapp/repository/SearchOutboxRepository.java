@@ -0,0 +1,31 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.SearchOutboxEntry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the SearchOutboxEntry entity.
+ */
+@Repository
+public interface SearchOutboxRepository extends JpaRepository<SearchOutboxEntry, Long> {
+    /**
+     * Get the oldest pending entries, in the order they were written.
+     *
+     * @param pageable the maximum number of entries.
+     * @return the list of entries.
+     */
+    @Query("select entry from SearchOutboxEntry entry order by entry.id")
+    List<SearchOutboxEntry> findOldest(Pageable pageable);
+
+    Optional<SearchOutboxEntry> findFirstByOrderByIdAsc();
+
+    @Modifying
+    @Query("delete from SearchOutboxEntry entry where entry.id in :ids")
+    void deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+}
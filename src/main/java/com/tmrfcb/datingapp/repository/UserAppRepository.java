@@ -1,7 +1,14 @@
 package com.tmrfcb.datingapp.repository;
 
 import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.service.dto.ProfileCardDTO;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -9,4 +16,94 @@ import org.springframework.stereotype.Repository;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface UserAppRepository extends JpaRepository<UserApp, Long> {}
+public interface UserAppRepository extends JpaRepository<UserApp, Long>, UserAppRepositoryWithDesirability {
+    /**
+     * Get the profile cards of users, reading only the columns they show.
+     *
+     * @param ids the ids of the users.
+     * @return the cards of the users which exist, in no particular order.
+     */
+    @Query(
+        "select new com.tmrfcb.datingapp.service.dto.ProfileCardDTO(userApp.id, userApp.firstName, userApp.birthDate, location.city, country.countryName) " +
+        "from UserApp userApp left join userApp.location location left join location.country country " +
+        "where userApp.id in :ids"
+    )
+    List<ProfileCardDTO> findProfileCards(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Find the users with an email, served by the email index. Emails are not unique, hence a list.
+     */
+    List<UserApp> findByEmail(String email);
+
+    /**
+     * Find the users with a phone number, served by the phone_number index. Phone numbers are not unique, hence a list.
+     */
+    List<UserApp> findByPhoneNumber(String phoneNumber);
+
+    /**
+     * Get the login of the account owning a user, to which its WebSocket messages are pushed.
+     *
+     * @param id the id of the user.
+     * @return the login, empty if the user does not exist or has no login.
+     */
+    @Query("select userApp.login from UserApp userApp where userApp.id = :id")
+    Optional<String> findLoginById(@Param("id") Long id);
+
+    /**
+     * Get the ids of the users of a country, in pages following an id.
+     *
+     * @param countryId the id of the country.
+     * @param afterId the last id of the previous page.
+     * @param pageable the size of the page.
+     * @return the ids, in ascending order.
+     */
+    @Query(
+        "select userApp.id from UserApp userApp where userApp.location.country.id = :countryId and userApp.id > :afterId " +
+        "order by userApp.id"
+    )
+    List<Long> findIdsByCountryIdAfter(@Param("countryId") Long countryId, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Keep the users born within a range of dates.
+     *
+     * @param ids the ids of the users.
+     * @param earliest the earliest birth date, inclusive.
+     * @param latest the latest birth date, inclusive.
+     * @return the ids of the users born within the range, in no particular order.
+     */
+    @Query("select userApp.id from UserApp userApp where userApp.id in :ids and userApp.birthDate between :earliest and :latest")
+    List<Long> findIdsBornBetween(
+        @Param("ids") Collection<Long> ids,
+        @Param("earliest") LocalDate earliest,
+        @Param("latest") LocalDate latest
+    );
+
+    /**
+     * Get the desirability of users.
+     *
+     * @param ids the ids of the users.
+     * @return the ratings of the users which exist, in no particular order.
+     */
+    @Query("select userApp.id as id, userApp.desirability as desirability from UserApp userApp where userApp.id in :ids")
+    List<Desirability> findDesirabilities(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Get the users rated within a range, best rated first, using the index on the rating.
+     *
+     * @param min the lowest rating, inclusive.
+     * @param max the highest rating, inclusive.
+     * @param pageable the page of users to get.
+     * @return the ids of the users.
+     */
+    @Query("select userApp.id from UserApp userApp where userApp.desirability between :min and :max order by userApp.desirability desc")
+    List<Long> findIdsByDesirabilityBetween(@Param("min") double min, @Param("max") double max, Pageable pageable);
+
+    /**
+     * Rating of a user, as read by {@link #findDesirabilities(Collection)}.
+     */
+    interface Desirability {
+        Long getId();
+
+        Double getDesirability();
+    }
+}
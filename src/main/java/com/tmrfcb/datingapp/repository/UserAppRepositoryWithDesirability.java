@@ -0,0 +1,18 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.UserApp;
+import java.util.Map;
+
+/**
+ * Batch update of the desirability of {@link UserApp} entities.
+ */
+public interface UserAppRepositoryWithDesirability {
+    /**
+     * Add changes to the desirability of users using JDBC batches. The changes are added to the stored ratings rather
+     * than overwriting them, so that instances flushing concurrently do not lose each other's.
+     *
+     * @param deltas the change of rating of each user.
+     * @return the number of users updated, which excludes deleted users.
+     */
+    int addDesirability(Map<Long, Double> deltas);
+}
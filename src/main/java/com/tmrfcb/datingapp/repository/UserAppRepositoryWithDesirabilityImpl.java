@@ -0,0 +1,78 @@
+package com.tmrfcb.datingapp.repository;
+
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+/**
+ * JDBC based implementation of {@link UserAppRepositoryWithDesirability}.
+ * <p>
+ * A bulk HQL update would evict the whole {@link UserApp} region of the second level cache, so the updates are
+ * batched on a plain {@link PreparedStatement} on the connection of the current transaction, and only the updated
+ * entities are evicted, once the transaction commits.
+ */
+public class UserAppRepositoryWithDesirabilityImpl implements UserAppRepositoryWithDesirability {
+
+    private static final String UPDATE_SQL = "update user_app set desirability = desirability + ? where id = ?";
+
+    private static final int DEFAULT_BATCH_SIZE = 25;
+
+    private final EntityManager entityManager;
+
+    public UserAppRepositoryWithDesirabilityImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public int addDesirability(Map<Long, Double> deltas) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        int batchSize = batchSize();
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(deltas.entrySet());
+        Session session = entityManager.unwrap(Session.class);
+        int updated = session.doReturningWork(
+            connection -> {
+                int count = 0;
+                try (PreparedStatement statement = connection.prepareStatement(UPDATE_SQL)) {
+                    for (int start = 0; start < entries.size(); start += batchSize) {
+                        for (Map.Entry<Long, Double> entry : entries.subList(start, Math.min(entries.size(), start + batchSize))) {
+                            statement.setDouble(1, entry.getValue());
+                            statement.setLong(2, entry.getKey());
+                            statement.addBatch();
+                        }
+                        for (int rows : statement.executeBatch()) {
+                            // Some drivers only report that a statement of the batch succeeded
+                            count += rows == PreparedStatement.SUCCESS_NO_INFO ? 1 : rows;
+                        }
+                    }
+                }
+                return count;
+            }
+        );
+
+        // The cached users no longer match the table once committed: evicting them earlier would let a concurrent
+        // transaction cache them again from the table before the update is visible
+        SessionFactory sessionFactory = session.getSessionFactory();
+        List<Long> userAppIds = new ArrayList<>(deltas.keySet());
+        TransactionUtils.runAfterCommit(
+            () -> userAppIds.forEach(userAppId -> sessionFactory.getCache().evictEntityData(UserApp.class, userAppId))
+        );
+        return updated;
+    }
+
+    private int batchSize() {
+        Object batchSize = entityManager.getEntityManagerFactory().getProperties().get("hibernate.jdbc.batch_size");
+        if (batchSize == null) {
+            return DEFAULT_BATCH_SIZE;
+        }
+        int size = Integer.parseInt(batchSize.toString());
+        return size > 0 ? size : DEFAULT_BATCH_SIZE;
+    }
+}
@@ -0,0 +1,61 @@
+package com.tmrfcb.datingapp.security.jwt;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
+
+/**
+ * Authenticates STOMP sessions with the token sent in the {@value JWTFilter#AUTHORIZATION_HEADER} header of the
+ * {@code CONNECT} frame, as browsers cannot set headers on the WebSocket handshake itself.
+ * <p>
+ * The user of the session is then the subject of the token, which is used to route user destinations. The other frames
+ * need an authenticated session: clients only subscribe to their own user destinations, under
+ * {@value #USER_QUEUE_PREFIX}, never to the broker queues they are resolved to, which would let them read the messages
+ * of other sessions; and they only send to the application destinations, under {@value #APPLICATION_PREFIX}.
+ */
+public class JWTChannelInterceptor implements ChannelInterceptor {
+    public static final String USER_QUEUE_PREFIX = "/user/queue/";
+
+    public static final String APPLICATION_PREFIX = "/app/";
+
+    private final TokenProvider tokenProvider;
+
+    public JWTChannelInterceptor(TokenProvider tokenProvider) {
+        this.tokenProvider = tokenProvider;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String jwt = JWTFilter.resolveToken(accessor.getFirstNativeHeader(JWTFilter.AUTHORIZATION_HEADER));
+            Authentication authentication = StringUtils.hasText(jwt) ? tokenProvider.authenticate(jwt) : null;
+            if (authentication == null) {
+                throw new BadCredentialsException("Invalid JWT token");
+            }
+            accessor.setUser(authentication);
+        } else if (accessor != null && StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            checkDestination(accessor, USER_QUEUE_PREFIX);
+        } else if (accessor != null && StompCommand.SEND.equals(accessor.getCommand())) {
+            checkDestination(accessor, APPLICATION_PREFIX);
+        }
+        return message;
+    }
+
+    private static void checkDestination(StompHeaderAccessor accessor, String prefix) {
+        if (accessor.getUser() == null) {
+            throw new AccessDeniedException("Unauthenticated STOMP session");
+        }
+        String destination = accessor.getDestination();
+        if (destination == null || !destination.startsWith(prefix)) {
+            throw new AccessDeniedException("Destination not allowed: " + destination);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.tmrfcb.datingapp.security.jwt;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.security.core.userdetails.User;
+
+/**
+ * Bounded cache of the principals of verified tokens, until the tokens expire.
+ * <p>
+ * Tokens are spread by hash over least recently used segments, each guarded by its own monitor, so that concurrent
+ * requests rarely wait on each other. Entries are keyed by the whole token rather than by a digest of it: a token
+ * colliding with a cached one must never borrow its principal.
+ */
+final class TokenCache {
+
+    private final Segment[] segments;
+
+    /**
+     * @param stripes the number of segments, rounded up to a power of two of at least {@code 2}.
+     * @param maximumSize the number of tokens past which the least recently used ones are evicted.
+     */
+    TokenCache(int stripes, int maximumSize) {
+        if (stripes <= 0 || maximumSize <= 0) {
+            throw new IllegalArgumentException("Stripes and maximum size must be positive");
+        }
+        int length = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        int segmentSize = Math.max(1, maximumSize / length);
+        this.segments = new Segment[length];
+        for (int i = 0; i < length; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * @param token the token.
+     * @param now the current time, in milliseconds since the epoch.
+     * @return the cached entry of the token, or {@code null} if it is not cached or has expired.
+     */
+    Entry get(String token, long now) {
+        Segment segment = segmentFor(token);
+        synchronized (segment) {
+            Entry entry = segment.get(token);
+            if (entry != null && now >= entry.expiresAt) {
+                segment.remove(token);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    void put(String token, Entry entry) {
+        Segment segment = segmentFor(token);
+        synchronized (segment) {
+            segment.put(token, entry);
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentFor(String token) {
+        int hash = token.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * The principal of a verified token, with the expiration of the token.
+     */
+    static final class Entry {
+
+        private final User principal;
+
+        private final long expiresAt;
+
+        Entry(User principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+
+        User getPrincipal() {
+            return principal;
+        }
+
+        long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    private static final class Segment extends LinkedHashMap<String, Entry> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maximumSize;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.tmrfcb.datingapp.security.jwt;
 
+import com.tmrfcb.datingapp.config.ApplicationProperties;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
@@ -25,16 +26,23 @@ public class TokenProvider {
 
     private static final String AUTHORITIES_KEY = "auth";
 
+    private static final int TOKEN_CACHE_STRIPES = 16;
+
     private Key key;
 
+    private JwtParser jwtParser;
+
+    private final TokenCache tokenCache;
+
     private long tokenValidityInMilliseconds;
 
     private long tokenValidityInMillisecondsForRememberMe;
 
     private final JHipsterProperties jHipsterProperties;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        this.tokenCache = new TokenCache(TOKEN_CACHE_STRIPES, applicationProperties.getTokenCache().getMaxSize());
     }
 
     @PostConstruct
@@ -52,6 +60,7 @@ public class TokenProvider {
             keyBytes = Decoders.BASE64.decode(jHipsterProperties.getSecurity().getAuthentication().getJwt().getBase64Secret());
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKey(key).build();
         this.tokenValidityInMilliseconds = 1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSeconds();
         this.tokenValidityInMillisecondsForRememberMe =
             1000 * jHipsterProperties.getSecurity().getAuthentication().getJwt().getTokenValidityInSecondsForRememberMe();
@@ -77,27 +86,56 @@ public class TokenProvider {
             .compact();
     }
 
+    /**
+     * Get the authentication of a token. Tokens are verified once, then served from a cache until they expire.
+     *
+     * @param token the token.
+     * @return the authentication.
+     * @throws JwtException if the token is invalid.
+     * @throws IllegalArgumentException if the token is empty.
+     */
     public Authentication getAuthentication(String token) {
-        Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-
-        Collection<? extends GrantedAuthority> authorities = Arrays
-            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
-            .map(SimpleGrantedAuthority::new)
-            .collect(Collectors.toList());
-
-        User principal = new User(claims.getSubject(), "", authorities);
-
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        long now = System.currentTimeMillis();
+        TokenCache.Entry entry = tokenCache.get(token, now);
+        if (entry == null) {
+            entry = parse(token);
+            tokenCache.put(token, entry);
+        }
+        // Each request gets its own authentication, as it is mutable
+        User principal = entry.getPrincipal();
+        return new UsernamePasswordAuthenticationToken(principal, token, principal.getAuthorities());
     }
 
-    public boolean validateToken(String authToken) {
+    /**
+     * Get the authentication of a token, verifying it at most once.
+     *
+     * @param token the token.
+     * @return the authentication, or {@code null} if the token is invalid.
+     */
+    public Authentication authenticate(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(authToken);
-            return true;
+            return getAuthentication(token);
         } catch (JwtException | IllegalArgumentException e) {
             log.info("Invalid JWT token.");
             log.trace("Invalid JWT token trace.", e);
         }
-        return false;
+        return null;
+    }
+
+    public boolean validateToken(String authToken) {
+        return authenticate(authToken) != null;
+    }
+
+    private TokenCache.Entry parse(String token) {
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+
+        Collection<? extends GrantedAuthority> authorities = Arrays
+            .stream(claims.get(AUTHORITIES_KEY).toString().split(","))
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+
+        User principal = new User(claims.getSubject(), "", authorities);
+        Date expiration = claims.getExpiration();
+        return new TokenCache.Entry(principal, expiration != null ? expiration.getTime() : Long.MAX_VALUE);
     }
 }
@@ -0,0 +1,37 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.service.dto.CandidateFeedCriteria;
+
+/**
+ * Service Interface for the discovery feed: a queue of ranked candidates per active user, built ahead of its reads.
+ */
+public interface CandidateFeedService {
+    String CANDIDATE_QUEUES_MAP = "candidateQueues";
+
+    /**
+     * Take the next candidates of a user off its queue, building the queue first if it is missing or was built with
+     * other criteria. The queue is refilled in the background once it runs low.
+     *
+     * @param userId the id of the user.
+     * @param criteria the filters of the candidates.
+     * @param count the maximum number of candidates to return.
+     * @return the ids of the candidates, best first.
+     */
+    long[] next(Long userId, CandidateFeedCriteria criteria, int count);
+
+    /**
+     * Append fresh candidates to the queue of a user, leaving out those already queued.
+     *
+     * @param userId the id of the user.
+     * @param criteria the filters of the candidates.
+     * @return the number of candidates appended.
+     */
+    int refill(Long userId, CandidateFeedCriteria criteria);
+
+    /**
+     * Drop the queue of a user, once the current transaction commits, so that it is rebuilt on its next read.
+     *
+     * @param userId the id of the user.
+     */
+    void evict(Long userId);
+}
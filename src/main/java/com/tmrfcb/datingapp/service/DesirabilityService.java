@@ -0,0 +1,40 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.util.List;
+
+/**
+ * Service Interface for the desirability of users: an Elo rating computed from the swipes they receive, which ranks
+ * them without running the recommendation model.
+ */
+public interface DesirabilityService {
+    /**
+     * Count the swipe of a relation towards the rating of the swiped user, once the current transaction commits. The
+     * rating is updated on the next flush.
+     * <p>
+     * A swipe only counts once: nothing is counted if the relation already had the same type, and the vote of its
+     * previous type is taken back if it had another one.
+     *
+     * @param relation the relation which has been saved.
+     * @param previousType the type of the relation before it was saved, {@code null} if it has been created.
+     */
+    void record(Relation relation, RelationType previousType);
+
+    /**
+     * Count the swipes of relations towards the ratings of the swiped users, once the current transaction commits, as
+     * {@link #record(Relation, RelationType)} does.
+     *
+     * @param relations the relations which have been saved.
+     * @param previousTypes the types of the relations before they were saved, in the same order.
+     */
+    void recordAll(List<Relation> relations, List<RelationType> previousTypes);
+
+    /**
+     * Apply the swipes counted since the last flush to the stored ratings, against the ratings the swiping and swiped
+     * users had before the flush.
+     *
+     * @return the number of users whose rating changed.
+     */
+    int flush();
+}
@@ -0,0 +1,47 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import java.util.Collection;
+
+/**
+ * Service Interface for publishing the changes of the domain to the other services, on a Kafka topic.
+ */
+public interface DomainEventService {
+    /**
+     * Hazelcast map holding the lock of the relay: whoever holds it is the only one publishing the events.
+     */
+    String RELAY_LOCK_MAP = "domain-events";
+
+    String RELAY_LOCK = "relay";
+
+    /**
+     * Header of the records holding the id of the event, for consumers to drop the ones delivered twice.
+     */
+    String EVENT_ID_HEADER = "event-id";
+
+    /**
+     * Header of the records holding the number of the event among the events of its key, increasing in commit order.
+     */
+    String EVENT_SEQUENCE_HEADER = "event-sequence";
+
+    /**
+     * Schedule the publication of an event, in the current transaction.
+     *
+     * @param event the event.
+     */
+    void publish(DomainEventDTO event);
+
+    /**
+     * Schedule the publication of several events, in the current transaction.
+     *
+     * @param events the events.
+     */
+    void publishAll(Collection<DomainEventDTO> events);
+
+    /**
+     * Publish the pending events, in batches.
+     *
+     * @return the number of events published.
+     */
+    int relay();
+}
@@ -0,0 +1,51 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.InboxEntry;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Service Interface for the inbox of each user: one {@link InboxEntry} per match, kept up to date incrementally.
+ */
+public interface InboxService {
+    /**
+     * Add a new match to the inbox of both matched users.
+     *
+     * @param matchRelation the match, with the ids of its users.
+     */
+    void addMatch(MatchRelation matchRelation);
+
+    /**
+     * Record a new message in the inbox of its sender and of its recipient, counting it as unread for the recipient.
+     *
+     * @param message the message which has been created.
+     */
+    void recordMessage(Message message);
+
+    /**
+     * Get the inbox of a user, most recent conversation first.
+     *
+     * @param userId the id of the user.
+     * @param pageable the pagination information, whose sort is ignored.
+     * @return the page of entries.
+     */
+    Page<InboxEntry> findInbox(Long userId, Pageable pageable);
+
+    /**
+     * Mark all the messages of a conversation as read by a user.
+     *
+     * @param userId the id of the user.
+     * @param matchRelationId the id of the matchRelation.
+     * @return {@code false} if the user has no such conversation.
+     */
+    boolean markRead(Long userId, Long matchRelationId);
+
+    /**
+     * Remove a match from the inbox of its users.
+     *
+     * @param matchRelationId the id of the matchRelation.
+     */
+    void removeMatch(Long matchRelationId);
+}
@@ -40,6 +40,17 @@ public interface LocationService {
      */
     List<Location> findAllWhereCountryIsNull();
 
+    /**
+     * Get the locations within {@code radiusKm} of a position, nearest first.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param radiusKm the search radius, in kilometers.
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<Location> findNearby(double latitude, double longitude, double radiusKm, Pageable pageable);
+
     /**
      * Get the "id" location.
      *
@@ -0,0 +1,24 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.Message;
+
+/**
+ * Service Interface pushing new messages to the WebSocket sessions of their recipient, whichever node they are
+ * connected to.
+ */
+public interface MessageDeliveryService {
+    String MESSAGE_DELIVERY_TOPIC = "messageDelivery";
+
+    /**
+     * User destination of the pushed messages: clients subscribe to {@code /user/queue/messages}.
+     */
+    String MESSAGES_DESTINATION = "/queue/messages";
+
+    /**
+     * Push a message to its recipient once the current transaction commits.
+     *
+     * @param message the message which has been created, addressed by the UserApp id of its recipient; recipients without
+     *     a login are skipped.
+     */
+    void deliver(Message message);
+}
@@ -1,6 +1,8 @@
 package com.tmrfcb.datingapp.service;
 
 import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.service.dto.MessageHistoryDTO;
+import com.tmrfcb.datingapp.service.util.MessageCursor;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -33,6 +35,16 @@ public interface MessageService {
      */
     Page<Message> findAll(Pageable pageable);
 
+    /**
+     * Get a page of the history of a conversation, newest message first.
+     *
+     * @param matchRelationId the id of the matchRelation of the conversation.
+     * @param before the position of the last message already read, or {@code null} to start from the newest message.
+     * @param limit the maximum number of messages.
+     * @return the messages, with the cursor of the next older page.
+     */
+    MessageHistoryDTO findHistory(Long matchRelationId, MessageCursor before, int limit);
+
     /**
      * Get the "id" message.
      *
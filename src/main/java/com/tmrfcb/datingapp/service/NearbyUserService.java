@@ -0,0 +1,88 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.service.util.SpatialGrid;
+import java.util.function.LongPredicate;
+
+/**
+ * Service Interface for the in-memory index of user positions.
+ */
+public interface NearbyUserService {
+    /**
+     * Re-index the users of a location, once the current transaction commits.
+     *
+     * @param location the location which has been saved.
+     */
+    void indexLocation(Location location);
+
+    /**
+     * Remove the users of a location from the index, once the current transaction commits.
+     *
+     * @param locationId the id of the location which is being deleted.
+     */
+    void removeLocation(Long locationId);
+
+    /**
+     * Index a user at the position of its location, once the current transaction commits.
+     *
+     * @param userApp the user which has been saved.
+     */
+    void indexUser(UserApp userApp);
+
+    /**
+     * Remove a user from the index, once the current transaction commits.
+     *
+     * @param userId the id of the user.
+     */
+    void removeUser(Long userId);
+
+    /**
+     * Get the users nearest to a position.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param radiusKm the search radius, in kilometers.
+     * @return the users, nearest first.
+     */
+    SpatialGrid.Neighbours findNearest(double latitude, double longitude, int k, double radiusKm);
+
+    /**
+     * Get the users nearest to a position, leaving out the given user and the profiles it has already swiped.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param radiusKm the search radius, in kilometers.
+     * @param userId the id of the user looking for candidates.
+     * @return the users, nearest first.
+     */
+    SpatialGrid.Neighbours findNearestCandidates(double latitude, double longitude, int k, double radiusKm, Long userId);
+
+    /**
+     * Get the users nearest to a position, leaving out the given user, the profiles it has already swiped, and other
+     * users, while searching, so that they do not take the place of further users.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param radiusKm the search radius, in kilometers.
+     * @param userId the id of the user looking for candidates.
+     * @param excluded the other users to leave out.
+     * @return the users, nearest first.
+     */
+    SpatialGrid.Neighbours findNearestCandidates(
+        double latitude,
+        double longitude,
+        int k,
+        double radiusKm,
+        Long userId,
+        LongPredicate excluded
+    );
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    void rebuild();
+}
@@ -0,0 +1,53 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.service.dto.ProfileCardDTO;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service Interface for reading the profile cards of users, through a cache.
+ */
+public interface ProfileCardService {
+    /**
+     * Cache of the profile cards, by id of user.
+     */
+    String PROFILE_CARDS_CACHE = "profileCards";
+
+    /**
+     * Get the profile card of a user.
+     *
+     * @param id the id of the user.
+     * @return the card, if the user exists.
+     */
+    Optional<ProfileCardDTO> findOne(Long id);
+
+    /**
+     * Get the profile cards of several users, reading the missing ones with a single query.
+     *
+     * @param ids the ids of the users.
+     * @return the cards of the users which exist, in the order of their ids.
+     */
+    List<ProfileCardDTO> findAll(Collection<Long> ids);
+
+    /**
+     * Evict the cards of users, once the current transaction commits.
+     *
+     * @param userIds the ids of the users which changed.
+     */
+    void evict(Collection<Long> userIds);
+
+    /**
+     * Evict the cards of the users of a location, once the current transaction commits.
+     *
+     * @param locationId the id of the location which changed.
+     */
+    void evictLocation(Long locationId);
+
+    /**
+     * Evict the cards of the users of a country, once the current transaction commits.
+     *
+     * @param countryId the id of the country which changed.
+     */
+    void evictCountry(Long countryId);
+}
@@ -0,0 +1,24 @@
+package com.tmrfcb.datingapp.service;
+
+/**
+ * Service Interface for the collaborative filtering of the swipes, which predicts how much a user will like the
+ * profile of another one.
+ */
+public interface RecommendationService {
+    /**
+     * Score candidates for a user: the higher, the more likely the user is to like them. Candidates unknown to the
+     * model, and every candidate until a model is trained, score {@code 0}.
+     *
+     * @param userId the id of the user.
+     * @param candidateIds the ids of the candidates.
+     * @return the scores, in the order of the candidates.
+     */
+    float[] score(Long userId, long[] candidateIds);
+
+    /**
+     * Train a new model from every swipe, then replace the current one with it.
+     *
+     * @return {@code false} if a training was already running.
+     */
+    boolean train();
+}
@@ -0,0 +1,25 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.service.dto.ReindexProgressDTO;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service Interface for rebuilding the Elasticsearch indexes from the database.
+ */
+public interface ReindexService {
+    /**
+     * Start rebuilding indexes in the background, unless a reindexing is already running.
+     *
+     * @param indexes the names of the indexes to rebuild, or all the indexes when empty.
+     * @return {@code true} if the reindexing has been started.
+     */
+    boolean start(Collection<String> indexes);
+
+    /**
+     * Get the progress of the current or last reindexing.
+     *
+     * @return the progress of each index.
+     */
+    List<ReindexProgressDTO> getProgress();
+}
@@ -0,0 +1,56 @@
+package com.tmrfcb.datingapp.service;
+
+import java.util.Collection;
+
+/**
+ * Service Interface for keeping the Elasticsearch indexes in sync with the database.
+ */
+public interface SearchIndexService {
+    /**
+     * Hazelcast map holding the lock of the relay: whoever holds it is the only one writing to the indexes.
+     */
+    String RELAY_LOCK_MAP = "search-outbox";
+
+    String RELAY_LOCK = "relay";
+
+    /**
+     * Hazelcast map of the indexes being rebuilt, by entity type. The relay records the entities of these types it
+     * indexes in {@link #REINDEX_CHANGES_MAP}, so that they are indexed again into the new index before it replaces
+     * the current one.
+     */
+    String REINDEX_TARGETS_MAP = "search-reindex-targets";
+
+    /**
+     * Hazelcast multimap of the ids of the entities changed while their index is rebuilt, by entity type.
+     */
+    String REINDEX_CHANGES_MAP = "search-reindex-changes";
+
+    /**
+     * Schedule the indexing of an entity, in the current transaction.
+     *
+     * @param entity the entity which has been saved.
+     */
+    void index(Object entity);
+
+    /**
+     * Schedule the indexing of several entities, in the current transaction.
+     *
+     * @param entities the entities which have been saved.
+     */
+    void indexAll(Collection<?> entities);
+
+    /**
+     * Schedule the removal of an entity from its index, in the current transaction.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity which is being deleted.
+     */
+    void delete(Class<?> entityClass, Long id);
+
+    /**
+     * Apply the pending changes to the indexes, with bulk requests.
+     *
+     * @return the number of changes applied.
+     */
+    int relay();
+}
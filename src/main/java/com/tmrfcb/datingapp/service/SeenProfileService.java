@@ -0,0 +1,43 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.Relation;
+import java.util.Collection;
+
+/**
+ * Service Interface for the profiles each user has already swiped.
+ */
+public interface SeenProfileService {
+    String SEEN_PROFILES_MAP = "seenProfiles";
+
+    /**
+     * Get which of the given users a user has already swiped, loading the swiped users from the database on first
+     * access. The users are checked on the member owning the swiped users, so only the given ids and the answer are
+     * sent over the network.
+     *
+     * @param userId the id of the user.
+     * @param otherUserIds the ids of the users to check.
+     * @return the ids among {@code otherUserIds} of the swiped users.
+     */
+    long[] findSeenAmong(Long userId, long[] otherUserIds);
+
+    /**
+     * Record the user targeted by a relation as seen by its owner, once the current transaction commits.
+     *
+     * @param relation the relation which has been saved.
+     */
+    void markSeen(Relation relation);
+
+    /**
+     * Record the users targeted by relations as seen by their owners, once the current transaction commits.
+     *
+     * @param relations the relations which have been saved.
+     */
+    void markAllSeen(Collection<Relation> relations);
+
+    /**
+     * Forget the profiles seen by a user, so that they are reloaded from the database on next access.
+     *
+     * @param userId the id of the user.
+     */
+    void evict(Long userId);
+}
@@ -0,0 +1,38 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import com.tmrfcb.datingapp.service.dto.SwipeResultDTO;
+import java.util.List;
+
+/**
+ * Service Interface for swiping on other users' profiles.
+ */
+public interface SwipeService {
+    /**
+     * Hazelcast map holding the locks of the pairs of users being swiped, keyed by {@code "<lowId>:<highId>"}.
+     */
+    String PAIR_LOCK_MAP = "swipe-pairs";
+
+    /**
+     * Record the swipe of a user on another user's profile, and create their match if this swipe is a like answering
+     * a like of the other user. A pair of users gets at most one match, whatever the concurrency.
+     *
+     * @param userId the id of the user swiping.
+     * @param otherUserId the id of the user whose profile is swiped.
+     * @param relationType the kind of swipe.
+     * @return the recorded relation, with the match if any.
+     */
+    SwipeResultDTO swipe(Long userId, Long otherUserId, RelationType relationType);
+
+    /**
+     * Record a batch of swipes in a single transaction, with the same guarantees as {@link #swipe(Long, Long, RelationType)}.
+     * <p>
+     * Swipes are applied in order, so the last swipe of a user on a profile wins. Invalid swipes are rejected one by one
+     * with the error keys {@code "invalid"}, {@code "selfswipe"} or {@code "idnotfound"}, without failing the others.
+     *
+     * @param swipes the swipes to record.
+     * @return the result of each swipe, in the same order.
+     */
+    List<SwipeResultDTO> swipeAll(List<SwipeDTO> swipes);
+}
@@ -0,0 +1,60 @@
+package com.tmrfcb.datingapp.service;
+
+import com.tmrfcb.datingapp.domain.UserApp;
+import java.util.Optional;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Service Interface for managing {@link UserApp}.
+ */
+public interface UserAppService {
+    /**
+     * Save a userApp.
+     *
+     * @param userApp the entity to save.
+     * @return the persisted entity.
+     */
+    UserApp save(UserApp userApp);
+
+    /**
+     * Partially updates a userApp.
+     *
+     * @param userApp the entity to update partially.
+     * @return the persisted entity.
+     */
+    Optional<UserApp> partialUpdate(UserApp userApp);
+
+    /**
+     * Get all the userApps.
+     *
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<UserApp> findAll(Pageable pageable);
+
+    /**
+     * Get the "id" userApp.
+     *
+     * @param id the id of the entity.
+     * @return the entity.
+     */
+    Optional<UserApp> findOne(Long id);
+
+    /**
+     * Delete the "id" userApp.
+     *
+     * @param id the id of the entity.
+     */
+    void delete(Long id);
+
+    /**
+     * Search for the userApp corresponding to the query.
+     *
+     * @param query the query of the search.
+     *
+     * @param pageable the pagination information.
+     * @return the list of entities.
+     */
+    Page<UserApp> search(String query, Pageable pageable);
+}
@@ -0,0 +1,86 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * The filters of a candidate feed: the search radius around the user, and the age range of the candidates, derived
+ * from their {@link com.tmrfcb.datingapp.domain.UserApp#getBirthDate() birth date}. Immutable, as it is stored with
+ * the queue it built.
+ */
+public class CandidateFeedCriteria implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double radiusKm;
+
+    private final Integer minAge;
+
+    private final Integer maxAge;
+
+    public CandidateFeedCriteria(double radiusKm, Integer minAge, Integer maxAge) {
+        this.radiusKm = radiusKm;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public double getRadiusKm() {
+        return radiusKm;
+    }
+
+    public Integer getMinAge() {
+        return minAge;
+    }
+
+    public Integer getMaxAge() {
+        return maxAge;
+    }
+
+    public boolean hasAgeRange() {
+        return minAge != null || maxAge != null;
+    }
+
+    /**
+     * @param today the current date.
+     * @return the earliest birth date of a candidate of at most {@link #getMaxAge()} years.
+     */
+    public LocalDate getEarliestBirthDate(LocalDate today) {
+        return maxAge != null ? today.minusYears(maxAge + 1L).plusDays(1) : today.minusYears(150);
+    }
+
+    /**
+     * @param today the current date.
+     * @return the latest birth date of a candidate of at least {@link #getMinAge()} years.
+     */
+    public LocalDate getLatestBirthDate(LocalDate today) {
+        return minAge != null ? today.minusYears(minAge) : today;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CandidateFeedCriteria)) {
+            return false;
+        }
+        CandidateFeedCriteria other = (CandidateFeedCriteria) o;
+        return Double.compare(radiusKm, other.radiusKm) == 0 && Objects.equals(minAge, other.minAge) && Objects.equals(maxAge, other.maxAge);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(radiusKm, minAge, maxAge);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "CandidateFeedCriteria{" +
+            "radiusKm=" + getRadiusKm() +
+            ", minAge=" + getMinAge() +
+            ", maxAge=" + getMaxAge() +
+            "}";
+    }
+}
@@ -0,0 +1,265 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.enumeration.DomainEventType;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A DTO for a change published to the other services, keyed by the id of the user it concerns.
+ * <p>
+ * <ul>
+ *     <li>{@code MATCH_CREATED}: {@code entityId} is the matchRelation, {@code otherUserId} the matched user. One event
+ *     is published for each of the two users.</li>
+ *     <li>{@code MESSAGE_SENT}: the user is the recipient, {@code otherUserId} the sender, {@code entityId} the message
+ *     and {@code relatedId} its matchRelation.</li>
+ *     <li>{@code USER_REPORTED}: the user is the reported one, {@code otherUserId} the reporter when known,
+ *     {@code entityId} the reportUser and {@code detail} its cause.</li>
+ *     <li>{@code LOCATION_CHANGED}: {@code entityId} is the location, with its coordinates, or none when the user has
+ *     no location anymore.</li>
+ * </ul>
+ */
+public class DomainEventDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private DomainEventType type;
+
+    private Long userId;
+
+    private Long otherUserId;
+
+    private Long entityId;
+
+    private Long relatedId;
+
+    private Instant occurredAt;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    private String detail;
+
+    public static DomainEventDTO matchCreated(Long userId, Long otherUserId, Long matchRelationId, Instant occurredAt) {
+        return new DomainEventDTO()
+            .type(DomainEventType.MATCH_CREATED)
+            .userId(userId)
+            .otherUserId(otherUserId)
+            .entityId(matchRelationId)
+            .occurredAt(occurredAt);
+    }
+
+    /**
+     * The events of a new match, one for each of its users.
+     *
+     * @param matchRelation the match.
+     * @return the events, none if the users of the match are unknown.
+     */
+    public static List<DomainEventDTO> matchCreated(MatchRelation matchRelation) {
+        Long userLowId = matchRelation.getUserLowId();
+        Long userHighId = matchRelation.getUserHighId();
+        if (userLowId == null || userHighId == null) {
+            return Collections.emptyList();
+        }
+        Instant occurredAt = matchRelation.getMatchDate() != null ? matchRelation.getMatchDate().toInstant() : Instant.now();
+        return Arrays.asList(
+            matchCreated(userLowId, userHighId, matchRelation.getId(), occurredAt),
+            matchCreated(userHighId, userLowId, matchRelation.getId(), occurredAt)
+        );
+    }
+
+    public static DomainEventDTO messageSent(Long receiverId, Long senderId, Long messageId, Long matchRelationId, Instant occurredAt) {
+        return new DomainEventDTO()
+            .type(DomainEventType.MESSAGE_SENT)
+            .userId(receiverId)
+            .otherUserId(senderId)
+            .entityId(messageId)
+            .relatedId(matchRelationId)
+            .occurredAt(occurredAt);
+    }
+
+    public static DomainEventDTO userReported(Long userId, Long reporterId, Long reportUserId, String cause, Instant occurredAt) {
+        return new DomainEventDTO()
+            .type(DomainEventType.USER_REPORTED)
+            .userId(userId)
+            .otherUserId(reporterId)
+            .entityId(reportUserId)
+            .detail(cause)
+            .occurredAt(occurredAt);
+    }
+
+    public static DomainEventDTO locationChanged(Long userId, Long locationId, Double latitude, Double longitude, Instant occurredAt) {
+        return new DomainEventDTO()
+            .type(DomainEventType.LOCATION_CHANGED)
+            .userId(userId)
+            .entityId(locationId)
+            .latitude(latitude)
+            .longitude(longitude)
+            .occurredAt(occurredAt);
+    }
+
+    public DomainEventType getType() {
+        return type;
+    }
+
+    public DomainEventDTO type(DomainEventType type) {
+        this.type = type;
+        return this;
+    }
+
+    public void setType(DomainEventType type) {
+        this.type = type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public DomainEventDTO userId(Long userId) {
+        this.userId = userId;
+        return this;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getOtherUserId() {
+        return otherUserId;
+    }
+
+    public DomainEventDTO otherUserId(Long otherUserId) {
+        this.otherUserId = otherUserId;
+        return this;
+    }
+
+    public void setOtherUserId(Long otherUserId) {
+        this.otherUserId = otherUserId;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public DomainEventDTO entityId(Long entityId) {
+        this.entityId = entityId;
+        return this;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public Long getRelatedId() {
+        return relatedId;
+    }
+
+    public DomainEventDTO relatedId(Long relatedId) {
+        this.relatedId = relatedId;
+        return this;
+    }
+
+    public void setRelatedId(Long relatedId) {
+        this.relatedId = relatedId;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public DomainEventDTO occurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+        return this;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public DomainEventDTO latitude(Double latitude) {
+        this.latitude = latitude;
+        return this;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public DomainEventDTO longitude(Double longitude) {
+        this.longitude = longitude;
+        return this;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public DomainEventDTO detail(String detail) {
+        this.detail = detail;
+        return this;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DomainEventDTO)) {
+            return false;
+        }
+        DomainEventDTO other = (DomainEventDTO) o;
+        return (
+            type == other.type &&
+            Objects.equals(userId, other.userId) &&
+            Objects.equals(otherUserId, other.otherUserId) &&
+            Objects.equals(entityId, other.entityId) &&
+            Objects.equals(relatedId, other.relatedId) &&
+            Objects.equals(occurredAt, other.occurredAt) &&
+            Objects.equals(latitude, other.latitude) &&
+            Objects.equals(longitude, other.longitude) &&
+            Objects.equals(detail, other.detail)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, userId, entityId, occurredAt);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "DomainEventDTO{" +
+            "type='" + getType() + "'" +
+            ", userId=" + getUserId() +
+            ", otherUserId=" + getOtherUserId() +
+            ", entityId=" + getEntityId() +
+            ", relatedId=" + getRelatedId() +
+            ", occurredAt='" + getOccurredAt() + "'" +
+            ", latitude=" + getLatitude() +
+            ", longitude=" + getLongitude() +
+            ", detail='" + getDetail() + "'" +
+            "}";
+    }
+}
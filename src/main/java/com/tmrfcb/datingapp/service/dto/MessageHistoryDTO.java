@@ -0,0 +1,56 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import com.tmrfcb.datingapp.domain.Message;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A DTO for a page of the history of a conversation, newest message first, with the cursor of the next older page.
+ */
+public class MessageHistoryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<Message> messages;
+
+    private String nextCursor;
+
+    public MessageHistoryDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MessageHistoryDTO(List<Message> messages, String nextCursor) {
+        this.messages = messages;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<Message> messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * Get the cursor to pass as {@code before} to get older messages, or {@code null} when there are none.
+     *
+     * @return the cursor.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MessageHistoryDTO{" +
+            "messages=" + messages +
+            ", nextCursor='" + getNextCursor() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,109 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import com.tmrfcb.datingapp.domain.Message;
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+/**
+ * A DTO for a new message pushed to its recipient, small enough to be published on a cluster topic.
+ */
+public class MessageNotificationDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private Long matchRelationId;
+
+    private String senderId;
+
+    private String receiverId;
+
+    private String messageTitle;
+
+    private String messageContent;
+
+    private ZonedDateTime messageDate;
+
+    public MessageNotificationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public MessageNotificationDTO(Message message) {
+        this.id = message.getId();
+        this.matchRelationId = message.getMatchRelation() != null ? message.getMatchRelation().getId() : null;
+        this.senderId = message.getSenderId();
+        this.receiverId = message.getReceiverId();
+        this.messageTitle = message.getMessageTitle();
+        this.messageContent = message.getMessageContent();
+        this.messageDate = message.getMessageDate();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMatchRelationId() {
+        return matchRelationId;
+    }
+
+    public void setMatchRelationId(Long matchRelationId) {
+        this.matchRelationId = matchRelationId;
+    }
+
+    public String getSenderId() {
+        return senderId;
+    }
+
+    public void setSenderId(String senderId) {
+        this.senderId = senderId;
+    }
+
+    public String getReceiverId() {
+        return receiverId;
+    }
+
+    public void setReceiverId(String receiverId) {
+        this.receiverId = receiverId;
+    }
+
+    public String getMessageTitle() {
+        return messageTitle;
+    }
+
+    public void setMessageTitle(String messageTitle) {
+        this.messageTitle = messageTitle;
+    }
+
+    public String getMessageContent() {
+        return messageContent;
+    }
+
+    public void setMessageContent(String messageContent) {
+        this.messageContent = messageContent;
+    }
+
+    public ZonedDateTime getMessageDate() {
+        return messageDate;
+    }
+
+    public void setMessageDate(ZonedDateTime messageDate) {
+        this.messageDate = messageDate;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "MessageNotificationDTO{" +
+            "id=" + getId() +
+            ", matchRelationId=" + getMatchRelationId() +
+            ", senderId='" + getSenderId() + "'" +
+            ", receiverId='" + getReceiverId() + "'" +
+            ", messageDate='" + getMessageDate() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,87 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A DTO for the card showing a {@link com.tmrfcb.datingapp.domain.UserApp} to other users: the few fields it renders,
+ * read with a single query and cached as is, so it is immutable.
+ */
+public class ProfileCardDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+
+    private final String firstName;
+
+    private final LocalDate birthDate;
+
+    private final String city;
+
+    private final String countryName;
+
+    public ProfileCardDTO(Long id, String firstName, LocalDate birthDate, String city, String countryName) {
+        this.id = id;
+        this.firstName = firstName;
+        this.birthDate = birthDate;
+        this.city = city;
+        this.countryName = countryName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public LocalDate getBirthDate() {
+        return birthDate;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public String getCountryName() {
+        return countryName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ProfileCardDTO)) {
+            return false;
+        }
+        ProfileCardDTO other = (ProfileCardDTO) o;
+        return (
+            Objects.equals(id, other.id) &&
+            Objects.equals(firstName, other.firstName) &&
+            Objects.equals(birthDate, other.birthDate) &&
+            Objects.equals(city, other.city) &&
+            Objects.equals(countryName, other.countryName)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ProfileCardDTO{" +
+            "id=" + getId() +
+            ", firstName='" + getFirstName() + "'" +
+            ", birthDate='" + getBirthDate() + "'" +
+            ", city='" + getCity() + "'" +
+            ", countryName='" + getCountryName() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,66 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.io.Serializable;
+import javax.validation.constraints.NotNull;
+
+/**
+ * A DTO for a swipe of a user on another user's profile.
+ */
+public class SwipeDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private Long otherUserId;
+
+    @NotNull
+    private RelationType relationType;
+
+    public SwipeDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SwipeDTO(Long userId, Long otherUserId, RelationType relationType) {
+        this.userId = userId;
+        this.otherUserId = otherUserId;
+        this.relationType = relationType;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getOtherUserId() {
+        return otherUserId;
+    }
+
+    public void setOtherUserId(Long otherUserId) {
+        this.otherUserId = otherUserId;
+    }
+
+    public RelationType getRelationType() {
+        return relationType;
+    }
+
+    public void setRelationType(RelationType relationType) {
+        this.relationType = relationType;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SwipeDTO{" +
+            "userId=" + userId +
+            ", otherUserId=" + otherUserId +
+            ", relationType=" + relationType +
+            "}";
+    }
+}
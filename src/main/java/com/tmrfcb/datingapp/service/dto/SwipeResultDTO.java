@@ -0,0 +1,73 @@
+package com.tmrfcb.datingapp.service.dto;
+
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Relation;
+import java.io.Serializable;
+
+/**
+ * A DTO for the outcome of a swipe: the recorded {@link Relation}, and the {@link MatchRelation} when the swipe
+ * completed a mutual like, or the error key when a swipe of a batch was rejected.
+ */
+public class SwipeResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Relation relation;
+
+    private MatchRelation matchRelation;
+
+    private String error;
+
+    public SwipeResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SwipeResultDTO(Relation relation, MatchRelation matchRelation) {
+        this.relation = relation;
+        this.matchRelation = matchRelation;
+    }
+
+    public Relation getRelation() {
+        return relation;
+    }
+
+    public void setRelation(Relation relation) {
+        this.relation = relation;
+    }
+
+    public MatchRelation getMatchRelation() {
+        return matchRelation;
+    }
+
+    public void setMatchRelation(MatchRelation matchRelation) {
+        this.matchRelation = matchRelation;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public static SwipeResultDTO rejected(String error) {
+        SwipeResultDTO result = new SwipeResultDTO();
+        result.setError(error);
+        return result;
+    }
+
+    public boolean isMatched() {
+        return matchRelation != null;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SwipeResultDTO{" +
+            "relation=" + relation +
+            ", matchRelation=" + matchRelation +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Data Transfer Objects.
+ */
+package com.tmrfcb.datingapp.service.dto;
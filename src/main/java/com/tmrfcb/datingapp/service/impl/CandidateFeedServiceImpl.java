@@ -0,0 +1,390 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.repository.LocationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.CandidateFeedService;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.RecommendationService;
+import com.tmrfcb.datingapp.service.dto.CandidateFeedCriteria;
+import com.tmrfcb.datingapp.service.util.CandidateQueue;
+import com.tmrfcb.datingapp.service.util.CompactLongSet;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation keeping the candidate queues of the users in a Hazelcast map.
+ * <p>
+ * A queue is built from the {@link NearbyUserService} index on the first read of its user, ranked by the
+ * {@link RecommendationService}, then polled with an entry processor running on the member owning it, so that serving
+ * a page never runs a query nor ships the whole queue over the network. Once a poll leaves fewer than
+ * {@code refill-threshold} candidates, the queue is refilled on a background thread, leaving out the candidates
+ * already served or filtered out.
+ */
+@Service
+@Transactional
+public class CandidateFeedServiceImpl implements CandidateFeedService {
+
+    private static final int REFILL_QUEUE_CAPACITY = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(CandidateFeedServiceImpl.class);
+
+    private final LocationRepository locationRepository;
+
+    private final UserAppRepository userAppRepository;
+
+    private final NearbyUserService nearbyUserService;
+
+    private final RecommendationService recommendationService;
+
+    private final ApplicationProperties.CandidateFeed properties;
+
+    private final IMap<Long, Feed> queues;
+
+    private final ThreadPoolExecutor refillExecutor;
+
+    public CandidateFeedServiceImpl(
+        LocationRepository locationRepository,
+        UserAppRepository userAppRepository,
+        NearbyUserService nearbyUserService,
+        RecommendationService recommendationService,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.locationRepository = locationRepository;
+        this.userAppRepository = userAppRepository;
+        this.nearbyUserService = nearbyUserService;
+        this.recommendationService = recommendationService;
+        this.properties = applicationProperties.getCandidateFeed();
+        this.queues = hazelcastInstance.getMap(CANDIDATE_QUEUES_MAP);
+        // Refills dropped when the executor is saturated are requested again by a later poll
+        this.refillExecutor =
+            new ThreadPoolExecutor(
+                properties.getRefillThreads(),
+                properties.getRefillThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(REFILL_QUEUE_CAPACITY),
+                new CustomizableThreadFactory("candidate-feed-"),
+                new ThreadPoolExecutor.DiscardPolicy()
+            );
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refillExecutor.shutdownNow();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long[] next(Long userId, CandidateFeedCriteria criteria, int count) {
+        log.debug("Request to get the next {} candidates of UserApp : {}, {}", count, userId, criteria);
+        Poll poll = poll(userId, criteria, count);
+        if (poll == null) {
+            // Missing, expired, or built with other criteria: build it now, the next reads are pops
+            refill(userId, criteria);
+            poll = poll(userId, criteria, count);
+        }
+        if (poll == null) {
+            return new long[0];
+        }
+        if (poll.refill) {
+            refillExecutor.execute(() -> refillInBackground(userId, criteria));
+        }
+        return poll.candidateIds;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int refill(Long userId, CandidateFeedCriteria criteria) {
+        log.debug("Request to refill the candidate queue of UserApp : {}, {}", userId, criteria);
+        CompactLongSet excluded = (CompactLongSet) queues.executeOnKey(userId, new ExcludedProcessor(criteria, maxAgeMs()));
+        Candidates candidates = findCandidates(userId, criteria, excluded != null ? excluded : new CompactLongSet());
+        return (Integer) queues.executeOnKey(
+            userId,
+            new AppendProcessor(criteria, candidates.accepted, candidates.rejected, properties.getQueueSize(), maxAgeMs())
+        );
+    }
+
+    @Override
+    public void evict(Long userId) {
+        log.debug("Request to evict the candidate queue of UserApp : {}", userId);
+        TransactionUtils.runAfterCommit(() -> queues.delete(userId));
+    }
+
+    private Poll poll(Long userId, CandidateFeedCriteria criteria, int count) {
+        return (Poll) queues.executeOnKey(
+            userId,
+            new PollProcessor(criteria, count, maxAgeMs(), properties.getRefillThreshold(), properties.getRefillRetryMs())
+        );
+    }
+
+    private void refillInBackground(Long userId, CandidateFeedCriteria criteria) {
+        try {
+            int appended = refill(userId, criteria);
+            log.debug("Appended {} candidates to the queue of UserApp {}", appended, userId);
+        } catch (RuntimeException e) {
+            log.warn("Could not refill the candidate queue of UserApp {}: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * Find the candidates nearest to the user, then split them on their age when the criteria have an age range, in a
+     * single query. Candidates out of the range are returned too, so that the queue leaves them out of its next
+     * refills, which then reach further candidates.
+     */
+    private Candidates findCandidates(Long userId, CandidateFeedCriteria criteria, CompactLongSet excluded) {
+        Optional<LocationRepository.UserPosition> position = locationRepository.findUserPosition(userId);
+        if (!position.isPresent()) {
+            return new Candidates(new long[0], new long[0]);
+        }
+        long[] nearest = nearbyUserService
+            .findNearestCandidates(
+                position.get().getLatitude(),
+                position.get().getLongitude(),
+                properties.getQueueSize(),
+                criteria.getRadiusKm(),
+                userId,
+                excluded::contains
+            )
+            .userIds();
+        if (!criteria.hasAgeRange() || nearest.length == 0) {
+            return new Candidates(rank(userId, nearest), new long[0]);
+        }
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<Long> nearestIds = Arrays.stream(nearest).boxed().collect(Collectors.toList());
+        Set<Long> inRange = new HashSet<>(
+            userAppRepository.findIdsBornBetween(nearestIds, criteria.getEarliestBirthDate(today), criteria.getLatestBirthDate(today))
+        );
+        long[] accepted = new long[inRange.size()];
+        long[] rejected = new long[nearest.length - inRange.size()];
+        int acceptedCount = 0;
+        int rejectedCount = 0;
+        for (long candidate : nearest) {
+            if (inRange.contains(candidate)) {
+                accepted[acceptedCount++] = candidate;
+            } else {
+                rejected[rejectedCount++] = candidate;
+            }
+        }
+        return new Candidates(rank(userId, accepted), rejected);
+    }
+
+    /**
+     * Order candidates by their {@link RecommendationService} score, best first. The sort is stable, so candidates
+     * keep their distance order while no model is trained.
+     */
+    private long[] rank(Long userId, long[] candidates) {
+        if (candidates.length < 2) {
+            return candidates;
+        }
+        float[] scores = recommendationService.score(userId, candidates);
+        return IntStream
+            .range(0, candidates.length)
+            .boxed()
+            .sorted((left, right) -> Float.compare(scores[right], scores[left]))
+            .mapToLong(index -> candidates[index])
+            .toArray();
+    }
+
+    private long maxAgeMs() {
+        return TimeUnit.SECONDS.toMillis(properties.getMaxAgeSeconds());
+    }
+
+    private static final class Candidates {
+
+        private final long[] accepted;
+
+        private final long[] rejected;
+
+        Candidates(long[] accepted, long[] rejected) {
+            this.accepted = accepted;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * The queue of a user, with the criteria it was built with, and the candidates it already served or filtered out
+     * since.
+     */
+    static final class Feed implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateFeedCriteria criteria;
+
+        private final long builtAt;
+
+        private final CandidateQueue queue = new CandidateQueue();
+
+        private final CompactLongSet excluded = new CompactLongSet();
+
+        private long lastRefillAt;
+
+        Feed(CandidateFeedCriteria criteria, long builtAt) {
+            this.criteria = criteria;
+            this.builtAt = builtAt;
+        }
+
+        boolean isCurrent(CandidateFeedCriteria criteria, long now, long maxAgeMs) {
+            return this.criteria.equals(criteria) && now - builtAt < maxAgeMs;
+        }
+    }
+
+    static final class Poll implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] candidateIds;
+
+        private final boolean refill;
+
+        Poll(long[] candidateIds, boolean refill) {
+            this.candidateIds = candidateIds;
+            this.refill = refill;
+        }
+    }
+
+    /**
+     * Take the best candidates off a current queue, and tell whether it should be refilled. Returns {@code null} when
+     * the queue must be built first.
+     */
+    static final class PollProcessor extends AbstractEntryProcessor<Long, Feed> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateFeedCriteria criteria;
+
+        private final int count;
+
+        private final long maxAgeMs;
+
+        private final int refillThreshold;
+
+        private final long refillRetryMs;
+
+        PollProcessor(CandidateFeedCriteria criteria, int count, long maxAgeMs, int refillThreshold, long refillRetryMs) {
+            this.criteria = criteria;
+            this.count = count;
+            this.maxAgeMs = maxAgeMs;
+            this.refillThreshold = refillThreshold;
+            this.refillRetryMs = refillRetryMs;
+        }
+
+        @Override
+        public Object process(Map.Entry<Long, Feed> entry) {
+            Feed feed = entry.getValue();
+            long now = System.currentTimeMillis();
+            if (feed == null || !feed.isCurrent(criteria, now, maxAgeMs)) {
+                return null;
+            }
+            long[] candidateIds = feed.queue.poll(count);
+            for (long candidateId : candidateIds) {
+                feed.excluded.add(candidateId);
+            }
+            boolean refill = feed.queue.size() < refillThreshold && now - feed.lastRefillAt >= refillRetryMs;
+            if (refill) {
+                feed.lastRefillAt = now;
+            }
+            entry.setValue(feed);
+            return new Poll(candidateIds, refill);
+        }
+    }
+
+    /**
+     * Get the candidates to leave out of a refill: those queued, served or filtered out. Returns {@code null} when
+     * the queue will be rebuilt.
+     */
+    static final class ExcludedProcessor extends AbstractEntryProcessor<Long, Feed> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateFeedCriteria criteria;
+
+        private final long maxAgeMs;
+
+        ExcludedProcessor(CandidateFeedCriteria criteria, long maxAgeMs) {
+            super(false);
+            this.criteria = criteria;
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        @Override
+        public Object process(Map.Entry<Long, Feed> entry) {
+            Feed feed = entry.getValue();
+            if (feed == null || !feed.isCurrent(criteria, System.currentTimeMillis(), maxAgeMs)) {
+                return null;
+            }
+            CompactLongSet excluded = new CompactLongSet();
+            for (long candidateId : feed.queue.toArray()) {
+                excluded.add(candidateId);
+            }
+            feed.excluded.forEach(excluded::add);
+            return excluded;
+        }
+    }
+
+    /**
+     * Append candidates to a current queue, or to a new one replacing a missing, expired or differently filtered
+     * queue. Returns the number of candidates appended.
+     */
+    static final class AppendProcessor extends AbstractEntryProcessor<Long, Feed> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CandidateFeedCriteria criteria;
+
+        private final long[] accepted;
+
+        private final long[] rejected;
+
+        private final int capacity;
+
+        private final long maxAgeMs;
+
+        AppendProcessor(CandidateFeedCriteria criteria, long[] accepted, long[] rejected, int capacity, long maxAgeMs) {
+            this.criteria = criteria;
+            this.accepted = accepted;
+            this.rejected = rejected;
+            this.capacity = capacity;
+            this.maxAgeMs = maxAgeMs;
+        }
+
+        @Override
+        public Object process(Map.Entry<Long, Feed> entry) {
+            Feed current = entry.getValue();
+            long now = System.currentTimeMillis();
+            Feed feed = current != null && current.isCurrent(criteria, now, maxAgeMs) ? current : new Feed(criteria, now);
+            long[] fresh = Arrays.stream(accepted).filter(candidateId -> !feed.excluded.contains(candidateId)).toArray();
+            int appended = feed.queue.append(fresh, capacity);
+            for (long candidateId : rejected) {
+                feed.excluded.add(candidateId);
+            }
+            feed.lastRefillAt = now;
+            entry.setValue(feed);
+            return appended;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import com.tmrfcb.datingapp.domain.Country;
 import com.tmrfcb.datingapp.repository.CountryRepository;
 import com.tmrfcb.datingapp.repository.search.CountrySearchRepository;
 import com.tmrfcb.datingapp.service.CountryService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,16 +29,28 @@ public class CountryServiceImpl implements CountryService {
 
     private final CountrySearchRepository countrySearchRepository;
 
-    public CountryServiceImpl(CountryRepository countryRepository, CountrySearchRepository countrySearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    private final ProfileCardService profileCardService;
+
+    public CountryServiceImpl(
+        CountryRepository countryRepository,
+        CountrySearchRepository countrySearchRepository,
+        SearchIndexService searchIndexService,
+        ProfileCardService profileCardService
+    ) {
         this.countryRepository = countryRepository;
         this.countrySearchRepository = countrySearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.profileCardService = profileCardService;
     }
 
     @Override
     public Country save(Country country) {
         log.debug("Request to save Country : {}", country);
         Country result = countryRepository.save(country);
-        countrySearchRepository.save(result);
+        searchIndexService.index(result);
+        profileCardService.evictCountry(result.getId());
         return result;
     }
 
@@ -58,7 +72,8 @@ public class CountryServiceImpl implements CountryService {
             .map(countryRepository::save)
             .map(
                 savedCountry -> {
-                    countrySearchRepository.save(savedCountry);
+                    searchIndexService.index(savedCountry);
+                    profileCardService.evictCountry(savedCountry.getId());
 
                     return savedCountry;
                 }
@@ -82,8 +97,9 @@ public class CountryServiceImpl implements CountryService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Country : {}", id);
+        profileCardService.evictCountry(id);
         countryRepository.deleteById(id);
-        countrySearchRepository.deleteById(id);
+        searchIndexService.delete(Country.class, id);
     }
 
     @Override
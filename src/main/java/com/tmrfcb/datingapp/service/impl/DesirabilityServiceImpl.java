@@ -0,0 +1,216 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.DesirabilityService;
+import com.tmrfcb.datingapp.service.util.EloRating;
+import com.tmrfcb.datingapp.service.util.StripedVoteBuffer;
+import com.tmrfcb.datingapp.service.util.StripedVoteBuffer.Vote;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation rating users with the Elo system, where each swipe is a game won by the swiped user if it is
+ * a like.
+ * <p>
+ * Swipes are buffered in memory by a {@link StripedVoteBuffer} once their transaction commits, then applied
+ * periodically in rating periods, as with Glicko: each flush reads the ratings of all the users involved with one query
+ * per thousand users, sums the changes of each swiped user against these ratings, and adds the sums to the stored
+ * ratings with JDBC batches. Since the sums are added rather than written, instances flush independently of each
+ * other. Swipes buffered on an instance which stops are lost, which only delays the convergence of the ratings.
+ * <p>
+ * A swipe changed to another type is taken back by a vote of negative weight, so that its change is reverted against
+ * the ratings of the flush which applies it.
+ */
+@Service
+public class DesirabilityServiceImpl implements DesirabilityService {
+
+    private static final int LOOKUP_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(DesirabilityServiceImpl.class);
+
+    private final UserAppRepository userAppRepository;
+
+    private final ApplicationProperties.Desirability properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final StripedVoteBuffer votes;
+
+    private final Counter droppedCounter;
+
+    private final Counter failuresCounter;
+
+    private final Timer flushTimer;
+
+    public DesirabilityServiceImpl(
+        UserAppRepository userAppRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userAppRepository = userAppRepository;
+        this.properties = applicationProperties.getDesirability();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.votes = new StripedVoteBuffer(Runtime.getRuntime().availableProcessors() * 2, properties.getMaxPendingSwipes());
+
+        Gauge
+            .builder("desirability.swipes.pending", votes, StripedVoteBuffer::size)
+            .description("Swipes not yet applied to the desirability of users")
+            .register(meterRegistry);
+        this.droppedCounter =
+            Counter
+                .builder("desirability.swipes.dropped")
+                .description("Swipes not applied to the desirability of users, as too many were pending")
+                .register(meterRegistry);
+        this.failuresCounter =
+            Counter.builder("desirability.flush.failures").description("Failed flushes of the desirability of users").register(meterRegistry);
+        this.flushTimer = Timer.builder("desirability.flush").description("Time to flush the desirability of users").register(meterRegistry);
+    }
+
+    @Override
+    public void record(Relation relation, RelationType previousType) {
+        log.debug("Request to record the swipe of Relation : {}", relation);
+        List<Vote> recorded = new ArrayList<>(2);
+        addVotes(relation, previousType, recorded);
+        if (!recorded.isEmpty()) {
+            TransactionUtils.runAfterCommit(() -> recorded.forEach(this::add));
+        }
+    }
+
+    @Override
+    public void recordAll(List<Relation> relations, List<RelationType> previousTypes) {
+        log.debug("Request to record the swipes of {} Relations", relations.size());
+        List<Vote> recorded = new ArrayList<>(relations.size());
+        for (int i = 0; i < relations.size(); i++) {
+            addVotes(relations.get(i), previousTypes.get(i), recorded);
+        }
+        if (!recorded.isEmpty()) {
+            TransactionUtils.runAfterCommit(() -> recorded.forEach(this::add));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.desirability.flush-interval-ms:5000}")
+    public int flush() {
+        List<Vote> pending = votes.drain();
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        try {
+            return flushTimer.record(() -> transactionTemplate.execute(status -> apply(pending)));
+        } catch (RuntimeException e) {
+            failuresCounter.increment();
+            log.warn("Could not flush the desirability of users, retrying {} swipes on next flush: {}", pending.size(), e.getMessage());
+            pending.forEach(this::add);
+            return 0;
+        }
+    }
+
+    private int apply(List<Vote> pending) {
+        Set<Long> userIds = new HashSet<>();
+        for (Vote vote : pending) {
+            userIds.add(vote.getVoterId());
+            userIds.add(vote.getTargetId());
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        Map<Long, Double> ratings = new HashMap<>(ids.size() * 2);
+        for (int start = 0; start < ids.size(); start += LOOKUP_BATCH_SIZE) {
+            userAppRepository
+                .findDesirabilities(ids.subList(start, Math.min(ids.size(), start + LOOKUP_BATCH_SIZE)))
+                .forEach(desirability -> ratings.put(desirability.getId(), desirability.getDesirability()));
+        }
+
+        Map<Long, Double> deltas = new HashMap<>();
+        for (Vote vote : pending) {
+            Double rating = ratings.get(vote.getTargetId());
+            if (rating == null) {
+                // The swiped user has been deleted since
+                continue;
+            }
+            double voterRating = ratings.getOrDefault(vote.getVoterId(), EloRating.INITIAL_RATING);
+            double delta = EloRating.delta(
+                rating,
+                voterRating,
+                vote.isPositive() ? 1 : 0,
+                properties.getMaxRatingChange() * vote.getWeight()
+            );
+            deltas.merge(vote.getTargetId(), delta, Double::sum);
+        }
+        int updated = userAppRepository.addDesirability(deltas);
+        log.debug("Applied {} swipes to the desirability of {} users", pending.size(), updated);
+        return updated;
+    }
+
+    private void add(Vote vote) {
+        if (!votes.add(vote)) {
+            droppedCounter.increment();
+        }
+    }
+
+    /**
+     * Add the votes of a saved relation: none if its type did not change, else the vote of its new type, after taking
+     * back the one of its previous type.
+     */
+    private void addVotes(Relation relation, RelationType previousType, List<Vote> recorded) {
+        if (
+            !properties.isEnabled() ||
+            relation.getUserApp() == null ||
+            relation.getUserApp().getId() == null ||
+            relation.getRelationType() == previousType
+        ) {
+            return;
+        }
+        Long otherUserId = parseUserId(relation.getUserIdOfOther());
+        if (otherUserId == null || otherUserId.equals(relation.getUserApp().getId())) {
+            return;
+        }
+        Vote previous = toVote(relation.getUserApp().getId(), otherUserId, previousType, -1);
+        if (previous != null) {
+            recorded.add(previous);
+        }
+        Vote vote = toVote(relation.getUserApp().getId(), otherUserId, relation.getRelationType(), 1);
+        if (vote != null) {
+            recorded.add(vote);
+        }
+    }
+
+    /**
+     * @param sign {@code -1} to take the vote back.
+     * @return the vote of a user on another user, or {@code null} if the type of swipe does not count.
+     */
+    private Vote toVote(long userId, long otherUserId, RelationType relationType, int sign) {
+        if (relationType == null) {
+            return null;
+        }
+        switch (relationType) {
+            case LIKE:
+                return new Vote(userId, otherUserId, true, sign * properties.getLikeWeight());
+            case SUPERLIKE:
+                return new Vote(userId, otherUserId, true, sign * properties.getSuperLikeWeight());
+            case DISLIKE:
+                return new Vote(userId, otherUserId, false, sign * properties.getDislikeWeight());
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.config.KafkaProperties;
+import com.tmrfcb.datingapp.domain.DomainEventOutboxEntry;
+import com.tmrfcb.datingapp.domain.DomainEventSequence;
+import com.tmrfcb.datingapp.repository.DomainEventOutboxRepository;
+import com.tmrfcb.datingapp.repository.DomainEventSequenceRepository;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import com.tmrfcb.datingapp.service.util.DomainEventCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation publishing the domain events through a transactional outbox.
+ * <p>
+ * Events are encoded with {@link DomainEventCodec} and collected until the transaction of the change itself is about to
+ * commit, then written to the {@code domain_event_outbox} table in that transaction, so they are only published if the
+ * change is committed. Each event is numbered within its key, under a lock on the {@link DomainEventSequence} of the
+ * key held until the transaction ends: the transactions writing events for the same key commit one after the other, so
+ * a committed event never has a lower id than an event of its key still to commit. The sequences of all the events of
+ * a transaction are locked at once, in key order, so that transactions cannot deadlock on them. A relay sends the events
+ * in id order, keyed by user so that the events of a user
+ * stay in order on one partition, with a single flush per batch.
+ * Entries are removed once every record of the batch is acknowledged; on a failure the whole batch is sent again after
+ * an exponential backoff, so delivery is at least once and each record carries the id of its event in the
+ * {@value DomainEventService#EVENT_ID_HEADER} header and its number in the {@value DomainEventService#EVENT_SEQUENCE_HEADER}
+ * header. Only one instance of the cluster relays at a time.
+ */
+@Service
+public class DomainEventServiceImpl implements DomainEventService {
+
+    private static final long SEND_TIMEOUT_SECONDS = 30;
+
+    private final Logger log = LoggerFactory.getLogger(DomainEventServiceImpl.class);
+
+    private final DomainEventOutboxRepository domainEventOutboxRepository;
+
+    private final DomainEventSequenceRepository domainEventSequenceRepository;
+
+    private final ApplicationProperties.DomainEvents properties;
+
+    private final KafkaProperties kafkaProperties;
+
+    private final IMap<String, Boolean> relayLocks;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate newTransactionTemplate;
+
+    /**
+     * Key of the events collected in the current transaction, among its resources.
+     */
+    private final Object pendingEventsKey = new Object();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Counter relayed;
+
+    private final Counter failures;
+
+    private final Timer batchTimer;
+
+    private KafkaProducer<String, byte[]> producer;
+
+    private long backoffMs;
+
+    private long retryAt;
+
+    public DomainEventServiceImpl(
+        DomainEventOutboxRepository domainEventOutboxRepository,
+        DomainEventSequenceRepository domainEventSequenceRepository,
+        ApplicationProperties applicationProperties,
+        KafkaProperties kafkaProperties,
+        HazelcastInstance hazelcastInstance,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.domainEventOutboxRepository = domainEventOutboxRepository;
+        this.domainEventSequenceRepository = domainEventSequenceRepository;
+        this.properties = applicationProperties.getDomainEvents();
+        this.kafkaProperties = kafkaProperties;
+        this.relayLocks = hazelcastInstance.getMap(RELAY_LOCK_MAP);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("domain.events.pending", pending, AtomicLong::get).description("Events waiting to be published").register(meterRegistry);
+        Gauge
+            .builder("domain.events.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age of the oldest event waiting to be published")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.relayed = Counter.builder("domain.events.relayed").register(meterRegistry);
+        this.failures = Counter.builder("domain.events.failures").register(meterRegistry);
+        this.batchTimer = Timer.builder("domain.events.batch").description("Time to publish a batch of events").register(meterRegistry);
+    }
+
+    @Override
+    @Transactional
+    public void publish(DomainEventDTO event) {
+        if (properties.isEnabled()) {
+            publishAll(Collections.singletonList(event));
+        }
+    }
+
+    @Override
+    @Transactional
+    public void publishAll(Collection<DomainEventDTO> events) {
+        if (!properties.isEnabled() || events.isEmpty()) {
+            return;
+        }
+        List<DomainEventOutboxEntry> entries = events.stream().map(DomainEventServiceImpl::newEntry).collect(Collectors.toList());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.execute(status -> write(entries));
+            return;
+        }
+        pendingEntries().addAll(entries);
+    }
+
+    /**
+     * The events collected in the current transaction, written when it is about to commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<DomainEventOutboxEntry> pendingEntries() {
+        List<DomainEventOutboxEntry> pendingEntries = (List<DomainEventOutboxEntry>) TransactionSynchronizationManager.getResource(
+            pendingEventsKey
+        );
+        if (pendingEntries == null) {
+            List<DomainEventOutboxEntry> entries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(pendingEventsKey, entries);
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void beforeCommit(boolean readOnly) {
+                        write(entries);
+                    }
+
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(pendingEventsKey);
+                    }
+                }
+            );
+            pendingEntries = entries;
+        }
+        return pendingEntries;
+    }
+
+    /**
+     * Number the events by key and write them to the outbox, in the current transaction.
+     */
+    private List<DomainEventOutboxEntry> write(List<DomainEventOutboxEntry> entries) {
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        // Keys are locked in the same order by every transaction, so that they cannot deadlock
+        Map<String, List<DomainEventOutboxEntry>> entriesByKey = new TreeMap<>();
+        for (DomainEventOutboxEntry entry : entries) {
+            entriesByKey.computeIfAbsent(entry.getEventKey(), key -> new ArrayList<>()).add(entry);
+        }
+        createMissingSequences(entriesByKey.keySet());
+        List<DomainEventOutboxEntry> numberedEntries = new ArrayList<>(entries.size());
+        entriesByKey.forEach(
+            (key, keyEntries) -> {
+                domainEventSequenceRepository.increment(key, keyEntries.size());
+                long sequence = domainEventSequenceRepository.findLastSequence(key) - keyEntries.size();
+                for (DomainEventOutboxEntry entry : keyEntries) {
+                    numberedEntries.add(entry.sequence(++sequence));
+                }
+            }
+        );
+        return domainEventOutboxRepository.saveAll(numberedEntries);
+    }
+
+    /**
+     * Create the sequences of the keys which have none yet. They are created in a transaction of their own, before the
+     * current one locks any sequence, so that it never waits on a sequence created by a transaction waiting for it.
+     */
+    private void createMissingSequences(Collection<String> keys) {
+        List<String> missingKeys = keys.stream().filter(key -> !domainEventSequenceRepository.existsById(key)).collect(Collectors.toList());
+        for (String key : missingKeys) {
+            try {
+                newTransactionTemplate.execute(
+                    status -> domainEventSequenceRepository.saveAndFlush(new DomainEventSequence().eventKey(key).lastSequence(0))
+                );
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Domain event sequence of key {} created concurrently", key);
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.domain-events.poll-interval-ms:500}")
+    public int relay() {
+        if (!properties.isEnabled() || System.currentTimeMillis() < retryAt) {
+            return 0;
+        }
+        if (!relayLocks.tryLock(RELAY_LOCK)) {
+            // Another instance is relaying
+            return 0;
+        }
+        int published = 0;
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                int batchSize = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                published += batchSize;
+                if (batchSize < properties.getBatchSize()) {
+                    break;
+                }
+            }
+            backoffMs = 0;
+        } catch (RuntimeException e) {
+            failures.increment();
+            backoffMs = backoffMs == 0 ? properties.getInitialBackoffMs() : Math.min(backoffMs * 2, properties.getMaxBackoffMs());
+            retryAt = System.currentTimeMillis() + backoffMs;
+            log.warn("Could not publish domain events, retrying in {} ms: {}", backoffMs, e.getMessage());
+            closeProducer();
+        } finally {
+            relayLocks.unlock(RELAY_LOCK);
+        }
+        refreshLag();
+        return published;
+    }
+
+    private int relayBatch() {
+        List<DomainEventOutboxEntry> entries = domainEventOutboxRepository.findOldest(PageRequest.of(0, properties.getBatchSize()));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        KafkaProducer<String, byte[]> kafkaProducer = producer();
+        List<Future<RecordMetadata>> results = new ArrayList<>(entries.size());
+        for (DomainEventOutboxEntry entry : entries) {
+            ProducerRecord<String, byte[]> record = new ProducerRecord<>(properties.getTopic(), entry.getEventKey(), entry.getPayload());
+            record.headers().add(EVENT_ID_HEADER, entry.getId().toString().getBytes(StandardCharsets.UTF_8));
+            record.headers().add(EVENT_SEQUENCE_HEADER, Long.toString(entry.getSequence()).getBytes(StandardCharsets.UTF_8));
+            results.add(kafkaProducer.send(record));
+        }
+        kafkaProducer.flush();
+        for (Future<RecordMetadata> result : results) {
+            awaitAcknowledgement(result);
+        }
+        domainEventOutboxRepository.deleteAllByIdIn(entries.stream().map(DomainEventOutboxEntry::getId).collect(Collectors.toList()));
+        relayed.increment(entries.size());
+        return entries.size();
+    }
+
+    private static void awaitAcknowledgement(Future<RecordMetadata> result) {
+        try {
+            result.get(SEND_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while publishing domain events", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kafka rejected a domain event: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge a domain event in time", e);
+        }
+    }
+
+    private synchronized KafkaProducer<String, byte[]> producer() {
+        if (producer == null) {
+            Map<String, Object> producerProps = kafkaProperties.getProducerProps();
+            producerProps.put("key.serializer", StringSerializer.class.getName());
+            producerProps.put("value.serializer", ByteArraySerializer.class.getName());
+            producer = new KafkaProducer<>(producerProps);
+        }
+        return producer;
+    }
+
+    private synchronized void closeProducer() {
+        if (producer != null) {
+            // A new producer reconnects, and starts over after fatal errors
+            producer.close(Duration.ofSeconds(5));
+            producer = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closeProducer();
+    }
+
+    private void refreshLag() {
+        try {
+            pending.set(domainEventOutboxRepository.count());
+            lagMillis.set(
+                domainEventOutboxRepository
+                    .findFirstByOrderByIdAsc()
+                    .map(oldest -> Math.max(0, Duration.between(oldest.getCreatedDate(), Instant.now()).toMillis()))
+                    .orElse(0L)
+            );
+        } catch (RuntimeException e) {
+            log.debug("Could not measure domain event lag: {}", e.getMessage());
+        }
+    }
+
+    private static DomainEventOutboxEntry newEntry(DomainEventDTO event) {
+        byte[] payload = DomainEventCodec.encode(event);
+        return new DomainEventOutboxEntry().eventKey(event.getUserId().toString()).payload(payload).createdDate(Instant.now());
+    }
+}
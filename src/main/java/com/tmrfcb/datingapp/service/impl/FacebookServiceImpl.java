@@ -6,6 +6,7 @@ import com.tmrfcb.datingapp.domain.Facebook;
 import com.tmrfcb.datingapp.repository.FacebookRepository;
 import com.tmrfcb.datingapp.repository.search.FacebookSearchRepository;
 import com.tmrfcb.datingapp.service.FacebookService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,16 +31,23 @@ public class FacebookServiceImpl implements FacebookService {
 
     private final FacebookSearchRepository facebookSearchRepository;
 
-    public FacebookServiceImpl(FacebookRepository facebookRepository, FacebookSearchRepository facebookSearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    public FacebookServiceImpl(
+        FacebookRepository facebookRepository,
+        FacebookSearchRepository facebookSearchRepository,
+        SearchIndexService searchIndexService
+    ) {
         this.facebookRepository = facebookRepository;
         this.facebookSearchRepository = facebookSearchRepository;
+        this.searchIndexService = searchIndexService;
     }
 
     @Override
     public Facebook save(Facebook facebook) {
         log.debug("Request to save Facebook : {}", facebook);
         Facebook result = facebookRepository.save(facebook);
-        facebookSearchRepository.save(result);
+        searchIndexService.index(result);
         return result;
     }
 
@@ -57,7 +65,7 @@ public class FacebookServiceImpl implements FacebookService {
             .map(facebookRepository::save)
             .map(
                 savedFacebook -> {
-                    facebookSearchRepository.save(savedFacebook);
+                    searchIndexService.index(savedFacebook);
 
                     return savedFacebook;
                 }
@@ -95,7 +103,7 @@ public class FacebookServiceImpl implements FacebookService {
     public void delete(Long id) {
         log.debug("Request to delete Facebook : {}", id);
         facebookRepository.deleteById(id);
-        facebookSearchRepository.deleteById(id);
+        searchIndexService.delete(Facebook.class, id);
     }
 
     @Override
@@ -0,0 +1,133 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.tmrfcb.datingapp.domain.InboxEntry;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.repository.InboxEntryRepository;
+import com.tmrfcb.datingapp.repository.MatchRelationRepository;
+import com.tmrfcb.datingapp.service.InboxService;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link InboxEntry}.
+ * <p>
+ * The entries of a match are updated under a row lock on the match, so that concurrent messages in a conversation
+ * neither lose an unread message nor create its entries twice.
+ */
+@Service
+@Transactional
+public class InboxServiceImpl implements InboxService {
+
+    static final int PREVIEW_LENGTH = 100;
+
+    private final Logger log = LoggerFactory.getLogger(InboxServiceImpl.class);
+
+    private final InboxEntryRepository inboxEntryRepository;
+
+    private final MatchRelationRepository matchRelationRepository;
+
+    public InboxServiceImpl(InboxEntryRepository inboxEntryRepository, MatchRelationRepository matchRelationRepository) {
+        this.inboxEntryRepository = inboxEntryRepository;
+        this.matchRelationRepository = matchRelationRepository;
+    }
+
+    @Override
+    public void addMatch(MatchRelation matchRelation) {
+        log.debug("Request to add to the inbox MatchRelation : {}", matchRelation);
+        if (matchRelation.getUserLowId() == null || matchRelation.getUserHighId() == null) {
+            return;
+        }
+        ZonedDateTime date = matchRelation.getMatchDate() != null ? matchRelation.getMatchDate() : ZonedDateTime.now();
+        inboxEntryRepository.save(newEntry(matchRelation.getUserLowId(), matchRelation.getUserHighId(), matchRelation.getId(), date));
+        inboxEntryRepository.save(newEntry(matchRelation.getUserHighId(), matchRelation.getUserLowId(), matchRelation.getId(), date));
+    }
+
+    @Override
+    public void recordMessage(Message message) {
+        log.debug("Request to record in the inbox Message : {}", message);
+        Long senderId = parseUserId(message.getSenderId());
+        Long receiverId = parseUserId(message.getReceiverId());
+        if (message.getMatchRelation() == null || message.getMatchRelation().getId() == null || senderId == null || receiverId == null) {
+            return;
+        }
+        Long matchRelationId = message.getMatchRelation().getId();
+        if (!matchRelationRepository.findOneForUpdate(matchRelationId).isPresent()) {
+            return;
+        }
+        ZonedDateTime date = message.getMessageDate() != null ? message.getMessageDate() : ZonedDateTime.now();
+        List<InboxEntry> entries = inboxEntryRepository.findAllForUpdate(matchRelationId);
+        record(findOrCreate(entries, senderId, receiverId, matchRelationId, date), message, date, false);
+        record(findOrCreate(entries, receiverId, senderId, matchRelationId, date), message, date, true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<InboxEntry> findInbox(Long userId, Pageable pageable) {
+        log.debug("Request to get the inbox of UserApp : {}", userId);
+        // The order of the query, served by the index, replaces the sort of the pageable
+        return inboxEntryRepository.findInbox(userId, PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+    }
+
+    @Override
+    public boolean markRead(Long userId, Long matchRelationId) {
+        log.debug("Request to mark as read by UserApp {} the MatchRelation : {}", userId, matchRelationId);
+        return inboxEntryRepository.markRead(userId, matchRelationId) > 0;
+    }
+
+    @Override
+    public void removeMatch(Long matchRelationId) {
+        log.debug("Request to remove from the inbox MatchRelation : {}", matchRelationId);
+        inboxEntryRepository.deleteAllByMatchRelationId(matchRelationId);
+    }
+
+    private void record(InboxEntry entry, Message message, ZonedDateTime date, boolean unread) {
+        // Messages saved late with an older date do not replace the preview
+        if (entry.getLastMessageId() == null || !date.isBefore(entry.getLastActivityDate())) {
+            entry.setLastMessageId(message.getId());
+            entry.setLastMessageSenderId(message.getSenderId());
+            entry.setLastMessagePreview(preview(message));
+            entry.setLastActivityDate(date);
+        }
+        if (unread) {
+            entry.setUnreadCount(entry.getUnreadCount() + 1);
+        }
+        inboxEntryRepository.save(entry);
+    }
+
+    private InboxEntry findOrCreate(List<InboxEntry> entries, Long ownerId, Long otherUserId, Long matchRelationId, ZonedDateTime date) {
+        for (InboxEntry entry : entries) {
+            if (ownerId.equals(entry.getOwnerId())) {
+                return entry;
+            }
+        }
+        // Matches created before the inbox existed
+        return newEntry(ownerId, otherUserId, matchRelationId, date);
+    }
+
+    private static InboxEntry newEntry(Long ownerId, Long otherUserId, Long matchRelationId, ZonedDateTime date) {
+        return new InboxEntry()
+            .ownerId(ownerId)
+            .otherUserId(otherUserId)
+            .matchRelationId(matchRelationId)
+            .lastActivityDate(date)
+            .unreadCount(0);
+    }
+
+    private static String preview(Message message) {
+        String text = message.getMessageContent() != null ? message.getMessageContent() : message.getMessageTitle();
+        if (text == null || text.length() <= PREVIEW_LENGTH) {
+            return text;
+        }
+        return text.substring(0, PREVIEW_LENGTH);
+    }
+}
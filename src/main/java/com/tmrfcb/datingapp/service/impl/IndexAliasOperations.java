@@ -0,0 +1,28 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Alias requests of the reindexing, which {@code ElasticsearchOperations} does not cover, sent with the Elasticsearch
+ * client selected with {@code application.search.client}.
+ */
+public interface IndexAliasOperations {
+    /**
+     * @param alias the name of the alias.
+     * @return the indexes the alias points to, or the index named like the alias if there is one, or an empty set.
+     * @throws IOException if the request could not be sent.
+     */
+    Set<String> getIndexes(String alias) throws IOException;
+
+    /**
+     * Point an alias to an index and remove it from other indexes, in one request.
+     *
+     * @param alias the name of the alias.
+     * @param target the index the alias is added to.
+     * @param previous the indexes the alias is removed from.
+     * @throws IOException if the request could not be sent.
+     */
+    void moveAlias(String alias, String target, Collection<String> previous) throws IOException;
+}
@@ -0,0 +1,24 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Bulk requests mixing index and delete actions, which {@code ElasticsearchOperations} does not cover, sent with the
+ * Elasticsearch client selected with {@code application.search.client}.
+ */
+public interface IndexBulkOperations {
+    /**
+     * Index documents and delete others of an index, in one bulk request. Deleting a missing document is not a failure.
+     *
+     * @param index the name of the index.
+     * @param type the type of the documents.
+     * @param documents the documents to index, by id.
+     * @param deletedIds the ids of the documents to delete.
+     * @throws IOException if the request could not be sent.
+     * @throws org.springframework.data.elasticsearch.ElasticsearchException if some actions failed, with their
+     *     documents.
+     */
+    void bulk(String index, String type, Map<String, ?> documents, Collection<String> deletedIds) throws IOException;
+}
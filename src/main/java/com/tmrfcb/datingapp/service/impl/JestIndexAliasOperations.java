@@ -0,0 +1,48 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import io.searchbox.client.JestClient;
+import io.searchbox.client.JestResult;
+import io.searchbox.indices.aliases.AddAliasMapping;
+import io.searchbox.indices.aliases.GetAliases;
+import io.searchbox.indices.aliases.ModifyAliases;
+import io.searchbox.indices.aliases.RemoveAliasMapping;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IndexAliasOperations} of the {@code jest} search client.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "jest", matchIfMissing = true)
+public class JestIndexAliasOperations implements IndexAliasOperations {
+
+    private final JestClient jestClient;
+
+    public JestIndexAliasOperations(JestClient jestClient) {
+        this.jestClient = jestClient;
+    }
+
+    @Override
+    public Set<String> getIndexes(String alias) throws IOException {
+        Set<String> indexes = new HashSet<>();
+        JestResult aliases = jestClient.execute(new GetAliases.Builder().addIndex(alias).build());
+        if (aliases.isSucceeded()) {
+            indexes.addAll(aliases.getJsonObject().keySet());
+        }
+        return indexes;
+    }
+
+    @Override
+    public void moveAlias(String alias, String target, Collection<String> previous) throws IOException {
+        ModifyAliases.Builder modifyAliases = new ModifyAliases.Builder(new AddAliasMapping.Builder(target, alias).build());
+        previous.forEach(index -> modifyAliases.addAlias(new RemoveAliasMapping.Builder(index, alias).build()));
+        JestResult result = jestClient.execute(modifyAliases.build());
+        if (!result.isSucceeded()) {
+            throw new IllegalStateException(result.getErrorMessage());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import io.searchbox.client.JestClient;
+import io.searchbox.core.Bulk;
+import io.searchbox.core.BulkResult;
+import io.searchbox.core.Delete;
+import io.searchbox.core.Index;
+import io.searchbox.params.Parameters;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IndexBulkOperations} of the {@code jest} search client, which refreshes the index like the Jest repositories
+ * do after each write.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "jest", matchIfMissing = true)
+public class JestIndexBulkOperations implements IndexBulkOperations {
+
+    private final JestClient jestClient;
+
+    private final EntityMapper entityMapper;
+
+    public JestIndexBulkOperations(JestClient jestClient, EntityMapper entityMapper) {
+        this.jestClient = jestClient;
+        this.entityMapper = entityMapper;
+    }
+
+    @Override
+    public void bulk(String index, String type, Map<String, ?> documents, Collection<String> deletedIds) throws IOException {
+        if (documents.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        Bulk.Builder bulk = new Bulk.Builder().defaultIndex(index).defaultType(type).setParameter(Parameters.REFRESH, true);
+        for (Map.Entry<String, ?> document : documents.entrySet()) {
+            bulk.addAction(new Index.Builder(entityMapper.mapToString(document.getValue())).id(document.getKey()).build());
+        }
+        deletedIds.forEach(id -> bulk.addAction(new Delete.Builder(id).build()));
+        BulkResult result = jestClient.execute(bulk.build());
+
+        Map<String, String> failedDocuments = new HashMap<>();
+        for (BulkResult.BulkResultItem item : result.getItems()) {
+            if (item.error != null) {
+                failedDocuments.put(item.id, item.error);
+            }
+        }
+        if (!failedDocuments.isEmpty()) {
+            throw new ElasticsearchException("Bulk request has failures [" + failedDocuments + "]", failedDocuments);
+        }
+        if (!result.isSucceeded()) {
+            throw new ElasticsearchException("Bulk request failed: " + result.getErrorMessage());
+        }
+    }
+}
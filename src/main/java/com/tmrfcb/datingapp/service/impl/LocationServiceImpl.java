@@ -6,8 +6,15 @@ import com.tmrfcb.datingapp.domain.Location;
 import com.tmrfcb.datingapp.repository.LocationRepository;
 import com.tmrfcb.datingapp.repository.search.LocationSearchRepository;
 import com.tmrfcb.datingapp.service.LocationService;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.util.GeoUtils;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
@@ -30,16 +37,34 @@ public class LocationServiceImpl implements LocationService {
 
     private final LocationSearchRepository locationSearchRepository;
 
-    public LocationServiceImpl(LocationRepository locationRepository, LocationSearchRepository locationSearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    private final NearbyUserService nearbyUserService;
+
+    private final ProfileCardService profileCardService;
+
+    public LocationServiceImpl(
+        LocationRepository locationRepository,
+        LocationSearchRepository locationSearchRepository,
+        SearchIndexService searchIndexService,
+        NearbyUserService nearbyUserService,
+        ProfileCardService profileCardService
+    ) {
         this.locationRepository = locationRepository;
         this.locationSearchRepository = locationSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.nearbyUserService = nearbyUserService;
+        this.profileCardService = profileCardService;
     }
 
     @Override
     public Location save(Location location) {
         log.debug("Request to save Location : {}", location);
+        updateGeohash(location);
         Location result = locationRepository.save(location);
-        locationSearchRepository.save(result);
+        searchIndexService.index(result);
+        nearbyUserService.indexLocation(result);
+        profileCardService.evictLocation(result.getId());
         return result;
     }
 
@@ -63,9 +88,13 @@ public class LocationServiceImpl implements LocationService {
                     if (location.getStateProvince() != null) {
                         existingLocation.setStateProvince(location.getStateProvince());
                     }
-                    if (location.getGps() != null) {
-                        existingLocation.setGps(location.getGps());
+                    if (location.getLatitude() != null) {
+                        existingLocation.setLatitude(location.getLatitude());
                     }
+                    if (location.getLongitude() != null) {
+                        existingLocation.setLongitude(location.getLongitude());
+                    }
+                    updateGeohash(existingLocation);
 
                     return existingLocation;
                 }
@@ -73,7 +102,9 @@ public class LocationServiceImpl implements LocationService {
             .map(locationRepository::save)
             .map(
                 savedLocation -> {
-                    locationSearchRepository.save(savedLocation);
+                    searchIndexService.index(savedLocation);
+                    nearbyUserService.indexLocation(savedLocation);
+                    profileCardService.evictLocation(savedLocation.getId());
 
                     return savedLocation;
                 }
@@ -100,6 +131,39 @@ public class LocationServiceImpl implements LocationService {
             .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Location> findNearby(double latitude, double longitude, double radiusKm, Pageable pageable) {
+        log.debug("Request to get Locations within {} km of ({}, {})", radiusKm, latitude, longitude);
+        int precision = GeoUtils.precisionForRadius(latitude, radiusKm);
+        Set<String> cells = GeoUtils.coveringCells(latitude, longitude, precision);
+        double latitudeDelta = GeoUtils.latitudeDelta(radiusKm);
+        double longitudeDelta = GeoUtils.longitudeDelta(latitude, radiusKm);
+        Double minLongitude = null;
+        Double maxLongitude = null;
+        if (longitude - longitudeDelta >= -180 && longitude + longitudeDelta <= 180) {
+            // The box does not cross the antimeridian, so the longitude range can be pruned as well
+            minLongitude = longitude - longitudeDelta;
+            maxLongitude = longitude + longitudeDelta;
+        }
+        Page<Long> ids = locationRepository.findIdsNearby(
+            cells,
+            latitude - latitudeDelta,
+            latitude + latitudeDelta,
+            minLongitude,
+            maxLongitude,
+            latitude,
+            longitude,
+            radiusKm,
+            pageable
+        );
+        Map<Long, Location> locations = locationRepository
+            .findAllById(ids.getContent())
+            .stream()
+            .collect(Collectors.toMap(Location::getId, Function.identity()));
+        return ids.map(locations::get);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Location> findOne(Long id) {
@@ -110,8 +174,10 @@ public class LocationServiceImpl implements LocationService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Location : {}", id);
+        nearbyUserService.removeLocation(id);
+        profileCardService.evictLocation(id);
         locationRepository.deleteById(id);
-        locationSearchRepository.deleteById(id);
+        searchIndexService.delete(Location.class, id);
     }
 
     @Override
@@ -120,4 +186,12 @@ public class LocationServiceImpl implements LocationService {
         log.debug("Request to search for a page of Locations for query {}", query);
         return locationSearchRepository.search(queryStringQuery(query), pageable);
     }
+
+    private static void updateGeohash(Location location) {
+        if (location.getLatitude() != null && location.getLongitude() != null) {
+            location.setGeohash(GeoUtils.encode(location.getLatitude(), location.getLongitude(), GeoUtils.MAX_PRECISION));
+        } else {
+            location.setGeohash(null);
+        }
+    }
 }
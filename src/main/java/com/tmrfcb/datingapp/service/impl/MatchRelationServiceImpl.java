@@ -5,7 +5,11 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.tmrfcb.datingapp.domain.MatchRelation;
 import com.tmrfcb.datingapp.repository.MatchRelationRepository;
 import com.tmrfcb.datingapp.repository.search.MatchRelationSearchRepository;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.InboxService;
 import com.tmrfcb.datingapp.service.MatchRelationService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -30,19 +34,36 @@ public class MatchRelationServiceImpl implements MatchRelationService {
 
     private final MatchRelationSearchRepository matchRelationSearchRepository;
 
+    private final SearchIndexService searchIndexService;
+
+    private final InboxService inboxService;
+
+    private final DomainEventService domainEventService;
+
     public MatchRelationServiceImpl(
         MatchRelationRepository matchRelationRepository,
-        MatchRelationSearchRepository matchRelationSearchRepository
+        MatchRelationSearchRepository matchRelationSearchRepository,
+        SearchIndexService searchIndexService,
+        InboxService inboxService,
+        DomainEventService domainEventService
     ) {
         this.matchRelationRepository = matchRelationRepository;
         this.matchRelationSearchRepository = matchRelationSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.inboxService = inboxService;
+        this.domainEventService = domainEventService;
     }
 
     @Override
     public MatchRelation save(MatchRelation matchRelation) {
         log.debug("Request to save MatchRelation : {}", matchRelation);
+        boolean created = matchRelation.getId() == null;
         MatchRelation result = matchRelationRepository.save(matchRelation);
-        matchRelationSearchRepository.save(result);
+        searchIndexService.index(result);
+        if (created) {
+            inboxService.addMatch(result);
+            domainEventService.publishAll(DomainEventDTO.matchCreated(result));
+        }
         return result;
     }
 
@@ -64,7 +85,7 @@ public class MatchRelationServiceImpl implements MatchRelationService {
             .map(matchRelationRepository::save)
             .map(
                 savedMatchRelation -> {
-                    matchRelationSearchRepository.save(savedMatchRelation);
+                    searchIndexService.index(savedMatchRelation);
 
                     return savedMatchRelation;
                 }
@@ -102,7 +123,8 @@ public class MatchRelationServiceImpl implements MatchRelationService {
     public void delete(Long id) {
         log.debug("Request to delete MatchRelation : {}", id);
         matchRelationRepository.deleteById(id);
-        matchRelationSearchRepository.deleteById(id);
+        inboxService.removeMatch(id);
+        searchIndexService.delete(MatchRelation.class, id);
     }
 
     @Override
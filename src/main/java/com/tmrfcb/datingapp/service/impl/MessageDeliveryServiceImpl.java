@@ -0,0 +1,108 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.MessageDeliveryService;
+import com.tmrfcb.datingapp.service.dto.MessageNotificationDTO;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.io.Serializable;
+import java.util.Optional;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service Implementation fanning new messages out through a Hazelcast topic.
+ * <p>
+ * Every node listens to the topic and forwards the messages to the sessions of the recipient connected to its own
+ * STOMP broker, so the sender's node does not need to know where the recipient is connected.
+ * <p>
+ * Messages address their recipient by {@link com.tmrfcb.datingapp.domain.UserApp} id, while STOMP sessions belong to
+ * the login of their JWT: the login of the recipient is looked up once, on the sender's node, and published with the
+ * message.
+ */
+@Service
+public class MessageDeliveryServiceImpl implements MessageDeliveryService {
+
+    private final Logger log = LoggerFactory.getLogger(MessageDeliveryServiceImpl.class);
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final UserAppRepository userAppRepository;
+
+    private final ITopic<Delivery> topic;
+
+    private String listenerId;
+
+    public MessageDeliveryServiceImpl(
+        SimpMessagingTemplate messagingTemplate,
+        UserAppRepository userAppRepository,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.messagingTemplate = messagingTemplate;
+        this.userAppRepository = userAppRepository;
+        this.topic = hazelcastInstance.getTopic(MESSAGE_DELIVERY_TOPIC);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerId = topic.addMessageListener(event -> sendToLocalSessions(event.getMessageObject()));
+    }
+
+    @PreDestroy
+    public void unsubscribe() {
+        if (listenerId != null) {
+            topic.removeMessageListener(listenerId);
+        }
+    }
+
+    @Override
+    public void deliver(Message message) {
+        log.debug("Request to deliver Message : {}", message);
+        Long receiverId = parseUserId(message.getReceiverId());
+        if (receiverId == null) {
+            return;
+        }
+        Optional<String> login = userAppRepository.findLoginById(receiverId);
+        if (!login.isPresent()) {
+            log.debug("UserApp {} has no login to deliver Message {} to", receiverId, message.getId());
+            return;
+        }
+        Delivery delivery = new Delivery(login.get(), new MessageNotificationDTO(message));
+        TransactionUtils.runAfterCommit(() -> topic.publish(delivery));
+    }
+
+    private void sendToLocalSessions(Delivery delivery) {
+        MessageNotificationDTO notification = delivery.notification;
+        try {
+            // The simple broker drops the message when the recipient has no session on this node
+            messagingTemplate.convertAndSendToUser(delivery.login, MESSAGES_DESTINATION, notification);
+        } catch (RuntimeException e) {
+            log.warn("Could not deliver Message {} to {}: {}", notification.getId(), notification.getReceiverId(), e.getMessage());
+        }
+    }
+
+    /**
+     * A new message, with the login of its recipient.
+     */
+    private static final class Delivery implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String login;
+
+        private final MessageNotificationDTO notification;
+
+        Delivery(String login, MessageNotificationDTO notification) {
+            this.login = login;
+            this.notification = notification;
+        }
+    }
+}
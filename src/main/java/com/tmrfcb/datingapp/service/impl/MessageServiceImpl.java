@@ -1,15 +1,26 @@
 package com.tmrfcb.datingapp.service.impl;
 
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.tmrfcb.datingapp.domain.Message;
 import com.tmrfcb.datingapp.repository.MessageRepository;
 import com.tmrfcb.datingapp.repository.search.MessageSearchRepository;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.InboxService;
+import com.tmrfcb.datingapp.service.MessageDeliveryService;
 import com.tmrfcb.datingapp.service.MessageService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import com.tmrfcb.datingapp.service.dto.MessageHistoryDTO;
+import com.tmrfcb.datingapp.service.util.MessageCursor;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,19 +38,60 @@ public class MessageServiceImpl implements MessageService {
 
     private final MessageSearchRepository messageSearchRepository;
 
-    public MessageServiceImpl(MessageRepository messageRepository, MessageSearchRepository messageSearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    private final MessageDeliveryService messageDeliveryService;
+
+    private final InboxService inboxService;
+
+    private final DomainEventService domainEventService;
+
+    public MessageServiceImpl(
+        MessageRepository messageRepository,
+        MessageSearchRepository messageSearchRepository,
+        SearchIndexService searchIndexService,
+        MessageDeliveryService messageDeliveryService,
+        InboxService inboxService,
+        DomainEventService domainEventService
+    ) {
         this.messageRepository = messageRepository;
         this.messageSearchRepository = messageSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.messageDeliveryService = messageDeliveryService;
+        this.inboxService = inboxService;
+        this.domainEventService = domainEventService;
     }
 
     @Override
     public Message save(Message message) {
         log.debug("Request to save Message : {}", message);
+        boolean created = message.getId() == null;
         Message result = messageRepository.save(message);
-        messageSearchRepository.save(result);
+        searchIndexService.index(result);
+        if (created) {
+            inboxService.recordMessage(result);
+            messageDeliveryService.deliver(result);
+            publishMessageSent(result);
+        }
         return result;
     }
 
+    private void publishMessageSent(Message message) {
+        Long receiverId = parseUserId(message.getReceiverId());
+        if (receiverId == null) {
+            return;
+        }
+        domainEventService.publish(
+            DomainEventDTO.messageSent(
+                receiverId,
+                parseUserId(message.getSenderId()),
+                message.getId(),
+                message.getMatchRelation() != null ? message.getMatchRelation().getId() : null,
+                message.getMessageDate() != null ? message.getMessageDate().toInstant() : Instant.now()
+            )
+        );
+    }
+
     @Override
     public Optional<Message> partialUpdate(Message message) {
         log.debug("Request to partially update Message : {}", message);
@@ -70,7 +122,7 @@ public class MessageServiceImpl implements MessageService {
             .map(messageRepository::save)
             .map(
                 savedMessage -> {
-                    messageSearchRepository.save(savedMessage);
+                    searchIndexService.index(savedMessage);
 
                     return savedMessage;
                 }
@@ -84,6 +136,22 @@ public class MessageServiceImpl implements MessageService {
         return messageRepository.findAll(pageable);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public MessageHistoryDTO findHistory(Long matchRelationId, MessageCursor before, int limit) {
+        log.debug("Request to get {} Messages of MatchRelation {} before {}", limit, matchRelationId, before);
+        // One more message tells whether there is an older page
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<Message> messages = before == null
+            ? messageRepository.findLatestByMatchRelationId(matchRelationId, page)
+            : messageRepository.findBeforeByMatchRelationId(matchRelationId, before.getMessageDate(), before.getId(), page);
+        if (messages.size() <= limit) {
+            return new MessageHistoryDTO(messages, null);
+        }
+        List<Message> content = messages.subList(0, limit);
+        return new MessageHistoryDTO(content, MessageCursor.of(content.get(limit - 1)).encode());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Optional<Message> findOne(Long id) {
@@ -95,7 +163,7 @@ public class MessageServiceImpl implements MessageService {
     public void delete(Long id) {
         log.debug("Request to delete Message : {}", id);
         messageRepository.deleteById(id);
-        messageSearchRepository.deleteById(id);
+        searchIndexService.delete(Message.class, id);
     }
 
     @Override
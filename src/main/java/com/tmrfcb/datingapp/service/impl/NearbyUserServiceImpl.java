@@ -0,0 +1,299 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ITopic;
+import com.hazelcast.core.Message;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.repository.LocationRepository;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import com.tmrfcb.datingapp.service.util.CompactLongSet;
+import com.tmrfcb.datingapp.service.util.SpatialGrid;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation keeping user positions in a {@link SpatialGrid}.
+ * <p>
+ * Every instance holds its own grid: changes are applied locally once their transaction commits, and broadcast to
+ * the other instances through a Hazelcast topic.
+ */
+@Service
+@Transactional
+public class NearbyUserServiceImpl implements NearbyUserService {
+
+    private static final String POSITION_TOPIC = "nearby-users.positions";
+
+    private final Logger log = LoggerFactory.getLogger(NearbyUserServiceImpl.class);
+
+    private final LocationRepository locationRepository;
+
+    private final SeenProfileService seenProfileService;
+
+    private final DomainEventService domainEventService;
+
+    private final ApplicationProperties.NearbyUsers properties;
+
+    private final ITopic<PositionChange> positionTopic;
+
+    private final String listenerRegistrationId;
+
+    /**
+     * Held shared while a change is applied, and exclusively while a rebuild starts and swaps its grid.
+     */
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+
+    private volatile SpatialGrid grid;
+
+    /**
+     * Changes applied while a rebuild loads its grid, replayed on that grid before it replaces the current one.
+     */
+    private Queue<PositionChange> pendingChanges;
+
+    public NearbyUserServiceImpl(
+        LocationRepository locationRepository,
+        SeenProfileService seenProfileService,
+        DomainEventService domainEventService,
+        ApplicationProperties applicationProperties,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.locationRepository = locationRepository;
+        this.seenProfileService = seenProfileService;
+        this.domainEventService = domainEventService;
+        this.properties = applicationProperties.getNearbyUsers();
+        this.grid = newGrid();
+        this.positionTopic = hazelcastInstance.getTopic(POSITION_TOPIC);
+        this.listenerRegistrationId = positionTopic.addMessageListener(this::onPositionChange);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        positionTopic.removeMessageListener(listenerRegistrationId);
+    }
+
+    @Override
+    public void indexLocation(Location location) {
+        log.debug("Request to index the users of Location : {}", location.getId());
+        List<Long> userIds = locationRepository.findUserIdsByLocationId(location.getId());
+        if (!userIds.isEmpty()) {
+            PositionChange change = new PositionChange(toArray(userIds), location.getLatitude(), location.getLongitude());
+            TransactionUtils.runAfterCommit(() -> publish(change));
+            publishLocationChanged(change, location.getId());
+        }
+    }
+
+    @Override
+    public void removeLocation(Long locationId) {
+        log.debug("Request to remove the users of Location : {}", locationId);
+        List<Long> userIds = locationRepository.findUserIdsByLocationId(locationId);
+        if (!userIds.isEmpty()) {
+            PositionChange change = new PositionChange(toArray(userIds), null, null);
+            TransactionUtils.runAfterCommit(() -> publish(change));
+            publishLocationChanged(change, null);
+        }
+    }
+
+    @Override
+    public void indexUser(UserApp userApp) {
+        log.debug("Request to index UserApp : {}", userApp.getId());
+        Optional<Location> location = Optional
+            .ofNullable(userApp.getLocation())
+            .map(Location::getId)
+            .flatMap(locationRepository::findById);
+        Double latitude = location.map(Location::getLatitude).orElse(null);
+        Double longitude = location.map(Location::getLongitude).orElse(null);
+        PositionChange change = new PositionChange(new long[] { userApp.getId() }, latitude, longitude);
+        TransactionUtils.runAfterCommit(() -> publish(change));
+        publishLocationChanged(change, location.map(Location::getId).orElse(null));
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        log.debug("Request to remove UserApp : {}", userId);
+        PositionChange change = new PositionChange(new long[] { userId }, null, null);
+        TransactionUtils.runAfterCommit(() -> publish(change));
+        publishLocationChanged(change, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpatialGrid.Neighbours findNearest(double latitude, double longitude, int k, double radiusKm) {
+        log.debug("Request to get the {} users nearest to ({}, {}) within {} km", k, latitude, longitude, radiusKm);
+        return grid.nearest(latitude, longitude, Math.min(k, properties.getMaxResults()), radiusKm);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpatialGrid.Neighbours findNearestCandidates(double latitude, double longitude, int k, double radiusKm, Long userId) {
+        return findNearestCandidates(latitude, longitude, k, radiusKm, userId, candidate -> false);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SpatialGrid.Neighbours findNearestCandidates(
+        double latitude,
+        double longitude,
+        int k,
+        double radiusKm,
+        Long userId,
+        LongPredicate excluded
+    ) {
+        log.debug("Request to get the {} candidates nearest to ({}, {}) for UserApp : {}", k, latitude, longitude, userId);
+        long self = userId;
+        int limit = Math.min(k, properties.getMaxResults());
+        // The nearest candidates are checked against the swiped users until none of them was swiped, each round
+        // excluding the swiped ones found so far
+        CompactLongSet seen = new CompactLongSet();
+        for (;;) {
+            SpatialGrid.Neighbours candidates = grid.nearest(
+                latitude,
+                longitude,
+                limit,
+                radiusKm,
+                candidate -> candidate != self && !seen.contains(candidate) && !excluded.test(candidate)
+            );
+            long[] seenCandidates = seenProfileService.findSeenAmong(userId, candidates.userIds());
+            if (seenCandidates.length == 0) {
+                return candidates;
+            }
+            for (long seenCandidate : seenCandidates) {
+                seen.add(seenCandidate);
+            }
+        }
+    }
+
+    /**
+     * Load every user position into a fresh grid, which then replaces the current one, so that queries never see a
+     * partially loaded index. Changes applied in the meantime are recorded and replayed on the fresh grid, as the
+     * positions it loaded may predate them. Runs once the application is ready.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        log.debug("Request to rebuild the nearby users index");
+        long start = System.currentTimeMillis();
+        SpatialGrid rebuilt = newGrid();
+        Queue<PositionChange> changes = new ConcurrentLinkedQueue<>();
+        rebuildLock.writeLock().lock();
+        try {
+            pendingChanges = changes;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+        boolean loaded = false;
+        try (Stream<LocationRepository.UserPosition> positions = locationRepository.streamUserPositions()) {
+            positions.forEach(position -> rebuilt.put(position.getUserId(), position.getLatitude(), position.getLongitude()));
+            loaded = true;
+        } finally {
+            rebuildLock.writeLock().lock();
+            try {
+                if (loaded) {
+                    changes.forEach(change -> apply(rebuilt, change));
+                    grid = rebuilt;
+                }
+                pendingChanges = null;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+        }
+        log.info("Indexed {} user positions in {} ms", rebuilt.size(), System.currentTimeMillis() - start);
+    }
+
+    private SpatialGrid newGrid() {
+        return new SpatialGrid(properties.getCellSizeDegrees(), properties.getShardCount());
+    }
+
+    private void publish(PositionChange change) {
+        apply(change);
+        try {
+            positionTopic.publish(change);
+        } catch (RuntimeException e) {
+            log.warn("Could not broadcast position change of users {}: {}", Arrays.toString(change.userIds), e.getMessage());
+        }
+    }
+
+    private void publishLocationChanged(PositionChange change, Long locationId) {
+        Instant now = Instant.now();
+        List<DomainEventDTO> events = new ArrayList<>(change.userIds.length);
+        for (long userId : change.userIds) {
+            events.add(DomainEventDTO.locationChanged(userId, locationId, change.latitude, change.longitude, now));
+        }
+        domainEventService.publishAll(events);
+    }
+
+    private void onPositionChange(Message<PositionChange> message) {
+        if (!message.getPublishingMember().localMember()) {
+            apply(message.getMessageObject());
+        }
+    }
+
+    private void apply(PositionChange change) {
+        rebuildLock.readLock().lock();
+        try {
+            apply(grid, change);
+            if (pendingChanges != null) {
+                pendingChanges.add(change);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private static void apply(SpatialGrid current, PositionChange change) {
+        for (long userId : change.userIds) {
+            if (change.latitude != null && change.longitude != null) {
+                current.put(userId, change.latitude, change.longitude);
+            } else {
+                current.remove(userId);
+            }
+        }
+    }
+
+    private static long[] toArray(List<Long> userIds) {
+        return userIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * New position of some users, or their removal when the coordinates are {@code null}.
+     */
+    static final class PositionChange implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] userIds;
+
+        private final Double latitude;
+
+        private final Double longitude;
+
+        PositionChange(long[] userIds, Double latitude, Double longitude) {
+            this.userIds = userIds;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+}
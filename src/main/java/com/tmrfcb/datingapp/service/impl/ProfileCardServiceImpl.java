@@ -0,0 +1,157 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.tmrfcb.datingapp.repository.LocationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.dto.ProfileCardDTO;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation reading the profile cards through the {@value ProfileCardService#PROFILE_CARDS_CACHE}
+ * cache of the {@link org.springframework.cache.CacheManager}.
+ * <p>
+ * Single cards go through {@link Cacheable}; batches read the same Hazelcast map directly, so that a batch costs one
+ * {@code getAll} and at most one query for the cards missing from the cache.
+ */
+@Service
+@Transactional
+public class ProfileCardServiceImpl implements ProfileCardService {
+
+    static final int EVICTION_BATCH_SIZE = 1000;
+
+    private final Logger log = LoggerFactory.getLogger(ProfileCardServiceImpl.class);
+
+    private final UserAppRepository userAppRepository;
+
+    private final LocationRepository locationRepository;
+
+    private final IMap<Long, ProfileCardDTO> profileCards;
+
+    public ProfileCardServiceImpl(
+        UserAppRepository userAppRepository,
+        LocationRepository locationRepository,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.userAppRepository = userAppRepository;
+        this.locationRepository = locationRepository;
+        this.profileCards = hazelcastInstance.getMap(PROFILE_CARDS_CACHE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = PROFILE_CARDS_CACHE, key = "#id", unless = "#result == null")
+    public Optional<ProfileCardDTO> findOne(Long id) {
+        log.debug("Request to get the ProfileCard of UserApp : {}", id);
+        return userAppRepository.findProfileCards(Collections.singleton(id)).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProfileCardDTO> findAll(Collection<Long> ids) {
+        log.debug("Request to get the ProfileCards of UserApps : {}", ids);
+        Set<Long> uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, ProfileCardDTO> cards = new HashMap<>(profileCards.getAll(uniqueIds));
+        if (cards.size() < uniqueIds.size()) {
+            Set<Long> missingIds = new LinkedHashSet<>(uniqueIds);
+            missingIds.removeAll(cards.keySet());
+            Map<Long, ProfileCardDTO> loaded = new HashMap<>();
+            for (ProfileCardDTO card : userAppRepository.findProfileCards(missingIds)) {
+                loaded.put(card.getId(), card);
+            }
+            if (!loaded.isEmpty()) {
+                profileCards.putAll(loaded);
+                cards.putAll(loaded);
+            }
+        }
+        List<ProfileCardDTO> result = new ArrayList<>(cards.size());
+        for (Long id : uniqueIds) {
+            ProfileCardDTO card = cards.get(id);
+            if (card != null) {
+                result.add(card);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void evict(Collection<Long> userIds) {
+        log.debug("Request to evict the ProfileCards of UserApps : {}", userIds);
+        if (!userIds.isEmpty()) {
+            List<Long> ids = new ArrayList<>(userIds);
+            TransactionUtils.runAfterCommit(() -> evictNow(ids));
+        }
+    }
+
+    @Override
+    public void evictLocation(Long locationId) {
+        evict(locationRepository.findUserIdsByLocationId(locationId));
+    }
+
+    /**
+     * The users of a country are read and evicted page by page once the transaction commits, so that a large country
+     * neither holds all its ids in memory nor makes a round trip per card.
+     */
+    @Override
+    public void evictCountry(Long countryId) {
+        log.debug("Request to evict the ProfileCards of the UserApps of Country : {}", countryId);
+        TransactionUtils.runAfterCommit(
+            () -> {
+                List<Long> ids;
+                long afterId = Long.MIN_VALUE;
+                do {
+                    ids = userAppRepository.findIdsByCountryIdAfter(countryId, afterId, PageRequest.of(0, EVICTION_BATCH_SIZE));
+                    if (!ids.isEmpty()) {
+                        evictNow(ids);
+                        afterId = ids.get(ids.size() - 1);
+                    }
+                } while (ids.size() == EVICTION_BATCH_SIZE);
+            }
+        );
+    }
+
+    /**
+     * Remove cards in batches, each one a single operation per partition.
+     */
+    private void evictNow(List<Long> ids) {
+        for (int from = 0; from < ids.size(); from += EVICTION_BATCH_SIZE) {
+            Set<Long> batch = new HashSet<>(ids.subList(from, Math.min(from + EVICTION_BATCH_SIZE, ids.size())));
+            profileCards.executeOnKeys(batch, new RemoveProcessor());
+        }
+    }
+
+    /**
+     * Remove an entry, on the member owning it and on its backups.
+     */
+    static final class RemoveProcessor extends AbstractEntryProcessor<Long, ProfileCardDTO> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Object process(Map.Entry<Long, ProfileCardDTO> entry) {
+            entry.setValue(null);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.service.RecommendationService;
+import com.tmrfcb.datingapp.service.util.ImplicitAls;
+import com.tmrfcb.datingapp.service.util.LongIndex;
+import com.tmrfcb.datingapp.service.util.SparseMatrix;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation scoring candidates with an {@link ImplicitAls} model of the swipes.
+ * <p>
+ * Every instance trains its own model, on startup then on schedule, from a streaming scan of the {@code relation}
+ * table into a {@link SparseMatrix}: one row per swiping user, one column per swiped user. Only the factors of the
+ * swiped users are kept. The factors of the scoring user are folded in from its current swipes on each call, so that
+ * its latest swipes count without retraining.
+ */
+@Service
+@Transactional
+public class RecommendationServiceImpl implements RecommendationService {
+
+    private final Logger log = LoggerFactory.getLogger(RecommendationServiceImpl.class);
+
+    private final RelationRepository relationRepository;
+
+    private final ApplicationProperties.Recommender properties;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("recommender-"));
+
+    private final ForkJoinPool pool;
+
+    private final AtomicBoolean training = new AtomicBoolean();
+
+    private final Timer trainingTimer;
+
+    private volatile Model model;
+
+    public RecommendationServiceImpl(
+        RelationRepository relationRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
+        this.relationRepository = relationRepository;
+        this.properties = applicationProperties.getRecommender();
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.pool =
+            new ForkJoinPool(properties.getParallelism() > 0 ? properties.getParallelism() : Runtime.getRuntime().availableProcessors());
+
+        Gauge
+            .builder("recommender.model.items", this, service -> service.model != null ? service.model.items.size() : 0)
+            .description("Swiped users known to the recommendation model")
+            .register(meterRegistry);
+        this.trainingTimer = Timer.builder("recommender.training").description("Time to train the recommendation model").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        trainingExecutor.shutdownNow();
+        pool.shutdownNow();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public float[] score(Long userId, long[] candidateIds) {
+        log.debug("Request to score {} candidates for UserApp : {}", candidateIds.length, userId);
+        float[] scores = new float[candidateIds.length];
+        Model current = model;
+        if (current == null || candidateIds.length == 0) {
+            return scores;
+        }
+        List<RelationRepository.Swipe> swipes = relationRepository.findSwipesByUserAppId(userId);
+        int[] items = new int[swipes.size()];
+        float[] values = new float[swipes.size()];
+        int count = 0;
+        for (RelationRepository.Swipe swipe : swipes) {
+            Long otherUserId = parseUserId(swipe.getUserIdOfOther());
+            int item = otherUserId != null ? current.items.indexOf(otherUserId) : -1;
+            if (item >= 0) {
+                items[count] = item;
+                values[count] = weight(swipe.getRelationType());
+                count++;
+            }
+        }
+        float[] userVector = current.factors.foldIn(items, values, count);
+        for (int i = 0; i < candidateIds.length; i++) {
+            int item = current.items.indexOf(candidateIds[i]);
+            if (item >= 0) {
+                scores[i] = current.factors.score(userVector, item);
+            }
+        }
+        return scores;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean train() {
+        if (!training.compareAndSet(false, true)) {
+            log.info("The recommendation model is already being trained");
+            return false;
+        }
+        try {
+            trainingTimer.record(this::trainModel);
+            return true;
+        } finally {
+            training.set(false);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void trainOnStartup() {
+        trainInBackground();
+    }
+
+    @Scheduled(cron = "${application.recommender.training-cron:0 0 3 * * *}")
+    public void trainOnSchedule() {
+        trainInBackground();
+    }
+
+    /**
+     * Training takes minutes on large tables, so it never runs on the scheduler thread, which the outbox relays share.
+     */
+    private void trainInBackground() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        trainingExecutor.execute(
+            () -> {
+                try {
+                    train();
+                } catch (RuntimeException e) {
+                    log.error("Could not train the recommendation model", e);
+                }
+            }
+        );
+    }
+
+    private void trainModel() {
+        long start = System.currentTimeMillis();
+        LongIndex users = new LongIndex();
+        LongIndex items = new LongIndex();
+        SparseMatrix.Builder builder = new SparseMatrix.Builder();
+        readOnlyTransactionTemplate.execute(
+            status -> {
+                try (Stream<RelationRepository.Swipe> swipes = relationRepository.streamSwipes()) {
+                    swipes.forEach(
+                        swipe -> {
+                            Long otherUserId = parseUserId(swipe.getUserIdOfOther());
+                            float weight = weight(swipe.getRelationType());
+                            if (otherUserId != null && weight != 0) {
+                                builder.add(users.add(swipe.getUserId()), items.add(otherUserId), weight);
+                            }
+                        }
+                    );
+                }
+                return null;
+            }
+        );
+        int swipes = builder.size();
+        long scanned = System.currentTimeMillis();
+        SparseMatrix userItems = builder.build(users.size(), items.size());
+        ImplicitAls als = new ImplicitAls(
+            properties.getRank(),
+            properties.getIterations(),
+            properties.getRegularization(),
+            properties.getAlpha(),
+            42L
+        );
+        model = new Model(items, als.train(userItems, pool).itemsOnly());
+        log.info(
+            "Trained the recommendation model on {} swipes of {} users on {} users in {} ms, {} ms of which scanning",
+            swipes,
+            users.size(),
+            items.size(),
+            System.currentTimeMillis() - start,
+            scanned - start
+        );
+    }
+
+    /**
+     * @return the signed strength of a swipe: positive for likes, negative for dislikes.
+     */
+    private float weight(RelationType relationType) {
+        if (relationType == null) {
+            return 0;
+        }
+        switch (relationType) {
+            case LIKE:
+                return properties.getLikeWeight();
+            case SUPERLIKE:
+                return properties.getSuperLikeWeight();
+            case DISLIKE:
+                return -properties.getDislikeWeight();
+            default:
+                return 0;
+        }
+    }
+
+    private static final class Model {
+
+        private final LongIndex items;
+
+        private final ImplicitAls.Factors factors;
+
+        Model(LongIndex items, ImplicitAls.Factors factors) {
+            this.items = items;
+            this.factors = factors;
+        }
+    }
+}
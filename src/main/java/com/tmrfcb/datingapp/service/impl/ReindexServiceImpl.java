@@ -0,0 +1,476 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MultiMap;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.Country;
+import com.tmrfcb.datingapp.domain.Facebook;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.ReportUser;
+import com.tmrfcb.datingapp.domain.UnmatchRelation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.service.ReindexService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.dto.ReindexProgressDTO;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Subgraph;
+import javax.persistence.TypedQuery;
+import javax.persistence.metamodel.Attribute;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation rebuilding the Elasticsearch indexes from the database.
+ * <p>
+ * Each index is rebuilt into a fresh index named after the index and the start time, and the index name then becomes
+ * an alias moved atomically onto it. Tables are read by pages in id order (keyset pagination) in short read-only
+ * transactions, bypassing the second level cache and fetching the single-valued associations in the same query, and
+ * pages are handed to a fixed pool of workers sending bulk requests. The number of pages in flight is bounded, so
+ * memory does not depend on the size of the table.
+ * <p>
+ * The search outbox relay keeps updating the current index meanwhile, and records the entities it changed. Once the
+ * new index is filled, the job pauses the relay by taking its lock, indexes these entities again into the new index,
+ * and moves the alias before releasing the lock: changes made from then on are applied to the new index.
+ */
+@Service
+public class ReindexServiceImpl implements ReindexService {
+
+    private static final List<Class<?>> ENTITY_CLASSES = Arrays.asList(
+        Country.class,
+        Facebook.class,
+        Location.class,
+        MatchRelation.class,
+        Message.class,
+        Relation.class,
+        ReportUser.class,
+        UnmatchRelation.class,
+        UserApp.class
+    );
+
+    private static final DateTimeFormatter VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneOffset.UTC);
+
+    private static final long RELAY_LOCK_TIMEOUT_SECONDS = 60;
+
+    private final Logger log = LoggerFactory.getLogger(ReindexServiceImpl.class);
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final IndexAliasOperations indexAliasOperations;
+
+    private final IndexBulkOperations indexBulkOperations;
+
+    private final PersistenceUnitUtil persistenceUnitUtil;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final IMap<String, Boolean> relayLocks;
+
+    private final IMap<String, String> reindexTargets;
+
+    private final MultiMap<String, Long> reindexChanges;
+
+    private final ApplicationProperties.Reindex properties;
+
+    private final Map<String, Class<?>> entityClassesByIndex = new LinkedHashMap<>();
+
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("reindex-"));
+
+    private final ExecutorService workers;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private volatile List<Progress> progress = new ArrayList<>();
+
+    public ReindexServiceImpl(
+        ElasticsearchOperations elasticsearchOperations,
+        IndexAliasOperations indexAliasOperations,
+        IndexBulkOperations indexBulkOperations,
+        EntityManager entityManager,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance,
+        ApplicationProperties applicationProperties
+    ) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.indexAliasOperations = indexAliasOperations;
+        this.indexBulkOperations = indexBulkOperations;
+        this.entityManager = entityManager;
+        this.persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.relayLocks = hazelcastInstance.getMap(SearchIndexService.RELAY_LOCK_MAP);
+        this.reindexTargets = hazelcastInstance.getMap(SearchIndexService.REINDEX_TARGETS_MAP);
+        this.reindexChanges = hazelcastInstance.getMultiMap(SearchIndexService.REINDEX_CHANGES_MAP);
+        this.properties = applicationProperties.getReindex();
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(), new CustomizableThreadFactory("reindex-worker-"));
+        for (Class<?> entityClass : ENTITY_CLASSES) {
+            entityClassesByIndex.put(elasticsearchOperations.getPersistentEntityFor(entityClass).getIndexName(), entityClass);
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        jobExecutor.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    @Override
+    public boolean start(Collection<String> indexes) {
+        Set<String> selected = indexes == null || indexes.isEmpty() ? entityClassesByIndex.keySet() : new HashSet<>(indexes);
+        for (String index : selected) {
+            if (!entityClassesByIndex.containsKey(index)) {
+                throw new IllegalArgumentException("Unknown index " + index);
+            }
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.debug("Request to reindex {} ignored, a reindexing is already running", selected);
+            return false;
+        }
+        log.debug("Request to reindex {}", selected);
+        progress =
+            entityClassesByIndex
+                .keySet()
+                .stream()
+                .filter(selected::contains)
+                .map(index -> new Progress(index, entityClassesByIndex.get(index)))
+                .collect(Collectors.toList());
+        List<Progress> job = progress;
+        jobExecutor.execute(() -> run(job));
+        return true;
+    }
+
+    @Override
+    public List<ReindexProgressDTO> getProgress() {
+        return progress.stream().map(Progress::toDTO).collect(Collectors.toList());
+    }
+
+    private void run(List<Progress> job) {
+        try {
+            for (Progress indexProgress : job) {
+                try {
+                    reindex(indexProgress);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.error("Could not reindex {}", indexProgress.index, e);
+                    indexProgress.fail(e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.stream().filter(indexProgress -> indexProgress.endDate == null).forEach(indexProgress -> indexProgress.fail(e));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reindex(Progress indexProgress) throws IOException, InterruptedException {
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchOperations.getPersistentEntityFor(indexProgress.entityClass);
+        String alias = indexProgress.index;
+        String type = persistentEntity.getIndexType();
+        String entityName = entityManager.getMetamodel().entity(indexProgress.entityClass).getName();
+        String entityType = indexProgress.entityClass.getSimpleName();
+        long total = readOnlyTransactionTemplate.execute(
+            status -> entityManager.createQuery("select count(e) from " + entityName + " e", Long.class).getSingleResult()
+        );
+        String target = alias + "-" + VERSION_FORMAT.format(Instant.now());
+        indexProgress.begin(target, total);
+        log.info("Reindexing {} {} into {}", total, alias, target);
+
+        Map<String, Object> mapping = elasticsearchOperations.getMapping(indexProgress.entityClass);
+        elasticsearchOperations.createIndex(target);
+        if (mapping != null && !mapping.isEmpty()) {
+            elasticsearchOperations.putMapping(target, type, mapping);
+        }
+
+        // The relay records the entities it changes from now on, which the pages read below may miss
+        reindexChanges.remove(entityType);
+        reindexTargets.put(entityType, target);
+        boolean moved = false;
+        try {
+            copy(indexProgress, entityName, type, target);
+            catchUpAndMoveAlias(indexProgress, entityName, type, target);
+            moved = true;
+        } finally {
+            reindexTargets.remove(entityType);
+            reindexChanges.remove(entityType);
+            if (!moved) {
+                elasticsearchOperations.deleteIndex(target);
+            }
+        }
+        indexProgress.complete();
+        log.info("Reindexed {} {} into {}", indexProgress.processed.get(), alias, target);
+    }
+
+    /**
+     * Index every entity of a table into the new index, by pages sent concurrently.
+     */
+    private void copy(Progress indexProgress, String entityName, String type, String target) throws InterruptedException {
+        int maxPagesInFlight = properties.getWorkers() * 2;
+        Semaphore pagesInFlight = new Semaphore(maxPagesInFlight);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Object lastId = Long.MIN_VALUE;
+        while (failure.get() == null) {
+            List<?> page = readPage(indexProgress.entityClass, entityName, "e.id > :lastId", "lastId", lastId, properties.getBatchSize());
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = persistenceUnitUtil.getIdentifier(page.get(page.size() - 1));
+            List<IndexQuery> queries = indexQueries(page, type, target);
+            pagesInFlight.acquire();
+            workers.execute(
+                () -> {
+                    try {
+                        elasticsearchOperations.bulkIndex(queries);
+                        indexProgress.processed.addAndGet(queries.size());
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        pagesInFlight.release();
+                    }
+                }
+            );
+        }
+        // Wait for the last pages
+        pagesInFlight.acquire(maxPagesInFlight);
+        pagesInFlight.release(maxPagesInFlight);
+
+        if (failure.get() != null) {
+            throw new IllegalStateException("Could not index " + indexProgress.index + " into " + target, failure.get());
+        }
+    }
+
+    /**
+     * Index again the entities the relay changed while the new index was filled, and move the alias onto it. The relay
+     * is paused meanwhile, so that no change reaches the previous index only.
+     */
+    private void catchUpAndMoveAlias(Progress indexProgress, String entityName, String type, String target)
+        throws IOException, InterruptedException {
+        if (!relayLocks.tryLock(SearchIndexService.RELAY_LOCK, RELAY_LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Could not pause the search outbox relay");
+        }
+        try {
+            List<Long> changedIds = new ArrayList<>(reindexChanges.remove(indexProgress.entityClass.getSimpleName()));
+            log.debug("Indexing again {} {} changed while reindexing", changedIds.size(), indexProgress.index);
+            for (int from = 0; from < changedIds.size(); from += properties.getBatchSize()) {
+                List<Long> ids = changedIds.subList(from, Math.min(from + properties.getBatchSize(), changedIds.size()));
+                Map<String, Object> documents = new LinkedHashMap<>();
+                readPage(indexProgress.entityClass, entityName, "e.id in :ids", "ids", ids, null)
+                    .forEach(entity -> documents.put(String.valueOf(persistenceUnitUtil.getIdentifier(entity)), entity));
+                // Entities deleted meanwhile
+                List<String> deletedIds = ids
+                    .stream()
+                    .map(String::valueOf)
+                    .filter(id -> !documents.containsKey(id))
+                    .collect(Collectors.toList());
+                indexBulkOperations.bulk(target, type, documents, deletedIds);
+            }
+            elasticsearchOperations.refresh(target);
+            moveAlias(indexProgress.index, target);
+        } finally {
+            relayLocks.unlock(SearchIndexService.RELAY_LOCK);
+        }
+    }
+
+    /**
+     * Read entities in a short read-only transaction, detached from the session as soon as they are read.
+     *
+     * @param condition the condition on the entity {@code e}, with one parameter.
+     * @param maxResults the maximum number of entities, or {@code null}.
+     */
+    private List<?> readPage(Class<?> entityClass, String entityName, String condition, String parameter, Object value, Integer maxResults) {
+        return readOnlyTransactionTemplate.execute(
+            status -> {
+                // Entities read once should neither be read from nor put in the second level cache
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+                TypedQuery<?> query = entityManager
+                    .createQuery("select e from " + entityName + " e where " + condition + " order by e.id", entityClass)
+                    .setParameter(parameter, value)
+                    .setHint("javax.persistence.loadgraph", singleValuedAssociationsGraph(entityClass));
+                if (maxResults != null) {
+                    query.setMaxResults(maxResults);
+                }
+                List<?> page = query.getResultList();
+                entityManager.clear();
+                return page;
+            }
+        );
+    }
+
+    private List<IndexQuery> indexQueries(List<?> entities, String type, String target) {
+        return entities
+            .stream()
+            .map(
+                entity ->
+                    new IndexQueryBuilder()
+                        .withId(String.valueOf(persistenceUnitUtil.getIdentifier(entity)))
+                        .withObject(entity)
+                        .withIndexName(target)
+                        .withType(type)
+                        .build()
+            )
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * A graph fetching the single-valued associations of an entity, which are eager, in the query reading it rather than
+     * with one more query per entity. Associations of the associated entities are fetched too, down to an entity
+     * already fetched on the way.
+     */
+    private <T> EntityGraph<T> singleValuedAssociationsGraph(Class<T> entityClass) {
+        EntityGraph<T> graph = entityManager.createEntityGraph(entityClass);
+        Set<Class<?>> path = Collections.singleton(entityClass);
+        for (Attribute<? super T, ?> attribute : entityManager.getMetamodel().entity(entityClass).getAttributes()) {
+            if (attribute.isAssociation() && !attribute.isCollection()) {
+                if (path.contains(attribute.getJavaType())) {
+                    graph.addAttributeNodes(attribute.getName());
+                } else {
+                    addSingleValuedAssociations(graph.addSubgraph(attribute.getName()), attribute.getJavaType(), path);
+                }
+            }
+        }
+        return graph;
+    }
+
+    private void addSingleValuedAssociations(Subgraph<?> subgraph, Class<?> entityClass, Set<Class<?>> parentPath) {
+        Set<Class<?>> path = new HashSet<>(parentPath);
+        path.add(entityClass);
+        for (Attribute<?, ?> attribute : entityManager.getMetamodel().entity(entityClass).getAttributes()) {
+            if (attribute.isAssociation() && !attribute.isCollection()) {
+                if (path.contains(attribute.getJavaType())) {
+                    subgraph.addAttributeNodes(attribute.getName());
+                } else {
+                    addSingleValuedAssociations(subgraph.addSubgraph(attribute.getName()), attribute.getJavaType(), path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Point an alias to a new index in one request, and delete the indexes it pointed to. An index created before
+     * aliases were used has the name of the alias, and must be deleted before the alias is created.
+     */
+    private void moveAlias(String alias, String target) throws IOException {
+        Set<String> previous = indexAliasOperations.getIndexes(alias);
+        if (previous.remove(alias)) {
+            log.warn("Deleting index {} to replace it with an alias", alias);
+            if (!elasticsearchOperations.deleteIndex(alias)) {
+                throw new IllegalStateException("Could not delete index " + alias);
+            }
+        }
+        indexAliasOperations.moveAlias(alias, target, previous);
+        for (String index : previous) {
+            if (!elasticsearchOperations.deleteIndex(index)) {
+                log.warn("Could not delete index {} previously behind {}", index, alias);
+            }
+        }
+    }
+
+    /**
+     * Progress of the reindexing of one index, updated by the job and its workers.
+     */
+    private static final class Progress {
+
+        private final String index;
+
+        private final Class<?> entityClass;
+
+        private final AtomicLong processed = new AtomicLong();
+
+        private volatile ReindexProgressDTO.Status status = ReindexProgressDTO.Status.PENDING;
+
+        private volatile String targetIndex;
+
+        private volatile long total;
+
+        private volatile Instant startDate;
+
+        private volatile Instant endDate;
+
+        private volatile String error;
+
+        private Progress(String index, Class<?> entityClass) {
+            this.index = index;
+            this.entityClass = entityClass;
+        }
+
+        private void begin(String targetIndex, long total) {
+            this.targetIndex = targetIndex;
+            this.total = total;
+            this.startDate = Instant.now();
+            this.status = ReindexProgressDTO.Status.RUNNING;
+        }
+
+        private void complete() {
+            this.endDate = Instant.now();
+            this.status = ReindexProgressDTO.Status.COMPLETED;
+        }
+
+        private void fail(Throwable e) {
+            this.endDate = Instant.now();
+            this.error = e.getMessage();
+            this.status = ReindexProgressDTO.Status.FAILED;
+        }
+
+        private ReindexProgressDTO toDTO() {
+            ReindexProgressDTO dto = new ReindexProgressDTO();
+            dto.setIndex(index);
+            dto.setTargetIndex(targetIndex);
+            dto.setStatus(status);
+            dto.setTotal(total);
+            dto.setProcessed(processed.get());
+            dto.setStartDate(startDate);
+            dto.setEndDate(endDate);
+            dto.setError(error);
+            if (startDate != null) {
+                Instant end = endDate != null ? endDate : Instant.now();
+                double seconds = Math.max(Duration.between(startDate, end).toMillis(), 1) / 1000.0;
+                dto.setDocumentsPerSecond(processed.get() / seconds);
+                if (status == ReindexProgressDTO.Status.RUNNING && processed.get() > 0) {
+                    dto.setEtaSeconds((long) (Math.max(total - processed.get(), 0) / dto.getDocumentsPerSecond()));
+                }
+            }
+            return dto;
+        }
+    }
+}
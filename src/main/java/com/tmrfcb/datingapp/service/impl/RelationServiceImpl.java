@@ -3,9 +3,13 @@ package com.tmrfcb.datingapp.service.impl;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
 import com.tmrfcb.datingapp.repository.RelationRepository;
 import com.tmrfcb.datingapp.repository.search.RelationSearchRepository;
+import com.tmrfcb.datingapp.service.DesirabilityService;
 import com.tmrfcb.datingapp.service.RelationService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.SeenProfileService;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,16 +31,36 @@ public class RelationServiceImpl implements RelationService {
 
     private final RelationSearchRepository relationSearchRepository;
 
-    public RelationServiceImpl(RelationRepository relationRepository, RelationSearchRepository relationSearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    private final SeenProfileService seenProfileService;
+
+    private final DesirabilityService desirabilityService;
+
+    public RelationServiceImpl(
+        RelationRepository relationRepository,
+        RelationSearchRepository relationSearchRepository,
+        SearchIndexService searchIndexService,
+        SeenProfileService seenProfileService,
+        DesirabilityService desirabilityService
+    ) {
         this.relationRepository = relationRepository;
         this.relationSearchRepository = relationSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.seenProfileService = seenProfileService;
+        this.desirabilityService = desirabilityService;
     }
 
     @Override
     public Relation save(Relation relation) {
         log.debug("Request to save Relation : {}", relation);
+        RelationType previousType = relation.getId() != null
+            ? relationRepository.findById(relation.getId()).map(Relation::getRelationType).orElse(null)
+            : null;
         Relation result = relationRepository.save(relation);
-        relationSearchRepository.save(result);
+        searchIndexService.index(result);
+        seenProfileService.markSeen(result);
+        desirabilityService.record(result, previousType);
         return result;
     }
 
@@ -48,6 +72,7 @@ public class RelationServiceImpl implements RelationService {
             .findById(relation.getId())
             .map(
                 existingRelation -> {
+                    RelationType previousType = existingRelation.getRelationType();
                     if (relation.getUserIdOfOther() != null) {
                         existingRelation.setUserIdOfOther(relation.getUserIdOfOther());
                     }
@@ -55,13 +80,10 @@ public class RelationServiceImpl implements RelationService {
                         existingRelation.setRelationType(relation.getRelationType());
                     }
 
-                    return existingRelation;
-                }
-            )
-            .map(relationRepository::save)
-            .map(
-                savedRelation -> {
-                    relationSearchRepository.save(savedRelation);
+                    Relation savedRelation = relationRepository.save(existingRelation);
+                    searchIndexService.index(savedRelation);
+                    seenProfileService.markSeen(savedRelation);
+                    desirabilityService.record(savedRelation, previousType);
 
                     return savedRelation;
                 }
@@ -85,8 +107,12 @@ public class RelationServiceImpl implements RelationService {
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Relation : {}", id);
+        relationRepository
+            .findById(id)
+            .map(Relation::getUserApp)
+            .ifPresent(userApp -> seenProfileService.evict(userApp.getId()));
         relationRepository.deleteById(id);
-        relationSearchRepository.deleteById(id);
+        searchIndexService.delete(Relation.class, id);
     }
 
     @Override
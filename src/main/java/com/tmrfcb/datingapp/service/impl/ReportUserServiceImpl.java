@@ -1,11 +1,16 @@
 package com.tmrfcb.datingapp.service.impl;
 
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.tmrfcb.datingapp.domain.ReportUser;
 import com.tmrfcb.datingapp.repository.ReportUserRepository;
 import com.tmrfcb.datingapp.repository.search.ReportUserSearchRepository;
+import com.tmrfcb.datingapp.service.DomainEventService;
 import com.tmrfcb.datingapp.service.ReportUserService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import java.time.Instant;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,16 +32,34 @@ public class ReportUserServiceImpl implements ReportUserService {
 
     private final ReportUserSearchRepository reportUserSearchRepository;
 
-    public ReportUserServiceImpl(ReportUserRepository reportUserRepository, ReportUserSearchRepository reportUserSearchRepository) {
+    private final SearchIndexService searchIndexService;
+
+    private final DomainEventService domainEventService;
+
+    public ReportUserServiceImpl(
+        ReportUserRepository reportUserRepository,
+        ReportUserSearchRepository reportUserSearchRepository,
+        SearchIndexService searchIndexService,
+        DomainEventService domainEventService
+    ) {
         this.reportUserRepository = reportUserRepository;
         this.reportUserSearchRepository = reportUserSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.domainEventService = domainEventService;
     }
 
     @Override
     public ReportUser save(ReportUser reportUser) {
         log.debug("Request to save ReportUser : {}", reportUser);
+        boolean created = reportUser.getId() == null;
         ReportUser result = reportUserRepository.save(reportUser);
-        reportUserSearchRepository.save(result);
+        searchIndexService.index(result);
+        Long userId = parseUserId(result.getUserId());
+        if (created && userId != null) {
+            domainEventService.publish(
+                DomainEventDTO.userReported(userId, parseUserId(result.getReportId()), result.getId(), result.getCause(), Instant.now())
+            );
+        }
         return result;
     }
 
@@ -64,7 +87,7 @@ public class ReportUserServiceImpl implements ReportUserService {
             .map(reportUserRepository::save)
             .map(
                 savedReportUser -> {
-                    reportUserSearchRepository.save(savedReportUser);
+                    searchIndexService.index(savedReportUser);
 
                     return savedReportUser;
                 }
@@ -89,7 +112,7 @@ public class ReportUserServiceImpl implements ReportUserService {
     public void delete(Long id) {
         log.debug("Request to delete ReportUser : {}", id);
         reportUserRepository.deleteById(id);
-        reportUserSearchRepository.deleteById(id);
+        searchIndexService.delete(ReportUser.class, id);
     }
 
     @Override
@@ -0,0 +1,56 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.client.GetAliasesResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.rest.RestStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IndexAliasOperations} of the {@code rest} search client.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "rest")
+public class RestIndexAliasOperations implements IndexAliasOperations {
+
+    private final RestHighLevelClient client;
+
+    public RestIndexAliasOperations(RestHighLevelClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public Set<String> getIndexes(String alias) throws IOException {
+        Set<String> indexes = new HashSet<>();
+        try {
+            GetAliasesResponse aliases = client.indices().getAlias(new GetAliasesRequest().indices(alias), RequestOptions.DEFAULT);
+            if (aliases.status() == RestStatus.OK) {
+                indexes.addAll(aliases.getAliases().keySet());
+            }
+        } catch (ElasticsearchStatusException e) {
+            if (e.status() != RestStatus.NOT_FOUND) {
+                throw e;
+            }
+        }
+        return indexes;
+    }
+
+    @Override
+    public void moveAlias(String alias, String target, Collection<String> previous) throws IOException {
+        IndicesAliasesRequest request = new IndicesAliasesRequest();
+        request.addAliasAction(AliasActions.add().index(target).alias(alias));
+        previous.forEach(index -> request.addAliasAction(AliasActions.remove().index(index).alias(alias)));
+        if (!client.indices().updateAliases(request, RequestOptions.DEFAULT).isAcknowledged()) {
+            throw new IllegalStateException("Moving alias " + alias + " to " + target + " was not acknowledged");
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link IndexBulkOperations} of the {@code rest} search client, which refreshes the index only with
+ * {@code application.search.refresh-on-write}, like the other writes of this client.
+ */
+@Component
+@ConditionalOnProperty(prefix = "application.search", name = "client", havingValue = "rest")
+public class RestIndexBulkOperations implements IndexBulkOperations {
+
+    private final RestHighLevelClient client;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Search properties;
+
+    public RestIndexBulkOperations(RestHighLevelClient client, ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getSearch();
+    }
+
+    @Override
+    public void bulk(String index, String type, Map<String, ?> documents, Collection<String> deletedIds) throws IOException {
+        if (documents.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        BulkRequest request = new BulkRequest();
+        for (Map.Entry<String, ?> document : documents.entrySet()) {
+            request.add(
+                new IndexRequest(index, type, document.getKey()).source(objectMapper.writeValueAsBytes(document.getValue()), XContentType.JSON)
+            );
+        }
+        deletedIds.forEach(id -> request.add(new DeleteRequest(index, type, id)));
+        if (properties.isRefreshOnWrite()) {
+            request.setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        }
+        BulkResponse response = client.bulk(request, RequestOptions.DEFAULT);
+
+        Map<String, String> failedDocuments = new HashMap<>();
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+                failedDocuments.put(item.getId(), item.getFailureMessage());
+            }
+        }
+        if (!failedDocuments.isEmpty()) {
+            throw new ElasticsearchException("Bulk request has failures [" + failedDocuments + "]", failedDocuments);
+        }
+    }
+}
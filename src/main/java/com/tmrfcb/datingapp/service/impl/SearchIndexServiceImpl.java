@@ -0,0 +1,404 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.MultiMap;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.Country;
+import com.tmrfcb.datingapp.domain.Facebook;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.ReportUser;
+import com.tmrfcb.datingapp.domain.SearchOutboxEntry;
+import com.tmrfcb.datingapp.domain.UnmatchRelation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.SearchOperation;
+import com.tmrfcb.datingapp.repository.CountryRepository;
+import com.tmrfcb.datingapp.repository.FacebookRepository;
+import com.tmrfcb.datingapp.repository.LocationRepository;
+import com.tmrfcb.datingapp.repository.MatchRelationRepository;
+import com.tmrfcb.datingapp.repository.MessageRepository;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.ReportUserRepository;
+import com.tmrfcb.datingapp.repository.SearchOutboxRepository;
+import com.tmrfcb.datingapp.repository.UnmatchRelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.repository.search.CountrySearchRepository;
+import com.tmrfcb.datingapp.repository.search.FacebookSearchRepository;
+import com.tmrfcb.datingapp.repository.search.LocationSearchRepository;
+import com.tmrfcb.datingapp.repository.search.MatchRelationSearchRepository;
+import com.tmrfcb.datingapp.repository.search.MessageSearchRepository;
+import com.tmrfcb.datingapp.repository.search.RelationSearchRepository;
+import com.tmrfcb.datingapp.repository.search.ReportUserSearchRepository;
+import com.tmrfcb.datingapp.repository.search.UnmatchRelationSearchRepository;
+import com.tmrfcb.datingapp.repository.search.UserAppSearchRepository;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.repository.ElasticsearchRepository;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation indexing entities through a transactional outbox.
+ * <p>
+ * Changes are written to the {@code search_outbox} table in the transaction of the change itself, so a request only
+ * waits for the database. A relay then drains the outbox in id order: each batch keeps the last change of every
+ * entity, reloads the indexed entities with one query per type, and sends them along with the deletions in a single bulk
+ * request per type.
+ * Entries are removed in the same transaction once the bulk requests succeed, so a failure leaves them in place, and
+ * the relay backs off exponentially before trying again. Only one instance of the cluster relays at a time.
+ * <p>
+ * While an index is rebuilt, the relay also records the ids of the entities it indexes or deletes, so that the
+ * reindexing can apply them to the new index before moving the alias onto it.
+ */
+@Service
+public class SearchIndexServiceImpl implements SearchIndexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexServiceImpl.class);
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final ApplicationProperties.SearchOutbox properties;
+
+    private final IMap<String, Boolean> relayLocks;
+
+    private final IMap<String, String> reindexTargets;
+
+    private final MultiMap<String, Long> reindexChanges;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    private final IndexBulkOperations indexBulkOperations;
+
+    private final Map<Class<?>, SearchIndex<?>> indexesByClass = new HashMap<>();
+
+    private final Map<String, SearchIndex<?>> indexesByType = new HashMap<>();
+
+    private final AtomicLong pending = new AtomicLong();
+
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Counter indexed;
+
+    private final Counter deleted;
+
+    private final Counter failures;
+
+    private final Timer batchTimer;
+
+    private long backoffMs;
+
+    private long retryAt;
+
+    public SearchIndexServiceImpl(
+        SearchOutboxRepository searchOutboxRepository,
+        ApplicationProperties applicationProperties,
+        HazelcastInstance hazelcastInstance,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        ElasticsearchOperations elasticsearchOperations,
+        IndexBulkOperations indexBulkOperations,
+        CountryRepository countryRepository,
+        CountrySearchRepository countrySearchRepository,
+        FacebookRepository facebookRepository,
+        FacebookSearchRepository facebookSearchRepository,
+        LocationRepository locationRepository,
+        LocationSearchRepository locationSearchRepository,
+        MatchRelationRepository matchRelationRepository,
+        MatchRelationSearchRepository matchRelationSearchRepository,
+        MessageRepository messageRepository,
+        MessageSearchRepository messageSearchRepository,
+        RelationRepository relationRepository,
+        RelationSearchRepository relationSearchRepository,
+        ReportUserRepository reportUserRepository,
+        ReportUserSearchRepository reportUserSearchRepository,
+        UnmatchRelationRepository unmatchRelationRepository,
+        UnmatchRelationSearchRepository unmatchRelationSearchRepository,
+        UserAppRepository userAppRepository,
+        UserAppSearchRepository userAppSearchRepository
+    ) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        this.properties = applicationProperties.getSearchOutbox();
+        this.relayLocks = hazelcastInstance.getMap(RELAY_LOCK_MAP);
+        this.reindexTargets = hazelcastInstance.getMap(REINDEX_TARGETS_MAP);
+        this.reindexChanges = hazelcastInstance.getMultiMap(REINDEX_CHANGES_MAP);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.indexBulkOperations = indexBulkOperations;
+        register(Country.class, Country::getId, countryRepository, countrySearchRepository);
+        register(Facebook.class, Facebook::getId, facebookRepository, facebookSearchRepository);
+        register(Location.class, Location::getId, locationRepository, locationSearchRepository);
+        register(MatchRelation.class, MatchRelation::getId, matchRelationRepository, matchRelationSearchRepository);
+        register(Message.class, Message::getId, messageRepository, messageSearchRepository);
+        register(Relation.class, Relation::getId, relationRepository, relationSearchRepository);
+        register(ReportUser.class, ReportUser::getId, reportUserRepository, reportUserSearchRepository);
+        register(UnmatchRelation.class, UnmatchRelation::getId, unmatchRelationRepository, unmatchRelationSearchRepository);
+        register(UserApp.class, UserApp::getId, userAppRepository, userAppSearchRepository);
+
+        Gauge.builder("search.outbox.pending", pending, AtomicLong::get).description("Changes waiting to be indexed").register(meterRegistry);
+        Gauge
+            .builder("search.outbox.lag", lagMillis, lag -> lag.get() / 1000.0)
+            .description("Age of the oldest change waiting to be indexed")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.indexed = Counter.builder("search.outbox.relayed").tag("operation", "index").register(meterRegistry);
+        this.deleted = Counter.builder("search.outbox.relayed").tag("operation", "delete").register(meterRegistry);
+        this.failures = Counter.builder("search.outbox.failures").register(meterRegistry);
+        this.batchTimer = Timer.builder("search.outbox.batch").description("Time to relay a batch of changes").register(meterRegistry);
+    }
+
+    private <T> void register(
+        Class<T> entityClass,
+        Function<T, Long> idGetter,
+        JpaRepository<T, Long> repository,
+        ElasticsearchRepository<T, Long> searchRepository
+    ) {
+        SearchIndex<T> index = new SearchIndex<>(entityClass, idGetter, repository, searchRepository);
+        indexesByClass.put(entityClass, index);
+        indexesByType.put(entityClass.getSimpleName(), index);
+    }
+
+    @Override
+    @Transactional
+    public void index(Object entity) {
+        SearchIndex<?> index = indexFor(Hibernate.getClass(entity));
+        if (properties.isEnabled()) {
+            searchOutboxRepository.save(newEntry(index, index.getId(entity), SearchOperation.INDEX));
+        } else {
+            index.save(entity);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void indexAll(Collection<?> entities) {
+        Map<Class<?>, List<Object>> entitiesByClass = new LinkedHashMap<>();
+        for (Object entity : entities) {
+            entitiesByClass.computeIfAbsent(Hibernate.getClass(entity), entityClass -> new ArrayList<>()).add(entity);
+        }
+        List<SearchOutboxEntry> entries = new ArrayList<>(entities.size());
+        entitiesByClass.forEach(
+            (entityClass, sameClassEntities) -> {
+                SearchIndex<?> index = indexFor(entityClass);
+                if (properties.isEnabled()) {
+                    sameClassEntities.forEach(entity -> entries.add(newEntry(index, index.getId(entity), SearchOperation.INDEX)));
+                } else {
+                    index.saveAll(sameClassEntities);
+                }
+            }
+        );
+        if (!entries.isEmpty()) {
+            searchOutboxRepository.saveAll(entries);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void delete(Class<?> entityClass, Long id) {
+        SearchIndex<?> index = indexFor(entityClass);
+        if (properties.isEnabled()) {
+            searchOutboxRepository.save(newEntry(index, id, SearchOperation.DELETE));
+        } else {
+            index.searchRepository.deleteById(id);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${application.search-outbox.poll-interval-ms:500}")
+    public int relay() {
+        if (!properties.isEnabled() || System.currentTimeMillis() < retryAt) {
+            return 0;
+        }
+        if (!relayLocks.tryLock(RELAY_LOCK)) {
+            // Another instance is relaying
+            return 0;
+        }
+        int relayed = 0;
+        try {
+            for (int batch = 0; batch < properties.getMaxBatchesPerRun(); batch++) {
+                int batchSize = batchTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+                relayed += batchSize;
+                if (batchSize < properties.getBatchSize()) {
+                    break;
+                }
+            }
+            backoffMs = 0;
+        } catch (RuntimeException e) {
+            failures.increment();
+            backoffMs = backoffMs == 0 ? properties.getInitialBackoffMs() : Math.min(backoffMs * 2, properties.getMaxBackoffMs());
+            retryAt = System.currentTimeMillis() + backoffMs;
+            log.warn("Could not relay search outbox, retrying in {} ms: {}", backoffMs, e.getMessage());
+        } finally {
+            relayLocks.unlock(RELAY_LOCK);
+        }
+        refreshLag();
+        return relayed;
+    }
+
+    private int relayBatch() {
+        List<SearchOutboxEntry> entries = searchOutboxRepository.findOldest(PageRequest.of(0, properties.getBatchSize()));
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        // Only the last change of each entity matters
+        Map<String, Map<Long, SearchOperation>> operationsByType = new LinkedHashMap<>();
+        for (SearchOutboxEntry entry : entries) {
+            operationsByType.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>()).put(entry.getEntityId(), entry.getOperation());
+        }
+        recordReindexChanges(operationsByType);
+        operationsByType.forEach(
+            (type, operations) -> {
+                SearchIndex<?> index = indexesByType.get(type);
+                if (index == null) {
+                    log.warn("Dropping {} search outbox entries of unknown type {}", operations.size(), type);
+                } else {
+                    index.apply(operations);
+                }
+            }
+        );
+        searchOutboxRepository.deleteAllByIdIn(entries.stream().map(SearchOutboxEntry::getId).collect(Collectors.toList()));
+        return entries.size();
+    }
+
+    /**
+     * Record the entities of the indexes being rebuilt, which the new indexes may have missed.
+     */
+    private void recordReindexChanges(Map<String, Map<Long, SearchOperation>> operationsByType) {
+        Set<String> reindexing = reindexTargets.keySet();
+        if (reindexing.isEmpty()) {
+            return;
+        }
+        operationsByType.forEach(
+            (type, operations) -> {
+                if (reindexing.contains(type)) {
+                    operations.keySet().forEach(id -> reindexChanges.put(type, id));
+                }
+            }
+        );
+    }
+
+    private void refreshLag() {
+        try {
+            pending.set(searchOutboxRepository.count());
+            lagMillis.set(
+                searchOutboxRepository
+                    .findFirstByOrderByIdAsc()
+                    .map(oldest -> Math.max(0, Duration.between(oldest.getCreatedDate(), Instant.now()).toMillis()))
+                    .orElse(0L)
+            );
+        } catch (RuntimeException e) {
+            log.debug("Could not measure search outbox lag: {}", e.getMessage());
+        }
+    }
+
+    private SearchIndex<?> indexFor(Class<?> entityClass) {
+        SearchIndex<?> index = indexesByClass.get(entityClass);
+        if (index == null) {
+            throw new IllegalArgumentException("No search index for " + entityClass.getName());
+        }
+        return index;
+    }
+
+    private static SearchOutboxEntry newEntry(SearchIndex<?> index, Long id, SearchOperation operation) {
+        return new SearchOutboxEntry()
+            .entityType(index.entityClass.getSimpleName())
+            .entityId(id)
+            .operation(operation)
+            .createdDate(Instant.now());
+    }
+
+    /**
+     * The repositories of an indexed entity.
+     */
+    private final class SearchIndex<T> {
+
+        private final Class<T> entityClass;
+
+        private final Function<T, Long> idGetter;
+
+        private final JpaRepository<T, Long> repository;
+
+        private final ElasticsearchRepository<T, Long> searchRepository;
+
+        private SearchIndex(
+            Class<T> entityClass,
+            Function<T, Long> idGetter,
+            JpaRepository<T, Long> repository,
+            ElasticsearchRepository<T, Long> searchRepository
+        ) {
+            this.entityClass = entityClass;
+            this.idGetter = idGetter;
+            this.repository = repository;
+            this.searchRepository = searchRepository;
+        }
+
+        private Long getId(Object entity) {
+            return idGetter.apply(entityClass.cast(entity));
+        }
+
+        private void save(Object entity) {
+            searchRepository.save(entityClass.cast(entity));
+        }
+
+        private void saveAll(Collection<?> entities) {
+            searchRepository.saveAll(entities.stream().map(entityClass::cast).collect(Collectors.toList()));
+        }
+
+        private void apply(Map<Long, SearchOperation> operations) {
+            Set<Long> indexIds = new HashSet<>();
+            Set<Long> deleteIds = new HashSet<>();
+            operations.forEach((id, operation) -> (operation == SearchOperation.INDEX ? indexIds : deleteIds).add(id));
+            Map<String, T> documents = new LinkedHashMap<>();
+            if (!indexIds.isEmpty()) {
+                repository.findAllById(indexIds).forEach(entity -> documents.put(String.valueOf(idGetter.apply(entity)), entity));
+                // Entities deleted since they were saved
+                indexIds.stream().filter(id -> !documents.containsKey(String.valueOf(id))).forEach(deleteIds::add);
+            }
+            ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchOperations.getPersistentEntityFor(entityClass);
+            try {
+                indexBulkOperations.bulk(
+                    persistentEntity.getIndexName(),
+                    persistentEntity.getIndexType(),
+                    documents,
+                    deleteIds.stream().map(String::valueOf).collect(Collectors.toList())
+                );
+            } catch (IOException e) {
+                throw new ElasticsearchException("Error while relaying " + entityClass.getSimpleName() + " changes", e);
+            }
+            indexed.increment(documents.size());
+            deleted.increment(deleteIds.size());
+        }
+    }
+}
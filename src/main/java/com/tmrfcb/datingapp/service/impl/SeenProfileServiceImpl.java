@@ -0,0 +1,149 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.hazelcast.map.AbstractEntryProcessor;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import com.tmrfcb.datingapp.service.util.CompactLongSet;
+import com.tmrfcb.datingapp.service.util.TransactionUtils;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation keeping the profiles seen by each user in a Hazelcast map.
+ * <p>
+ * Sets are loaded lazily from the relations of the user by the {@link SeenProfilesMapLoader}, then read and kept up to
+ * date with entry processors running on the member owning the entry, so that neither checking profiles nor recording a
+ * swipe ships the whole set over the network.
+ */
+@Service
+@Transactional
+public class SeenProfileServiceImpl implements SeenProfileService {
+
+    private final Logger log = LoggerFactory.getLogger(SeenProfileServiceImpl.class);
+
+    private final IMap<Long, CompactLongSet> seenProfiles;
+
+    public SeenProfileServiceImpl(HazelcastInstance hazelcastInstance) {
+        this.seenProfiles = hazelcastInstance.getMap(SEEN_PROFILES_MAP);
+    }
+
+    @Override
+    public long[] findSeenAmong(Long userId, long[] otherUserIds) {
+        log.debug("Request to get which of {} profiles were seen by UserApp : {}", otherUserIds.length, userId);
+        if (otherUserIds.length == 0) {
+            return otherUserIds;
+        }
+        return (long[]) seenProfiles.executeOnKey(userId, new FindSeenProcessor(otherUserIds));
+    }
+
+    @Override
+    public void markSeen(Relation relation) {
+        log.debug("Request to mark as seen the profile of Relation : {}", relation);
+        if (relation.getUserApp() == null || relation.getUserApp().getId() == null || relation.getRelationType() == null) {
+            return;
+        }
+        Long userId = relation.getUserApp().getId();
+        Long otherUserId = parseUserId(relation.getUserIdOfOther());
+        if (otherUserId != null) {
+            TransactionUtils.runAfterCommit(() -> seenProfiles.executeOnKey(userId, new MarkSeenProcessor(otherUserId)));
+        }
+    }
+
+    @Override
+    public void markAllSeen(Collection<Relation> relations) {
+        log.debug("Request to mark as seen the profiles of {} Relations", relations.size());
+        Map<Long, Set<Long>> otherUserIdsByUserId = new HashMap<>();
+        for (Relation relation : relations) {
+            if (relation.getUserApp() == null || relation.getUserApp().getId() == null || relation.getRelationType() == null) {
+                continue;
+            }
+            Long otherUserId = parseUserId(relation.getUserIdOfOther());
+            if (otherUserId != null) {
+                otherUserIdsByUserId.computeIfAbsent(relation.getUserApp().getId(), userId -> new HashSet<>()).add(otherUserId);
+            }
+        }
+        if (otherUserIdsByUserId.isEmpty()) {
+            return;
+        }
+        TransactionUtils.runAfterCommit(
+            () ->
+                otherUserIdsByUserId.forEach(
+                    (userId, otherUserIds) ->
+                        seenProfiles.executeOnKey(userId, new MarkSeenProcessor(otherUserIds.stream().mapToLong(Long::longValue).toArray()))
+                )
+        );
+    }
+
+    @Override
+    public void evict(Long userId) {
+        log.debug("Request to evict the profiles seen by UserApp : {}", userId);
+        TransactionUtils.runAfterCommit(() -> seenProfiles.delete(userId));
+    }
+
+    /**
+     * Add users to a set, which Hazelcast loads first when it is missing. Since the relation has been committed, a set
+     * loaded concurrently either already contains the users, or is loaded before the processor runs.
+     */
+    static final class MarkSeenProcessor extends AbstractEntryProcessor<Long, CompactLongSet> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] otherUserIds;
+
+        MarkSeenProcessor(long... otherUserIds) {
+            this.otherUserIds = otherUserIds;
+        }
+
+        @Override
+        public Object process(Map.Entry<Long, CompactLongSet> entry) {
+            CompactLongSet seen = entry.getValue();
+            if (seen == null) {
+                return null;
+            }
+            boolean added = false;
+            for (long otherUserId : otherUserIds) {
+                added |= seen.add(otherUserId);
+            }
+            if (added) {
+                entry.setValue(seen);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Get which users of a set are in it, without changing it.
+     */
+    static final class FindSeenProcessor extends AbstractEntryProcessor<Long, CompactLongSet> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] otherUserIds;
+
+        FindSeenProcessor(long[] otherUserIds) {
+            super(false);
+            this.otherUserIds = otherUserIds;
+        }
+
+        @Override
+        public Object process(Map.Entry<Long, CompactLongSet> entry) {
+            CompactLongSet seen = entry.getValue();
+            if (seen == null) {
+                return new long[0];
+            }
+            return Arrays.stream(otherUserIds).filter(seen::contains).toArray();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static com.tmrfcb.datingapp.service.util.UserIdUtils.parseUserId;
+
+import com.hazelcast.core.MapLoader;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import com.tmrfcb.datingapp.service.util.CompactLongSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Loader of the {@link SeenProfileService#SEEN_PROFILES_MAP} map, reading the users swiped by a user from the database.
+ * <p>
+ * Hazelcast loads a missing entry on the member owning it, before running the reads and the entry processors waiting
+ * for it, so that marking a profile as seen always applies to a complete set. Loads run on Hazelcast threads, outside of
+ * any request, so they read in their own read-only transaction. The repository and the transaction manager are resolved
+ * on first load, as the Hazelcast instance is created before the JPA infrastructure which uses it as second level cache.
+ */
+@Component
+public class SeenProfilesMapLoader implements MapLoader<Long, CompactLongSet> {
+
+    private final Logger log = LoggerFactory.getLogger(SeenProfilesMapLoader.class);
+
+    private final ObjectProvider<RelationRepository> relationRepository;
+
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+    private volatile TransactionTemplate readOnlyTransactionTemplate;
+
+    public SeenProfilesMapLoader(
+        ObjectProvider<RelationRepository> relationRepository,
+        ObjectProvider<PlatformTransactionManager> transactionManager
+    ) {
+        this.relationRepository = relationRepository;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public CompactLongSet load(Long userId) {
+        return readOnlyTransactionTemplate().execute(status -> read(userId));
+    }
+
+    @Override
+    public Map<Long, CompactLongSet> loadAll(Collection<Long> userIds) {
+        return readOnlyTransactionTemplate()
+            .execute(
+                status -> {
+                    Map<Long, CompactLongSet> seenByUserId = new HashMap<>();
+                    for (Long userId : userIds) {
+                        seenByUserId.put(userId, read(userId));
+                    }
+                    return seenByUserId;
+                }
+            );
+    }
+
+    private CompactLongSet read(Long userId) {
+        log.debug("Request to load the profiles seen by UserApp : {}", userId);
+        CompactLongSet seen = new CompactLongSet();
+        for (String otherUserId : relationRepository.getObject().findSwipedUserIdsByUserAppId(userId)) {
+            Long id = parseUserId(otherUserId);
+            if (id != null) {
+                seen.add(id);
+            }
+        }
+        return seen;
+    }
+
+    private TransactionTemplate readOnlyTransactionTemplate() {
+        TransactionTemplate template = readOnlyTransactionTemplate;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setReadOnly(true);
+            readOnlyTransactionTemplate = template;
+        }
+        return template;
+    }
+
+    /**
+     * Sets are only loaded on access.
+     *
+     * @return {@code null}, so that no entry is loaded when the map is created.
+     */
+    @Override
+    public Iterable<Long> loadAllKeys() {
+        return null;
+    }
+}
@@ -0,0 +1,392 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.MatchRelationRepository;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.DesirabilityService;
+import com.tmrfcb.datingapp.service.DomainEventService;
+import com.tmrfcb.datingapp.service.InboxService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.SeenProfileService;
+import com.tmrfcb.datingapp.service.SwipeService;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import com.tmrfcb.datingapp.service.dto.SwipeResultDTO;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Service Implementation for swiping on other users' profiles.
+ * <p>
+ * Swipes on the same pair of users are serialized across the cluster by a Hazelcast lock on the ordered pair, held
+ * until their transaction commits, so that two crossing likes always see each other, whichever instances serve them.
+ * The unique constraint on the ordered pair of {@link MatchRelation} still rejects a second match should a lock be
+ * lost, for instance when the member holding it leaves the cluster, and the losing swipe is then replayed to pick up
+ * the winner's. Transactions are therefore demarcated programmatically rather than with {@code @Transactional}.
+ * <p>
+ * A batch of swipes only locks the pairs it likes on, in increasing pair order, as only crossing likes can miss a
+ * match: its other swipes overwrite the relation of their user like any last write. It then reads the relations it
+ * updates and the likes it may answer with two set-based queries, and inserts its new relations with a single JDBC
+ * batch.
+ */
+@Service
+public class SwipeServiceImpl implements SwipeService {
+
+    private static final Set<RelationType> LIKES = EnumSet.of(RelationType.LIKE, RelationType.SUPERLIKE);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final Logger log = LoggerFactory.getLogger(SwipeServiceImpl.class);
+
+    private final RelationRepository relationRepository;
+
+    private final MatchRelationRepository matchRelationRepository;
+
+    private final UserAppRepository userAppRepository;
+
+    private final SearchIndexService searchIndexService;
+
+    private final SeenProfileService seenProfileService;
+
+    private final InboxService inboxService;
+
+    private final DomainEventService domainEventService;
+
+    private final DesirabilityService desirabilityService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final IMap<String, Boolean> pairLocks;
+
+    public SwipeServiceImpl(
+        RelationRepository relationRepository,
+        MatchRelationRepository matchRelationRepository,
+        UserAppRepository userAppRepository,
+        SearchIndexService searchIndexService,
+        SeenProfileService seenProfileService,
+        InboxService inboxService,
+        DomainEventService domainEventService,
+        DesirabilityService desirabilityService,
+        PlatformTransactionManager transactionManager,
+        HazelcastInstance hazelcastInstance
+    ) {
+        this.relationRepository = relationRepository;
+        this.matchRelationRepository = matchRelationRepository;
+        this.userAppRepository = userAppRepository;
+        this.searchIndexService = searchIndexService;
+        this.seenProfileService = seenProfileService;
+        this.inboxService = inboxService;
+        this.domainEventService = domainEventService;
+        this.desirabilityService = desirabilityService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pairLocks = hazelcastInstance.getMap(PAIR_LOCK_MAP);
+    }
+
+    @Override
+    public SwipeResultDTO swipe(Long userId, Long otherUserId, RelationType relationType) {
+        log.debug("Request to swipe {} from UserApp {} on UserApp {}", relationType, userId, otherUserId);
+        long userLowId = Math.min(userId, otherUserId);
+        long userHighId = Math.max(userId, otherUserId);
+        String lockKey = lockKey(userLowId, userHighId);
+        pairLocks.lock(lockKey);
+        try {
+            for (int attempt = 1;; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> doSwipe(userId, otherUserId, relationType, userLowId, userHighId));
+                } catch (DataIntegrityViolationException e) {
+                    if (attempt == MAX_ATTEMPTS) {
+                        throw e;
+                    }
+                    log.debug("Concurrent swipe between UserApp {} and {}, retrying: {}", userLowId, userHighId, e.getMessage());
+                }
+            }
+        } finally {
+            pairLocks.unlock(lockKey);
+        }
+    }
+
+    private SwipeResultDTO doSwipe(Long userId, Long otherUserId, RelationType relationType, long userLowId, long userHighId) {
+        UserApp user = userAppRepository.findById(userId).orElseThrow(() -> new IllegalArgumentException("Unknown UserApp " + userId));
+        Relation relation = relationRepository
+            .findFirstByUserAppIdAndUserIdOfOther(userId, otherUserId.toString())
+            .orElseGet(() -> new Relation().userApp(user).userIdOfOther(otherUserId.toString()));
+        RelationType previousType = relation.getRelationType();
+        relation.setRelationType(relationType);
+
+        MatchRelation matchRelation = null;
+        if (LIKES.contains(relationType)) {
+            boolean reciprocal = relationRepository
+                .findFirstByUserAppIdAndUserIdOfOtherAndRelationTypeIn(otherUserId, userId.toString(), LIKES)
+                .isPresent();
+            if (reciprocal) {
+                matchRelation = findOrCreateMatch(userLowId, userHighId);
+                if (relation.getMatchRelation() == null && matchRelation.getRelation() == null) {
+                    matchRelation.setRelation(relation);
+                }
+            }
+        }
+
+        Relation result = relationRepository.saveAndFlush(relation);
+        searchIndexService.index(result);
+        seenProfileService.markSeen(result);
+        desirabilityService.record(result, previousType);
+        return new SwipeResultDTO(result, matchRelation);
+    }
+
+    @Override
+    public List<SwipeResultDTO> swipeAll(List<SwipeDTO> swipes) {
+        log.debug("Request to swipe a batch of {} swipes", swipes.size());
+        SwipeResultDTO[] results = new SwipeResultDTO[swipes.size()];
+        UserPair[] pairs = new UserPair[swipes.size()];
+        Map<UserPair, Integer> lastIndexByPair = new LinkedHashMap<>();
+        for (int i = 0; i < swipes.size(); i++) {
+            SwipeDTO swipe = swipes.get(i);
+            if (swipe == null || swipe.getUserId() == null || swipe.getOtherUserId() == null || swipe.getRelationType() == null) {
+                results[i] = SwipeResultDTO.rejected("invalid");
+            } else if (swipe.getUserId().equals(swipe.getOtherUserId())) {
+                results[i] = SwipeResultDTO.rejected("selfswipe");
+            } else {
+                pairs[i] = new UserPair(swipe.getUserId(), swipe.getOtherUserId());
+                lastIndexByPair.put(pairs[i], i);
+            }
+        }
+        if (!lastIndexByPair.isEmpty()) {
+            // Locks are always taken in increasing pair order, so that overlapping batches cannot deadlock
+            List<String> lockKeys = lastIndexByPair
+                .entrySet()
+                .stream()
+                .filter(entry -> LIKES.contains(swipes.get(entry.getValue()).getRelationType()))
+                .map(entry -> entry.getKey().ordered())
+                .distinct()
+                .sorted(Comparator.<UserPair>comparingLong(pair -> pair.userId).thenComparingLong(pair -> pair.otherUserId))
+                .map(pair -> lockKey(pair.userId, pair.otherUserId))
+                .collect(Collectors.toList());
+            int locked = 0;
+            try {
+                for (String lockKey : lockKeys) {
+                    pairLocks.lock(lockKey);
+                    locked++;
+                }
+                for (int attempt = 1;; attempt++) {
+                    try {
+                        transactionTemplate.execute(status -> doSwipeAll(swipes, lastIndexByPair, results));
+                        break;
+                    } catch (DataIntegrityViolationException e) {
+                        if (attempt == MAX_ATTEMPTS) {
+                            throw e;
+                        }
+                        log.debug("Concurrent swipes in a batch of {} swipes, retrying: {}", swipes.size(), e.getMessage());
+                    }
+                }
+            } finally {
+                for (int i = locked - 1; i >= 0; i--) {
+                    pairLocks.unlock(lockKeys.get(i));
+                }
+            }
+        }
+        // Earlier swipes of a user on the same profile were overridden by the last one
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = results[lastIndexByPair.get(pairs[i])];
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private Void doSwipeAll(List<SwipeDTO> swipes, Map<UserPair, Integer> lastIndexByPair, SwipeResultDTO[] results) {
+        Set<Long> userIds = new HashSet<>();
+        lastIndexByPair.keySet().forEach(pair -> {
+            userIds.add(pair.userId);
+            userIds.add(pair.otherUserId);
+        });
+        Map<Long, UserApp> users = userAppRepository
+            .findAllById(userIds)
+            .stream()
+            .collect(Collectors.toMap(UserApp::getId, Function.identity()));
+
+        List<UserPair> pairs = new ArrayList<>();
+        Map<UserPair, RelationType> relationTypes = new HashMap<>();
+        for (Map.Entry<UserPair, Integer> entry : lastIndexByPair.entrySet()) {
+            UserPair pair = entry.getKey();
+            if (users.containsKey(pair.userId) && users.containsKey(pair.otherUserId)) {
+                pairs.add(pair);
+                relationTypes.put(pair, swipes.get(entry.getValue()).getRelationType());
+            } else {
+                results[entry.getValue()] = SwipeResultDTO.rejected("idnotfound");
+            }
+        }
+        if (pairs.isEmpty()) {
+            return null;
+        }
+
+        // One query for the relations being updated, one for the likes they may answer
+        Set<Long> swiperIds = pairs.stream().map(pair -> pair.userId).collect(Collectors.toSet());
+        Set<String> swipedIds = pairs.stream().map(pair -> Long.toString(pair.otherUserId)).collect(Collectors.toSet());
+        Map<UserPair, Relation> existingRelations = new HashMap<>();
+        for (Relation relation : relationRepository.findAllByUserAppIdInAndUserIdOfOtherIn(swiperIds, swipedIds)) {
+            UserPair pair = UserPair.of(relation);
+            if (pair != null) {
+                existingRelations.putIfAbsent(pair, relation);
+            }
+        }
+        List<UserPair> likes = pairs.stream().filter(pair -> LIKES.contains(relationTypes.get(pair))).collect(Collectors.toList());
+        Set<UserPair> likedBack = new HashSet<>();
+        if (!likes.isEmpty()) {
+            relationRepository
+                .findAllByUserAppIdInAndUserIdOfOtherInAndRelationTypeIn(
+                    likes.stream().map(pair -> pair.otherUserId).collect(Collectors.toSet()),
+                    likes.stream().map(pair -> Long.toString(pair.userId)).collect(Collectors.toSet()),
+                    LIKES
+                )
+                .stream()
+                .map(UserPair::of)
+                .filter(Objects::nonNull)
+                .forEach(likedBack::add);
+        }
+
+        List<Relation> relations = new ArrayList<>(pairs.size());
+        List<RelationType> previousTypes = new ArrayList<>(pairs.size());
+        List<Relation> newRelations = new ArrayList<>();
+        List<MatchRelation> newMatches = new ArrayList<>();
+        Map<UserPair, MatchRelation> matches = new HashMap<>();
+        for (UserPair pair : pairs) {
+            RelationType relationType = relationTypes.get(pair);
+            Relation relation = existingRelations.get(pair);
+            if (relation == null) {
+                relation = new Relation().userApp(users.get(pair.userId)).userIdOfOther(Long.toString(pair.otherUserId));
+                newRelations.add(relation);
+            }
+            previousTypes.add(relation.getRelationType());
+            relation.setRelationType(relationType);
+
+            MatchRelation matchRelation = null;
+            UserPair reverse = pair.reverse();
+            // A swipe of the other user in the same batch replaces the stored one
+            boolean reciprocal = relationTypes.containsKey(reverse)
+                ? LIKES.contains(relationTypes.get(reverse))
+                : likedBack.contains(reverse);
+            if (LIKES.contains(relationType) && reciprocal) {
+                matchRelation =
+                    matches.computeIfAbsent(pair.ordered(), ordered -> findOrCreateMatch(ordered.userId, ordered.otherUserId, newMatches));
+                if (relation.getMatchRelation() == null && matchRelation.getRelation() == null) {
+                    relation.setMatchRelation(matchRelation);
+                    matchRelation.setRelation(relation);
+                }
+            }
+            relations.add(relation);
+            results[lastIndexByPair.get(pair)] = new SwipeResultDTO(relation, matchRelation);
+        }
+
+        relationRepository.insertAll(newRelations);
+        searchIndexService.indexAll(relations);
+        if (!newMatches.isEmpty()) {
+            searchIndexService.indexAll(newMatches);
+        }
+        seenProfileService.markAllSeen(relations);
+        desirabilityService.recordAll(relations, previousTypes);
+        return null;
+    }
+
+    private MatchRelation findOrCreateMatch(long userLowId, long userHighId) {
+        List<MatchRelation> created = new ArrayList<>(1);
+        MatchRelation matchRelation = findOrCreateMatch(userLowId, userHighId, created);
+        if (!created.isEmpty()) {
+            searchIndexService.index(matchRelation);
+        }
+        return matchRelation;
+    }
+
+    private MatchRelation findOrCreateMatch(long userLowId, long userHighId, List<MatchRelation> created) {
+        Optional<MatchRelation> existing = matchRelationRepository.findOneByUserLowIdAndUserHighId(userLowId, userHighId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        MatchRelation matchRelation = matchRelationRepository.saveAndFlush(
+            new MatchRelation().matchDate(ZonedDateTime.now()).userLowId(userLowId).userHighId(userHighId)
+        );
+        inboxService.addMatch(matchRelation);
+        domainEventService.publishAll(DomainEventDTO.matchCreated(matchRelation));
+        created.add(matchRelation);
+        return matchRelation;
+    }
+
+    private static String lockKey(long userLowId, long userHighId) {
+        return userLowId + ":" + userHighId;
+    }
+
+    /**
+     * A user swiping on another user.
+     */
+    private static final class UserPair {
+
+        private final long userId;
+
+        private final long otherUserId;
+
+        private UserPair(long userId, long otherUserId) {
+            this.userId = userId;
+            this.otherUserId = otherUserId;
+        }
+
+        private static UserPair of(Relation relation) {
+            if (relation.getUserApp() == null || relation.getUserIdOfOther() == null) {
+                return null;
+            }
+            try {
+                return new UserPair(relation.getUserApp().getId(), Long.parseLong(relation.getUserIdOfOther().trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private UserPair reverse() {
+            return new UserPair(otherUserId, userId);
+        }
+
+        private UserPair ordered() {
+            return userId <= otherUserId ? this : reverse();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof UserPair)) {
+                return false;
+            }
+            UserPair other = (UserPair) o;
+            return userId == other.userId && otherUserId == other.otherUserId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(userId * 31 + otherUserId);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.tmrfcb.datingapp.domain.UnmatchRelation;
 import com.tmrfcb.datingapp.repository.UnmatchRelationRepository;
 import com.tmrfcb.datingapp.repository.search.UnmatchRelationSearchRepository;
+import com.tmrfcb.datingapp.service.SearchIndexService;
 import com.tmrfcb.datingapp.service.UnmatchRelationService;
 import java.util.List;
 import java.util.Optional;
@@ -30,19 +31,23 @@ public class UnmatchRelationServiceImpl implements UnmatchRelationService {
 
     private final UnmatchRelationSearchRepository unmatchRelationSearchRepository;
 
+    private final SearchIndexService searchIndexService;
+
     public UnmatchRelationServiceImpl(
         UnmatchRelationRepository unmatchRelationRepository,
-        UnmatchRelationSearchRepository unmatchRelationSearchRepository
+        UnmatchRelationSearchRepository unmatchRelationSearchRepository,
+        SearchIndexService searchIndexService
     ) {
         this.unmatchRelationRepository = unmatchRelationRepository;
         this.unmatchRelationSearchRepository = unmatchRelationSearchRepository;
+        this.searchIndexService = searchIndexService;
     }
 
     @Override
     public UnmatchRelation save(UnmatchRelation unmatchRelation) {
         log.debug("Request to save UnmatchRelation : {}", unmatchRelation);
         UnmatchRelation result = unmatchRelationRepository.save(unmatchRelation);
-        unmatchRelationSearchRepository.save(result);
+        searchIndexService.index(result);
         return result;
     }
 
@@ -64,7 +69,7 @@ public class UnmatchRelationServiceImpl implements UnmatchRelationService {
             .map(unmatchRelationRepository::save)
             .map(
                 savedUnmatchRelation -> {
-                    unmatchRelationSearchRepository.save(savedUnmatchRelation);
+                    searchIndexService.index(savedUnmatchRelation);
 
                     return savedUnmatchRelation;
                 }
@@ -102,7 +107,7 @@ public class UnmatchRelationServiceImpl implements UnmatchRelationService {
     public void delete(Long id) {
         log.debug("Request to delete UnmatchRelation : {}", id);
         unmatchRelationRepository.deleteById(id);
-        unmatchRelationSearchRepository.deleteById(id);
+        searchIndexService.delete(UnmatchRelation.class, id);
     }
 
     @Override
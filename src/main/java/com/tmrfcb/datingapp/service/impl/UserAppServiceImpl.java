@@ -0,0 +1,147 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import static org.elasticsearch.index.query.QueryBuilders.*;
+
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.repository.search.UserAppSearchRepository;
+import com.tmrfcb.datingapp.service.CandidateFeedService;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.SearchIndexService;
+import com.tmrfcb.datingapp.service.UserAppService;
+import java.util.Collections;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service Implementation for managing {@link UserApp}.
+ * <p>
+ * Changes are propagated to the search index and the index of user positions, and evict the profile card and the
+ * candidate feed of the user.
+ */
+@Service
+@Transactional
+public class UserAppServiceImpl implements UserAppService {
+
+    private final Logger log = LoggerFactory.getLogger(UserAppServiceImpl.class);
+
+    private final UserAppRepository userAppRepository;
+
+    private final UserAppSearchRepository userAppSearchRepository;
+
+    private final SearchIndexService searchIndexService;
+
+    private final NearbyUserService nearbyUserService;
+
+    private final ProfileCardService profileCardService;
+
+    private final CandidateFeedService candidateFeedService;
+
+    public UserAppServiceImpl(
+        UserAppRepository userAppRepository,
+        UserAppSearchRepository userAppSearchRepository,
+        SearchIndexService searchIndexService,
+        NearbyUserService nearbyUserService,
+        ProfileCardService profileCardService,
+        CandidateFeedService candidateFeedService
+    ) {
+        this.userAppRepository = userAppRepository;
+        this.userAppSearchRepository = userAppSearchRepository;
+        this.searchIndexService = searchIndexService;
+        this.nearbyUserService = nearbyUserService;
+        this.profileCardService = profileCardService;
+        this.candidateFeedService = candidateFeedService;
+    }
+
+    @Override
+    public UserApp save(UserApp userApp) {
+        log.debug("Request to save UserApp : {}", userApp);
+        UserApp result = userAppRepository.save(userApp);
+        searchIndexService.index(result);
+        nearbyUserService.indexUser(result);
+        evict(result.getId());
+        return result;
+    }
+
+    @Override
+    public Optional<UserApp> partialUpdate(UserApp userApp) {
+        log.debug("Request to partially update UserApp : {}", userApp);
+
+        return userAppRepository
+            .findById(userApp.getId())
+            .map(
+                existingUserApp -> {
+                    if (userApp.getFirstName() != null) {
+                        existingUserApp.setFirstName(userApp.getFirstName());
+                    }
+                    if (userApp.getLastName() != null) {
+                        existingUserApp.setLastName(userApp.getLastName());
+                    }
+                    if (userApp.getEmail() != null) {
+                        existingUserApp.setEmail(userApp.getEmail());
+                    }
+                    if (userApp.getPhoneNumber() != null) {
+                        existingUserApp.setPhoneNumber(userApp.getPhoneNumber());
+                    }
+                    if (userApp.getBirthDate() != null) {
+                        existingUserApp.setBirthDate(userApp.getBirthDate());
+                    }
+                    if (userApp.getLogin() != null) {
+                        existingUserApp.setLogin(userApp.getLogin());
+                    }
+
+                    return existingUserApp;
+                }
+            )
+            .map(userAppRepository::save)
+            .map(
+                savedUserApp -> {
+                    searchIndexService.index(savedUserApp);
+                    evict(savedUserApp.getId());
+
+                    return savedUserApp;
+                }
+            );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserApp> findAll(Pageable pageable) {
+        log.debug("Request to get all UserApps");
+        return userAppRepository.findAll(pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<UserApp> findOne(Long id) {
+        log.debug("Request to get UserApp : {}", id);
+        return userAppRepository.findById(id);
+    }
+
+    @Override
+    public void delete(Long id) {
+        log.debug("Request to delete UserApp : {}", id);
+        userAppRepository.deleteById(id);
+        searchIndexService.delete(UserApp.class, id);
+        nearbyUserService.removeUser(id);
+        evict(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<UserApp> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of UserApps for query {}", query);
+        return userAppSearchRepository.search(queryStringQuery(query), pageable);
+    }
+
+    private void evict(Long id) {
+        profileCardService.evict(Collections.singleton(id));
+        candidateFeedService.evict(id);
+    }
+}
@@ -0,0 +1,116 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Queue of ranked candidate ids, stored in a primitive {@code long[]} consumed from its head.
+ * <p>
+ * Polling only moves the head, so serving a page costs the copy of the page. Appending compacts the remaining ids
+ * into a new array, skipping the ids already queued. Only the remaining ids are serialized.
+ * <p>
+ * Not thread-safe.
+ */
+public class CandidateQueue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient long[] ids;
+
+    private transient int head;
+
+    private transient int tail;
+
+    public CandidateQueue() {
+        this.ids = new long[0];
+    }
+
+    /**
+     * @param ids the candidates, best first; the array is copied.
+     */
+    public CandidateQueue(long[] ids) {
+        this.ids = ids.clone();
+        this.tail = ids.length;
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    /**
+     * Remove the best candidates.
+     *
+     * @param count the maximum number of candidates to remove.
+     * @return the removed candidates, best first.
+     */
+    public long[] poll(int count) {
+        int polled = Math.min(Math.max(count, 0), size());
+        long[] page = Arrays.copyOfRange(ids, head, head + polled);
+        head += polled;
+        return page;
+    }
+
+    /**
+     * Append candidates after the remaining ones, leaving out those already queued.
+     *
+     * @param candidates the candidates, best first.
+     * @param capacity the maximum number of candidates kept in the queue.
+     * @return the number of candidates appended.
+     */
+    public int append(long[] candidates, int capacity) {
+        int remaining = size();
+        long[] appended = new long[Math.max(remaining, Math.min(capacity, remaining + candidates.length))];
+        System.arraycopy(ids, head, appended, 0, remaining);
+        CompactLongSet queued = new CompactLongSet();
+        for (int i = 0; i < remaining; i++) {
+            queued.add(appended[i]);
+        }
+        int size = remaining;
+        for (int i = 0; i < candidates.length && size < appended.length; i++) {
+            if (queued.add(candidates[i])) {
+                appended[size++] = candidates[i];
+            }
+        }
+        ids = appended;
+        head = 0;
+        tail = size;
+        return size - remaining;
+    }
+
+    /**
+     * @return a copy of the remaining candidates, best first.
+     */
+    public long[] toArray() {
+        return Arrays.copyOfRange(ids, head, tail);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (int i = head; i < tail; i++) {
+            out.writeLong(ids[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        tail = in.readInt();
+        head = 0;
+        ids = new long[tail];
+        for (int i = 0; i < tail; i++) {
+            ids[i] = in.readLong();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "CandidateQueue{size=" + size() + "}";
+    }
+}
@@ -0,0 +1,224 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Compact set of positive {@code long} values, laid out like a Roaring bitmap.
+ * <p>
+ * Values are grouped by their upper 48 bits. Each group stores its lower 16 bits either as a sorted {@code char[]}
+ * while sparse, or as a 65536-bit bitmap once it holds more than {@value #MAX_ARRAY_SIZE} values, so that dense runs
+ * of ids cost one bit each and lookups stay constant-time in practice.
+ * <p>
+ * Not thread-safe.
+ */
+public class CompactLongSet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MAX_ARRAY_SIZE = 4096;
+
+    private static final int BITMAP_WORDS = 1024;
+
+    private transient long[] keys = new long[0];
+
+    private transient Object[] containers = new Object[0];
+
+    private transient int[] sizes = new int[0];
+
+    private transient int groups;
+
+    private transient long size;
+
+    /**
+     * Add a value.
+     *
+     * @param value the value, must not be negative.
+     * @return {@code true} if the value was not already in the set.
+     */
+    public boolean add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative values are not supported: " + value);
+        }
+        long key = value >>> 16;
+        char low = (char) value;
+        int group = Arrays.binarySearch(keys, 0, groups, key);
+        if (group < 0) {
+            group = -group - 1;
+            insertGroup(group, key);
+        }
+        boolean added = containers[group] instanceof long[]
+            ? addToBitmap((long[]) containers[group], low)
+            : addToArray(group, low);
+        if (added) {
+            sizes[group]++;
+            size++;
+        }
+        return added;
+    }
+
+    /**
+     * Check whether a value is in the set.
+     *
+     * @param value the value.
+     * @return {@code true} if the value is in the set.
+     */
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int group = Arrays.binarySearch(keys, 0, groups, value >>> 16);
+        if (group < 0) {
+            return false;
+        }
+        char low = (char) value;
+        Object container = containers[group];
+        if (container instanceof long[]) {
+            return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, 0, sizes[group], low) >= 0;
+    }
+
+    /**
+     * Get the number of values in the set.
+     *
+     * @return the number of values.
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Pass every value of the set to an action, in ascending order.
+     *
+     * @param action the action.
+     */
+    public void forEach(LongConsumer action) {
+        for (int group = 0; group < groups; group++) {
+            long high = keys[group] << 16;
+            Object container = containers[group];
+            if (container instanceof long[]) {
+                long[] bitmap = (long[]) container;
+                for (int word = 0; word < bitmap.length; word++) {
+                    long bits = bitmap[word];
+                    while (bits != 0) {
+                        action.accept(high | ((long) word << 6) | Long.numberOfTrailingZeros(bits));
+                        bits &= bits - 1;
+                    }
+                }
+            } else {
+                char[] values = (char[]) container;
+                for (int i = 0; i < sizes[group]; i++) {
+                    action.accept(high | values[i]);
+                }
+            }
+        }
+    }
+
+    private void insertGroup(int group, long key) {
+        if (groups == keys.length) {
+            int capacity = Math.max(4, groups * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            sizes = Arrays.copyOf(sizes, capacity);
+        }
+        System.arraycopy(keys, group, keys, group + 1, groups - group);
+        System.arraycopy(containers, group, containers, group + 1, groups - group);
+        System.arraycopy(sizes, group, sizes, group + 1, groups - group);
+        keys[group] = key;
+        containers[group] = new char[4];
+        sizes[group] = 0;
+        groups++;
+    }
+
+    private boolean addToArray(int group, char low) {
+        char[] values = (char[]) containers[group];
+        int count = sizes[group];
+        int index = Arrays.binarySearch(values, 0, count, low);
+        if (index >= 0) {
+            return false;
+        }
+        if (count == MAX_ARRAY_SIZE) {
+            long[] bitmap = new long[BITMAP_WORDS];
+            for (int i = 0; i < count; i++) {
+                addToBitmap(bitmap, values[i]);
+            }
+            containers[group] = bitmap;
+            return addToBitmap(bitmap, low);
+        }
+        index = -index - 1;
+        if (count == values.length) {
+            values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, count * 2));
+            containers[group] = values;
+        }
+        System.arraycopy(values, index, values, index + 1, count - index);
+        values[index] = low;
+        return true;
+    }
+
+    private static boolean addToBitmap(long[] bitmap, char low) {
+        long mask = 1L << low;
+        int word = low >>> 6;
+        if ((bitmap[word] & mask) != 0) {
+            return false;
+        }
+        bitmap[word] |= mask;
+        return true;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(groups);
+        for (int group = 0; group < groups; group++) {
+            out.writeLong(keys[group]);
+            out.writeInt(sizes[group]);
+            Object container = containers[group];
+            if (container instanceof long[]) {
+                for (long word : (long[]) container) {
+                    out.writeLong(word);
+                }
+            } else {
+                char[] values = (char[]) container;
+                for (int i = 0; i < sizes[group]; i++) {
+                    out.writeChar(values[i]);
+                }
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        groups = in.readInt();
+        keys = new long[groups];
+        containers = new Object[groups];
+        sizes = new int[groups];
+        size = 0;
+        for (int group = 0; group < groups; group++) {
+            keys[group] = in.readLong();
+            int count = in.readInt();
+            sizes[group] = count;
+            size += count;
+            if (count > MAX_ARRAY_SIZE) {
+                long[] bitmap = new long[BITMAP_WORDS];
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    bitmap[word] = in.readLong();
+                }
+                containers[group] = bitmap;
+            } else {
+                char[] values = new char[Math.max(4, count)];
+                for (int i = 0; i < count; i++) {
+                    values[i] = in.readChar();
+                }
+                containers[group] = values;
+            }
+        }
+    }
+}
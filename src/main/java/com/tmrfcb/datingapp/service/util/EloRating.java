@@ -0,0 +1,43 @@
+package com.tmrfcb.datingapp.service.util;
+
+/**
+ * Utility class for Elo ratings, where a swipe is a game between the swiping user and the swiped one: the swiped user
+ * wins a like and loses a dislike.
+ * <p>
+ * A like from a user rated above the swiped one is worth more than a like from a user rated below, and a dislike costs
+ * less, as the swiped user was expected to lose it.
+ */
+public final class EloRating {
+
+    /**
+     * Rating of a user who has not been swiped yet, as set by the {@code user_app.desirability} column default.
+     */
+    public static final double INITIAL_RATING = 1500;
+
+    /**
+     * Rating difference at which the higher rated player is expected to win ten times out of eleven.
+     */
+    private static final double SCALE = 400;
+
+    private EloRating() {}
+
+    /**
+     * @param rating the rating of a player.
+     * @param opponentRating the rating of its opponent.
+     * @return the probability of the player winning, between {@code 0} and {@code 1}.
+     */
+    public static double expectedScore(double rating, double opponentRating) {
+        return 1 / (1 + Math.pow(10, (opponentRating - rating) / SCALE));
+    }
+
+    /**
+     * @param rating the rating of a player.
+     * @param opponentRating the rating of its opponent.
+     * @param score {@code 1} if the player won, {@code 0} if it lost.
+     * @param kFactor the largest change of rating of a single game.
+     * @return the change of rating of the player.
+     */
+    public static double delta(double rating, double opponentRating, double score, double kFactor) {
+        return kFactor * (score - expectedScore(rating, opponentRating));
+    }
+}
@@ -0,0 +1,182 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Utility class for geohash encoding and great-circle distances.
+ */
+public final class GeoUtils {
+
+    /**
+     * Mean earth radius, in kilometers.
+     */
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /**
+     * Precision of the geohash stored on {@link com.tmrfcb.datingapp.domain.Location}.
+     */
+    public static final int MAX_PRECISION = 12;
+
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+
+    private GeoUtils() {}
+
+    /**
+     * Encode a position as a geohash.
+     *
+     * @param latitude the latitude, in degrees.
+     * @param longitude the longitude, in degrees.
+     * @param precision the number of characters of the geohash, between 1 and {@link #MAX_PRECISION}.
+     * @return the geohash.
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        if (precision < 1 || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and " + MAX_PRECISION);
+        }
+        double minLat = -90, maxLat = 90;
+        double minLon = -180, maxLon = 180;
+        char[] hash = new char[precision];
+        boolean evenBit = true;
+        for (int i = 0; i < precision; i++) {
+            int index = 0;
+            for (int bit = 0; bit < 5; bit++) {
+                index <<= 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (longitude >= mid) {
+                        index |= 1;
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (latitude >= mid) {
+                        index |= 1;
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+            hash[i] = BASE32[index];
+        }
+        return new String(hash);
+    }
+
+    /**
+     * Get the geohash cells of the given precision covering every point within {@code radiusKm} of a position.
+     * <p>
+     * The cells are the one containing the position and its eight neighbours, so the precision must be chosen with
+     * {@link #precisionForRadius(double, double)}.
+     *
+     * @param latitude the latitude, in degrees.
+     * @param longitude the longitude, in degrees.
+     * @param precision the precision of the cells.
+     * @return the distinct cells, the one containing the position first.
+     */
+    public static Set<String> coveringCells(double latitude, double longitude, int precision) {
+        double cellHeight = cellHeightDegrees(precision);
+        double cellWidth = cellWidthDegrees(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        cells.add(encode(latitude, longitude, precision));
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -1; dLon <= 1; dLon++) {
+                double neighbourLatitude = latitude + dLat * cellHeight;
+                if (neighbourLatitude > 90 || neighbourLatitude < -90) {
+                    continue;
+                }
+                cells.add(encode(neighbourLatitude, wrapLongitude(longitude + dLon * cellWidth), precision));
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Get the longest geohash precision whose cells are at least {@code radiusKm} wide and high around the given latitude,
+     * so that a cell and its neighbours cover the whole search circle.
+     *
+     * @param latitude the latitude of the search center, in degrees.
+     * @param radiusKm the search radius, in kilometers.
+     * @return the precision, at least 1.
+     */
+    public static int precisionForRadius(double latitude, double radiusKm) {
+        double farthestLatitude = Math.min(90, Math.abs(latitude) + radiusKm / KM_PER_DEGREE);
+        double cosLatitude = Math.cos(Math.toRadians(farthestLatitude));
+        int precision = 1;
+        for (int candidate = 2; candidate <= MAX_PRECISION; candidate++) {
+            double heightKm = cellHeightDegrees(candidate) * KM_PER_DEGREE;
+            double widthKm = cellWidthDegrees(candidate) * KM_PER_DEGREE * cosLatitude;
+            if (Math.min(heightKm, widthKm) < radiusKm) {
+                break;
+            }
+            precision = candidate;
+        }
+        return precision;
+    }
+
+    /**
+     * Get the great-circle distance between two positions, using the haversine formula.
+     *
+     * @param latitude1 the latitude of the first position, in degrees.
+     * @param longitude1 the longitude of the first position, in degrees.
+     * @param latitude2 the latitude of the second position, in degrees.
+     * @param longitude2 the longitude of the second position, in degrees.
+     * @return the distance, in kilometers.
+     */
+    public static double haversineKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLat = Math.toRadians(latitude2 - latitude1);
+        double dLon = Math.toRadians(longitude2 - longitude1);
+        double sinLat = Math.sin(dLat / 2);
+        double sinLon = Math.sin(dLon / 2);
+        double a = sinLat * sinLat + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * Get the latitude delta, in degrees, covering {@code radiusKm}.
+     *
+     * @param radiusKm the distance, in kilometers.
+     * @return the latitude delta.
+     */
+    public static double latitudeDelta(double radiusKm) {
+        return radiusKm / KM_PER_DEGREE;
+    }
+
+    /**
+     * Get the longitude delta, in degrees, covering {@code radiusKm} around the given latitude.
+     *
+     * @param latitude the latitude, in degrees.
+     * @param radiusKm the distance, in kilometers.
+     * @return the longitude delta, or {@code 180} when the circle reaches a pole.
+     */
+    public static double longitudeDelta(double latitude, double radiusKm) {
+        double farthestLatitude = Math.abs(latitude) + latitudeDelta(radiusKm);
+        if (farthestLatitude >= 90) {
+            return 180;
+        }
+        return Math.min(180, radiusKm / (KM_PER_DEGREE * Math.cos(Math.toRadians(farthestLatitude))));
+    }
+
+    private static double cellHeightDegrees(int precision) {
+        return 180 / Math.pow(2, (5 * precision) / 2);
+    }
+
+    private static double cellWidthDegrees(int precision) {
+        return 360 / Math.pow(2, (5 * precision + 1) / 2);
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude >= 180) {
+            return longitude - 360;
+        }
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude;
+    }
+}
@@ -0,0 +1,357 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Matrix factorization of implicit feedback by alternating least squares, after Hu, Koren and Volinsky, "Collaborative
+ * Filtering for Implicit Feedback Datasets".
+ * <p>
+ * Each entry of the user-item matrix is a signed strength: positive for a like, negative for a dislike. An entry
+ * {@code v} stands for a preference of {@code 1} if {@code v > 0} and {@code 0} otherwise, with a confidence of
+ * {@code 1 + alpha * |v|}; missing entries stand for a preference of {@code 0} with a confidence of {@code 1}. Each
+ * half-iteration solves one {@code rank x rank} system per row, using the Gram matrix of the fixed side so that its
+ * cost is linear in the number of entries. Rows are solved in parallel on a {@link ForkJoinPool}.
+ * <p>
+ * Factors are stored row-major in flat {@code float[]}, {@code rank} values per row.
+ */
+public class ImplicitAls {
+
+    private static final int SOLVE_THRESHOLD = 256;
+
+    private static final int GRAM_THRESHOLD = 4096;
+
+    private final int rank;
+
+    private final int iterations;
+
+    private final double regularization;
+
+    private final double alpha;
+
+    private final long seed;
+
+    /**
+     * @param rank the number of latent factors.
+     * @param iterations the number of alternations of the user and item sides.
+     * @param regularization the weight of the L2 penalty on the factors.
+     * @param alpha the scale of the confidence in the observed entries.
+     * @param seed the seed of the initial item factors.
+     */
+    public ImplicitAls(int rank, int iterations, double regularization, double alpha, long seed) {
+        if (rank <= 0 || iterations <= 0 || regularization <= 0 || alpha < 0) {
+            throw new IllegalArgumentException("Invalid rank, iterations, regularization or alpha");
+        }
+        this.rank = rank;
+        this.iterations = iterations;
+        this.regularization = regularization;
+        this.alpha = alpha;
+        this.seed = seed;
+    }
+
+    /**
+     * Factorize a user-item matrix.
+     *
+     * @param userItems the signed strengths, one row per user and one column per item.
+     * @param pool the pool solving the rows.
+     * @return the factors of the users and of the items.
+     */
+    public Factors train(SparseMatrix userItems, ForkJoinPool pool) {
+        SparseMatrix itemUsers = userItems.transpose();
+        float[] userFactors = new float[Math.multiplyExact(userItems.rows(), rank)];
+        float[] itemFactors = new float[Math.multiplyExact(userItems.columns(), rank)];
+        pool.invoke(new InitializeTask(itemFactors, new SplittableRandom(seed), 0, userItems.columns()));
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            solve(userItems, itemFactors, userFactors, pool);
+            solve(itemUsers, userFactors, itemFactors, pool);
+        }
+        return new Factors(this, userFactors, itemFactors, pool.invoke(new GramTask(itemFactors, 0, userItems.columns())));
+    }
+
+    private void solve(SparseMatrix matrix, float[] fixed, float[] solved, ForkJoinPool pool) {
+        double[] gram = pool.invoke(new GramTask(fixed, 0, fixed.length / rank));
+        pool.invoke(new SolveTask(matrix, fixed, solved, gram, 0, matrix.rows()));
+    }
+
+    /**
+     * Solve the factors of a row from the entries of the row and the factors of the other side: builds
+     * {@code (G + sum((c - 1) y y^T) + lambda I) x = sum(c p y)}, then solves it by Cholesky decomposition.
+     *
+     * @return {@code false} if the system is not positive definite, in which case {@code x} is left untouched.
+     */
+    boolean solveRow(int[] columns, float[] values, int from, int to, float[] fixed, double[] gram, double[] a, double[] x) {
+        System.arraycopy(gram, 0, a, 0, rank * rank);
+        Arrays.fill(x, 0, rank, 0d);
+        for (int i = 0; i < rank; i++) {
+            a[i * rank + i] += regularization;
+        }
+        for (int position = from; position < to; position++) {
+            float value = values[position];
+            double confidence = 1 + alpha * Math.abs(value);
+            int offset = columns[position] * rank;
+            for (int i = 0; i < rank; i++) {
+                double weighted = (confidence - 1) * fixed[offset + i];
+                for (int j = 0; j <= i; j++) {
+                    a[i * rank + j] += weighted * fixed[offset + j];
+                }
+                if (value > 0) {
+                    x[i] += confidence * fixed[offset + i];
+                }
+            }
+        }
+        return choleskySolve(a, x);
+    }
+
+    /**
+     * Solve {@code a x = b} in place for a symmetric positive definite {@code a}, of which only the lower triangle is
+     * read. {@code b} is passed in {@code x}.
+     */
+    private boolean choleskySolve(double[] a, double[] x) {
+        for (int j = 0; j < rank; j++) {
+            double diagonal = a[j * rank + j];
+            for (int k = 0; k < j; k++) {
+                diagonal -= a[j * rank + k] * a[j * rank + k];
+            }
+            if (diagonal <= 0) {
+                return false;
+            }
+            diagonal = Math.sqrt(diagonal);
+            a[j * rank + j] = diagonal;
+            for (int i = j + 1; i < rank; i++) {
+                double sum = a[i * rank + j];
+                for (int k = 0; k < j; k++) {
+                    sum -= a[i * rank + k] * a[j * rank + k];
+                }
+                a[i * rank + j] = sum / diagonal;
+            }
+        }
+        for (int i = 0; i < rank; i++) {
+            double sum = x[i];
+            for (int k = 0; k < i; k++) {
+                sum -= a[i * rank + k] * x[k];
+            }
+            x[i] = sum / a[i * rank + i];
+        }
+        for (int i = rank - 1; i >= 0; i--) {
+            double sum = x[i];
+            for (int k = i + 1; k < rank; k++) {
+                sum -= a[k * rank + i] * x[k];
+            }
+            x[i] = sum / a[i * rank + i];
+        }
+        return true;
+    }
+
+    /**
+     * The factors of a trained model, with the Gram matrix of the item factors, to fold in new users.
+     */
+    public static final class Factors {
+
+        private final ImplicitAls als;
+
+        private final float[] userFactors;
+
+        private final float[] itemFactors;
+
+        private final double[] itemGram;
+
+        Factors(ImplicitAls als, float[] userFactors, float[] itemFactors, double[] itemGram) {
+            this.als = als;
+            this.userFactors = userFactors;
+            this.itemFactors = itemFactors;
+            this.itemGram = itemGram;
+        }
+
+        public int rank() {
+            return als.rank;
+        }
+
+        public int users() {
+            return userFactors.length / als.rank;
+        }
+
+        public int items() {
+            return itemFactors.length / als.rank;
+        }
+
+        /**
+         * @return the same factors without those of the users, which are not needed to fold in users.
+         */
+        public Factors itemsOnly() {
+            return new Factors(als, new float[0], itemFactors, itemGram);
+        }
+
+        /**
+         * @param user the index of a user.
+         * @return a copy of the factors of the user.
+         */
+        public float[] userVector(int user) {
+            return Arrays.copyOfRange(userFactors, user * als.rank, (user + 1) * als.rank);
+        }
+
+        /**
+         * Compute the factors of a user from its entries, against the trained item factors, without retraining.
+         *
+         * @param items the indices of the items of the entries.
+         * @param values the signed strengths of the entries.
+         * @param count the number of entries.
+         * @return the factors of the user, all zero if it has no entry.
+         */
+        public float[] foldIn(int[] items, float[] values, int count) {
+            int rank = als.rank;
+            double[] a = new double[rank * rank];
+            double[] x = new double[rank];
+            float[] vector = new float[rank];
+            if (count > 0 && als.solveRow(items, values, 0, count, itemFactors, itemGram, a, x)) {
+                for (int i = 0; i < rank; i++) {
+                    vector[i] = (float) x[i];
+                }
+            }
+            return vector;
+        }
+
+        /**
+         * @param userVector the factors of a user.
+         * @param item the index of an item.
+         * @return the predicted preference of the user for the item.
+         */
+        public float score(float[] userVector, int item) {
+            int offset = item * als.rank;
+            float score = 0;
+            for (int i = 0; i < als.rank; i++) {
+                score += userVector[i] * itemFactors[offset + i];
+            }
+            return score;
+        }
+    }
+
+    private final class InitializeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final float[] factors;
+
+        private final SplittableRandom random;
+
+        private final int from;
+
+        private final int to;
+
+        InitializeTask(float[] factors, SplittableRandom random, int from, int to) {
+            this.factors = factors;
+            this.random = random;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAM_THRESHOLD) {
+                double scale = 1 / Math.sqrt(rank);
+                for (int index = from * rank; index < to * rank; index++) {
+                    factors[index] = (float) (random.nextDouble() * scale);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new InitializeTask(factors, random.split(), from, middle), new InitializeTask(factors, random.split(), middle, to));
+        }
+    }
+
+    /**
+     * Sum of {@code y y^T} over the rows of a side, lower triangle only.
+     */
+    private final class GramTask extends RecursiveTask<double[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final float[] factors;
+
+        private final int from;
+
+        private final int to;
+
+        GramTask(float[] factors, int from, int to) {
+            this.factors = factors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= GRAM_THRESHOLD) {
+                double[] gram = new double[rank * rank];
+                for (int row = from; row < to; row++) {
+                    int offset = row * rank;
+                    for (int i = 0; i < rank; i++) {
+                        double yi = factors[offset + i];
+                        for (int j = 0; j <= i; j++) {
+                            gram[i * rank + j] += yi * factors[offset + j];
+                        }
+                    }
+                }
+                return gram;
+            }
+            int middle = (from + to) >>> 1;
+            GramTask right = new GramTask(factors, middle, to);
+            right.fork();
+            double[] gram = new GramTask(factors, from, middle).compute();
+            double[] rightGram = right.join();
+            for (int i = 0; i < gram.length; i++) {
+                gram[i] += rightGram[i];
+            }
+            return gram;
+        }
+    }
+
+    private final class SolveTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final SparseMatrix matrix;
+
+        private final float[] fixed;
+
+        private final float[] solved;
+
+        private final double[] gram;
+
+        private final int from;
+
+        private final int to;
+
+        SolveTask(SparseMatrix matrix, float[] fixed, float[] solved, double[] gram, int from, int to) {
+            this.matrix = matrix;
+            this.fixed = fixed;
+            this.solved = solved;
+            this.gram = gram;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SOLVE_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                    new SolveTask(matrix, fixed, solved, gram, from, middle),
+                    new SolveTask(matrix, fixed, solved, gram, middle, to)
+                );
+                return;
+            }
+            double[] a = new double[rank * rank];
+            double[] x = new double[rank];
+            for (int row = from; row < to; row++) {
+                int start = matrix.rowStart(row);
+                int end = matrix.rowEnd(row);
+                boolean solvable = start < end && solveRow(matrix.columnArray(), matrix.valueArray(), start, end, fixed, gram, a, x);
+                for (int i = 0; i < rank; i++) {
+                    solved[row * rank + i] = solvable ? (float) x[i] : 0f;
+                }
+            }
+        }
+    }
+}
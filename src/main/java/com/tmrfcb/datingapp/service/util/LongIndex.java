@@ -0,0 +1,127 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Arrays;
+
+/**
+ * Dense numbering of positive {@code long} ids, from {@code 0} in order of addition, backed by an open addressing
+ * hash table of primitive arrays.
+ * <p>
+ * Not thread-safe for writes; reads are safe once the index is no longer written.
+ */
+public class LongIndex {
+
+    private static final long FREE = -1L;
+
+    private long[] keys;
+
+    private int[] indices;
+
+    private long[] ids;
+
+    private int size;
+
+    private int mask;
+
+    public LongIndex() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize the number of ids expected, to size the table.
+     */
+    public LongIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        indices = new int[capacity];
+        ids = new long[Math.max(16, expectedSize)];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Add an id, if it is not already numbered.
+     *
+     * @param id the id, must not be negative.
+     * @return the index of the id.
+     */
+    public int add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative ids are not supported: " + id);
+        }
+        int slot = slot(id);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == id) {
+                return indices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size + (size >> 1));
+        }
+        keys[slot] = id;
+        indices[slot] = size;
+        ids[size] = id;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash();
+        }
+        return size - 1;
+    }
+
+    /**
+     * Get the index of an id.
+     *
+     * @param id the id.
+     * @return the index of the id, or {@code -1} if it is not numbered.
+     */
+    public int indexOf(long id) {
+        if (id < 0) {
+            return -1;
+        }
+        int slot = slot(id);
+        while (keys[slot] != FREE) {
+            if (keys[slot] == id) {
+                return indices[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the id numbered by an index.
+     *
+     * @param index the index, lower than {@link #size()}.
+     * @return the id.
+     */
+    public long idAt(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+        }
+        return ids[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private void rehash() {
+        keys = new long[keys.length * 2];
+        Arrays.fill(keys, FREE);
+        indices = new int[keys.length];
+        mask = keys.length - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = slot(ids[index]);
+            while (keys[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = ids[index];
+            indices[slot] = index;
+        }
+    }
+}
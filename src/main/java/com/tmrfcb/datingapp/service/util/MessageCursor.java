@@ -0,0 +1,98 @@
+package com.tmrfcb.datingapp.service.util;
+
+import com.tmrfcb.datingapp.domain.Message;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position of a message in a conversation, ordered by date then id, used to seek the messages before it.
+ * <p>
+ * Clients only see it as an opaque string.
+ */
+public final class MessageCursor {
+
+    private final ZonedDateTime messageDate;
+
+    private final long id;
+
+    public MessageCursor(ZonedDateTime messageDate, long id) {
+        this.messageDate = Objects.requireNonNull(messageDate);
+        this.id = id;
+    }
+
+    /**
+     * Get the position of a message.
+     *
+     * @param message a message with a date.
+     * @return the cursor.
+     */
+    public static MessageCursor of(Message message) {
+        return new MessageCursor(message.getMessageDate(), message.getId());
+    }
+
+    public ZonedDateTime getMessageDate() {
+        return messageDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Encode the cursor as an opaque URL-safe string.
+     *
+     * @return the encoded cursor.
+     */
+    public String encode() {
+        Instant instant = messageDate.toInstant();
+        String value = instant.getEpochSecond() + ":" + instant.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor returned by {@link #encode()}.
+     *
+     * @param cursor the encoded cursor.
+     * @return the cursor.
+     * @throws IllegalArgumentException if the cursor is not valid.
+     */
+    public static MessageCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid message cursor " + cursor);
+            }
+            Instant instant = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new MessageCursor(ZonedDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(parts[2]));
+        } catch (NumberFormatException | DateTimeException e) {
+            throw new IllegalArgumentException("Invalid message cursor " + cursor, e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MessageCursor)) {
+            return false;
+        }
+        MessageCursor other = (MessageCursor) o;
+        return id == other.id && messageDate.toInstant().equals(other.messageDate.toInstant());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(messageDate.toInstant(), id);
+    }
+
+    @Override
+    public String toString() {
+        return "MessageCursor{" + "messageDate=" + messageDate + ", id=" + id + "}";
+    }
+}
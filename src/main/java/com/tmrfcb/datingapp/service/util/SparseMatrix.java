@@ -0,0 +1,176 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse matrix of {@code float} values in compressed sparse row layout: the entries of row {@code r} are
+ * at positions {@link #rowStart(int) rowStart(r)} (inclusive) to {@link #rowEnd(int) rowEnd(r)} (exclusive) of the
+ * column and value arrays. An entry costs 8 bytes.
+ */
+public final class SparseMatrix {
+
+    private final int rows;
+
+    private final int columns;
+
+    private final int[] rowStarts;
+
+    private final int[] columnIndices;
+
+    private final float[] values;
+
+    private SparseMatrix(int rows, int columns, int[] rowStarts, int[] columnIndices, float[] values) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStarts = rowStarts;
+        this.columnIndices = columnIndices;
+        this.values = values;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int nonZeros() {
+        return rowStarts[rows];
+    }
+
+    public int rowStart(int row) {
+        return rowStarts[row];
+    }
+
+    public int rowEnd(int row) {
+        return rowStarts[row + 1];
+    }
+
+    public int column(int position) {
+        return columnIndices[position];
+    }
+
+    public float value(int position) {
+        return values[position];
+    }
+
+    int[] columnArray() {
+        return columnIndices;
+    }
+
+    float[] valueArray() {
+        return values;
+    }
+
+    /**
+     * @return the transposed matrix, built with a counting sort on the columns.
+     */
+    public SparseMatrix transpose() {
+        int[] starts = new int[columns + 1];
+        for (int position = 0; position < nonZeros(); position++) {
+            starts[columnIndices[position] + 1]++;
+        }
+        for (int column = 0; column < columns; column++) {
+            starts[column + 1] += starts[column];
+        }
+        int[] next = Arrays.copyOf(starts, columns);
+        int[] rowIndices = new int[nonZeros()];
+        float[] transposedValues = new float[nonZeros()];
+        for (int row = 0; row < rows; row++) {
+            for (int position = rowStarts[row]; position < rowStarts[row + 1]; position++) {
+                int target = next[columnIndices[position]]++;
+                rowIndices[target] = row;
+                transposedValues[target] = values[position];
+            }
+        }
+        return new SparseMatrix(columns, rows, starts, rowIndices, transposedValues);
+    }
+
+    /**
+     * Collects entries in any order, then lays them out by row. Entries added twice to the same cell are kept apart.
+     * <p>
+     * Not thread-safe.
+     */
+    public static final class Builder {
+
+        private int[] rowIndices;
+
+        private int[] columnIndices;
+
+        private float[] values;
+
+        private int size;
+
+        public Builder() {
+            this(1024);
+        }
+
+        /**
+         * @param expectedEntries the number of entries expected, to size the buffers.
+         */
+        public Builder(int expectedEntries) {
+            int capacity = Math.max(16, expectedEntries);
+            rowIndices = new int[capacity];
+            columnIndices = new int[capacity];
+            values = new float[capacity];
+        }
+
+        public Builder add(int row, int column, float value) {
+            if (row < 0 || column < 0) {
+                throw new IllegalArgumentException("Negative row or column: " + row + ", " + column);
+            }
+            if (size == values.length) {
+                int capacity = (int) Math.min(Integer.MAX_VALUE - 8, size + (long) (size >> 1));
+                if (capacity == size) {
+                    throw new IllegalStateException("Too many entries: " + size);
+                }
+                rowIndices = Arrays.copyOf(rowIndices, capacity);
+                columnIndices = Arrays.copyOf(columnIndices, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            rowIndices[size] = row;
+            columnIndices[size] = column;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Lay out the entries with a counting sort on the rows, keeping their order within a row. The builder must not
+         * be used afterwards.
+         *
+         * @param rows the number of rows, greater than every row added.
+         * @param columns the number of columns, greater than every column added.
+         * @return the matrix.
+         */
+        public SparseMatrix build(int rows, int columns) {
+            int[] starts = new int[rows + 1];
+            for (int entry = 0; entry < size; entry++) {
+                if (rowIndices[entry] >= rows || columnIndices[entry] >= columns) {
+                    throw new IllegalArgumentException("Entry out of a " + rows + "x" + columns + " matrix");
+                }
+                starts[rowIndices[entry] + 1]++;
+            }
+            for (int row = 0; row < rows; row++) {
+                starts[row + 1] += starts[row];
+            }
+            int[] next = Arrays.copyOf(starts, rows);
+            int[] sortedColumns = new int[size];
+            float[] sortedValues = new float[size];
+            for (int entry = 0; entry < size; entry++) {
+                int target = next[rowIndices[entry]]++;
+                sortedColumns[target] = columnIndices[entry];
+                sortedValues[target] = values[entry];
+            }
+            rowIndices = null;
+            columnIndices = null;
+            values = null;
+            return new SparseMatrix(rows, columns, starts, sortedColumns, sortedValues);
+        }
+    }
+}
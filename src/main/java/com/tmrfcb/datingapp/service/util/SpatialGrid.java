@@ -0,0 +1,486 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * In-memory grid of user positions, answering k-nearest-neighbour queries without touching the database.
+ * <p>
+ * The earth is cut into square cells of {@code cellSizeDegrees}. Each cell stores its users in primitive
+ * {@code long}/{@code double} arrays, and cells are spread over independently locked shards so that concurrent
+ * updates on different cells do not contend. The updates of a user are applied while holding its entry of the cell
+ * index, so that concurrent moves of the same user always leave it in exactly one cell.
+ */
+public class SpatialGrid {
+
+    private static final double KM_PER_DEGREE = Math.PI * GeoUtils.EARTH_RADIUS_KM / 180;
+
+    private static final int INITIAL_CELL_CAPACITY = 8;
+
+    private final double cellSizeDegrees;
+
+    private final int rows;
+
+    private final int columns;
+
+    private final Shard[] shards;
+
+    private final int shardMask;
+
+    private final ConcurrentHashMap<Long, Long> cellByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Create a grid.
+     *
+     * @param cellSizeDegrees the width and height of a cell, in degrees.
+     * @param shardCount the number of independently locked shards, rounded up to a power of two.
+     */
+    public SpatialGrid(double cellSizeDegrees, int shardCount) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Cell size must be in ]0, 90] degrees");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.rows = (int) Math.ceil(180 / cellSizeDegrees);
+        this.columns = (int) Math.ceil(360 / cellSizeDegrees);
+        int size = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.shardMask = size - 1;
+    }
+
+    /**
+     * Insert or move a user.
+     *
+     * @param userId the id of the user.
+     * @param latitude the latitude of the user, in degrees.
+     * @param longitude the longitude of the user, in degrees.
+     */
+    public void put(long userId, double latitude, double longitude) {
+        long cellKey = cellKey(row(latitude), column(longitude));
+        cellByUser.compute(
+            userId,
+            (id, previousCellKey) -> {
+                if (previousCellKey != null && previousCellKey != cellKey) {
+                    shard(previousCellKey).remove(previousCellKey, userId);
+                }
+                shard(cellKey).put(cellKey, userId, latitude, longitude);
+                return cellKey;
+            }
+        );
+    }
+
+    /**
+     * Remove a user.
+     *
+     * @param userId the id of the user.
+     */
+    public void remove(long userId) {
+        cellByUser.computeIfPresent(
+            userId,
+            (id, cellKey) -> {
+                shard(cellKey).remove(cellKey, userId);
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Remove every user.
+     */
+    public void clear() {
+        cellByUser.clear();
+        for (Shard shard : shards) {
+            shard.clear();
+        }
+    }
+
+    /**
+     * Get the number of users in the grid.
+     *
+     * @return the number of users.
+     */
+    public int size() {
+        return cellByUser.size();
+    }
+
+    /**
+     * Find the {@code k} users nearest to a position, within {@code maxDistanceKm}.
+     * <p>
+     * Cells are visited ring by ring around the cell of the position, and the search stops as soon as the next ring
+     * cannot contain a user closer than the current k-th candidate.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param maxDistanceKm the maximum distance of the users, in kilometers.
+     * @return the users, nearest first.
+     */
+    public Neighbours nearest(double latitude, double longitude, int k, double maxDistanceKm) {
+        return nearest(latitude, longitude, k, maxDistanceKm, userId -> true);
+    }
+
+    /**
+     * Find the {@code k} users nearest to a position, within {@code maxDistanceKm}, among those accepted by a filter.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param maxDistanceKm the maximum distance of the users, in kilometers.
+     * @param filter the filter on user ids, called for every user within {@code maxDistanceKm}.
+     * @return the users, nearest first.
+     */
+    public Neighbours nearest(double latitude, double longitude, int k, double maxDistanceKm, LongPredicate filter) {
+        if (k <= 0) {
+            return new Neighbours(new long[0], new double[0]);
+        }
+        BoundedMaxHeap heap = new BoundedMaxHeap(k);
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+        int maxRing = Math.max(rows, columns / 2);
+        for (int ring = 0; ring <= maxRing; ring++) {
+            if (ringMinDistanceKm(centerRow, centerColumn, ring, latitude, longitude) > searchDistanceKm(maxDistanceKm, heap)) {
+                break;
+            }
+            visitRing(centerRow, centerColumn, ring, latitude, longitude, maxDistanceKm, filter, heap);
+        }
+        return heap.toNeighbours();
+    }
+
+    private void visitRing(
+        int centerRow,
+        int centerColumn,
+        int ring,
+        double latitude,
+        double longitude,
+        double maxDistanceKm,
+        LongPredicate filter,
+        BoundedMaxHeap heap
+    ) {
+        int ringColumns = Math.min(2 * ring + 1, columns);
+        for (int dRow = -ring; dRow <= ring; dRow++) {
+            int row = centerRow + dRow;
+            if (row < 0 || row >= rows) {
+                continue;
+            }
+            boolean edgeRow = dRow == -ring || dRow == ring;
+            int step = edgeRow ? 1 : 2 * ring;
+            for (int dColumn = -ring; dColumn <= ring; dColumn += Math.max(1, step)) {
+                if (dColumn + ring >= ringColumns) {
+                    break;
+                }
+                int column = Math.floorMod(centerColumn + dColumn, columns);
+                if (cellMinDistanceKm(row, column, latitude, longitude) <= searchDistanceKm(maxDistanceKm, heap)) {
+                    long cellKey = cellKey(row, column);
+                    shard(cellKey).collect(cellKey, latitude, longitude, maxDistanceKm, filter, heap);
+                }
+            }
+        }
+    }
+
+    private static double searchDistanceKm(double maxDistanceKm, BoundedMaxHeap heap) {
+        return heap.isFull() ? Math.min(maxDistanceKm, heap.maxDistance()) : maxDistanceKm;
+    }
+
+    /**
+     * Lower bound of the distance between a position and the cells of a ring, that is the cells outside the square
+     * covered by the previous rings.
+     */
+    private double ringMinDistanceKm(int centerRow, int centerColumn, int ring, double latitude, double longitude) {
+        if (ring == 0) {
+            return 0;
+        }
+        double minDistanceKm = Double.POSITIVE_INFINITY;
+        if (centerRow - ring >= 0) {
+            double southEdge = (centerRow - ring + 1) * cellSizeDegrees - 90;
+            minDistanceKm = Math.min(minDistanceKm, (latitude - southEdge) * KM_PER_DEGREE);
+        }
+        if (centerRow + ring < rows) {
+            double northEdge = (centerRow + ring) * cellSizeDegrees - 90;
+            minDistanceKm = Math.min(minDistanceKm, (northEdge - latitude) * KM_PER_DEGREE);
+        }
+        if (2 * ring - 1 < columns) {
+            double farthestLatitude = Math.min(90, Math.abs(latitude) + (ring + 1) * cellSizeDegrees);
+            double westEdge = (centerColumn - ring + 1) * cellSizeDegrees - 180;
+            double eastEdge = (centerColumn + ring) * cellSizeDegrees - 180;
+            double longitudeGap = Math.min(wrap(longitude) - westEdge, eastEdge - wrap(longitude));
+            minDistanceKm = Math.min(minDistanceKm, parallelDistanceKm(farthestLatitude, longitudeGap));
+        }
+        return Math.max(0, minDistanceKm);
+    }
+
+    /**
+     * Lower bound of the distance between a position and any point of a cell.
+     */
+    private double cellMinDistanceKm(int row, int column, double latitude, double longitude) {
+        double south = row * cellSizeDegrees - 90;
+        double north = south + cellSizeDegrees;
+        double latitudeGap = Math.max(0, Math.max(south - latitude, latitude - north));
+        double west = column * cellSizeDegrees - 180;
+        double offset = ((longitude - west) % 360 + 360) % 360;
+        double longitudeGap = offset <= cellSizeDegrees ? 0 : Math.min(offset - cellSizeDegrees, 360 - offset);
+        double farthestLatitude = Math.min(90, Math.max(Math.abs(latitude), Math.max(Math.abs(south), Math.abs(north))));
+        return Math.max(latitudeGap * KM_PER_DEGREE, parallelDistanceKm(farthestLatitude, longitudeGap));
+    }
+
+    /**
+     * Lower bound of the great-circle distance between two positions {@code longitudeGap} degrees apart, both closer
+     * to the equator than {@code farthestLatitude}.
+     */
+    private static double parallelDistanceKm(double farthestLatitude, double longitudeGap) {
+        if (longitudeGap <= 0 || longitudeGap >= 180) {
+            return 0;
+        }
+        double halfGap = Math.toRadians(longitudeGap) / 2;
+        return 2 * GeoUtils.EARTH_RADIUS_KM * Math.cos(Math.toRadians(farthestLatitude)) * Math.sin(halfGap);
+    }
+
+    /**
+     * Normalize a longitude into {@code [-180, 180[}.
+     */
+    private static double wrap(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+
+    private int row(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / cellSizeDegrees);
+        return Math.min(rows - 1, Math.max(0, row));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellSizeDegrees), columns);
+    }
+
+    private long cellKey(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    private Shard shard(long cellKey) {
+        long hash = cellKey * 0x9E3779B97F4A7C15L;
+        return shards[(int) (hash >>> 32) & shardMask];
+    }
+
+    /**
+     * Result of a nearest-neighbour query, as parallel primitive arrays sorted by distance.
+     */
+    public static final class Neighbours {
+
+        private final long[] userIds;
+
+        private final double[] distancesKm;
+
+        Neighbours(long[] userIds, double[] distancesKm) {
+            this.userIds = userIds;
+            this.distancesKm = distancesKm;
+        }
+
+        public int size() {
+            return userIds.length;
+        }
+
+        public long userId(int index) {
+            return userIds[index];
+        }
+
+        public double distanceKm(int index) {
+            return distancesKm[index];
+        }
+
+        public long[] userIds() {
+            return userIds.clone();
+        }
+    }
+
+    private static final class Cell {
+
+        private long[] userIds = new long[INITIAL_CELL_CAPACITY];
+
+        private double[] latitudes = new double[INITIAL_CELL_CAPACITY];
+
+        private double[] longitudes = new double[INITIAL_CELL_CAPACITY];
+
+        private int size;
+
+        void put(long userId, double latitude, double longitude) {
+            for (int i = 0; i < size; i++) {
+                if (userIds[i] == userId) {
+                    latitudes[i] = latitude;
+                    longitudes[i] = longitude;
+                    return;
+                }
+            }
+            if (size == userIds.length) {
+                int capacity = size * 2;
+                userIds = Arrays.copyOf(userIds, capacity);
+                latitudes = Arrays.copyOf(latitudes, capacity);
+                longitudes = Arrays.copyOf(longitudes, capacity);
+            }
+            userIds[size] = userId;
+            latitudes[size] = latitude;
+            longitudes[size] = longitude;
+            size++;
+        }
+
+        boolean remove(long userId) {
+            for (int i = 0; i < size; i++) {
+                if (userIds[i] == userId) {
+                    size--;
+                    userIds[i] = userIds[size];
+                    latitudes[i] = latitudes[size];
+                    longitudes[i] = longitudes[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Shard {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private final Map<Long, Cell> cells = new HashMap<>();
+
+        void put(long cellKey, long userId, double latitude, double longitude) {
+            lock.writeLock().lock();
+            try {
+                cells.computeIfAbsent(cellKey, key -> new Cell()).put(userId, latitude, longitude);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long cellKey, long userId) {
+            lock.writeLock().lock();
+            try {
+                Cell cell = cells.get(cellKey);
+                if (cell != null && cell.remove(userId) && cell.size == 0) {
+                    cells.remove(cellKey);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void clear() {
+            lock.writeLock().lock();
+            try {
+                cells.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void collect(long cellKey, double latitude, double longitude, double maxDistanceKm, LongPredicate filter, BoundedMaxHeap heap) {
+            lock.readLock().lock();
+            try {
+                Cell cell = cells.get(cellKey);
+                if (cell == null) {
+                    return;
+                }
+                for (int i = 0; i < cell.size; i++) {
+                    double distance = GeoUtils.haversineKm(latitude, longitude, cell.latitudes[i], cell.longitudes[i]);
+                    if (distance <= maxDistanceKm && filter.test(cell.userIds[i])) {
+                        heap.offer(cell.userIds[i], distance);
+                    }
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Max-heap on distance keeping the {@code capacity} nearest users seen so far.
+     */
+    private static final class BoundedMaxHeap {
+
+        private final long[] userIds;
+
+        private final double[] distances;
+
+        private int size;
+
+        BoundedMaxHeap(int capacity) {
+            this.userIds = new long[capacity];
+            this.distances = new double[capacity];
+        }
+
+        boolean isFull() {
+            return size == userIds.length;
+        }
+
+        double maxDistance() {
+            return distances[0];
+        }
+
+        void offer(long userId, double distance) {
+            if (!isFull()) {
+                userIds[size] = userId;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                userIds[0] = userId;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        Neighbours toNeighbours() {
+            long[] sortedIds = new long[size];
+            double[] sortedDistances = new double[size];
+            for (int i = size - 1; i >= 0; i--) {
+                sortedIds[i] = userIds[0];
+                sortedDistances[i] = distances[0];
+                size--;
+                swap(0, size);
+                siftDown(0);
+            }
+            return new Neighbours(sortedIds, sortedDistances);
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (distances[parent] >= distances[index]) {
+                    return;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int largest = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == index) {
+                    return;
+                }
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int i, int j) {
+            long userId = userIds[i];
+            userIds[i] = userIds[j];
+            userIds[j] = userId;
+            double distance = distances[i];
+            distances[i] = distances[j];
+            distances[j] = distance;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.tmrfcb.datingapp.service.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded buffer of the votes of users on other users, between two periodic flushes.
+ * <p>
+ * Votes are spread over lock-free queues by recording thread, so that concurrent swipes rarely contend on the same
+ * queue tail, and counted with a {@link LongAdder} for the same reason. The bound is approximate: concurrent records
+ * may overshoot it by the number of recording threads.
+ */
+public class StripedVoteBuffer {
+
+    private final List<ConcurrentLinkedQueue<Vote>> stripes;
+
+    private final LongAdder size = new LongAdder();
+
+    private final long capacity;
+
+    /**
+     * @param stripes the number of queues, rounded up to a power of two of at least {@code 2}.
+     * @param capacity the number of votes past which new votes are rejected.
+     */
+    public StripedVoteBuffer(int stripes, long capacity) {
+        if (stripes <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Stripes and capacity must be positive");
+        }
+        int length = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        List<ConcurrentLinkedQueue<Vote>> queues = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+        }
+        this.stripes = queues;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param vote the vote to buffer.
+     * @return {@code false} if the buffer is full, in which case the vote is dropped.
+     */
+    public boolean add(Vote vote) {
+        if (size.sum() >= capacity) {
+            return false;
+        }
+        long threadId = Thread.currentThread().getId();
+        stripes.get((int) ((threadId * 0x9E3779B97F4A7C15L) >>> 40) & (stripes.size() - 1)).offer(vote);
+        size.increment();
+        return true;
+    }
+
+    /**
+     * Take out the buffered votes. Votes added concurrently may be left for the next drain.
+     *
+     * @return the votes, in no particular order.
+     */
+    public List<Vote> drain() {
+        List<Vote> votes = new ArrayList<>();
+        for (ConcurrentLinkedQueue<Vote> stripe : stripes) {
+            Vote vote;
+            while ((vote = stripe.poll()) != null) {
+                votes.add(vote);
+                size.decrement();
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * @return the number of buffered votes.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    int stripeCount() {
+        return stripes.size();
+    }
+
+    /**
+     * A user voting for or against another user, with the weight of the vote.
+     */
+    public static final class Vote {
+
+        private final long voterId;
+
+        private final long targetId;
+
+        private final boolean positive;
+
+        private final float weight;
+
+        public Vote(long voterId, long targetId, boolean positive, float weight) {
+            this.voterId = voterId;
+            this.targetId = targetId;
+            this.positive = positive;
+            this.weight = weight;
+        }
+
+        public long getVoterId() {
+            return voterId;
+        }
+
+        public long getTargetId() {
+            return targetId;
+        }
+
+        public boolean isPositive() {
+            return positive;
+        }
+
+        public float getWeight() {
+            return weight;
+        }
+
+        // prettier-ignore
+        @Override
+        public String toString() {
+            return "Vote{" +
+                "voterId=" + voterId +
+                ", targetId=" + targetId +
+                ", positive=" + positive +
+                ", weight=" + weight +
+                "}";
+        }
+    }
+}
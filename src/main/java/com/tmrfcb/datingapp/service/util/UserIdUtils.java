@@ -0,0 +1,27 @@
+package com.tmrfcb.datingapp.service.util;
+
+/**
+ * Utility class for the user ids stored as text, like the ones of {@code Message} or {@code Relation}.
+ */
+public final class UserIdUtils {
+
+    private UserIdUtils() {}
+
+    /**
+     * Parse the id of a {@code UserApp}.
+     *
+     * @param userId the id as text.
+     * @return the id, or {@code null} if the text is not a valid id.
+     */
+    public static Long parseUserId(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        try {
+            long id = Long.parseLong(userId.trim());
+            return id >= 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.service.CandidateFeedService;
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.dto.CandidateFeedCriteria;
+import com.tmrfcb.datingapp.service.dto.ProfileCardDTO;
+import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for the discovery feed of users, see {@link CandidateFeedService}.
+ */
+@RestController
+@RequestMapping("/api")
+public class CandidateFeedResource {
+
+    private static final String ENTITY_NAME = "datingAppCandidateFeed";
+
+    private final Logger log = LoggerFactory.getLogger(CandidateFeedResource.class);
+
+    private final CandidateFeedService candidateFeedService;
+
+    private final ProfileCardService profileCardService;
+
+    private final ApplicationProperties.CandidateFeed properties;
+
+    private final double maxRadiusKm;
+
+    public CandidateFeedResource(
+        CandidateFeedService candidateFeedService,
+        ProfileCardService profileCardService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.candidateFeedService = candidateFeedService;
+        this.profileCardService = profileCardService;
+        this.properties = applicationProperties.getCandidateFeed();
+        this.maxRadiusKm = applicationProperties.getNearbyUsers().getMaxRadiusKm();
+    }
+
+    /**
+     * {@code GET  /user-apps/:id/feed} : take the next candidates of the "id" userApp off its feed.
+     * <p>
+     * Candidates are served once: the next request gets the following ones. Profiles already swiped are left out.
+     *
+     * @param id the id of the userApp.
+     * @param count the maximum number of candidates to return, at most {@code application.candidate-feed.max-page-size}.
+     * @param radiusKm the search radius around the userApp, in kilometers, {@code application.candidate-feed.default-radius-km} by default,
+     * at most {@code application.nearby-users.max-radius-km}.
+     * @param minAge the minimum age of the candidates, if any.
+     * @param maxAge the maximum age of the candidates, if any.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the cards of the candidates in body, best first,
+     * or with status {@code 400 (Bad Request)} if the criteria are invalid.
+     */
+    @GetMapping("/user-apps/{id}/feed")
+    public ResponseEntity<List<ProfileCardDTO>> getFeed(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "20") int count,
+        @RequestParam(required = false) Double radiusKm,
+        @RequestParam(required = false) Integer minAge,
+        @RequestParam(required = false) Integer maxAge
+    ) {
+        log.debug("REST request to get the next {} candidates of UserApp : {}", count, id);
+        if (count <= 0 || count > properties.getMaxPageSize()) {
+            throw new BadRequestAlertException("Invalid count", ENTITY_NAME, "invalidcount");
+        }
+        if (
+            (radiusKm != null && (radiusKm <= 0 || radiusKm > maxRadiusKm)) ||
+            (minAge != null && minAge < 0) ||
+            (maxAge != null && maxAge < 0)
+        ) {
+            throw new BadRequestAlertException("Invalid radius or age", ENTITY_NAME, "invalidcriteria");
+        }
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new BadRequestAlertException("Invalid age range", ENTITY_NAME, "invalidcriteria");
+        }
+        CandidateFeedCriteria criteria = new CandidateFeedCriteria(
+            radiusKm != null ? radiusKm : properties.getDefaultRadiusKm(),
+            minAge,
+            maxAge
+        );
+        long[] candidateIds = candidateFeedService.next(id, criteria, count);
+        return ResponseEntity.ok().body(profileCardService.findAll(Arrays.stream(candidateIds).boxed().collect(Collectors.toList())));
+    }
+}
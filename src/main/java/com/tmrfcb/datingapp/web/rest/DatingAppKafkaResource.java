@@ -1,16 +1,21 @@
 package com.tmrfcb.datingapp.web.rest;
 
 import com.tmrfcb.datingapp.config.KafkaProperties;
+import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
+import com.tmrfcb.datingapp.web.rest.vm.KafkaRecordVM;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
 import org.apache.kafka.clients.producer.KafkaProducer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
@@ -24,55 +29,106 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 public class DatingAppKafkaResource {
     private final Logger log = LoggerFactory.getLogger(DatingAppKafkaResource.class);
 
+    private static final String ENTITY_NAME = "datingAppKafka";
+
+    static final int MAX_BATCH_SIZE = 1000;
+
+    static final Set<String> CLIENT_CONSUMER_PARAMS = Collections.unmodifiableSet(
+        new TreeSet<>(Arrays.asList("group.id", "auto.offset.reset"))
+    );
+
     private final KafkaProperties kafkaProperties;
     private KafkaProducer<String, String> producer;
-    private ExecutorService sseExecutorService = Executors.newCachedThreadPool();
+    private final KafkaSseMultiplexer sseMultiplexer;
 
-    public DatingAppKafkaResource(KafkaProperties kafkaProperties) {
+    public DatingAppKafkaResource(KafkaProperties kafkaProperties, MeterRegistry meterRegistry) {
         this.kafkaProperties = kafkaProperties;
+        // Shared by all the requests, so that records sent concurrently end up in the same batches
         this.producer = new KafkaProducer<>(kafkaProperties.getProducerProps());
+        this.sseMultiplexer = new KafkaSseMultiplexer(kafkaProperties.getSse(), meterRegistry);
     }
 
+    @PreDestroy
+    public void close() {
+        sseMultiplexer.close();
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Publish a record. The request thread is released while the broker acknowledges the record, and only waits for the
+     * metadata of the topic or room in the buffer of the producer for up to {@code max.block.ms}.
+     */
     @PostMapping("/publish/{topic}")
-    public PublishResult publish(@PathVariable String topic, @RequestParam String message, @RequestParam(required = false) String key)
-        throws ExecutionException, InterruptedException {
+    public CompletableFuture<PublishResult> publish(
+        @PathVariable String topic,
+        @RequestParam String message,
+        @RequestParam(required = false) String key
+    ) {
         log.debug("REST request to send to Kafka topic {} with key {} the message : {}", topic, key, message);
-        RecordMetadata metadata = producer.send(new ProducerRecord<>(topic, key, message)).get();
-        return new PublishResult(metadata.topic(), metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()));
+        return send(new ProducerRecord<>(topic, key, message));
     }
 
+    /**
+     * Publish records in order, answering once all of them are acknowledged.
+     */
+    @PostMapping("/publish/{topic}/batch")
+    public CompletableFuture<List<PublishResult>> publishBatch(@PathVariable String topic, @RequestBody List<KafkaRecordVM> records) {
+        log.debug("REST request to send to Kafka topic {} a batch of {} records", topic, records.size());
+        if (records.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestAlertException("A batch cannot exceed " + MAX_BATCH_SIZE + " records", ENTITY_NAME, "batchtoolarge");
+        }
+        List<CompletableFuture<PublishResult>> results = new ArrayList<>(records.size());
+        for (KafkaRecordVM record : records) {
+            results.add(send(new ProducerRecord<>(topic, record.getKey(), record.getValue())));
+        }
+        return CompletableFuture
+            .allOf(results.toArray(new CompletableFuture<?>[0]))
+            .thenApply(ignored -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private CompletableFuture<PublishResult> send(ProducerRecord<String, String> record) {
+        CompletableFuture<PublishResult> result = new CompletableFuture<>();
+        try {
+            producer.send(
+                record,
+                (metadata, exception) -> {
+                    if (exception != null) {
+                        result.completeExceptionally(exception);
+                    } else {
+                        result.complete(PublishResult.of(metadata));
+                    }
+                }
+            );
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Stream the records of topics as Server-Sent Events. Clients with the same topics and consumer settings share a
+     * consumer, and only receive the records polled after they joined it. Clients can only choose the settings of
+     * {@link #CLIENT_CONSUMER_PARAMS}, so that they cannot open a consumer per request nor reach another cluster.
+     */
     @GetMapping("/consume")
     public SseEmitter consume(@RequestParam("topic") List<String> topics, @RequestParam Map<String, String> consumerParams) {
         log.debug("REST request to consume records from Kafka topics {}", topics);
         Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
-        consumerProps.putAll(consumerParams);
-        consumerProps.remove("topic");
-
-        SseEmitter emitter = new SseEmitter(0L);
-        sseExecutorService.execute(
-            () -> {
-                KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps);
-                emitter.onCompletion(consumer::close);
-                consumer.subscribe(topics);
-                boolean exitLoop = false;
-                while (!exitLoop) {
-                    try {
-                        ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(5));
-                        for (ConsumerRecord<String, String> record : records) {
-                            emitter.send(record.value());
-                        }
-                        emitter.send(SseEmitter.event().comment(""));
-                    } catch (Exception ex) {
-                        log.trace("Complete with error {}", ex.getMessage(), ex);
-                        emitter.completeWithError(ex);
-                        exitLoop = true;
-                    }
-                }
-                consumer.close();
-                emitter.complete();
+        for (Map.Entry<String, String> param : consumerParams.entrySet()) {
+            if ("topic".equals(param.getKey())) {
+                continue;
             }
-        );
-        return emitter;
+            if (!CLIENT_CONSUMER_PARAMS.contains(param.getKey())) {
+                throw new BadRequestAlertException(
+                    "Unsupported consumer setting " + param.getKey() + ", only " + CLIENT_CONSUMER_PARAMS + " can be set",
+                    ENTITY_NAME,
+                    "unsupportedconsumersetting"
+                );
+            }
+            consumerProps.put(param.getKey(), param.getValue());
+        }
+
+        return sseMultiplexer.subscribe(topics, consumerProps);
     }
 
     private static class PublishResult {
@@ -87,5 +143,9 @@ public class DatingAppKafkaResource {
             this.offset = offset;
             this.timestamp = timestamp;
         }
+
+        private static PublishResult of(RecordMetadata metadata) {
+            return new PublishResult(metadata.topic(), metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()));
+        }
     }
 }
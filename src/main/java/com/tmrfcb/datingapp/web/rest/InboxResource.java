@@ -0,0 +1,81 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import com.tmrfcb.datingapp.domain.InboxEntry;
+import com.tmrfcb.datingapp.service.InboxService;
+import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+
+/**
+ * REST controller for the inbox of each user, see {@link com.tmrfcb.datingapp.domain.InboxEntry}.
+ */
+@RestController
+@RequestMapping("/api")
+public class InboxResource {
+
+    private final Logger log = LoggerFactory.getLogger(InboxResource.class);
+
+    private static final String ENTITY_NAME = "inboxEntry";
+
+    /**
+     * The only order of the inbox, served by its index.
+     */
+    private static final List<Sort.Order> INBOX_ORDER = Sort.by(Sort.Order.desc("lastActivityDate"), Sort.Order.desc("id")).toList();
+
+    private final InboxService inboxService;
+
+    public InboxResource(InboxService inboxService) {
+        this.inboxService = inboxService;
+    }
+
+    /**
+     * {@code GET  /user-apps/:id/inbox} : get the conversations of the "id" userApp, most recent first.
+     *
+     * @param id the id of the userApp.
+     * @param pageable the pagination information, sorted by {@code lastActivityDate,desc} and then {@code id,desc} if at all.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of inbox entries in body, or with status
+     * {@code 400 (Bad Request)} if another sort is asked for.
+     */
+    @GetMapping("/user-apps/{id}/inbox")
+    public ResponseEntity<List<InboxEntry>> getInbox(@PathVariable Long id, Pageable pageable) {
+        log.debug("REST request to get the inbox of UserApp : {}", id);
+        List<Sort.Order> orders = pageable.getSort().toList();
+        if (orders.size() > INBOX_ORDER.size() || !INBOX_ORDER.subList(0, orders.size()).equals(orders)) {
+            throw new BadRequestAlertException(
+                "The inbox can only be sorted by lastActivityDate,desc then id,desc",
+                ENTITY_NAME,
+                "unsupportedsort"
+            );
+        }
+        Page<InboxEntry> page = inboxService.findInbox(id, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code PUT  /user-apps/:id/inbox/:matchRelationId/read} : mark the conversation of the "matchRelationId"
+     * matchRelation as read by the "id" userApp.
+     *
+     * @param id the id of the userApp.
+     * @param matchRelationId the id of the matchRelation.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)}, or with status {@code 404 (Not Found)}
+     * if the userApp has no such conversation.
+     */
+    @PutMapping("/user-apps/{id}/inbox/{matchRelationId}/read")
+    public ResponseEntity<Void> markRead(@PathVariable Long id, @PathVariable Long matchRelationId) {
+        log.debug("REST request to mark as read by UserApp {} the MatchRelation : {}", id, matchRelationId);
+        if (!inboxService.markRead(id, matchRelationId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
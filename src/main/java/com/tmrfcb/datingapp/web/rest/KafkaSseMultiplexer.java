@@ -0,0 +1,398 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import com.tmrfcb.datingapp.config.KafkaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Serves the Server-Sent Events streams of Kafka records.
+ * <p>
+ * Clients asking for the same topics with the same consumer settings share one consumer, and at most
+ * {@code max-streams} consumers are open at a time. The consumers are spread over a fixed pool of poll threads, each
+ * polling its consumers in turns without blocking and only pausing briefly when none of them returned records, so that
+ * records are forwarded as soon as they arrive without a thread per consumer. Records reach every client through a
+ * bounded buffer drained by another small pool, so that a slow client cannot hold the others back nor delay the next
+ * poll. A client whose buffer is full is disconnected, and the records it missed are not replayed: like any client
+ * joining a running stream, it only receives the records polled after it reconnected.
+ */
+public class KafkaSseMultiplexer {
+    private static final long IDLE_WAIT_MS = 10;
+
+    private static final Object HEARTBEAT = new Object();
+
+    private final Logger log = LoggerFactory.getLogger(KafkaSseMultiplexer.class);
+
+    private final KafkaProperties.Sse properties;
+
+    private final ExecutorService pollExecutor;
+
+    private final List<PollWorker> pollWorkers = new ArrayList<>();
+
+    private final ExecutorService sendExecutor;
+
+    private final ConcurrentMap<StreamKey, Stream> streams = new ConcurrentHashMap<>();
+
+    private final AtomicInteger clientCount = new AtomicInteger();
+
+    private final Counter droppedClients;
+
+    private volatile boolean closed;
+
+    public KafkaSseMultiplexer(KafkaProperties.Sse properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.pollExecutor = Executors.newFixedThreadPool(properties.getPollThreads(), threadFactory("kafka-sse-poll-"));
+        this.sendExecutor = Executors.newFixedThreadPool(properties.getSendThreads(), threadFactory("kafka-sse-send-"));
+        Gauge.builder("kafka.sse.consumers", streams, Map::size).description("Kafka consumers shared by SSE clients").register(meterRegistry);
+        Gauge.builder("kafka.sse.clients", clientCount, AtomicInteger::get).description("Connected SSE clients").register(meterRegistry);
+        Gauge
+            .builder("kafka.sse.lag", this, KafkaSseMultiplexer::maxLag)
+            .description("Highest lag in records of the shared consumers")
+            .register(meterRegistry);
+        this.droppedClients =
+            Counter.builder("kafka.sse.dropped").description("SSE clients disconnected for being too slow").register(meterRegistry);
+        for (int i = 0; i < properties.getPollThreads(); i++) {
+            PollWorker worker = new PollWorker();
+            pollWorkers.add(worker);
+            pollExecutor.execute(worker::run);
+        }
+    }
+
+    /**
+     * Stream the records of topics to a new client.
+     *
+     * @param topics the topics.
+     * @param consumerProps the settings of the consumer.
+     * @return the emitter of the client.
+     * @throws ResponseStatusException {@code 503 (Service Unavailable)} if the topics and settings need a new consumer
+     * while {@code max-streams} consumers are already open.
+     */
+    public SseEmitter subscribe(List<String> topics, Map<String, Object> consumerProps) {
+        if (closed) {
+            throw new IllegalStateException("The Kafka SSE streams are closed");
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        Client client = new Client(emitter);
+        StreamKey key = new StreamKey(topics, consumerProps);
+        Stream stream = streams.compute(
+            key,
+            (k, current) -> {
+                if (current == null && streams.size() >= properties.getMaxStreams()) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many Kafka streams are open");
+                }
+                Stream joined = current != null ? current : new Stream(k);
+                joined.clients.add(client);
+                return joined;
+            }
+        );
+        clientCount.incrementAndGet();
+        client.stream = stream;
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError(error -> client.close());
+        if (stream.started.compareAndSet(false, true)) {
+            leastBusyWorker().assigned.add(stream);
+        }
+        return emitter;
+    }
+
+    public void close() {
+        closed = true;
+        for (Stream stream : streams.values()) {
+            stream.clients.forEach(client -> client.emitter.complete());
+        }
+        pollExecutor.shutdown();
+        sendExecutor.shutdown();
+        try {
+            pollExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private PollWorker leastBusyWorker() {
+        PollWorker leastBusy = pollWorkers.get(0);
+        for (PollWorker worker : pollWorkers) {
+            if (worker.assigned.size() < leastBusy.assigned.size()) {
+                leastBusy = worker;
+            }
+        }
+        return leastBusy;
+    }
+
+    /**
+     * Poll the consumer of a stream once, without waiting for records. The consumer is created on the first poll, by
+     * the thread which polls it from then on.
+     *
+     * @return whether the consumer returned records.
+     */
+    private boolean poll(Stream stream) {
+        if (stream.consumer == null) {
+            stream.consumer = new KafkaConsumer<>(stream.key.consumerProps);
+            stream.consumer.subscribe(stream.key.topics);
+        }
+        ConsumerRecords<String, String> records = stream.consumer.poll(Duration.ZERO);
+        for (ConsumerRecord<String, String> record : records) {
+            for (Client client : stream.clients) {
+                client.offer(record.value());
+            }
+        }
+        long now = System.nanoTime();
+        if (now - stream.lastHeartbeat >= TimeUnit.SECONDS.toNanos(properties.getHeartbeatSeconds())) {
+            // Also detects the clients which went away
+            stream.lastHeartbeat = now;
+            stream.clients.forEach(client -> client.offer(HEARTBEAT));
+        }
+        stream.lag = recordsLag(stream.consumer);
+        stream.clients.forEach(Client::scheduleSend);
+        return !records.isEmpty();
+    }
+
+    /**
+     * Remove a stream without clients, atomically with the clients joining it.
+     */
+    private boolean retireIfUnused(Stream stream) {
+        AtomicBoolean retired = new AtomicBoolean();
+        streams.computeIfPresent(
+            stream.key,
+            (key, current) -> {
+                if (current == stream && current.clients.isEmpty()) {
+                    retired.set(true);
+                    return null;
+                }
+                return current;
+            }
+        );
+        return retired.get();
+    }
+
+    private void retire(Stream stream) {
+        streams.remove(stream.key, stream);
+        if (stream.consumer != null) {
+            stream.consumer.close();
+            stream.consumer = null;
+        }
+    }
+
+    private double maxLag() {
+        double max = 0;
+        for (Stream stream : streams.values()) {
+            max = Math.max(max, stream.lag);
+        }
+        return max;
+    }
+
+    private static double recordsLag(KafkaConsumer<String, String> consumer) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : consumer.metrics().entrySet()) {
+            MetricName name = entry.getKey();
+            if ("records-lag-max".equals(name.name()) && !name.tags().containsKey("topic")) {
+                Object value = entry.getValue().metricValue();
+                if (value instanceof Double && !((Double) value).isNaN()) {
+                    return (Double) value;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Topics and consumer settings: clients asking for the same ones can share a consumer.
+     */
+    private static final class StreamKey {
+        private final List<String> topics;
+
+        private final Map<String, Object> consumerProps;
+
+        private StreamKey(List<String> topics, Map<String, Object> consumerProps) {
+            this.topics = new ArrayList<>(new TreeSet<>(topics));
+            this.consumerProps = new TreeMap<>(consumerProps);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StreamKey)) {
+                return false;
+            }
+            StreamKey other = (StreamKey) o;
+            return topics.equals(other.topics) && consumerProps.equals(other.consumerProps);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topics, consumerProps);
+        }
+    }
+
+    /**
+     * A consumer and its clients. The consumer is only used by the poll worker of the stream.
+     */
+    private static final class Stream {
+        private final StreamKey key;
+
+        private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private KafkaConsumer<String, String> consumer;
+
+        private long lastHeartbeat = System.nanoTime();
+
+        private volatile double lag;
+
+        private Stream(StreamKey key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * A poll thread and the streams it polls in turns. Offering records to the clients never blocks, so every consumer
+     * is polled again within one round and never exceeds {@code max.poll.interval.ms}.
+     */
+    private final class PollWorker {
+        private final List<Stream> assigned = new CopyOnWriteArrayList<>();
+
+        private void run() {
+            while (!closed) {
+                boolean received = false;
+                for (Stream stream : assigned) {
+                    received |= pollOrRetire(stream);
+                }
+                if (!received) {
+                    try {
+                        Thread.sleep(IDLE_WAIT_MS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+            }
+            assigned.forEach(KafkaSseMultiplexer.this::retire);
+            assigned.clear();
+        }
+
+        private boolean pollOrRetire(Stream stream) {
+            if (stream.clients.isEmpty() && retireIfUnused(stream)) {
+                assigned.remove(stream);
+                retire(stream);
+                return false;
+            }
+            try {
+                return poll(stream);
+            } catch (Exception e) {
+                log.trace("Complete with error {}", e.getMessage(), e);
+                assigned.remove(stream);
+                retire(stream);
+                stream.clients.forEach(client -> client.emitter.completeWithError(e));
+                return false;
+            }
+        }
+    }
+
+    private final class Client {
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<Object> buffer;
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private volatile Stream stream;
+
+        private Client(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(properties.getBufferSize());
+        }
+
+        private void offer(Object item) {
+            if (!buffer.offer(item) && !closed.get()) {
+                log.debug("Disconnecting a SSE client of Kafka topics {}: {} records behind", stream.key.topics, buffer.size());
+                droppedClients.increment();
+                emitter.complete();
+                close();
+            }
+        }
+
+        private void scheduleSend() {
+            if (!buffer.isEmpty() && sending.compareAndSet(false, true)) {
+                try {
+                    sendExecutor.execute(this::send);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                }
+            }
+        }
+
+        private void send() {
+            try {
+                Object item;
+                while (!closed.get() && (item = buffer.poll()) != null) {
+                    if (item == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment(""));
+                    } else {
+                        emitter.send(item);
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.trace("SSE client went away: {}", e.getMessage());
+                close();
+            } finally {
+                sending.set(false);
+            }
+            // Records offered while the flag was still set
+            scheduleSend();
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                buffer.clear();
+                if (stream != null) {
+                    stream.clients.remove(this);
+                }
+                clientCount.decrementAndGet();
+            }
+        }
+    }
+}
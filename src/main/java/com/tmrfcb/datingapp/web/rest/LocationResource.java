@@ -158,6 +158,31 @@ public class LocationResource {
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /locations/nearby} : get the locations within a radius of a position, nearest first.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param radiusKm the search radius, in kilometers.
+     * @param pageable the pagination information.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of locations in body.
+     */
+    @GetMapping("/locations/nearby")
+    public ResponseEntity<List<Location>> getNearbyLocations(
+        @RequestParam double latitude,
+        @RequestParam double longitude,
+        @RequestParam(defaultValue = "25") double radiusKm,
+        Pageable pageable
+    ) {
+        log.debug("REST request to get a page of Locations within {} km of ({}, {})", radiusKm, latitude, longitude);
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180 || radiusKm <= 0) {
+            throw new BadRequestAlertException("Invalid position or radius", ENTITY_NAME, "invalidposition");
+        }
+        Page<Location> page = locationService.findNearby(latitude, longitude, radiusKm, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
     /**
      * {@code GET  /locations/:id} : get the "id" location.
      *
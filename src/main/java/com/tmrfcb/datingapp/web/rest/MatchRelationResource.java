@@ -5,6 +5,9 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 import com.tmrfcb.datingapp.domain.MatchRelation;
 import com.tmrfcb.datingapp.repository.MatchRelationRepository;
 import com.tmrfcb.datingapp.service.MatchRelationService;
+import com.tmrfcb.datingapp.service.MessageService;
+import com.tmrfcb.datingapp.service.dto.MessageHistoryDTO;
+import com.tmrfcb.datingapp.service.util.MessageCursor;
 import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -12,6 +15,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,6 +41,8 @@ public class MatchRelationResource {
 
     private static final String ENTITY_NAME = "datingAppMatchRelation";
 
+    static final int MAX_MESSAGES_PER_PAGE = 200;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -44,9 +50,16 @@ public class MatchRelationResource {
 
     private final MatchRelationRepository matchRelationRepository;
 
-    public MatchRelationResource(MatchRelationService matchRelationService, MatchRelationRepository matchRelationRepository) {
+    private final MessageService messageService;
+
+    public MatchRelationResource(
+        MatchRelationService matchRelationService,
+        MatchRelationRepository matchRelationRepository,
+        MessageService messageService
+    ) {
         this.matchRelationService = matchRelationService;
         this.matchRelationRepository = matchRelationRepository;
+        this.messageService = messageService;
     }
 
     /**
@@ -57,7 +70,7 @@ public class MatchRelationResource {
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PostMapping("/match-relations")
-    public ResponseEntity<MatchRelation> createMatchRelation(@RequestBody MatchRelation matchRelation) throws URISyntaxException {
+    public ResponseEntity<MatchRelation> createMatchRelation(@Valid @RequestBody MatchRelation matchRelation) throws URISyntaxException {
         log.debug("REST request to save MatchRelation : {}", matchRelation);
         if (matchRelation.getId() != null) {
             throw new BadRequestAlertException("A new matchRelation cannot already have an ID", ENTITY_NAME, "idexists");
@@ -82,7 +95,7 @@ public class MatchRelationResource {
     @PutMapping("/match-relations/{id}")
     public ResponseEntity<MatchRelation> updateMatchRelation(
         @PathVariable(value = "id", required = false) final Long id,
-        @RequestBody MatchRelation matchRelation
+        @Valid @RequestBody MatchRelation matchRelation
     ) throws URISyntaxException {
         log.debug("REST request to update MatchRelation : {}, {}", id, matchRelation);
         if (matchRelation.getId() == null) {
@@ -171,6 +184,44 @@ public class MatchRelationResource {
         return ResponseUtil.wrapOrNotFound(matchRelation);
     }
 
+    /**
+     * {@code GET  /match-relations/:id/messages?before=:cursor&limit=:limit} : get a page of the messages of the "id"
+     * matchRelation, newest first.
+     * <p>
+     * Pages are read by seeking from the last message of the previous page rather than with an offset, so that every
+     * page costs the same and messages received meanwhile do not shift the next pages.
+     *
+     * @param id the id of the matchRelation.
+     * @param before the {@code nextCursor} of the previous page, or nothing for the newest messages.
+     * @param limit the maximum number of messages, at most {@value #MAX_MESSAGES_PER_PAGE}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the messages and the cursor of the next page,
+     * or with status {@code 400 (Bad Request)} if the cursor is not valid,
+     * or with status {@code 404 (Not Found)} if the matchRelation is not found.
+     */
+    @GetMapping("/match-relations/{id}/messages")
+    public ResponseEntity<MessageHistoryDTO> getMatchRelationMessages(
+        @PathVariable Long id,
+        @RequestParam(required = false) String before,
+        @RequestParam(defaultValue = "50") int limit
+    ) {
+        log.debug("REST request to get Messages of MatchRelation : {} before {}", id, before);
+        if (limit < 1 || limit > MAX_MESSAGES_PER_PAGE) {
+            throw new BadRequestAlertException("Invalid limit", ENTITY_NAME, "invalidlimit");
+        }
+        MessageCursor cursor = null;
+        if (before != null) {
+            try {
+                cursor = MessageCursor.decode(before);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "invalidcursor");
+            }
+        }
+        if (!matchRelationRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(messageService.findHistory(id, cursor, limit));
+    }
+
     /**
      * {@code DELETE  /match-relations/:id} : delete the "id" matchRelation.
      *
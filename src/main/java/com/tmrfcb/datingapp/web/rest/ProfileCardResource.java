@@ -0,0 +1,62 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import com.tmrfcb.datingapp.service.ProfileCardService;
+import com.tmrfcb.datingapp.service.dto.ProfileCardDTO;
+import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import tech.jhipster.web.util.ResponseUtil;
+
+/**
+ * REST controller for the profile cards of users, see {@link ProfileCardDTO}.
+ */
+@RestController
+@RequestMapping("/api")
+public class ProfileCardResource {
+
+    /**
+     * Maximum number of cards read by one request.
+     */
+    public static final int MAX_CARDS_PER_REQUEST = 200;
+
+    private static final String ENTITY_NAME = "datingAppProfileCard";
+
+    private final Logger log = LoggerFactory.getLogger(ProfileCardResource.class);
+
+    private final ProfileCardService profileCardService;
+
+    public ProfileCardResource(ProfileCardService profileCardService) {
+        this.profileCardService = profileCardService;
+    }
+
+    /**
+     * {@code GET  /profile-cards?ids=:ids} : get the profile cards of several userApps.
+     *
+     * @param ids the ids of the userApps, at most {@value #MAX_CARDS_PER_REQUEST}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the cards of the userApps which exist in body,
+     * in the order of their ids, or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @GetMapping("/profile-cards")
+    public ResponseEntity<List<ProfileCardDTO>> getProfileCards(@RequestParam List<Long> ids) {
+        log.debug("REST request to get the ProfileCards of UserApps : {}", ids);
+        if (ids.size() > MAX_CARDS_PER_REQUEST) {
+            throw new BadRequestAlertException("Too many profile cards requested", ENTITY_NAME, "toomanyids");
+        }
+        return ResponseEntity.ok().body(profileCardService.findAll(ids));
+    }
+
+    /**
+     * {@code GET  /profile-cards/:id} : get the profile card of the "id" userApp.
+     *
+     * @param id the id of the userApp.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the card, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/profile-cards/{id}")
+    public ResponseEntity<ProfileCardDTO> getProfileCard(@PathVariable Long id) {
+        log.debug("REST request to get the ProfileCard of UserApp : {}", id);
+        return ResponseUtil.wrapOrNotFound(profileCardService.findOne(id));
+    }
+}
@@ -4,7 +4,11 @@ import static org.elasticsearch.index.query.QueryBuilders.*;
 
 import com.tmrfcb.datingapp.domain.Relation;
 import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
 import com.tmrfcb.datingapp.service.RelationService;
+import com.tmrfcb.datingapp.service.SwipeService;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import com.tmrfcb.datingapp.service.dto.SwipeResultDTO;
 import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -12,6 +16,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.StreamSupport;
+import javax.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -37,6 +42,8 @@ public class RelationResource {
 
     private static final String ENTITY_NAME = "datingAppRelation";
 
+    private static final int MAX_SWIPE_BATCH_SIZE = 500;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -44,9 +51,20 @@ public class RelationResource {
 
     private final RelationRepository relationRepository;
 
-    public RelationResource(RelationService relationService, RelationRepository relationRepository) {
+    private final SwipeService swipeService;
+
+    private final UserAppRepository userAppRepository;
+
+    public RelationResource(
+        RelationService relationService,
+        RelationRepository relationRepository,
+        SwipeService swipeService,
+        UserAppRepository userAppRepository
+    ) {
         this.relationService = relationService;
         this.relationRepository = relationRepository;
+        this.swipeService = swipeService;
+        this.userAppRepository = userAppRepository;
     }
 
     /**
@@ -69,6 +87,29 @@ public class RelationResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /relations/swipe} : Record a swipe, and create the match if it answers a like of the other user.
+     *
+     * @param swipe the swipe to record.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the relation and the match if any,
+     * or with status {@code 400 (Bad Request)} if the swipe is not valid.
+     */
+    @PostMapping("/relations/swipe")
+    public ResponseEntity<SwipeResultDTO> swipe(@Valid @RequestBody SwipeDTO swipe) {
+        log.debug("REST request to swipe : {}", swipe);
+        if (Objects.equals(swipe.getUserId(), swipe.getOtherUserId())) {
+            throw new BadRequestAlertException("A user cannot swipe on itself", ENTITY_NAME, "selfswipe");
+        }
+        if (!userAppRepository.existsById(swipe.getUserId()) || !userAppRepository.existsById(swipe.getOtherUserId())) {
+            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
+        }
+        SwipeResultDTO result = swipeService.swipe(swipe.getUserId(), swipe.getOtherUserId(), swipe.getRelationType());
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getRelation().getId().toString()))
+            .body(result);
+    }
+
     /**
      * {@code PUT  /relations/:id} : Updates an existing relation.
      *
@@ -139,6 +180,22 @@ public class RelationResource {
         );
     }
 
+    /**
+     * {@code POST  /relations/batch} : Record a batch of swipes, typically queued by a client while offline.
+     *
+     * @param swipes the swipes to record, in the order they were made.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the result of each swipe, in the same order,
+     * or with status {@code 400 (Bad Request)} if the batch is too large.
+     */
+    @PostMapping("/relations/batch")
+    public ResponseEntity<List<SwipeResultDTO>> swipeAll(@RequestBody List<SwipeDTO> swipes) {
+        log.debug("REST request to swipe a batch of {} swipes", swipes.size());
+        if (swipes.size() > MAX_SWIPE_BATCH_SIZE) {
+            throw new BadRequestAlertException("Too many swipes in a batch", ENTITY_NAME, "batchtoolarge");
+        }
+        return ResponseEntity.ok(swipeService.swipeAll(swipes));
+    }
+
     /**
      * {@code GET  /relations} : get all the relations.
      *
@@ -1,13 +1,16 @@
 package com.tmrfcb.datingapp.web.rest;
 
-import static org.elasticsearch.index.query.QueryBuilders.*;
-
+import com.tmrfcb.datingapp.config.ApplicationProperties;
 import com.tmrfcb.datingapp.domain.UserApp;
 import com.tmrfcb.datingapp.repository.UserAppRepository;
-import com.tmrfcb.datingapp.repository.search.UserAppSearchRepository;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import com.tmrfcb.datingapp.service.UserAppService;
+import com.tmrfcb.datingapp.service.util.SpatialGrid;
 import com.tmrfcb.datingapp.web.rest.errors.BadRequestAlertException;
+import com.tmrfcb.datingapp.web.rest.vm.NearbyUserVM;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -21,7 +24,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
@@ -33,7 +35,6 @@ import tech.jhipster.web.util.ResponseUtil;
  */
 @RestController
 @RequestMapping("/api")
-@Transactional
 public class UserAppResource {
 
     private final Logger log = LoggerFactory.getLogger(UserAppResource.class);
@@ -43,13 +44,24 @@ public class UserAppResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    private final UserAppService userAppService;
+
     private final UserAppRepository userAppRepository;
 
-    private final UserAppSearchRepository userAppSearchRepository;
+    private final NearbyUserService nearbyUserService;
+
+    private final ApplicationProperties.NearbyUsers nearbyUsersProperties;
 
-    public UserAppResource(UserAppRepository userAppRepository, UserAppSearchRepository userAppSearchRepository) {
+    public UserAppResource(
+        UserAppService userAppService,
+        UserAppRepository userAppRepository,
+        NearbyUserService nearbyUserService,
+        ApplicationProperties applicationProperties
+    ) {
+        this.userAppService = userAppService;
         this.userAppRepository = userAppRepository;
-        this.userAppSearchRepository = userAppSearchRepository;
+        this.nearbyUserService = nearbyUserService;
+        this.nearbyUsersProperties = applicationProperties.getNearbyUsers();
     }
 
     /**
@@ -65,8 +77,7 @@ public class UserAppResource {
         if (userApp.getId() != null) {
             throw new BadRequestAlertException("A new userApp cannot already have an ID", ENTITY_NAME, "idexists");
         }
-        UserApp result = userAppRepository.save(userApp);
-        userAppSearchRepository.save(result);
+        UserApp result = userAppService.save(userApp);
         return ResponseEntity
             .created(new URI("/api/user-apps/" + result.getId()))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
@@ -98,8 +109,7 @@ public class UserAppResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        UserApp result = userAppRepository.save(userApp);
-        userAppSearchRepository.save(result);
+        UserApp result = userAppService.save(userApp);
         return ResponseEntity
             .ok()
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, userApp.getId().toString()))
@@ -134,37 +144,7 @@ public class UserAppResource {
             throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
         }
 
-        Optional<UserApp> result = userAppRepository
-            .findById(userApp.getId())
-            .map(
-                existingUserApp -> {
-                    if (userApp.getFirstName() != null) {
-                        existingUserApp.setFirstName(userApp.getFirstName());
-                    }
-                    if (userApp.getLastName() != null) {
-                        existingUserApp.setLastName(userApp.getLastName());
-                    }
-                    if (userApp.getEmail() != null) {
-                        existingUserApp.setEmail(userApp.getEmail());
-                    }
-                    if (userApp.getPhoneNumber() != null) {
-                        existingUserApp.setPhoneNumber(userApp.getPhoneNumber());
-                    }
-                    if (userApp.getBirthDate() != null) {
-                        existingUserApp.setBirthDate(userApp.getBirthDate());
-                    }
-
-                    return existingUserApp;
-                }
-            )
-            .map(userAppRepository::save)
-            .map(
-                savedUserApp -> {
-                    userAppSearchRepository.save(savedUserApp);
-
-                    return savedUserApp;
-                }
-            );
+        Optional<UserApp> result = userAppService.partialUpdate(userApp);
 
         return ResponseUtil.wrapOrNotFound(
             result,
@@ -181,11 +161,53 @@ public class UserAppResource {
     @GetMapping("/user-apps")
     public ResponseEntity<List<UserApp>> getAllUserApps(Pageable pageable) {
         log.debug("REST request to get a page of UserApps");
-        Page<UserApp> page = userAppRepository.findAll(pageable);
+        Page<UserApp> page = userAppService.findAll(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /user-apps/nearby} : get the users nearest to a position, nearest first.
+     * <p>
+     * Answered from the in-memory index of user positions, without querying the database.
+     *
+     * @param latitude the latitude of the position, in degrees.
+     * @param longitude the longitude of the position, in degrees.
+     * @param k the maximum number of users to return.
+     * @param radiusKm the search radius, in kilometers, at most {@code application.nearby-users.max-radius-km}.
+     * @param userId the id of the user looking for candidates, to leave out along with the profiles it already swiped.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of nearby users in body.
+     */
+    @GetMapping("/user-apps/nearby")
+    public ResponseEntity<List<NearbyUserVM>> getNearbyUserApps(
+        @RequestParam double latitude,
+        @RequestParam double longitude,
+        @RequestParam(defaultValue = "20") int k,
+        @RequestParam(defaultValue = "25") double radiusKm,
+        @RequestParam(required = false) Long userId
+    ) {
+        log.debug("REST request to get the {} UserApps nearest to ({}, {}) within {} km", k, latitude, longitude, radiusKm);
+        if (
+            latitude < -90 ||
+            latitude > 90 ||
+            longitude < -180 ||
+            longitude > 180 ||
+            radiusKm <= 0 ||
+            radiusKm > nearbyUsersProperties.getMaxRadiusKm() ||
+            k <= 0
+        ) {
+            throw new BadRequestAlertException("Invalid position, radius or count", ENTITY_NAME, "invalidposition");
+        }
+        SpatialGrid.Neighbours neighbours = userId != null
+            ? nearbyUserService.findNearestCandidates(latitude, longitude, k, radiusKm, userId)
+            : nearbyUserService.findNearest(latitude, longitude, k, radiusKm);
+        List<NearbyUserVM> nearbyUsers = new ArrayList<>(neighbours.size());
+        for (int i = 0; i < neighbours.size(); i++) {
+            nearbyUsers.add(new NearbyUserVM(neighbours.userId(i), neighbours.distanceKm(i)));
+        }
+        return ResponseEntity.ok().body(nearbyUsers);
+    }
+
     /**
      * {@code GET  /user-apps/:id} : get the "id" userApp.
      *
@@ -195,7 +217,7 @@ public class UserAppResource {
     @GetMapping("/user-apps/{id}")
     public ResponseEntity<UserApp> getUserApp(@PathVariable Long id) {
         log.debug("REST request to get UserApp : {}", id);
-        Optional<UserApp> userApp = userAppRepository.findById(id);
+        Optional<UserApp> userApp = userAppService.findOne(id);
         return ResponseUtil.wrapOrNotFound(userApp);
     }
 
@@ -208,8 +230,7 @@ public class UserAppResource {
     @DeleteMapping("/user-apps/{id}")
     public ResponseEntity<Void> deleteUserApp(@PathVariable Long id) {
         log.debug("REST request to delete UserApp : {}", id);
-        userAppRepository.deleteById(id);
-        userAppSearchRepository.deleteById(id);
+        userAppService.delete(id);
         return ResponseEntity
             .noContent()
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
@@ -227,7 +248,7 @@ public class UserAppResource {
     @GetMapping("/_search/user-apps")
     public ResponseEntity<List<UserApp>> searchUserApps(@RequestParam String query, Pageable pageable) {
         log.debug("REST request to search for a page of UserApps for query {}", query);
-        Page<UserApp> page = userAppSearchRepository.search(queryStringQuery(query), pageable);
+        Page<UserApp> page = userAppService.search(query, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
@@ -0,0 +1,45 @@
+package com.tmrfcb.datingapp.web.rest.vm;
+
+/**
+ * View Model of a record to publish to a Kafka topic. A {@code null} value publishes a tombstone for the key.
+ */
+public class KafkaRecordVM {
+
+    private String key;
+
+    private String value;
+
+    public KafkaRecordVM() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public KafkaRecordVM(String key, String value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KafkaRecordVM{" +
+            "key='" + key + "'" +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,45 @@
+package com.tmrfcb.datingapp.web.rest.vm;
+
+/**
+ * View Model of a user found near a position.
+ */
+public class NearbyUserVM {
+
+    private Long userId;
+
+    private Double distanceKm;
+
+    public NearbyUserVM() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public NearbyUserVM(Long userId, Double distanceKm) {
+        this.userId = userId;
+        this.distanceKm = distanceKm;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Double getDistanceKm() {
+        return distanceKm;
+    }
+
+    public void setDistanceKm(Double distanceKm) {
+        this.distanceKm = distanceKm;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "NearbyUserVM{" +
+            "userId=" + userId +
+            ", distanceKm=" + distanceKm +
+            "}";
+    }
+}
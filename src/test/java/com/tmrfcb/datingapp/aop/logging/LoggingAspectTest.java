@@ -0,0 +1,118 @@
+package com.tmrfcb.datingapp.aop.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+/**
+ * Unit tests for the {@link LoggingAspect}.
+ */
+class LoggingAspectTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private LoggingAspect loggingAspect;
+
+    private ProceedingJoinPoint joinPoint;
+
+    @BeforeEach
+    void setup() throws Throwable {
+        meterRegistry = new SimpleMeterRegistry();
+        ApplicationProperties.MethodProfiling properties = new ApplicationProperties.MethodProfiling();
+        properties.setEnabled(true);
+        loggingAspect = new LoggingAspect(new MockEnvironment(), meterRegistry, properties);
+
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(Sample.class.getDeclaredMethod("greet"));
+        when(signature.getDeclaringType()).thenReturn(Sample.class);
+        when(signature.getDeclaringTypeName()).thenReturn(Sample.class.getName());
+        when(signature.getName()).thenReturn("greet");
+        joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        when(joinPoint.proceed()).thenReturn("hello");
+    }
+
+    @Test
+    void doesNotTimeByDefault() throws Throwable {
+        for (int i = 0; i < 1000; i++) {
+            assertThat(loggingAspect.logAround(joinPoint)).isEqualTo("hello");
+        }
+
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_TIMER).timer()).isNull();
+        verify(joinPoint, never()).getArgs();
+    }
+
+    @Test
+    void onlyProceedsWhenDisabled() throws Throwable {
+        loggingAspect.setEnabled(false);
+        loggingAspect.setTiming(true);
+        loggingAspect.setSampleRate(1);
+
+        assertThat(loggingAspect.logAround(joinPoint)).isEqualTo("hello");
+
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_TIMER).timer()).isNull();
+        verify(joinPoint, never()).getSignature();
+    }
+
+    @Test
+    void timesEveryCallAtFullSampleRate() throws Throwable {
+        loggingAspect.setTiming(true);
+        loggingAspect.setSampleRate(1);
+
+        for (int i = 0; i < 10; i++) {
+            loggingAspect.logAround(joinPoint);
+        }
+
+        Timer timer = meterRegistry.find(LoggingAspect.METHOD_TIMER).tag("class", "Sample").tag("method", "greet").timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isEqualTo(10);
+    }
+
+    @Test
+    void timesNoCallAtZeroSampleRate() throws Throwable {
+        loggingAspect.setTiming(true);
+        loggingAspect.setSampleRate(0);
+
+        loggingAspect.logAround(joinPoint);
+
+        assertThat(meterRegistry.find(LoggingAspect.METHOD_TIMER).timer()).isNull();
+    }
+
+    @Test
+    void timesCallsThrowingExceptions() throws Throwable {
+        loggingAspect.setTiming(true);
+        loggingAspect.setSampleRate(1);
+        when(joinPoint.proceed()).thenThrow(new IllegalArgumentException("bad"));
+
+        assertThatThrownBy(() -> loggingAspect.logAround(joinPoint)).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(meterRegistry.get(LoggingAspect.METHOD_TIMER).timer().count()).isEqualTo(1);
+        verify(joinPoint, never()).getArgs();
+    }
+
+    @Test
+    void rejectsInvalidSampleRates() {
+        assertThatThrownBy(() -> loggingAspect.setSampleRate(1.5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> loggingAspect.setSampleRate(Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(loggingAspect.getSampleRate()).isEqualTo(0.01);
+    }
+
+    static class Sample {
+
+        String greet() {
+            return "hello";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.tmrfcb.datingapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.tmrfcb.datingapp.IntegrationTest;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for the domain regions set up by {@link CacheConfiguration}.
+ */
+@IntegrationTest
+class CacheConfigurationIT {
+
+    private static final String REGION = CacheConfiguration.DOMAIN_REGION_PREFIX + "UserApp";
+
+    private static final String NONSTRICT_REGION = CacheConfiguration.DOMAIN_REGION_PREFIX + "Country";
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Autowired
+    private DomainCacheMetricsConfiguration domainCacheMetricsConfiguration;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void domainRegionsAreBounded() {
+        MapConfig mapConfig = hazelcastInstance.getConfig().findMapConfig(REGION);
+
+        assertThat(mapConfig.getMaxSizeConfig().getMaxSizePolicy()).isEqualTo(MaxSizeConfig.MaxSizePolicy.PER_NODE);
+        assertThat(mapConfig.getMaxSizeConfig().getSize()).isEqualTo(10000);
+        assertThat(mapConfig.getEvictionPolicy()).isEqualTo(EvictionPolicy.LRU);
+    }
+
+    @Test
+    void nonstrictRegionsHaveANearCache() {
+        NearCacheConfig nearCacheConfig = hazelcastInstance.getConfig().findMapConfig(NONSTRICT_REGION).getNearCacheConfig();
+
+        assertThat(nearCacheConfig).isNotNull();
+        assertThat(nearCacheConfig.isInvalidateOnChange()).isTrue();
+        assertThat(nearCacheConfig.getInMemoryFormat()).isEqualTo(InMemoryFormat.OBJECT);
+        assertThat(hazelcastInstance.getConfig().findMapConfig("other").getNearCacheConfig()).isNull();
+    }
+
+    @Test
+    void readWriteRegionsHaveNoNearCache() {
+        assertThat(hazelcastInstance.getConfig().findMapConfig(REGION).getNearCacheConfig()).isNull();
+        assertThat(hazelcastInstance.getConfig().findMapConfig(CacheConfiguration.DOMAIN_REGION_PREFIX + "Message").getNearCacheConfig())
+            .isNull();
+    }
+
+    @Test
+    void nearCacheHitsAreExported() {
+        IMap<Long, String> region = hazelcastInstance.getMap(NONSTRICT_REGION);
+        region.put(1L, "cached");
+        try {
+            domainCacheMetricsConfiguration.monitorDomainRegions();
+
+            region.get(1L);
+            region.get(1L);
+
+            FunctionCounter hits = meterRegistry.find("cache.near.requests").tag("region", "Country").tag("result", "hit").functionCounter();
+            assertThat(hits).isNotNull();
+            assertThat(hits.count()).isGreaterThanOrEqualTo(1);
+        } finally {
+            region.destroy();
+        }
+    }
+}
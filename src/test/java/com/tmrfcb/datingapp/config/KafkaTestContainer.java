@@ -0,0 +1,23 @@
+package com.tmrfcb.datingapp.config;
+
+import org.testcontainers.containers.KafkaContainer;
+
+/**
+ * Kafka Testcontainer shared by the integration tests and the load test.
+ */
+public final class KafkaTestContainer {
+
+    private static final String CONFLUENT_PLATFORM_VERSION = "5.5.0";
+
+    private KafkaTestContainer() {}
+
+    /**
+     * Creates a Kafka container, not started yet.
+     *
+     * @return the container.
+     */
+    public static KafkaContainer newKafkaContainer() {
+        // On the default bridge network rather than one created per container: the clients use the mapped port
+        return new KafkaContainer(CONFLUENT_PLATFORM_VERSION).withNetwork(null);
+    }
+}
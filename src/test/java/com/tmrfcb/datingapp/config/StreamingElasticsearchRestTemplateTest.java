@@ -0,0 +1,322 @@
+package com.tmrfcb.datingapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.elasticsearch.rest.RestClientProperties;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.convert.MappingElasticsearchConverter;
+import org.springframework.data.elasticsearch.core.mapping.SimpleElasticsearchMappingContext;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+
+/**
+ * Unit tests for the {@link StreamingElasticsearchRestTemplate} built by {@link ElasticsearchRestConfiguration}, against
+ * a local server answering the bulk and refresh requests.
+ */
+public class StreamingElasticsearchRestTemplateTest {
+    private static final String INDEX = "test";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<List<String>> bulkRequests = Collections.synchronizedList(new ArrayList<>());
+
+    private final Set<String> failingIds = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> failingBulkIds = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger bulksInFlight = new AtomicInteger();
+
+    private final AtomicInteger maxBulksInFlight = new AtomicInteger();
+
+    private final AtomicInteger refreshes = new AtomicInteger();
+
+    private final List<String> authorizations = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean failBulks;
+
+    private volatile long bulkDelayMs;
+
+    private volatile String requiredAuthorization;
+
+    private ExecutorService serverExecutor;
+
+    private HttpServer server;
+
+    private ApplicationProperties applicationProperties;
+
+    private RestClientProperties restClientProperties;
+
+    private RestHighLevelClient client;
+
+    @BeforeEach
+    public void setup() throws IOException {
+        serverExecutor = Executors.newFixedThreadPool(8);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 16);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearch().setBulkSize(10);
+        applicationProperties.getSearch().setBulkConcurrentRequests(2);
+        restClientProperties = new RestClientProperties();
+        restClientProperties.setUris(
+            Collections.singletonList("http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort())
+        );
+    }
+
+    @AfterEach
+    public void teardown() throws IOException {
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void bulkIndexSplitsTheQueriesIntoRequestsOfTheBulkSize() {
+        createTemplate().bulkIndex(queries(0, 25));
+
+        assertThat(bulkRequests.stream().map(List::size).sorted()).containsExactly(5, 10, 10);
+        assertThat(bulkRequests.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(ids(0, 25));
+    }
+
+    @Test
+    public void bulkIndexSendsAtMostTheConcurrentRequestsOfAllTheCallers() throws Exception {
+        StreamingElasticsearchRestTemplate template = createTemplate();
+        bulkDelayMs = 100;
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> first = callers.submit(() -> template.bulkIndex(queries(0, 40)));
+            Future<?> second = callers.submit(() -> template.bulkIndex(queries(40, 80)));
+            first.get();
+            second.get();
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(bulkRequests).hasSize(8);
+        assertThat(maxBulksInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void bulkIndexReportsTheFailedDocuments() {
+        failingIds.add("3");
+        failingIds.add("17");
+
+        ElasticsearchException exception = catchThrowableOfType(
+            () -> createTemplate().bulkIndex(queries(0, 20)),
+            ElasticsearchException.class
+        );
+
+        assertThat(exception.getFailedDocuments()).containsOnlyKeys("3", "17");
+        assertThat(bulkRequests).hasSize(2);
+    }
+
+    @Test
+    public void bulkIndexFailsWhenARequestFailsAndReleasesItsPermit() {
+        StreamingElasticsearchRestTemplate template = createTemplate();
+        failBulks = true;
+
+        ElasticsearchException exception = catchThrowableOfType(() -> template.bulkIndex(queries(0, 30)), ElasticsearchException.class);
+
+        assertThat(exception).hasCauseInstanceOf(ElasticsearchStatusException.class);
+
+        failBulks = false;
+        bulkRequests.clear();
+        template.bulkIndex(queries(0, 30));
+
+        assertThat(bulkRequests).hasSize(3);
+    }
+
+    @Test
+    public void bulkIndexAwaitsAllTheRequestsBeforeReportingTheFailures() {
+        failingBulkIds.add("0");
+        failingIds.add("25");
+        bulkDelayMs = 100;
+
+        ElasticsearchException exception = catchThrowableOfType(
+            () -> createTemplate().bulkIndex(queries(0, 30)),
+            ElasticsearchException.class
+        );
+
+        assertThat(exception).hasCauseInstanceOf(ElasticsearchStatusException.class);
+        List<String> failedIds = new ArrayList<>(ids(0, 10));
+        failedIds.add("25");
+        assertThat(exception.getFailedDocuments()).containsOnlyKeys(failedIds.toArray(new String[0]));
+        assertThat(bulkRequests).hasSize(3);
+    }
+
+    @Test
+    public void refreshIsSkippedWithoutRefreshOnWrite() throws IOException {
+        createTemplate().refresh(INDEX);
+
+        assertThat(refreshes.get()).isEqualTo(1);
+
+        client.close();
+        applicationProperties.getSearch().setRefreshOnWrite(false);
+        createTemplate().refresh(INDEX);
+
+        assertThat(refreshes.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void clientAuthenticatesWithTheConfiguredCredentials() {
+        restClientProperties.setUsername("elastic");
+        restClientProperties.setPassword("secret");
+        requiredAuthorization = "Basic " + Base64.getEncoder().encodeToString("elastic:secret".getBytes(StandardCharsets.UTF_8));
+
+        createTemplate().bulkIndex(queries(0, 5));
+
+        assertThat(bulkRequests.stream().flatMap(List::stream)).containsExactlyInAnyOrderElementsOf(ids(0, 5));
+        assertThat(authorizations).contains(requiredAuthorization);
+    }
+
+    private StreamingElasticsearchRestTemplate createTemplate() {
+        ElasticsearchRestConfiguration configuration = new ElasticsearchRestConfiguration();
+        client = configuration.elasticsearchRestHighLevelClient(restClientProperties, applicationProperties);
+        SimpleElasticsearchMappingContext mappingContext = new SimpleElasticsearchMappingContext();
+        return (StreamingElasticsearchRestTemplate) configuration.elasticsearchTemplate(
+            client,
+            new MappingElasticsearchConverter(mappingContext),
+            mappingContext,
+            mock(EntityMapper.class),
+            objectMapper,
+            applicationProperties
+        );
+    }
+
+    private static List<String> ids(int from, int to) {
+        return IntStream.range(from, to).mapToObj(String::valueOf).collect(Collectors.toList());
+    }
+
+    private static List<IndexQuery> queries(int from, int to) {
+        return ids(from, to)
+            .stream()
+            .map(
+                id ->
+                    new IndexQueryBuilder()
+                        .withId(id)
+                        .withObject(Collections.singletonMap("name", "document " + id))
+                        .withIndexName(INDEX)
+                        .withType("doc")
+                        .build()
+            )
+            .collect(Collectors.toList());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String body = readBody(exchange);
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization != null) {
+            authorizations.add(authorization);
+        }
+        if (requiredAuthorization != null && !requiredAuthorization.equals(authorization)) {
+            exchange.getResponseHeaders().set("WWW-Authenticate", "Basic realm=\"test\"");
+            respond(exchange, 401, "{\"error\":{\"type\":\"security_exception\",\"reason\":\"missing authentication\"},\"status\":401}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith("/_bulk")) {
+            handleBulk(exchange, body);
+        } else if (path.endsWith("/_refresh")) {
+            refreshes.incrementAndGet();
+            respond(exchange, 200, "{\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0}}");
+        } else {
+            respond(exchange, 404, "{\"error\":{\"type\":\"not_found\",\"reason\":\"" + path + "\"},\"status\":404}");
+        }
+    }
+
+    private void handleBulk(HttpExchange exchange, String body) throws IOException {
+        int inFlight = bulksInFlight.incrementAndGet();
+        maxBulksInFlight.accumulateAndGet(inFlight, Math::max);
+        try {
+            if (bulkDelayMs > 0) {
+                Thread.sleep(bulkDelayMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            bulksInFlight.decrementAndGet();
+        }
+
+        // Action and source lines alternate
+        List<String> ids = new ArrayList<>();
+        String[] lines = body.split("\n");
+        for (int i = 0; i < lines.length; i += 2) {
+            ids.add(objectMapper.readTree(lines[i]).get("index").get("_id").asText());
+        }
+        bulkRequests.add(ids);
+        if (failBulks || ids.stream().anyMatch(failingBulkIds::contains)) {
+            respond(exchange, 500, "{\"error\":{\"type\":\"illegal_state_exception\",\"reason\":\"bulk failed\"},\"status\":500}");
+            return;
+        }
+        String items = ids.stream().map(this::bulkItem).collect(Collectors.joining(","));
+        respond(exchange, 200, "{\"took\":1,\"errors\":" + ids.stream().anyMatch(failingIds::contains) + ",\"items\":[" + items + "]}");
+    }
+
+    private String bulkItem(String id) {
+        String item = "{\"index\":{\"_index\":\"" + INDEX + "\",\"_type\":\"doc\",\"_id\":\"" + id + "\",";
+        if (failingIds.contains(id)) {
+            return item + "\"status\":400,\"error\":{\"type\":\"mapper_parsing_exception\",\"reason\":\"failed to parse\"}}}";
+        }
+        return (
+            item +
+            "\"_version\":1,\"result\":\"created\",\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0}," +
+            "\"_seq_no\":0,\"_primary_term\":1,\"status\":201}}"
+        );
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String(body.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String response) throws IOException {
+        byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.tmrfcb.datingapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests checking with {@code EXPLAIN} that the lookups of the repositories are served by an index rather
+ * than by a full scan, on H2 as well as on MySQL with the {@code testcontainers} profile. The explained statements are
+ * the ones Hibernate generates for the repository methods, captured by the {@link CapturingStatementInspector}.
+ */
+@IntegrationTest
+class IndexUsageIT {
+
+    private static final List<RelationType> LIKES = Arrays.asList(RelationType.LIKE, RelationType.SUPERLIKE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RelationRepository relationRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ReportUserRepository reportUserRepository;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Test
+    void findsRelationsOfAUserTowardsAnother() {
+        assertUsesIndex(
+            () -> relationRepository.findByUserAppIdAndUserIdOfOther(1L, "2"),
+            "idx_relation__user_app_id__user_id_of_other",
+            1L,
+            "2"
+        );
+    }
+
+    @Test
+    void findsSwipesReceivedByAUser() {
+        assertUsesIndex(
+            () -> relationRepository.findByUserIdOfOtherAndRelationTypeIn("2", LIKES, PageRequest.of(0, 20)),
+            "idx_relation__user_id_of_other__relation_type",
+            "2",
+            "LIKE",
+            "SUPERLIKE",
+            20
+        );
+    }
+
+    @Test
+    void findsMessagesReceivedByAUser() {
+        assertUsesIndex(
+            () -> messageRepository.findByReceiverIdOrderByMessageDateDesc("2", PageRequest.of(0, 20)),
+            "idx_message__receiver_id__message_date",
+            "2",
+            20
+        );
+    }
+
+    @Test
+    void findsMessagesSentByAUser() {
+        assertUsesIndex(
+            () -> messageRepository.findBySenderIdOrderByMessageDateDesc("2", PageRequest.of(0, 20)),
+            "idx_message__sender_id__message_date",
+            "2",
+            20
+        );
+    }
+
+    @Test
+    void findsReportsOfAUser() {
+        assertUsesIndex(() -> reportUserRepository.findByUserId("2"), "idx_report_user__user_id", "2");
+    }
+
+    @Test
+    void findsUsersByContactDetails() {
+        assertUsesIndex(() -> userAppRepository.findByEmail("user@localhost"), "idx_user_app__email", "user@localhost");
+        assertUsesIndex(() -> userAppRepository.findByPhoneNumber("+33600000000"), "idx_user_app__phone_number", "+33600000000");
+    }
+
+    @Test
+    void findsUsersByDesirability() {
+        assertUsesIndex(
+            () -> userAppRepository.findIdsByDesirabilityBetween(1600, 1700, PageRequest.of(0, 20)),
+            "idx_user_app__desirability",
+            1600.0,
+            1700.0,
+            20
+        );
+    }
+
+    /**
+     * Explain the single statement of a repository call, with the parameters it binds, in order.
+     */
+    private void assertUsesIndex(Runnable repositoryCall, String indexName, Object... parameters) {
+        List<String> statements = CapturingStatementInspector.capture(repositoryCall);
+        assertThat(statements).hasSize(1);
+        assertUsesIndex(statements.get(0), indexName, parameters);
+    }
+
+    /**
+     * MySQL returns one row per table with the chosen index in its {@code key} column, H2 a single plan in which the
+     * chosen index is written as a comment after the table, or {@code tableScan} if there is none.
+     */
+    private void assertUsesIndex(String sql, String indexName, Object... parameters) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("explain " + sql, parameters);
+        assertThat(rows).isNotEmpty();
+        if (rows.get(0).containsKey("key")) {
+            assertThat(rows).allSatisfy(row -> assertThat(String.valueOf(row.get("key"))).isEqualToIgnoringCase(indexName));
+            return;
+        }
+        String plan = rows
+            .stream()
+            .flatMap(row -> row.values().stream())
+            .map(String::valueOf)
+            .collect(Collectors.joining(" "))
+            .toLowerCase(Locale.ROOT);
+        assertThat(plan).contains(indexName).doesNotContain("tablescan");
+    }
+}
@@ -0,0 +1,44 @@
+package com.tmrfcb.datingapp.security.jwt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+class TokenCacheTest {
+
+    @Test
+    void servesEntriesUntilTheyExpire() {
+        TokenCache cache = new TokenCache(4, 100);
+        TokenCache.Entry entry = new TokenCache.Entry(new User("user", "", Collections.emptyList()), 1000L);
+        cache.put("token", entry);
+
+        assertThat(cache.get("token", 999L)).isSameAs(entry);
+        assertThat(cache.get("other", 999L)).isNull();
+        assertThat(cache.get("token", 1000L)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntries() {
+        // Two segments of two entries
+        TokenCache cache = new TokenCache(1, 4);
+        for (int i = 0; i < 100; i++) {
+            cache.put("token" + i, new TokenCache.Entry(new User("user" + i, "", Collections.emptyList()), Long.MAX_VALUE));
+            cache.get("token0", 0L);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(4);
+        assertThat(cache.get("token0", 0L)).isNotNull();
+        assertThat(cache.get("token99", 0L)).isNotNull();
+        assertThat(cache.get("token1", 0L)).isNull();
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThatThrownBy(() -> new TokenCache(0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenCache(4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,144 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * Integration tests for {@link DesirabilityService}, with real commits so that swipes are recorded.
+ */
+@IntegrationTest
+class DesirabilityServiceIT {
+
+    @Autowired
+    private DesirabilityService desirabilityService;
+
+    @Autowired
+    private SwipeService swipeService;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private RelationRepository relationRepository;
+
+    private final List<UserApp> users = new ArrayList<>();
+
+    @BeforeEach
+    public void flushPreviousSwipes() {
+        desirabilityService.flush();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        List<Long> userIds = users.stream().map(UserApp::getId).collect(Collectors.toList());
+        relationRepository.deleteAll(
+            relationRepository
+                .findAll()
+                .stream()
+                .filter(relation -> relation.getUserApp() != null && userIds.contains(relation.getUserApp().getId()))
+                .collect(Collectors.toList())
+        );
+        userAppRepository.deleteAll(users);
+    }
+
+    @Test
+    void appliesSwipesOnFlush() {
+        UserApp swiper = createUser("swiper");
+        UserApp liked = createUser("liked");
+        UserApp superLiked = createUser("superLiked");
+        UserApp disliked = createUser("disliked");
+
+        swipeService.swipe(swiper.getId(), liked.getId(), RelationType.LIKE);
+        swipeService.swipeAll(
+            Arrays.asList(
+                new SwipeDTO(swiper.getId(), superLiked.getId(), RelationType.SUPERLIKE),
+                new SwipeDTO(swiper.getId(), disliked.getId(), RelationType.DISLIKE)
+            )
+        );
+        assertThat(desirabilityOf(liked)).isEqualTo(1500d);
+
+        assertThat(desirabilityService.flush()).isEqualTo(3);
+
+        // Between equally rated users, a like wins half the K-factor, a dislike loses as much
+        assertThat(desirabilityOf(liked)).isCloseTo(1516d, within(1e-6));
+        assertThat(desirabilityOf(superLiked)).isCloseTo(1532d, within(1e-6));
+        assertThat(desirabilityOf(disliked)).isCloseTo(1484d, within(1e-6));
+        assertThat(desirabilityOf(swiper)).isEqualTo(1500d);
+        assertThat(desirabilityService.flush()).isZero();
+
+        List<Long> rated = userAppRepository.findIdsByDesirabilityBetween(1510, 1600, PageRequest.of(0, 10));
+        assertThat(rated).containsSubsequence(superLiked.getId(), liked.getId()).doesNotContain(disliked.getId(), swiper.getId());
+    }
+
+    @Test
+    void countsTheSameSwipeOnce() {
+        UserApp swiper = createUser("swiper");
+        UserApp liked = createUser("liked");
+
+        swipeService.swipe(swiper.getId(), liked.getId(), RelationType.LIKE);
+        assertThat(desirabilityService.flush()).isEqualTo(1);
+        swipeService.swipe(swiper.getId(), liked.getId(), RelationType.LIKE);
+        swipeService.swipeAll(Collections.singletonList(new SwipeDTO(swiper.getId(), liked.getId(), RelationType.LIKE)));
+
+        assertThat(desirabilityService.flush()).isZero();
+        assertThat(desirabilityOf(liked)).isCloseTo(1516d, within(1e-6));
+    }
+
+    @Test
+    void takesBackTheVoteOfAChangedSwipe() {
+        UserApp swiper = createUser("swiper");
+        UserApp swiped = createUser("swiped");
+
+        swipeService.swipe(swiper.getId(), swiped.getId(), RelationType.LIKE);
+        desirabilityService.flush();
+        assertThat(desirabilityOf(swiped)).isCloseTo(1516d, within(1e-6));
+        swipeService.swipe(swiper.getId(), swiped.getId(), RelationType.DISLIKE);
+        desirabilityService.flush();
+
+        // Against the ratings of the flush, taking back the like and counting the dislike add up to a full K-factor
+        assertThat(desirabilityOf(swiped)).isCloseTo(1484d, within(1e-6));
+    }
+
+    @Test
+    void skipsDeletedUsers() {
+        UserApp swiper = createUser("swiper");
+        UserApp deleted = createUser("deleted");
+        swipeService.swipe(swiper.getId(), deleted.getId(), RelationType.LIKE);
+        cleanup();
+        users.clear();
+
+        assertThat(desirabilityService.flush()).isZero();
+    }
+
+    private UserApp createUser(String firstName) {
+        UserApp userApp = userAppRepository.save(new UserApp().firstName(firstName));
+        users.add(userApp);
+        return userApp;
+    }
+
+    private double desirabilityOf(UserApp userApp) {
+        Map<Long, Double> desirabilities = userAppRepository
+            .findDesirabilities(Collections.singletonList(userApp.getId()))
+            .stream()
+            .collect(Collectors.toMap(UserAppRepository.Desirability::getId, UserAppRepository.Desirability::getDesirability));
+        return desirabilities.get(userApp.getId());
+    }
+}
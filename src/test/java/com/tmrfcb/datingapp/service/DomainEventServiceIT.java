@@ -0,0 +1,241 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.config.KafkaProperties;
+import com.tmrfcb.datingapp.config.KafkaTestContainer;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.enumeration.DomainEventType;
+import com.tmrfcb.datingapp.repository.DomainEventOutboxRepository;
+import com.tmrfcb.datingapp.repository.DomainEventSequenceRepository;
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import com.tmrfcb.datingapp.service.util.DomainEventCodec;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.header.Header;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.KafkaContainer;
+
+/**
+ * Integration tests for {@link DomainEventService} with a Kafka broker, with real commits so that the relay sees the
+ * events.
+ */
+@IntegrationTest
+class DomainEventServiceIT {
+
+    private static final String TOPIC = "domain-events-it";
+
+    private static final long TIMEOUT_MS = 10000;
+
+    private static KafkaContainer kafkaContainer;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private NearbyUserService nearbyUserService;
+
+    @Autowired
+    private DomainEventOutboxRepository domainEventOutboxRepository;
+
+    @Autowired
+    private DomainEventSequenceRepository domainEventSequenceRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private KafkaProperties kafkaProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String bootStrapServers;
+
+    @BeforeAll
+    static void startServer() {
+        if (kafkaContainer == null) {
+            kafkaContainer = KafkaTestContainer.newKafkaContainer();
+            kafkaContainer.start();
+        }
+    }
+
+    @BeforeEach
+    public void enableDomainEvents() {
+        bootStrapServers = kafkaProperties.getBootStrapServers();
+        kafkaProperties.setBootStrapServers(kafkaContainer.getBootstrapServers());
+        applicationProperties.getDomainEvents().setTopic(TOPIC);
+        applicationProperties.getDomainEvents().setEnabled(true);
+    }
+
+    @AfterEach
+    public void disableDomainEvents() {
+        applicationProperties.getDomainEvents().setEnabled(false);
+        kafkaProperties.setBootStrapServers(bootStrapServers);
+        domainEventOutboxRepository.deleteAll();
+        domainEventSequenceRepository.deleteAll();
+    }
+
+    @Test
+    void savedMessagesArePublishedByTheRelay() {
+        Message message = messageService.save(new Message().senderId("1").receiverId("2").messageContent("event"));
+        try {
+            // The scheduled relay may publish it first
+            domainEventService.relay();
+
+            List<ConsumerRecord<String, byte[]>> records = consume(1);
+            assertThat(domainEventOutboxRepository.findAll()).isEmpty();
+            ConsumerRecord<String, byte[]> record = records.get(0);
+            assertThat(record.key()).isEqualTo("2");
+            Header eventId = record.headers().lastHeader(DomainEventService.EVENT_ID_HEADER);
+            assertThat(eventId).isNotNull();
+            assertThat(new String(eventId.value(), StandardCharsets.UTF_8)).matches("\\d+");
+            DomainEventDTO event = DomainEventCodec.decode(record.value());
+            assertThat(event.getType()).isEqualTo(DomainEventType.MESSAGE_SENT);
+            assertThat(event.getUserId()).isEqualTo(2L);
+            assertThat(event.getOtherUserId()).isEqualTo(1L);
+            assertThat(event.getEntityId()).isEqualTo(message.getId());
+        } finally {
+            messageService.delete(message.getId());
+        }
+    }
+
+    @Test
+    void removedUsersArePublishedWithoutPosition() {
+        nearbyUserService.removeUser(7L);
+        domainEventService.relay();
+
+        ConsumerRecord<String, byte[]> record = consume(1).get(0);
+        assertThat(record.key()).isEqualTo("7");
+        DomainEventDTO event = DomainEventCodec.decode(record.value());
+        assertThat(event.getType()).isEqualTo(DomainEventType.LOCATION_CHANGED);
+        assertThat(event.getUserId()).isEqualTo(7L);
+        assertThat(event.getEntityId()).isNull();
+        assertThat(event.getLatitude()).isNull();
+        assertThat(event.getLongitude()).isNull();
+    }
+
+    @Test
+    void eventsOfAKeyAreNumberedInTheOrderTheyAreWritten() {
+        Instant now = Instant.now();
+        domainEventService.publish(DomainEventDTO.locationChanged(3L, null, 1.0, 2.0, now));
+        domainEventService.publishAll(
+            Arrays.asList(
+                DomainEventDTO.locationChanged(3L, null, 3.0, 4.0, now),
+                DomainEventDTO.locationChanged(4L, null, 5.0, 6.0, now),
+                DomainEventDTO.locationChanged(3L, null, 7.0, 8.0, now)
+            )
+        );
+        domainEventService.relay();
+
+        List<Long> sequences = consume(4)
+            .stream()
+            .filter(record -> "3".equals(record.key()))
+            .map(record -> record.headers().lastHeader(DomainEventService.EVENT_SEQUENCE_HEADER).value())
+            .map(sequence -> Long.parseLong(new String(sequence, StandardCharsets.UTF_8)))
+            .collect(Collectors.toList());
+        assertThat(sequences).containsExactly(1L, 2L, 3L);
+        assertThat(domainEventSequenceRepository.findLastSequence("4")).isEqualTo(1L);
+    }
+
+    @Test
+    void transactionsPublishingForTheSameKeysInOppositeOrdersDoNotDeadlock() throws Exception {
+        Instant now = Instant.now();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Like swipe batches, each transaction publishes the events of a key at a time, waiting for the other in between
+            List<Future<?>> batches = Arrays.asList(
+                executor.submit(() -> publishInOneTransaction(transactionTemplate, barrier, 5L, 6L, now)),
+                executor.submit(() -> publishInOneTransaction(transactionTemplate, barrier, 6L, 5L, now))
+            );
+            for (Future<?> batch : batches) {
+                batch.get(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(domainEventSequenceRepository.findLastSequence("5")).isEqualTo(2L);
+        assertThat(domainEventSequenceRepository.findLastSequence("6")).isEqualTo(2L);
+    }
+
+    @Test
+    void nothingIsWrittenWhenDisabled() {
+        applicationProperties.getDomainEvents().setEnabled(false);
+        Message message = messageService.save(new Message().senderId("1").receiverId("2").messageContent("no event"));
+        try {
+            assertThat(domainEventOutboxRepository.findAll()).isEmpty();
+            assertThat(domainEventService.relay()).isZero();
+        } finally {
+            messageService.delete(message.getId());
+        }
+    }
+
+    private void publishInOneTransaction(
+        TransactionTemplate transactionTemplate,
+        CyclicBarrier barrier,
+        long firstKey,
+        long secondKey,
+        Instant now
+    ) {
+        transactionTemplate.execute(
+            status -> {
+                domainEventService.publish(DomainEventDTO.locationChanged(firstKey, null, 1.0, 2.0, now));
+                try {
+                    barrier.await(TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                domainEventService.publish(DomainEventDTO.locationChanged(secondKey, null, 3.0, 4.0, now));
+                return null;
+            }
+        );
+    }
+
+    private List<ConsumerRecord<String, byte[]>> consume(int count) {
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put("bootstrap.servers", kafkaContainer.getBootstrapServers());
+        consumerProps.put("key.deserializer", "org.apache.kafka.common.serialization.StringDeserializer");
+        consumerProps.put("value.deserializer", "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+        consumerProps.put("group.id", "domain-events-it");
+        consumerProps.put("auto.offset.reset", "earliest");
+        List<ConsumerRecord<String, byte[]>> records = new ArrayList<>();
+        try (KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(consumerProps)) {
+            consumer.subscribe(Collections.singletonList(TOPIC));
+            long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+            while (records.size() < count && System.currentTimeMillis() < deadline) {
+                consumer.poll(Duration.ofMillis(500)).forEach(records::add);
+            }
+        }
+        assertThat(records).hasSize(count);
+        return records;
+    }
+}
@@ -0,0 +1,207 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tmrfcb.datingapp.DatingApp;
+import com.tmrfcb.datingapp.config.WebsocketConfiguration;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.repository.MessageRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.security.jwt.JWTFilter;
+import com.tmrfcb.datingapp.security.jwt.TokenProvider;
+import com.tmrfcb.datingapp.service.dto.MessageNotificationDTO;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+/**
+ * Integration tests for {@link MessageDeliveryService}, through a real STOMP session on the embedded simple broker.
+ */
+@SpringBootTest(classes = DatingApp.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class MessageDeliveryServiceIT {
+
+    private static final long TIMEOUT_S = 5;
+
+    private static final String RECEIVER = "delivery-receiver";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenProvider tokenProvider;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+
+    @Autowired
+    private SimpleBrokerMessageHandler brokerMessageHandler;
+
+    private WebSocketStompClient stompClient;
+
+    private StompSession session;
+
+    private UserApp receiver;
+
+    private Message message;
+
+    @BeforeEach
+    public void initClient() {
+        stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+        stompClient.stop();
+        if (message != null && message.getId() != null) {
+            messageRepository.deleteById(message.getId());
+        }
+        if (receiver != null && receiver.getId() != null) {
+            userAppRepository.deleteById(receiver.getId());
+        }
+    }
+
+    @Test
+    void newMessagesArePushedToTheirRecipient() throws Exception {
+        receiver = userAppRepository.save(new UserApp().firstName("receiver").login(RECEIVER));
+        BlockingQueue<MessageNotificationDTO> received = new LinkedBlockingQueue<>();
+        session = connect(tokenFor(RECEIVER), new StompSessionHandlerAdapter() {});
+        session.subscribe("/user" + MessageDeliveryService.MESSAGES_DESTINATION, notificationHandler(received));
+        awaitBrokerSubscription(RECEIVER);
+
+        String receiverId = receiver.getId().toString();
+        message = messageService.save(new Message().senderId("delivery-sender").receiverId(receiverId).messageContent("hello"));
+
+        MessageNotificationDTO notification = received.poll(TIMEOUT_S, TimeUnit.SECONDS);
+        assertThat(notification).isNotNull();
+        assertThat(notification.getId()).isEqualTo(message.getId());
+        assertThat(notification.getSenderId()).isEqualTo("delivery-sender");
+        assertThat(notification.getMessageContent()).isEqualTo("hello");
+
+        // Updates are not pushed again
+        messageService.save(message.messageContent("edited"));
+        assertThat(received.poll(500, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    @Test
+    void connectionWithoutValidTokenIsRejected() {
+        assertThatThrownBy(() -> connect("invalid", new StompSessionHandlerAdapter() {}))
+            .isInstanceOfAny(ExecutionException.class, TimeoutException.class);
+    }
+
+    @Test
+    void subscriptionToTheQueueOfAnotherSessionIsRejected() throws Exception {
+        BlockingQueue<String> errors = new LinkedBlockingQueue<>();
+        session =
+            connect(
+                tokenFor("delivery-eavesdropper"),
+                new StompSessionHandlerAdapter() {
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        errors.add(String.valueOf(headers.getFirst("message")));
+                    }
+                }
+            );
+        session.subscribe(MessageDeliveryService.MESSAGES_DESTINATION + "-useranysession", notificationHandler(new LinkedBlockingQueue<>()));
+
+        assertThat(errors.poll(TIMEOUT_S, TimeUnit.SECONDS)).isNotNull();
+    }
+
+    private StompSession connect(String token, StompSessionHandlerAdapter handler) throws Exception {
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add(JWTFilter.AUTHORIZATION_HEADER, "Bearer " + token);
+        return stompClient
+            .connect("ws://localhost:" + port + WebsocketConfiguration.MESSAGES_ENDPOINT, new WebSocketHttpHeaders(), connectHeaders, handler)
+            .get(TIMEOUT_S, TimeUnit.SECONDS);
+    }
+
+    private StompFrameHandler notificationHandler(BlockingQueue<MessageNotificationDTO> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return MessageNotificationDTO.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((MessageNotificationDTO) payload);
+            }
+        };
+    }
+
+    /**
+     * Wait until the broker holds the subscription of the user to its messages, as subscriptions reach it asynchronously.
+     */
+    private void awaitBrokerSubscription(String login) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_S);
+        while (!isSubscribedInBroker(login)) {
+            assertThat(System.nanoTime()).as("Subscription of %s registered in the broker", login).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    private boolean isSubscribedInBroker(String login) {
+        SimpUser user = simpUserRegistry.getUser(login);
+        if (user == null) {
+            return false;
+        }
+        for (SimpSession simpSession : user.getSessions()) {
+            SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+            // The queue the user destination of the session resolves to
+            accessor.setDestination(MessageDeliveryService.MESSAGES_DESTINATION + "-user" + simpSession.getId());
+            org.springframework.messaging.Message<byte[]> probe = MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+            if (!brokerMessageHandler.getSubscriptionRegistry().findSubscriptions(probe).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String tokenFor(String login) {
+        return tokenProvider.createToken(
+            new UsernamePasswordAuthenticationToken(login, "", Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))),
+            false
+        );
+    }
+}
@@ -0,0 +1,73 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for {@link RecommendationService}.
+ */
+@IntegrationTest
+@Transactional
+class RecommendationServiceIT {
+
+    private static final int SWIPERS = 20;
+
+    private static final int PROFILES = 10;
+
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private RelationRepository relationRepository;
+
+    @Test
+    void scoresProfilesLikedBySimilarUsersFirst() {
+        // Two tastes: even swipers like even profiles and dislike odd ones, odd swipers the other way round
+        List<UserApp> profiles = new ArrayList<>();
+        for (int i = 0; i < PROFILES; i++) {
+            profiles.add(userAppRepository.save(new UserApp().firstName("profile" + i)));
+        }
+        for (int i = 0; i < SWIPERS; i++) {
+            UserApp swiper = userAppRepository.save(new UserApp().firstName("swiper" + i));
+            for (int j = 0; j < PROFILES; j++) {
+                swipe(swiper, profiles.get(j), i % 2 == j % 2 ? RelationType.LIKE : RelationType.DISLIKE);
+            }
+        }
+        UserApp newcomer = userAppRepository.save(new UserApp().firstName("newcomer"));
+        swipe(newcomer, profiles.get(0), RelationType.SUPERLIKE);
+        swipe(newcomer, profiles.get(2), RelationType.LIKE);
+        relationRepository.flush();
+
+        assertThat(recommendationService.train()).isTrue();
+
+        float[] scores = recommendationService.score(
+            newcomer.getId(),
+            new long[] { profiles.get(4).getId(), profiles.get(5).getId(), Long.MAX_VALUE }
+        );
+        assertThat(scores[0]).isGreaterThan(scores[1]);
+        assertThat(scores[2]).isZero();
+    }
+
+    @Test
+    void scoresWithoutCandidates() {
+        assertThat(recommendationService.score(1L, new long[0])).isEmpty();
+    }
+
+    private void swipe(UserApp userApp, UserApp other, RelationType relationType) {
+        relationRepository.save(new Relation().userApp(userApp).userIdOfOther(other.getId().toString()).relationType(relationType));
+    }
+}
@@ -0,0 +1,109 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.config.ApplicationProperties;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.repository.MessageRepository;
+import com.tmrfcb.datingapp.repository.SearchOutboxRepository;
+import com.tmrfcb.datingapp.repository.search.MessageSearchRepository;
+import com.tmrfcb.datingapp.service.impl.IndexBulkOperations;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SearchIndexService} with the outbox enabled, with real commits so that the relay sees
+ * the changes.
+ */
+@IntegrationTest
+class SearchIndexServiceIT {
+
+    private static final long TIMEOUT_MS = 5000;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    /**
+     * This repository is mocked in the com.tmrfcb.datingapp.repository.search test package.
+     *
+     * @see com.tmrfcb.datingapp.repository.search.MessageSearchRepositoryMockConfiguration
+     */
+    @Autowired
+    private MessageSearchRepository mockMessageSearchRepository;
+
+    /**
+     * @see com.tmrfcb.datingapp.service.impl.IndexBulkOperationsMockConfiguration
+     */
+    @Autowired
+    private IndexBulkOperations mockIndexBulkOperations;
+
+    @BeforeEach
+    public void enableOutbox() {
+        applicationProperties.getSearchOutbox().setEnabled(true);
+    }
+
+    @AfterEach
+    public void disableOutbox() {
+        applicationProperties.getSearchOutbox().setEnabled(false);
+        searchOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void savedEntitiesAreIndexedByTheRelay() throws Exception {
+        Message message = messageService.save(new Message().senderId("1").receiverId("2").messageContent("outbox"));
+
+        // Nothing is sent to Elasticsearch in the request itself
+        verify(mockMessageSearchRepository, never()).save(message);
+
+        searchIndexService.relay();
+        verify(mockIndexBulkOperations, timeout(TIMEOUT_MS))
+            .bulk(eq("message"), any(), argThat(documents -> containsMessage(documents, message.getId())), eq(Collections.emptyList()));
+        assertThat(searchOutboxRepository.findAll()).isEmpty();
+
+        messageService.delete(message.getId());
+        searchIndexService.relay();
+        verify(mockIndexBulkOperations, timeout(TIMEOUT_MS))
+            .bulk(eq("message"), any(), eq(Collections.emptyMap()), eq(Collections.singletonList(String.valueOf(message.getId()))));
+        assertThat(searchOutboxRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void entriesAreKeptWhenIndexingFails() throws Exception {
+        Message message = messageRepository.save(new Message().senderId("1").receiverId("2").messageContent("failure"));
+        doThrow(new IllegalStateException("Elasticsearch is down")).when(mockIndexBulkOperations).bulk(any(), any(), anyMap(), any());
+        try {
+            searchIndexService.index(message);
+            searchIndexService.relay();
+            assertThat(searchOutboxRepository.findAll()).extracting("entityId").contains(message.getId());
+        } finally {
+            reset(mockIndexBulkOperations);
+            messageRepository.delete(message);
+        }
+    }
+
+    private static boolean containsMessage(Map<String, ?> documents, Long id) {
+        return documents.get(String.valueOf(id)) instanceof Message;
+    }
+}
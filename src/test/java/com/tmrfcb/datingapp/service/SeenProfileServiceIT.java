@@ -0,0 +1,86 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Integration tests for {@link SeenProfileService}, with real commits so that swipes are marked as seen.
+ */
+@IntegrationTest
+class SeenProfileServiceIT {
+
+    @Autowired
+    private SeenProfileService seenProfileService;
+
+    @Autowired
+    private SwipeService swipeService;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private RelationRepository relationRepository;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private final List<UserApp> users = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        List<Long> userIds = users.stream().map(UserApp::getId).collect(Collectors.toList());
+        relationRepository.deleteAll(
+            relationRepository
+                .findAll()
+                .stream()
+                .filter(relation -> relation.getUserApp() != null && userIds.contains(relation.getUserApp().getId()))
+                .collect(Collectors.toList())
+        );
+        userIds.forEach(userId -> hazelcastInstance.getMap(SeenProfileService.SEEN_PROFILES_MAP).delete(userId));
+        userAppRepository.deleteAll(users);
+    }
+
+    @Test
+    void loadsTheSwipedProfilesOnFirstAccess() {
+        UserApp swiper = createUser("swiper");
+        UserApp liked = createUser("liked");
+        UserApp other = createUser("other");
+
+        swipeService.swipe(swiper.getId(), liked.getId(), RelationType.LIKE);
+
+        assertThat(seenProfileService.findSeenAmong(swiper.getId(), new long[] { liked.getId(), other.getId() }))
+            .containsExactly(liked.getId());
+    }
+
+    @Test
+    void keepsTheSwipesRecordedWhileTheSetIsAbsent() {
+        UserApp swiper = createUser("swiper");
+        UserApp first = createUser("first");
+        UserApp second = createUser("second");
+
+        swipeService.swipe(swiper.getId(), first.getId(), RelationType.LIKE);
+        hazelcastInstance.getMap(SeenProfileService.SEEN_PROFILES_MAP).delete(swiper.getId());
+        swipeService.swipe(swiper.getId(), second.getId(), RelationType.DISLIKE);
+
+        assertThat(seenProfileService.findSeenAmong(swiper.getId(), new long[] { first.getId(), second.getId() }))
+            .containsExactly(first.getId(), second.getId());
+    }
+
+    private UserApp createUser(String firstName) {
+        UserApp userApp = userAppRepository.save(new UserApp().firstName(firstName));
+        users.add(userApp);
+        return userApp;
+    }
+}
@@ -0,0 +1,239 @@
+package com.tmrfcb.datingapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.MatchRelationRepository;
+import com.tmrfcb.datingapp.repository.RelationRepository;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import com.tmrfcb.datingapp.service.dto.SwipeResultDTO;
+import com.tmrfcb.datingapp.service.impl.SwipeServiceImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Integration tests for {@link SwipeService}, with real commits so that concurrent swipes run in separate transactions.
+ */
+@IntegrationTest
+class SwipeServiceIT {
+
+    private static final int PAIRS = 20;
+
+    @Autowired
+    private SwipeService swipeService;
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private RelationRepository relationRepository;
+
+    @Autowired
+    private MatchRelationRepository matchRelationRepository;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SeenProfileService seenProfileService;
+
+    @Autowired
+    private InboxService inboxService;
+
+    @Autowired
+    private DomainEventService domainEventService;
+
+    @Autowired
+    private DesirabilityService desirabilityService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private final List<UserApp> users = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() {
+        List<Long> userIds = users.stream().map(UserApp::getId).collect(Collectors.toList());
+        List<Relation> relations = relationRepository
+            .findAll()
+            .stream()
+            .filter(relation -> relation.getUserApp() != null && userIds.contains(relation.getUserApp().getId()))
+            .collect(Collectors.toList());
+        relationRepository.deleteAll(relations);
+        matchRelationRepository.deleteAll(
+            matchRelationRepository.findAll().stream().filter(match -> userIds.contains(match.getUserLowId())).collect(Collectors.toList())
+        );
+        userAppRepository.deleteAll(users);
+    }
+
+    @Test
+    void crossingLikesCreateExactlyOneMatch() throws Exception {
+        assertOneMatchPerPair(crossingLikes(swipeService, swipeService));
+    }
+
+    @Test
+    void crossingLikesOnTwoInstancesCreateExactlyOneMatch() throws Exception {
+        assertOneMatchPerPair(crossingLikes(swipeService, otherInstance()));
+    }
+
+    @Test
+    void batchAndSingleCrossingLikesOnTwoInstancesCreateExactlyOneMatch() throws Exception {
+        for (int i = 0; i < PAIRS * 2; i++) {
+            users.add(userAppRepository.save(new UserApp().firstName("swiper" + i)));
+        }
+        SwipeService otherInstance = otherInstance();
+
+        // The first user of every pair likes in one batch, while the second users like one by one on another node
+        List<SwipeDTO> batch = new ArrayList<>();
+        for (int pair = 0; pair < PAIRS; pair++) {
+            batch.add(new SwipeDTO(users.get(2 * pair).getId(), users.get(2 * pair + 1).getId(), RelationType.LIKE));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SwipeResultDTO>> singleResults = new ArrayList<>();
+        List<SwipeResultDTO> batchResults;
+        try {
+            Future<List<SwipeResultDTO>> batchResult = executor.submit(
+                () -> {
+                    start.await();
+                    return swipeService.swipeAll(batch);
+                }
+            );
+            for (int pair = 0; pair < PAIRS; pair++) {
+                singleResults.add(executor.submit(swipe(otherInstance, start, users.get(2 * pair + 1).getId(), users.get(2 * pair).getId())));
+            }
+            start.countDown();
+            batchResults = batchResult.get();
+            for (Future<SwipeResultDTO> result : singleResults) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int pair = 0; pair < PAIRS; pair++) {
+            assertThat(matchesOf(users.get(2 * pair), users.get(2 * pair + 1))).hasSize(1);
+            assertThat(batchResults.get(pair).isMatched() || singleResults.get(pair).get().isMatched()).isTrue();
+        }
+    }
+
+    @Test
+    void batchesOnlyLockThePairsTheyLike() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            users.add(userAppRepository.save(new UserApp().firstName("swiper" + i)));
+        }
+        Long first = users.get(0).getId();
+        Long second = users.get(1).getId();
+        IMap<String, Boolean> pairLocks = hazelcastInstance.getMap(SwipeService.PAIR_LOCK_MAP);
+        String lockKey = Math.min(first, second) + ":" + Math.max(first, second);
+
+        // The lock is held by another thread, as by a like in flight
+        ExecutorService lockHolder = Executors.newSingleThreadExecutor();
+        ExecutorService swiper = Executors.newSingleThreadExecutor();
+        try {
+            lockHolder.submit(() -> pairLocks.lock(lockKey)).get();
+            List<SwipeDTO> batch = Collections.singletonList(new SwipeDTO(first, second, RelationType.DISLIKE));
+            List<SwipeResultDTO> results = swiper.submit(() -> swipeService.swipeAll(batch)).get(10, TimeUnit.SECONDS);
+            assertThat(results.get(0).isMatched()).isFalse();
+        } finally {
+            lockHolder.submit(() -> pairLocks.unlock(lockKey)).get();
+            lockHolder.shutdownNow();
+            swiper.shutdownNow();
+        }
+    }
+
+    /**
+     * A second instance of the service, as on another node: it only shares the database and the Hazelcast cluster with
+     * the first one.
+     */
+    private SwipeService otherInstance() {
+        return new SwipeServiceImpl(
+            relationRepository,
+            matchRelationRepository,
+            userAppRepository,
+            searchIndexService,
+            seenProfileService,
+            inboxService,
+            domainEventService,
+            desirabilityService,
+            transactionManager,
+            hazelcastInstance
+        );
+    }
+
+    /**
+     * Each pair of new users likes each other at the same time, the first user through one instance and the second
+     * through the other.
+     */
+    private List<Future<SwipeResultDTO>> crossingLikes(SwipeService firstInstance, SwipeService secondInstance) throws Exception {
+        for (int i = 0; i < PAIRS * 2; i++) {
+            users.add(userAppRepository.save(new UserApp().firstName("swiper" + i)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<SwipeResultDTO>> results = new ArrayList<>();
+        try {
+            for (int pair = 0; pair < PAIRS; pair++) {
+                Long first = users.get(2 * pair).getId();
+                Long second = users.get(2 * pair + 1).getId();
+                results.add(executor.submit(swipe(firstInstance, start, first, second)));
+                results.add(executor.submit(swipe(secondInstance, start, second, first)));
+            }
+            start.countDown();
+            for (Future<SwipeResultDTO> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    private void assertOneMatchPerPair(List<Future<SwipeResultDTO>> results) throws Exception {
+        for (int pair = 0; pair < PAIRS; pair++) {
+            assertThat(matchesOf(users.get(2 * pair), users.get(2 * pair + 1))).hasSize(1);
+            // The second swipe of each pair is the one seeing the reciprocal like
+            assertThat(results.get(2 * pair).get().isMatched() || results.get(2 * pair + 1).get().isMatched()).isTrue();
+        }
+    }
+
+    private List<MatchRelation> matchesOf(UserApp user, UserApp other) {
+        long low = Math.min(user.getId(), other.getId());
+        long high = Math.max(user.getId(), other.getId());
+        return matchRelationRepository
+            .findAll()
+            .stream()
+            .filter(match -> match.getUserLowId() == low && match.getUserHighId() == high)
+            .collect(Collectors.toList());
+    }
+
+    private Callable<SwipeResultDTO> swipe(SwipeService instance, CountDownLatch start, Long userId, Long otherUserId) {
+        return () -> {
+            start.await();
+            return instance.swipe(userId, otherUserId, RelationType.LIKE);
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.tmrfcb.datingapp.service.impl;
+
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configure a Mock version of {@link IndexBulkOperations} to test the
+ * application without starting Elasticsearch.
+ */
+@Configuration
+public class IndexBulkOperationsMockConfiguration {
+
+    @MockBean
+    private IndexBulkOperations mockIndexBulkOperations;
+}
@@ -0,0 +1,63 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.junit.jupiter.api.Test;
+
+class CandidateQueueTest {
+
+    @Test
+    void pollFromTheHead() {
+        CandidateQueue queue = new CandidateQueue(new long[] { 5, 3, 8, 1 });
+
+        assertThat(queue.poll(3)).containsExactly(5, 3, 8);
+        assertThat(queue.size()).isEqualTo(1);
+        assertThat(queue.poll(3)).containsExactly(1);
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.poll(3)).isEmpty();
+    }
+
+    @Test
+    void appendAfterTheRemainingCandidates() {
+        CandidateQueue queue = new CandidateQueue(new long[] { 5, 3, 8 });
+        queue.poll(1);
+
+        assertThat(queue.append(new long[] { 8, 4, 3, 9, 4 }, 10)).isEqualTo(2);
+
+        assertThat(queue.toArray()).containsExactly(3, 8, 4, 9);
+    }
+
+    @Test
+    void appendUpToTheCapacity() {
+        CandidateQueue queue = new CandidateQueue(new long[] { 1, 2 });
+
+        assertThat(queue.append(new long[] { 3, 4, 5 }, 4)).isEqualTo(2);
+        assertThat(queue.toArray()).containsExactly(1, 2, 3, 4);
+
+        // Queued candidates are never dropped, even beyond the capacity
+        assertThat(queue.append(new long[] { 6 }, 1)).isZero();
+        assertThat(queue.toArray()).containsExactly(1, 2, 3, 4);
+    }
+
+    @Test
+    void serializationKeepsOnlyTheRemainingCandidates() throws Exception {
+        CandidateQueue queue = new CandidateQueue(new long[] { 5, 3, 8, 1 });
+        queue.poll(2);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(queue);
+        }
+        CandidateQueue copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (CandidateQueue) in.readObject();
+        }
+
+        assertThat(copy.toArray()).containsExactly(8, 1);
+        assertThat(copy.poll(1)).containsExactly(8);
+    }
+}
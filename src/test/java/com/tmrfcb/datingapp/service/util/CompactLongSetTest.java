@@ -0,0 +1,108 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class CompactLongSetTest {
+
+    @Test
+    void addAndContains() {
+        CompactLongSet set = new CompactLongSet();
+        assertThat(set.isEmpty()).isTrue();
+
+        assertThat(set.add(42L)).isTrue();
+        assertThat(set.add(42L)).isFalse();
+        assertThat(set.add(0L)).isTrue();
+        assertThat(set.add(Long.MAX_VALUE)).isTrue();
+        assertThat(set.add(1L << 40)).isTrue();
+
+        assertThat(set.size()).isEqualTo(4);
+        assertThat(set.contains(42L)).isTrue();
+        assertThat(set.contains(0L)).isTrue();
+        assertThat(set.contains(Long.MAX_VALUE)).isTrue();
+        assertThat(set.contains(1L << 40)).isTrue();
+        assertThat(set.contains(43L)).isFalse();
+        assertThat(set.contains(-1L)).isFalse();
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        assertThatThrownBy(() -> new CompactLongSet().add(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesHashSetAcrossSparseAndDenseGroups() {
+        Random random = new Random(42);
+        CompactLongSet set = new CompactLongSet();
+        Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 20_000; i++) {
+            // Dense ids in the first group, to switch it to a bitmap, and sparse ids elsewhere
+            long value = i % 2 == 0 ? random.nextInt(1 << 16) : random.nextInt(Integer.MAX_VALUE);
+            assertThat(set.add(value)).isEqualTo(expected.add(value));
+        }
+
+        assertThat(set.size()).isEqualTo(expected.size());
+        for (long value = 0; value < 1 << 16; value++) {
+            assertThat(set.contains(value)).isEqualTo(expected.contains(value));
+        }
+        for (Long value : expected) {
+            assertThat(set.contains(value)).isTrue();
+        }
+    }
+
+    @Test
+    void forEachVisitsValuesInAscendingOrder() {
+        CompactLongSet set = new CompactLongSet();
+        List<Long> expected = new ArrayList<>();
+        for (long value = 0; value < 10_000; value++) {
+            // The first group switches to a bitmap, the next ones stay sparse
+            expected.add(value);
+        }
+        expected.add((1L << 16) + 7);
+        expected.add(1L << 40);
+        expected.add(Long.MAX_VALUE);
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            set.add(expected.get(i));
+        }
+
+        List<Long> visited = new ArrayList<>();
+        set.forEach(visited::add);
+
+        assertThat(visited).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void serializationRoundTrip() throws Exception {
+        CompactLongSet set = new CompactLongSet();
+        for (long value = 0; value < 10_000; value++) {
+            set.add(value * 3);
+        }
+        set.add(1L << 50);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(set);
+        }
+        CompactLongSet copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (CompactLongSet) in.readObject();
+        }
+
+        assertThat(copy.size()).isEqualTo(set.size());
+        assertThat(copy.contains(29_997L)).isTrue();
+        assertThat(copy.contains(29_998L)).isFalse();
+        assertThat(copy.contains(1L << 50)).isTrue();
+        assertThat(copy.add(1L)).isTrue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tmrfcb.datingapp.service.dto.DomainEventDTO;
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class DomainEventCodecTest {
+
+    private static final Instant OCCURRED_AT = Instant.parse("2021-04-05T10:27:50.123Z");
+
+    @Test
+    void encodeThenDecode() {
+        for (DomainEventDTO event : Arrays.asList(
+            DomainEventDTO.matchCreated(1L, 2L, 3L, OCCURRED_AT),
+            DomainEventDTO.messageSent(2L, 1L, 123456789L, 3L, OCCURRED_AT),
+            DomainEventDTO.userReported(5L, null, 7L, "Spam éè", OCCURRED_AT),
+            DomainEventDTO.locationChanged(Long.MAX_VALUE, 8L, 48.8566, -2.3522, OCCURRED_AT),
+            DomainEventDTO.locationChanged(9L, null, null, null, OCCURRED_AT)
+        )) {
+            assertThat(DomainEventCodec.decode(DomainEventCodec.encode(event))).isEqualTo(event);
+        }
+    }
+
+    @Test
+    void encodingIsCompact() {
+        assertThat(DomainEventCodec.encode(DomainEventDTO.messageSent(20000L, 20001L, 1000000L, 5000L, OCCURRED_AT))).hasSizeLessThanOrEqualTo(20);
+    }
+
+    @Test
+    void rejectsIncompleteEvents() {
+        assertThatThrownBy(() -> DomainEventCodec.encode(new DomainEventDTO().userId(1L).occurredAt(OCCURRED_AT)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decodeRejectsInvalidEvents() {
+        byte[] encoded = DomainEventCodec.encode(DomainEventDTO.matchCreated(1L, 2L, 3L, OCCURRED_AT));
+
+        assertThatThrownBy(() -> DomainEventCodec.decode(new byte[0])).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> DomainEventCodec.decode(Arrays.copyOf(encoded, encoded.length - 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        encoded[0] = 2;
+        assertThatThrownBy(() -> DomainEventCodec.decode(encoded)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
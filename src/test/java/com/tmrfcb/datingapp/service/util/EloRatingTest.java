@@ -0,0 +1,35 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.jupiter.api.Test;
+
+class EloRatingTest {
+
+    @Test
+    void expectsEvenGamesBetweenEqualRatings() {
+        assertThat(EloRating.expectedScore(1500, 1500)).isCloseTo(0.5, within(1e-12));
+        assertThat(EloRating.delta(1500, 1500, 1, 32)).isCloseTo(16, within(1e-12));
+        assertThat(EloRating.delta(1500, 1500, 0, 32)).isCloseTo(-16, within(1e-12));
+    }
+
+    @Test
+    void expectsTenToOneOddsFourHundredPointsApart() {
+        assertThat(EloRating.expectedScore(1900, 1500)).isCloseTo(10d / 11, within(1e-12));
+        assertThat(EloRating.expectedScore(1500, 1900)).isCloseTo(1d / 11, within(1e-12));
+    }
+
+    @Test
+    void weighsLikesOfHigherRatedUsersMore() {
+        double likedByHigher = EloRating.delta(1500, 1800, 1, 32);
+        double likedByLower = EloRating.delta(1500, 1200, 1, 32);
+        double dislikedByHigher = EloRating.delta(1500, 1800, 0, 32);
+        double dislikedByLower = EloRating.delta(1500, 1200, 0, 32);
+
+        assertThat(likedByHigher).isGreaterThan(likedByLower).isPositive();
+        assertThat(dislikedByHigher).isGreaterThan(dislikedByLower).isNegative();
+        // The rating points won by one player are lost by the other
+        assertThat(likedByHigher + EloRating.delta(1800, 1500, 0, 32)).isCloseTo(0, within(1e-12));
+    }
+}
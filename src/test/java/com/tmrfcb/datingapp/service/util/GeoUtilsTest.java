@@ -0,0 +1,61 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class GeoUtilsTest {
+
+    @Test
+    void encodeKnownPositions() {
+        assertThat(GeoUtils.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(GeoUtils.encode(48.8566, 2.3522, 5)).isEqualTo("u09tv");
+        assertThat(GeoUtils.encode(48.8566, 2.3522, GeoUtils.MAX_PRECISION)).hasSize(GeoUtils.MAX_PRECISION);
+    }
+
+    @Test
+    void encodeRejectsInvalidPrecision() {
+        assertThatThrownBy(() -> GeoUtils.encode(0, 0, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> GeoUtils.encode(0, 0, GeoUtils.MAX_PRECISION + 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void haversineDistance() {
+        // Paris - London
+        assertThat(GeoUtils.haversineKm(48.8566, 2.3522, 51.5074, -0.1278)).isCloseTo(343.5, within(1.0));
+        assertThat(GeoUtils.haversineKm(10, 20, 10, 20)).isZero();
+    }
+
+    @Test
+    void precisionShrinksWithRadius() {
+        assertThat(GeoUtils.precisionForRadius(48.8566, 25)).isEqualTo(3);
+        assertThat(GeoUtils.precisionForRadius(48.8566, 1)).isEqualTo(5);
+        assertThat(GeoUtils.precisionForRadius(48.8566, 20000)).isEqualTo(1);
+    }
+
+    @Test
+    void coveringCellsContainEveryPointInRadius() {
+        double latitude = 48.8566;
+        double longitude = 2.3522;
+        double radiusKm = 25;
+        int precision = GeoUtils.precisionForRadius(latitude, radiusKm);
+        Set<String> cells = GeoUtils.coveringCells(latitude, longitude, precision);
+        assertThat(cells).hasSize(9).startsWith(GeoUtils.encode(latitude, longitude, precision));
+
+        for (int bearing = 0; bearing < 360; bearing += 15) {
+            double dLat = GeoUtils.latitudeDelta(radiusKm) * Math.cos(Math.toRadians(bearing));
+            double dLon = GeoUtils.longitudeDelta(latitude, radiusKm) * Math.sin(Math.toRadians(bearing));
+            assertThat(cells).contains(GeoUtils.encode(latitude + dLat, longitude + dLon, precision));
+        }
+    }
+
+    @Test
+    void coveringCellsNearThePoleAndAntimeridian() {
+        Set<String> cells = GeoUtils.coveringCells(89.9, 179.99, 3);
+        assertThat(cells).contains("zzz", "bpb");
+        assertThat(cells).hasSizeLessThan(9);
+    }
+}
@@ -0,0 +1,88 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ImplicitAlsTest {
+
+    private static final int USERS = 400;
+
+    private static final int ITEMS = 200;
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Two tastes: even users like even items and dislike some odd ones, odd users the other way round. Each user sees a
+     * random tenth of the items.
+     */
+    private static SparseMatrix twoTastes() {
+        Random random = new Random(42);
+        SparseMatrix.Builder builder = new SparseMatrix.Builder();
+        for (int user = 0; user < USERS; user++) {
+            for (int item = 0; item < ITEMS; item++) {
+                if (random.nextInt(10) == 0) {
+                    boolean sameTaste = user % 2 == item % 2;
+                    builder.add(user, item, sameTaste ? 1f : -1f);
+                }
+            }
+        }
+        return builder.build(USERS, ITEMS);
+    }
+
+    @Test
+    void trainedFactorsRankItemsOfTheSameTasteFirst() {
+        ImplicitAls.Factors factors = new ImplicitAls(8, 10, 0.1, 10, 42L).train(twoTastes(), pool);
+
+        assertThat(factors.users()).isEqualTo(USERS);
+        assertThat(factors.items()).isEqualTo(ITEMS);
+        int correct = 0;
+        for (int user = 0; user < USERS; user++) {
+            float[] vector = factors.userVector(user);
+            double sameTaste = 0;
+            double otherTaste = 0;
+            for (int item = 0; item < ITEMS; item++) {
+                if (user % 2 == item % 2) {
+                    sameTaste += factors.score(vector, item);
+                } else {
+                    otherTaste += factors.score(vector, item);
+                }
+            }
+            if (sameTaste > otherTaste) {
+                correct++;
+            }
+        }
+        assertThat(correct).isEqualTo(USERS);
+    }
+
+    @Test
+    void foldInANewUser() {
+        ImplicitAls.Factors factors = new ImplicitAls(8, 10, 0.1, 10, 42L).train(twoTastes(), pool).itemsOnly();
+
+        // Likes a few even items, dislikes an odd one
+        float[] vector = factors.foldIn(new int[] { 0, 2, 4, 6, 1 }, new float[] { 1f, 1f, 1f, 1f, -1f }, 5);
+
+        assertThat(factors.users()).isZero();
+        assertThat(factors.score(vector, 10)).isGreaterThan(factors.score(vector, 11));
+        assertThat(factors.score(vector, 100)).isGreaterThan(factors.score(vector, 101));
+        assertThat(factors.foldIn(new int[0], new float[0], 0)).containsOnly(0f);
+    }
+
+    @Test
+    void trainingIsDeterministic() {
+        SparseMatrix matrix = twoTastes();
+
+        ImplicitAls.Factors first = new ImplicitAls(4, 3, 0.1, 10, 7L).train(matrix, pool);
+        ImplicitAls.Factors second = new ImplicitAls(4, 3, 0.1, 10, 7L).train(matrix, pool);
+
+        assertThat(second.userVector(3)).containsExactly(first.userVector(3));
+    }
+}
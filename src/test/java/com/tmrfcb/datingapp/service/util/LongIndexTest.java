@@ -0,0 +1,51 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongIndexTest {
+
+    @Test
+    void numbersIdsInOrderOfAddition() {
+        LongIndex index = new LongIndex();
+
+        assertThat(index.add(42L)).isZero();
+        assertThat(index.add(7L)).isEqualTo(1);
+        assertThat(index.add(42L)).isZero();
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.indexOf(7L)).isEqualTo(1);
+        assertThat(index.indexOf(8L)).isEqualTo(-1);
+        assertThat(index.indexOf(-1L)).isEqualTo(-1);
+        assertThat(index.idAt(0)).isEqualTo(42L);
+    }
+
+    @Test
+    void rejectsNegativeIds() {
+        assertThatThrownBy(() -> new LongIndex().add(-1L)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesHashMapAcrossRehashes() {
+        Random random = new Random(42);
+        LongIndex index = new LongIndex(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            long id = random.nextInt(50_000) * 1_000_003L;
+            int added = index.add(id);
+            assertThat(added).isEqualTo(expected.computeIfAbsent(id, key -> expected.size()));
+        }
+        assertThat(index.size()).isEqualTo(expected.size());
+        expected.forEach(
+            (id, position) -> {
+                assertThat(index.indexOf(id)).isEqualTo(position);
+                assertThat(index.idAt(position)).isEqualTo(id);
+            }
+        );
+    }
+}
@@ -0,0 +1,31 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import org.junit.jupiter.api.Test;
+
+class MessageCursorTest {
+
+    @Test
+    void encodeThenDecode() {
+        MessageCursor cursor = new MessageCursor(ZonedDateTime.of(2021, 4, 5, 10, 27, 50, 123456789, ZoneId.of("Europe/Paris")), 42L);
+
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        MessageCursor decoded = MessageCursor.decode(encoded);
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(decoded.getMessageDate().toInstant()).isEqualTo(cursor.getMessageDate().toInstant());
+        assertThat(decoded.getId()).isEqualTo(42L);
+    }
+
+    @Test
+    void decodeRejectsInvalidCursors() {
+        assertThatThrownBy(() -> MessageCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageCursor.decode("bm90LWEtY3Vyc29y")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MessageCursor.decode("MTox")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+class SparseMatrixTest {
+
+    @Test
+    void buildLaysOutEntriesByRow() {
+        SparseMatrix matrix = new SparseMatrix.Builder(2).add(2, 1, 5f).add(0, 3, 1f).add(2, 0, -2f).add(0, 0, 3f).build(4, 4);
+
+        assertThat(matrix.rows()).isEqualTo(4);
+        assertThat(matrix.nonZeros()).isEqualTo(4);
+        assertRow(matrix, 0, new int[] { 3, 0 }, new float[] { 1f, 3f });
+        assertRow(matrix, 1, new int[0], new float[0]);
+        assertRow(matrix, 2, new int[] { 1, 0 }, new float[] { 5f, -2f });
+        assertRow(matrix, 3, new int[0], new float[0]);
+    }
+
+    @Test
+    void transpose() {
+        SparseMatrix transposed = new SparseMatrix.Builder().add(0, 2, 1f).add(1, 0, 2f).add(1, 2, 3f).build(2, 3).transpose();
+
+        assertThat(transposed.rows()).isEqualTo(3);
+        assertThat(transposed.columns()).isEqualTo(2);
+        assertRow(transposed, 0, new int[] { 1 }, new float[] { 2f });
+        assertRow(transposed, 1, new int[0], new float[0]);
+        assertRow(transposed, 2, new int[] { 0, 1 }, new float[] { 1f, 3f });
+    }
+
+    @Test
+    void rejectsEntriesOutOfTheMatrix() {
+        assertThatThrownBy(() -> new SparseMatrix.Builder().add(0, 5, 1f).build(1, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertRow(SparseMatrix matrix, int row, int[] columns, float[] values) {
+        assertThat(matrix.rowEnd(row) - matrix.rowStart(row)).isEqualTo(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            assertThat(matrix.column(matrix.rowStart(row) + i)).isEqualTo(columns[i]);
+            assertThat(matrix.value(matrix.rowStart(row) + i)).isEqualTo(values[i]);
+        }
+    }
+}
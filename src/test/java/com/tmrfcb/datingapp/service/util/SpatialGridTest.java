@@ -0,0 +1,112 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class SpatialGridTest {
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        int users = 5_000;
+        double[] latitudes = new double[users];
+        double[] longitudes = new double[users];
+        SpatialGrid grid = new SpatialGrid(0.1, 16);
+        for (int i = 0; i < users; i++) {
+            latitudes[i] = 45 + random.nextDouble() * 5;
+            longitudes[i] = random.nextDouble() * 5;
+            grid.put(i, latitudes[i], longitudes[i]);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double latitude = 45 + random.nextDouble() * 5;
+            double longitude = random.nextDouble() * 5;
+            int[] expected = IntStream
+                .range(0, users)
+                .boxed()
+                .filter(i -> GeoUtils.haversineKm(latitude, longitude, latitudes[i], longitudes[i]) <= 30)
+                .sorted(Comparator.comparingDouble(i -> GeoUtils.haversineKm(latitude, longitude, latitudes[i], longitudes[i])))
+                .limit(10)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+            SpatialGrid.Neighbours neighbours = grid.nearest(latitude, longitude, 10, 30);
+
+            assertThat(neighbours.userIds()).containsExactly(IntStream.of(expected).asLongStream().toArray());
+        }
+    }
+
+    @Test
+    void putMovesAndRemoveDeletes() {
+        SpatialGrid grid = new SpatialGrid(0.1, 4);
+        grid.put(1L, 48.8566, 2.3522);
+        grid.put(2L, 48.86, 2.35);
+        assertThat(grid.size()).isEqualTo(2);
+
+        // Move user 1 to Lyon
+        grid.put(1L, 45.764, 4.8357);
+        SpatialGrid.Neighbours nearParis = grid.nearest(48.8566, 2.3522, 10, 50);
+        assertThat(nearParis.userIds()).containsExactly(2L);
+        assertThat(nearParis.distanceKm(0)).isCloseTo(0.4, within(0.1));
+        assertThat(grid.size()).isEqualTo(2);
+
+        grid.remove(2L);
+        assertThat(grid.nearest(48.8566, 2.3522, 10, 50).size()).isZero();
+        assertThat(grid.nearest(45.764, 4.8357, 10, 50).userIds()).containsExactly(1L);
+        assertThat(grid.size()).isEqualTo(1);
+    }
+
+    @Test
+    void nearestAcrossTheAntimeridian() {
+        SpatialGrid grid = new SpatialGrid(0.5, 4);
+        grid.put(1L, 0, 179.9);
+        grid.put(2L, 0, -179.9);
+        grid.put(3L, 0, 170);
+
+        assertThat(grid.nearest(0, 179.95, 10, 50).userIds()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void concurrentMovesOfAUserLeaveItInOneCell() throws Exception {
+        SpatialGrid grid = new SpatialGrid(0.1, 4);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> moves = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                double longitude = t;
+                moves.add(
+                    executor.submit(
+                        () -> {
+                            start.await();
+                            for (int i = 0; i < 10_000; i++) {
+                                grid.put(1L, 0, longitude);
+                            }
+                            return null;
+                        }
+                    )
+                );
+            }
+            start.countDown();
+            for (Future<?> move : moves) {
+                move.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(grid.nearest(0, 1.5, 10, 500).userIds()).containsExactly(1L);
+    }
+}
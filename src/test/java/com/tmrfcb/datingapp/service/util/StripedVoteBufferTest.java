@@ -0,0 +1,93 @@
+package com.tmrfcb.datingapp.service.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.tmrfcb.datingapp.service.util.StripedVoteBuffer.Vote;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class StripedVoteBufferTest {
+
+    @Test
+    void roundsStripesUpToAPowerOfTwo() {
+        assertThat(new StripedVoteBuffer(1, 10).stripeCount()).isEqualTo(2);
+        assertThat(new StripedVoteBuffer(8, 10).stripeCount()).isEqualTo(8);
+        assertThat(new StripedVoteBuffer(9, 10).stripeCount()).isEqualTo(16);
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThatThrownBy(() -> new StripedVoteBuffer(0, 10)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StripedVoteBuffer(4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void drainsBufferedVotes() {
+        StripedVoteBuffer buffer = new StripedVoteBuffer(4, 10);
+        Vote vote = new Vote(1L, 2L, true, 1f);
+
+        assertThat(buffer.add(vote)).isTrue();
+        assertThat(buffer.size()).isEqualTo(1);
+        assertThat(buffer.drain()).containsExactly(vote);
+        assertThat(buffer.size()).isZero();
+        assertThat(buffer.drain()).isEmpty();
+    }
+
+    @Test
+    void dropsVotesPastCapacity() {
+        StripedVoteBuffer buffer = new StripedVoteBuffer(4, 2);
+
+        assertThat(buffer.add(new Vote(1L, 2L, true, 1f))).isTrue();
+        assertThat(buffer.add(new Vote(1L, 3L, false, 1f))).isTrue();
+        assertThat(buffer.add(new Vote(1L, 4L, true, 2f))).isFalse();
+        assertThat(buffer.drain()).hasSize(2);
+        assertThat(buffer.add(new Vote(1L, 4L, true, 2f))).isTrue();
+    }
+
+    @Test
+    void keepsEveryVoteOfConcurrentThreads() throws Exception {
+        int threads = 8;
+        int votesPerThread = 10_000;
+        StripedVoteBuffer buffer = new StripedVoteBuffer(threads, Long.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int thread = 0; thread < threads; thread++) {
+                long voterId = thread;
+                results.add(
+                    executor.submit(
+                        () -> {
+                            start.await();
+                            for (int i = 0; i < votesPerThread; i++) {
+                                buffer.add(new Vote(voterId, i, true, 1f));
+                            }
+                            return null;
+                        }
+                    )
+                );
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Vote> votes = buffer.drain();
+        Set<String> distinct = new HashSet<>();
+        votes.forEach(vote -> distinct.add(vote.getVoterId() + ":" + vote.getTargetId()));
+        assertThat(votes).hasSize(threads * votesPerThread);
+        assertThat(distinct).hasSize(threads * votesPerThread);
+        assertThat(buffer.size()).isZero();
+    }
+}
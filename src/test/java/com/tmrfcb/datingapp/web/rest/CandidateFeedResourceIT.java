@@ -0,0 +1,124 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import com.tmrfcb.datingapp.service.NearbyUserService;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link CandidateFeedResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class CandidateFeedResourceIT {
+
+    private static final String FEED_API_URL = "/api/user-apps/{id}/feed";
+
+    private static final LocalDate TODAY = LocalDate.now(ZoneOffset.UTC);
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private NearbyUserService nearbyUserService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restCandidateFeedMockMvc;
+
+    @Test
+    @Transactional
+    void getFeedServesEachCandidateOnceNearestFirst() throws Exception {
+        UserApp viewer = createUser("Viewer", 30, 48.8600, 2.3500);
+        createUser("Near", 30, 48.8610, 2.3510);
+        createUser("Nearer", 30, 48.8601, 2.3501);
+        createUser("Far", 30, 45.7600, 4.8400);
+        UserApp swiped = createUser("Swiped", 30, 48.8602, 2.3502);
+        em.persist(new Relation().userApp(viewer).userIdOfOther(swiped.getId().toString()).relationType(RelationType.DISLIKE));
+        em.flush();
+        nearbyUserService.rebuild();
+
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, viewer.getId()).param("count", "2").param("radiusKm", "500"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].firstName").value(contains("Nearer", "Near")));
+
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, viewer.getId()).param("count", "2").param("radiusKm", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].firstName").value(contains("Far")));
+
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, viewer.getId()).param("count", "2").param("radiusKm", "500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getFeedFiltersOnRadiusAndAge() throws Exception {
+        UserApp viewer = createUser("Viewer", 30, 48.8600, 2.3500);
+        createUser("Young", 19, 48.8601, 2.3501);
+        createUser("Match", 25, 48.8602, 2.3502);
+        createUser("Old", 60, 48.8603, 2.3503);
+        createUser("Distant", 25, 45.7600, 4.8400);
+        nearbyUserService.rebuild();
+
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, viewer.getId()).param("radiusKm", "25").param("minAge", "20").param("maxAge", "40"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].firstName").value(contains("Match")));
+
+        // Other criteria rebuild the queue
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, viewer.getId()).param("radiusKm", "25").param("minAge", "50"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].firstName").value(contains("Old")));
+    }
+
+    @Test
+    @Transactional
+    void getFeedOfUserWithoutPosition() throws Exception {
+        UserApp viewer = userAppRepository.saveAndFlush(new UserApp().firstName("Nowhere"));
+
+        restCandidateFeedMockMvc.perform(get(FEED_API_URL, viewer.getId())).andExpect(status().isOk()).andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void getFeedWithInvalidCriteria() throws Exception {
+        restCandidateFeedMockMvc.perform(get(FEED_API_URL, 1L).param("count", "0")).andExpect(status().isBadRequest());
+        restCandidateFeedMockMvc.perform(get(FEED_API_URL, 1L).param("count", "1000")).andExpect(status().isBadRequest());
+        restCandidateFeedMockMvc.perform(get(FEED_API_URL, 1L).param("radiusKm", "-1")).andExpect(status().isBadRequest());
+        restCandidateFeedMockMvc.perform(get(FEED_API_URL, 1L).param("radiusKm", "20000")).andExpect(status().isBadRequest());
+        restCandidateFeedMockMvc
+            .perform(get(FEED_API_URL, 1L).param("minAge", "40").param("maxAge", "20"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private UserApp createUser(String firstName, int age, double latitude, double longitude) {
+        Location location = new Location().latitude(latitude).longitude(longitude);
+        em.persist(location);
+        return userAppRepository.saveAndFlush(new UserApp().firstName(firstName).birthDate(TODAY.minusYears(age)).location(location));
+    }
+}
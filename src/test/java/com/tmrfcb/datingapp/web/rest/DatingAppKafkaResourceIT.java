@@ -1,16 +1,27 @@
 package com.tmrfcb.datingapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.tmrfcb.datingapp.config.KafkaProperties;
+import com.tmrfcb.datingapp.web.rest.errors.ExceptionTranslator;
+import com.tmrfcb.datingapp.web.rest.vm.KafkaRecordVM;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
@@ -19,7 +30,9 @@ import org.apache.kafka.clients.producer.ProducerRecord;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -56,17 +69,23 @@ class DatingAppKafkaResourceIT {
         consumerProps.put("client.id", "default-client");
         kafkaProperties.setConsumer(consumerProps);
 
-        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties);
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, new SimpleMeterRegistry());
 
-        restMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
+        restMockMvc =
+            MockMvcBuilders.standaloneSetup(kafkaResource).setControllerAdvice(new ExceptionTranslator(new MockEnvironment())).build();
     }
 
     @Test
     void producesMessages() throws Exception {
-        restMockMvc
+        MvcResult mvcResult = restMockMvc
             .perform(post("/api/dating-app-kafka/publish/topic-produce?message=value-produce"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMockMvc
+            .perform(asyncDispatch(mvcResult))
             .andExpect(status().isOk())
-            .andExpect(content().contentType(MediaType.APPLICATION_JSON));
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(jsonPath("$.topic").value("topic-produce"));
 
         Map<String, Object> consumerProps = new HashMap<>(getConsumerProps("group-produce"));
         KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps);
@@ -78,6 +97,118 @@ class DatingAppKafkaResourceIT {
         assertThat(record.value()).isEqualTo("value-produce");
     }
 
+    @Test
+    void producesBatchesOfMessages() throws Exception {
+        List<KafkaRecordVM> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(new KafkaRecordVM("key-" + (i % 2), "value-batch-" + i));
+        }
+        MvcResult mvcResult = restMockMvc
+            .perform(
+                post("/api/dating-app-kafka/publish/topic-batch/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(records))
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        restMockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(10));
+
+        Map<String, Object> consumerProps = new HashMap<>(getConsumerProps("group-batch"));
+        KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps);
+        consumer.subscribe(Collections.singletonList("topic-batch"));
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 10 && values.size() < 10; i++) {
+            consumer.poll(Duration.ofSeconds(1)).forEach(record -> values.add(record.value()));
+        }
+        consumer.close();
+
+        assertThat(values).hasSize(10);
+        // Records with the same key keep their order
+        assertThat(values.stream().filter(value -> Integer.parseInt(value.substring("value-batch-".length())) % 2 == 0))
+            .containsExactly("value-batch-0", "value-batch-2", "value-batch-4", "value-batch-6", "value-batch-8");
+    }
+
+    @Test
+    void rejectsTooLargeBatches() throws Exception {
+        List<KafkaRecordVM> records = new ArrayList<>();
+        for (int i = 0; i <= DatingAppKafkaResource.MAX_BATCH_SIZE; i++) {
+            records.add(new KafkaRecordVM(null, "value"));
+        }
+        restMockMvc
+            .perform(
+                post("/api/dating-app-kafka/publish/topic-batch-too-large/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(records))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Measures the publish throughput and latency against the test broker. The logged figures are the meaningful ones,
+     * the assertions only catch a publish waiting for the broker on the request thread or a stalled producer.
+     */
+    @Test
+    void measuresPublishThroughputAndLatency() throws Exception {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setProducer(new HashMap<>(getProducerProps()));
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, new SimpleMeterRegistry());
+        int count = 5000;
+        long[] latencies = new long[count];
+        List<CompletableFuture<?>> results = new ArrayList<>(count);
+        // Warm the producer up, so that the figures do not include fetching the metadata
+        kafkaResource.publish("topic-throughput", "warm-up", null).get();
+
+        long start = System.nanoTime();
+        long maxCallNanos = 0;
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            long sent = System.nanoTime();
+            results.add(
+                kafkaResource.publish("topic-throughput", "value-" + i, "key-" + (i % 16)).thenRun(() -> latencies[index] = System.nanoTime() - sent)
+            );
+            maxCallNanos = Math.max(maxCallNanos, System.nanoTime() - sent);
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).get(30, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+        kafkaResource.close();
+
+        Arrays.sort(latencies);
+        long p99 = latencies[(int) Math.ceil(count * 0.99) - 1];
+        LoggerFactory
+            .getLogger(DatingAppKafkaResourceIT.class)
+            .info(
+                "Published {} records in {} ms: {} records/s, p50 {} ms, p99 {} ms",
+                count,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                count * 1_000_000_000L / elapsed,
+                TimeUnit.NANOSECONDS.toMillis(latencies[count / 2]),
+                TimeUnit.NANOSECONDS.toMillis(p99)
+            );
+        assertThat(latencies[0]).isPositive();
+        assertThat(TimeUnit.NANOSECONDS.toMillis(maxCallNanos)).isLessThan(1000);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(p99)).isLessThan(1000);
+    }
+
+    @Test
+    void publishToAnUnreachableBrokerFailsWithinTheBlockTimeout() throws Exception {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        Map<String, String> producerProps = new HashMap<>(getProducerProps());
+        producerProps.put("bootstrap.servers", "localhost:1");
+        producerProps.put("max.block.ms", "500");
+        kafkaProperties.setProducer(producerProps);
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, new SimpleMeterRegistry());
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<?> result = kafkaResource.publish("topic-unreachable", "value-unreachable", null);
+            long callMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+            assertThat(callMillis).isLessThan(2000);
+        } finally {
+            kafkaResource.close();
+        }
+    }
+
     @Test
     void consumesMessages() throws Exception {
         Map<String, Object> producerProps = new HashMap<>(getProducerProps());
@@ -101,6 +232,105 @@ class DatingAppKafkaResourceIT {
         fail("Expected content data:value-consume not received");
     }
 
+    @Test
+    void sharesOneConsumerBetweenClientsOfTheSameTopics() throws Exception {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setProducer(new HashMap<>(getProducerProps()));
+        kafkaProperties.setConsumer(getConsumerProps("group-shared"));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, meterRegistry);
+        MockMvc sharedMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
+        try {
+            MvcResult first = sharedMockMvc
+                .perform(get("/api/dating-app-kafka/consume?topic=topic-shared"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            MvcResult second = sharedMockMvc
+                .perform(get("/api/dating-app-kafka/consume?topic=topic-shared"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            assertThat(meterRegistry.get("kafka.sse.consumers").gauge().value()).isEqualTo(1);
+            assertThat(meterRegistry.get("kafka.sse.clients").gauge().value()).isEqualTo(2);
+
+            kafkaResource.publish("topic-shared", "value-shared", null).get(10, TimeUnit.SECONDS);
+
+            for (int i = 0; i < 100; i++) {
+                Thread.sleep(100);
+                if (
+                    first.getResponse().getContentAsString().contains("data:value-shared") &&
+                    second.getResponse().getContentAsString().contains("data:value-shared")
+                ) {
+                    return;
+                }
+            }
+            fail("Expected content data:value-shared not received by both clients");
+        } finally {
+            kafkaResource.close();
+        }
+    }
+
+    @Test
+    void deliversRecordsPromptlyWhateverTheNumberOfStreams() throws Exception {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setProducer(new HashMap<>(getProducerProps()));
+        kafkaProperties.setConsumer(getConsumerProps("group-streams"));
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, new SimpleMeterRegistry());
+        MockMvc streamsMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
+        try {
+            for (int i = 0; i < 8; i++) {
+                streamsMockMvc.perform(get("/api/dating-app-kafka/consume?topic=topic-idle-" + i)).andExpect(request().asyncStarted());
+            }
+            MvcResult client = streamsMockMvc
+                .perform(get("/api/dating-app-kafka/consume?topic=topic-streams"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            // Let the consumer join its group before publishing
+            kafkaResource.publish("topic-streams", "warm-up", null).get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < 100 && !client.getResponse().getContentAsString().contains("data:warm-up"); i++) {
+                Thread.sleep(100);
+            }
+
+            long start = System.nanoTime();
+            kafkaResource.publish("topic-streams", "value-streams", null).get(10, TimeUnit.SECONDS);
+            while (!client.getResponse().getContentAsString().contains("data:value-streams")) {
+                if (System.nanoTime() - start > TimeUnit.SECONDS.toNanos(10)) {
+                    fail("Expected content data:value-streams not received");
+                }
+                Thread.sleep(10);
+            }
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        } finally {
+            kafkaResource.close();
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedConsumerSettings() throws Exception {
+        restMockMvc
+            .perform(get("/api/dating-app-kafka/consume?topic=topic-settings&bootstrap.servers=elsewhere:9092"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void refusesStreamsBeyondTheMaximum() throws Exception {
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setProducer(new HashMap<>(getProducerProps()));
+        kafkaProperties.setConsumer(getConsumerProps("group-max-streams"));
+        kafkaProperties.getSse().setMaxStreams(2);
+        DatingAppKafkaResource kafkaResource = new DatingAppKafkaResource(kafkaProperties, new SimpleMeterRegistry());
+        MockMvc maxStreamsMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
+        try {
+            maxStreamsMockMvc.perform(get("/api/dating-app-kafka/consume?topic=topic-max-1")).andExpect(request().asyncStarted());
+            maxStreamsMockMvc.perform(get("/api/dating-app-kafka/consume?topic=topic-max-2")).andExpect(request().asyncStarted());
+            // Joining an open stream is still possible
+            maxStreamsMockMvc.perform(get("/api/dating-app-kafka/consume?topic=topic-max-1")).andExpect(request().asyncStarted());
+
+            maxStreamsMockMvc.perform(get("/api/dating-app-kafka/consume?topic=topic-max-3")).andExpect(status().isServiceUnavailable());
+        } finally {
+            kafkaResource.close();
+        }
+    }
+
     private Map<String, String> getProducerProps() {
         Map<String, String> producerProps = new HashMap<>();
         producerProps.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
@@ -0,0 +1,167 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.InboxEntry;
+import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
+import com.tmrfcb.datingapp.repository.InboxEntryRepository;
+import com.tmrfcb.datingapp.service.MatchRelationService;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link InboxResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class InboxResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/user-apps/{id}/inbox";
+    private static final String ENTITY_API_URL_READ = ENTITY_API_URL + "/{matchRelationId}/read";
+
+    private static Random random = new Random();
+    private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
+
+    @Autowired
+    private MatchRelationService matchRelationService;
+
+    @Autowired
+    private InboxEntryRepository inboxEntryRepository;
+
+    @Autowired
+    private MockMvc restInboxMockMvc;
+
+    private long user;
+
+    private long firstMatch;
+
+    private long secondMatch;
+
+    private MatchRelation firstMatchRelation;
+
+    private MatchRelation secondMatchRelation;
+
+    @BeforeEach
+    public void initTest() {
+        user = count.incrementAndGet();
+        firstMatch = count.incrementAndGet();
+        secondMatch = count.incrementAndGet();
+    }
+
+    @Test
+    @Transactional
+    void matchesAreAddedToTheInboxOfBothUsers() throws Exception {
+        firstMatchRelation = createMatch(user, firstMatch, ZonedDateTime.now().minusDays(2));
+        secondMatchRelation = createMatch(user, secondMatch, ZonedDateTime.now().minusDays(1));
+
+        restInboxMockMvc
+            .perform(get(ENTITY_API_URL, user))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(
+                jsonPath("$.[*].matchRelationId")
+                    .value(contains(secondMatchRelation.getId().intValue(), firstMatchRelation.getId().intValue()))
+            )
+            .andExpect(jsonPath("$.[*].unreadCount").value(contains(0, 0)));
+        restInboxMockMvc
+            .perform(get(ENTITY_API_URL, firstMatch))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].otherUserId").value(contains((int) user)));
+    }
+
+    @Test
+    @Transactional
+    void messagesUpdateTheInboxOfTheSenderAndTheRecipient() throws Exception {
+        firstMatchRelation = createMatch(user, firstMatch, ZonedDateTime.now().minusDays(2));
+        secondMatchRelation = createMatch(user, secondMatch, ZonedDateTime.now().minusDays(1));
+
+        sendMessage(firstMatchRelation, firstMatch, user, "hello");
+        sendMessage(firstMatchRelation, firstMatch, user, "how are you?");
+
+        // The conversation with a new message comes first
+        restInboxMockMvc
+            .perform(get(ENTITY_API_URL, user))
+            .andExpect(status().isOk())
+            .andExpect(
+                jsonPath("$.[*].matchRelationId")
+                    .value(contains(firstMatchRelation.getId().intValue(), secondMatchRelation.getId().intValue()))
+            )
+            .andExpect(jsonPath("$.[0].lastMessagePreview").value("how are you?"))
+            .andExpect(jsonPath("$.[0].lastMessageSenderId").value(Long.toString(firstMatch)))
+            .andExpect(jsonPath("$.[0].unreadCount").value(2));
+        restInboxMockMvc
+            .perform(get(ENTITY_API_URL, firstMatch))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].lastMessagePreview").value("how are you?"))
+            .andExpect(jsonPath("$.[0].unreadCount").value(0));
+
+        restInboxMockMvc.perform(put(ENTITY_API_URL_READ, user, firstMatchRelation.getId())).andExpect(status().isNoContent());
+
+        InboxEntry entry = inboxEntryRepository.findInbox(user, PageRequest.of(0, 1)).getContent().get(0);
+        assertThat(entry.getMatchRelationId()).isEqualTo(firstMatchRelation.getId());
+        assertThat(entry.getUnreadCount()).isZero();
+    }
+
+    @Test
+    @Transactional
+    void inboxAcceptsItsOwnOrder() throws Exception {
+        firstMatchRelation = createMatch(user, firstMatch, ZonedDateTime.now().minusDays(2));
+        secondMatchRelation = createMatch(user, secondMatch, ZonedDateTime.now().minusDays(1));
+
+        restInboxMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=lastActivityDate,desc", user))
+            .andExpect(status().isOk())
+            .andExpect(
+                jsonPath("$.[*].matchRelationId")
+                    .value(contains(secondMatchRelation.getId().intValue(), firstMatchRelation.getId().intValue()))
+            );
+    }
+
+    @Test
+    @Transactional
+    void inboxRejectsOtherSorts() throws Exception {
+        restInboxMockMvc.perform(get(ENTITY_API_URL + "?sort=lastActivityDate,asc", user)).andExpect(status().isBadRequest());
+        restInboxMockMvc.perform(get(ENTITY_API_URL + "?sort=unreadCount,desc", user)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void markReadOfUnknownConversation() throws Exception {
+        restInboxMockMvc.perform(put(ENTITY_API_URL_READ, user, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private MatchRelation createMatch(long userId, long otherUserId, ZonedDateTime matchDate) {
+        return matchRelationService.save(
+            new MatchRelation().matchDate(matchDate).userLowId(Math.min(userId, otherUserId)).userHighId(Math.max(userId, otherUserId))
+        );
+    }
+
+    private void sendMessage(MatchRelation matchRelation, long senderId, long receiverId, String content) throws Exception {
+        Message message = new Message()
+            .senderId(Long.toString(senderId))
+            .receiverId(Long.toString(receiverId))
+            .messageContent(content)
+            .messageDate(ZonedDateTime.now())
+            .matchRelation(matchRelation);
+        restInboxMockMvc
+            .perform(post("/api/messages").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(message)))
+            .andExpect(status().isCreated());
+    }
+}
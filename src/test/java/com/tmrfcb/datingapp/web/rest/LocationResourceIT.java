@@ -3,6 +3,7 @@ package com.tmrfcb.datingapp.web.rest;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -11,6 +12,7 @@ import com.tmrfcb.datingapp.IntegrationTest;
 import com.tmrfcb.datingapp.domain.Location;
 import com.tmrfcb.datingapp.repository.LocationRepository;
 import com.tmrfcb.datingapp.repository.search.LocationSearchRepository;
+import com.tmrfcb.datingapp.service.LocationService;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -51,8 +53,14 @@ class LocationResourceIT {
     private static final String DEFAULT_STATE_PROVINCE = "AAAAAAAAAA";
     private static final String UPDATED_STATE_PROVINCE = "BBBBBBBBBB";
 
-    private static final Float DEFAULT_GPS = 1F;
-    private static final Float UPDATED_GPS = 2F;
+    private static final Double DEFAULT_LATITUDE = 48.8566D;
+    private static final Double UPDATED_LATITUDE = 45.764D;
+
+    private static final Double DEFAULT_LONGITUDE = 2.3522D;
+    private static final Double UPDATED_LONGITUDE = 4.8357D;
+
+    private static final String DEFAULT_GEOHASH = "u09tvw0f64r7";
+    private static final String UPDATED_GEOHASH = "u05kq514xgzm";
 
     private static final String ENTITY_API_URL = "/api/locations";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
@@ -72,6 +80,9 @@ class LocationResourceIT {
     @Autowired
     private LocationSearchRepository mockLocationSearchRepository;
 
+    @Autowired
+    private LocationService locationService;
+
     @Autowired
     private EntityManager em;
 
@@ -92,7 +103,8 @@ class LocationResourceIT {
             .postalCode(DEFAULT_POSTAL_CODE)
             .city(DEFAULT_CITY)
             .stateProvince(DEFAULT_STATE_PROVINCE)
-            .gps(DEFAULT_GPS);
+            .latitude(DEFAULT_LATITUDE)
+            .longitude(DEFAULT_LONGITUDE);
         return location;
     }
 
@@ -108,7 +120,8 @@ class LocationResourceIT {
             .postalCode(UPDATED_POSTAL_CODE)
             .city(UPDATED_CITY)
             .stateProvince(UPDATED_STATE_PROVINCE)
-            .gps(UPDATED_GPS);
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
         return location;
     }
 
@@ -134,7 +147,9 @@ class LocationResourceIT {
         assertThat(testLocation.getPostalCode()).isEqualTo(DEFAULT_POSTAL_CODE);
         assertThat(testLocation.getCity()).isEqualTo(DEFAULT_CITY);
         assertThat(testLocation.getStateProvince()).isEqualTo(DEFAULT_STATE_PROVINCE);
-        assertThat(testLocation.getGps()).isEqualTo(DEFAULT_GPS);
+        assertThat(testLocation.getLatitude()).isEqualTo(DEFAULT_LATITUDE);
+        assertThat(testLocation.getLongitude()).isEqualTo(DEFAULT_LONGITUDE);
+        assertThat(testLocation.getGeohash()).isEqualTo(DEFAULT_GEOHASH);
 
         // Validate the Location in Elasticsearch
         verify(mockLocationSearchRepository, times(1)).save(testLocation);
@@ -177,7 +192,8 @@ class LocationResourceIT {
             .andExpect(jsonPath("$.[*].postalCode").value(hasItem(DEFAULT_POSTAL_CODE)))
             .andExpect(jsonPath("$.[*].city").value(hasItem(DEFAULT_CITY)))
             .andExpect(jsonPath("$.[*].stateProvince").value(hasItem(DEFAULT_STATE_PROVINCE)))
-            .andExpect(jsonPath("$.[*].gps").value(hasItem(DEFAULT_GPS.doubleValue())));
+            .andExpect(jsonPath("$.[*].latitude").value(hasItem(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(hasItem(DEFAULT_LONGITUDE.doubleValue())));
     }
 
     @Test
@@ -196,7 +212,8 @@ class LocationResourceIT {
             .andExpect(jsonPath("$.postalCode").value(DEFAULT_POSTAL_CODE))
             .andExpect(jsonPath("$.city").value(DEFAULT_CITY))
             .andExpect(jsonPath("$.stateProvince").value(DEFAULT_STATE_PROVINCE))
-            .andExpect(jsonPath("$.gps").value(DEFAULT_GPS.doubleValue()));
+            .andExpect(jsonPath("$.latitude").value(DEFAULT_LATITUDE.doubleValue()))
+            .andExpect(jsonPath("$.longitude").value(DEFAULT_LONGITUDE.doubleValue()));
     }
 
     @Test
@@ -206,6 +223,38 @@ class LocationResourceIT {
         restLocationMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getNearbyLocations() throws Exception {
+        // Initialize the database: one location in Paris, one in Lyon (~390 km away)
+        Location paris = locationService.save(createEntity(em));
+        Location lyon = locationService.save(createUpdatedEntity(em));
+        em.flush();
+
+        // Get the locations within 25 km of Paris
+        restLocationMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=25"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(paris.getId().intValue())))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(lyon.getId().intValue()))));
+
+        // Both are within 500 km, nearest first
+        restLocationMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=500"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(paris.getId().intValue()))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(lyon.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getNearbyLocationsWithInvalidPosition() throws Exception {
+        restLocationMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=91&longitude=2.35&radiusKm=25"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putNewLocation() throws Exception {
@@ -223,7 +272,8 @@ class LocationResourceIT {
             .postalCode(UPDATED_POSTAL_CODE)
             .city(UPDATED_CITY)
             .stateProvince(UPDATED_STATE_PROVINCE)
-            .gps(UPDATED_GPS);
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
 
         restLocationMockMvc
             .perform(
@@ -241,7 +291,9 @@ class LocationResourceIT {
         assertThat(testLocation.getPostalCode()).isEqualTo(UPDATED_POSTAL_CODE);
         assertThat(testLocation.getCity()).isEqualTo(UPDATED_CITY);
         assertThat(testLocation.getStateProvince()).isEqualTo(UPDATED_STATE_PROVINCE);
-        assertThat(testLocation.getGps()).isEqualTo(UPDATED_GPS);
+        assertThat(testLocation.getLatitude()).isEqualTo(UPDATED_LATITUDE);
+        assertThat(testLocation.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
+        assertThat(testLocation.getGeohash()).isEqualTo(UPDATED_GEOHASH);
 
         // Validate the Location in Elasticsearch
         verify(mockLocationSearchRepository).save(testLocation);
@@ -324,7 +376,11 @@ class LocationResourceIT {
         Location partialUpdatedLocation = new Location();
         partialUpdatedLocation.setId(location.getId());
 
-        partialUpdatedLocation.streetAddress(UPDATED_STREET_ADDRESS).city(UPDATED_CITY).gps(UPDATED_GPS);
+        partialUpdatedLocation
+            .streetAddress(UPDATED_STREET_ADDRESS)
+            .city(UPDATED_CITY)
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
 
         restLocationMockMvc
             .perform(
@@ -342,7 +398,9 @@ class LocationResourceIT {
         assertThat(testLocation.getPostalCode()).isEqualTo(DEFAULT_POSTAL_CODE);
         assertThat(testLocation.getCity()).isEqualTo(UPDATED_CITY);
         assertThat(testLocation.getStateProvince()).isEqualTo(DEFAULT_STATE_PROVINCE);
-        assertThat(testLocation.getGps()).isEqualTo(UPDATED_GPS);
+        assertThat(testLocation.getLatitude()).isEqualTo(UPDATED_LATITUDE);
+        assertThat(testLocation.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
+        assertThat(testLocation.getGeohash()).isEqualTo(UPDATED_GEOHASH);
     }
 
     @Test
@@ -362,7 +420,8 @@ class LocationResourceIT {
             .postalCode(UPDATED_POSTAL_CODE)
             .city(UPDATED_CITY)
             .stateProvince(UPDATED_STATE_PROVINCE)
-            .gps(UPDATED_GPS);
+            .latitude(UPDATED_LATITUDE)
+            .longitude(UPDATED_LONGITUDE);
 
         restLocationMockMvc
             .perform(
@@ -380,7 +439,9 @@ class LocationResourceIT {
         assertThat(testLocation.getPostalCode()).isEqualTo(UPDATED_POSTAL_CODE);
         assertThat(testLocation.getCity()).isEqualTo(UPDATED_CITY);
         assertThat(testLocation.getStateProvince()).isEqualTo(UPDATED_STATE_PROVINCE);
-        assertThat(testLocation.getGps()).isEqualTo(UPDATED_GPS);
+        assertThat(testLocation.getLatitude()).isEqualTo(UPDATED_LATITUDE);
+        assertThat(testLocation.getLongitude()).isEqualTo(UPDATED_LONGITUDE);
+        assertThat(testLocation.getGeohash()).isEqualTo(UPDATED_GEOHASH);
     }
 
     @Test
@@ -488,6 +549,7 @@ class LocationResourceIT {
             .andExpect(jsonPath("$.[*].postalCode").value(hasItem(DEFAULT_POSTAL_CODE)))
             .andExpect(jsonPath("$.[*].city").value(hasItem(DEFAULT_CITY)))
             .andExpect(jsonPath("$.[*].stateProvince").value(hasItem(DEFAULT_STATE_PROVINCE)))
-            .andExpect(jsonPath("$.[*].gps").value(hasItem(DEFAULT_GPS.doubleValue())));
+            .andExpect(jsonPath("$.[*].latitude").value(hasItem(DEFAULT_LATITUDE.doubleValue())))
+            .andExpect(jsonPath("$.[*].longitude").value(hasItem(DEFAULT_LONGITUDE.doubleValue())));
     }
 }
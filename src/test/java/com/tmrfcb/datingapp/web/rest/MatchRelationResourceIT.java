@@ -3,13 +3,16 @@ package com.tmrfcb.datingapp.web.rest;
 import static com.tmrfcb.datingapp.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.tmrfcb.datingapp.IntegrationTest;
+import com.jayway.jsonpath.JsonPath;
 import com.tmrfcb.datingapp.domain.MatchRelation;
+import com.tmrfcb.datingapp.domain.Message;
 import com.tmrfcb.datingapp.repository.MatchRelationRepository;
 import com.tmrfcb.datingapp.repository.search.MatchRelationSearchRepository;
 import java.time.Instant;
@@ -47,9 +50,16 @@ class MatchRelationResourceIT {
     private static final ZonedDateTime DEFAULT_MATCH_DATE = ZonedDateTime.ofInstant(Instant.ofEpochMilli(0L), ZoneOffset.UTC);
     private static final ZonedDateTime UPDATED_MATCH_DATE = ZonedDateTime.now(ZoneId.systemDefault()).withNano(0);
 
+    private static final Long DEFAULT_USER_LOW_ID = 1L;
+    private static final Long UPDATED_USER_LOW_ID = 3L;
+
+    private static final Long DEFAULT_USER_HIGH_ID = 2L;
+    private static final Long UPDATED_USER_HIGH_ID = 4L;
+
     private static final String ENTITY_API_URL = "/api/match-relations";
     private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
     private static final String ENTITY_SEARCH_API_URL = "/api/_search/match-relations";
+    private static final String ENTITY_API_URL_MESSAGES = ENTITY_API_URL_ID + "/messages";
 
     private static Random random = new Random();
     private static AtomicLong count = new AtomicLong(random.nextInt() + (2 * Integer.MAX_VALUE));
@@ -80,7 +90,10 @@ class MatchRelationResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static MatchRelation createEntity(EntityManager em) {
-        MatchRelation matchRelation = new MatchRelation().matchDate(DEFAULT_MATCH_DATE);
+        MatchRelation matchRelation = new MatchRelation()
+            .matchDate(DEFAULT_MATCH_DATE)
+            .userLowId(DEFAULT_USER_LOW_ID)
+            .userHighId(DEFAULT_USER_HIGH_ID);
         return matchRelation;
     }
 
@@ -91,7 +104,10 @@ class MatchRelationResourceIT {
      * if they test an entity which requires the current entity.
      */
     public static MatchRelation createUpdatedEntity(EntityManager em) {
-        MatchRelation matchRelation = new MatchRelation().matchDate(UPDATED_MATCH_DATE);
+        MatchRelation matchRelation = new MatchRelation()
+            .matchDate(UPDATED_MATCH_DATE)
+            .userLowId(UPDATED_USER_LOW_ID)
+            .userHighId(UPDATED_USER_HIGH_ID);
         return matchRelation;
     }
 
@@ -114,11 +130,25 @@ class MatchRelationResourceIT {
         assertThat(matchRelationList).hasSize(databaseSizeBeforeCreate + 1);
         MatchRelation testMatchRelation = matchRelationList.get(matchRelationList.size() - 1);
         assertThat(testMatchRelation.getMatchDate()).isEqualTo(DEFAULT_MATCH_DATE);
+        assertThat(testMatchRelation.getUserLowId()).isEqualTo(DEFAULT_USER_LOW_ID);
+        assertThat(testMatchRelation.getUserHighId()).isEqualTo(DEFAULT_USER_HIGH_ID);
 
         // Validate the MatchRelation in Elasticsearch
         verify(mockMatchRelationSearchRepository, times(1)).save(testMatchRelation);
     }
 
+    @Test
+    @Transactional
+    void createMatchRelationOrdersItsUsers() throws Exception {
+        matchRelation.userLowId(DEFAULT_USER_HIGH_ID).userHighId(DEFAULT_USER_LOW_ID);
+
+        restMatchRelationMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(matchRelation)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.userLowId").value(DEFAULT_USER_LOW_ID.intValue()))
+            .andExpect(jsonPath("$.userHighId").value(DEFAULT_USER_HIGH_ID.intValue()));
+    }
+
     @Test
     @Transactional
     void createMatchRelationWithExistingId() throws Exception {
@@ -140,6 +170,40 @@ class MatchRelationResourceIT {
         verify(mockMatchRelationSearchRepository, times(0)).save(matchRelation);
     }
 
+    @Test
+    @Transactional
+    void checkUserLowIdIsRequired() throws Exception {
+        int databaseSizeBeforeTest = matchRelationRepository.findAll().size();
+        // set the field null
+        matchRelation.setUserLowId(null);
+
+        // Create the MatchRelation, which fails.
+
+        restMatchRelationMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(matchRelation)))
+            .andExpect(status().isBadRequest());
+
+        List<MatchRelation> matchRelationList = matchRelationRepository.findAll();
+        assertThat(matchRelationList).hasSize(databaseSizeBeforeTest);
+    }
+
+    @Test
+    @Transactional
+    void checkUserHighIdIsRequired() throws Exception {
+        int databaseSizeBeforeTest = matchRelationRepository.findAll().size();
+        // set the field null
+        matchRelation.setUserHighId(null);
+
+        // Create the MatchRelation, which fails.
+
+        restMatchRelationMockMvc
+            .perform(post(ENTITY_API_URL).contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(matchRelation)))
+            .andExpect(status().isBadRequest());
+
+        List<MatchRelation> matchRelationList = matchRelationRepository.findAll();
+        assertThat(matchRelationList).hasSize(databaseSizeBeforeTest);
+    }
+
     @Test
     @Transactional
     void getAllMatchRelations() throws Exception {
@@ -152,7 +216,9 @@ class MatchRelationResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(matchRelation.getId().intValue())))
-            .andExpect(jsonPath("$.[*].matchDate").value(hasItem(sameInstant(DEFAULT_MATCH_DATE))));
+            .andExpect(jsonPath("$.[*].matchDate").value(hasItem(sameInstant(DEFAULT_MATCH_DATE))))
+            .andExpect(jsonPath("$.[*].userLowId").value(hasItem(DEFAULT_USER_LOW_ID.intValue())))
+            .andExpect(jsonPath("$.[*].userHighId").value(hasItem(DEFAULT_USER_HIGH_ID.intValue())));
     }
 
     @Test
@@ -167,7 +233,9 @@ class MatchRelationResourceIT {
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.id").value(matchRelation.getId().intValue()))
-            .andExpect(jsonPath("$.matchDate").value(sameInstant(DEFAULT_MATCH_DATE)));
+            .andExpect(jsonPath("$.matchDate").value(sameInstant(DEFAULT_MATCH_DATE)))
+            .andExpect(jsonPath("$.userLowId").value(DEFAULT_USER_LOW_ID.intValue()))
+            .andExpect(jsonPath("$.userHighId").value(DEFAULT_USER_HIGH_ID.intValue()));
     }
 
     @Test
@@ -177,6 +245,73 @@ class MatchRelationResourceIT {
         restMatchRelationMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getMatchRelationMessagesPageByPage() throws Exception {
+        // Initialize the database
+        matchRelationRepository.saveAndFlush(matchRelation);
+        ZonedDateTime date = DEFAULT_MATCH_DATE.plusDays(1);
+        Message first = persistMessage(date);
+        Message second = persistMessage(date.plusMinutes(1));
+        // Same date as the second one: ordered by id
+        Message third = persistMessage(date.plusMinutes(1));
+        Message fourth = persistMessage(date.plusMinutes(2));
+        Message fifth = persistMessage(date.plusMinutes(3));
+        em.flush();
+
+        String cursor = restMatchRelationMockMvc
+            .perform(get(ENTITY_API_URL_MESSAGES, matchRelation.getId()).param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.messages.[*].id").value(contains(fifth.getId().intValue(), fourth.getId().intValue())))
+            .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        cursor = JsonPath.read(cursor, "$.nextCursor");
+
+        cursor = restMatchRelationMockMvc
+            .perform(get(ENTITY_API_URL_MESSAGES, matchRelation.getId()).param("before", cursor).param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.messages.[*].id").value(contains(third.getId().intValue(), second.getId().intValue())))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        cursor = JsonPath.read(cursor, "$.nextCursor");
+
+        restMatchRelationMockMvc
+            .perform(get(ENTITY_API_URL_MESSAGES, matchRelation.getId()).param("before", cursor).param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.messages.[*].id").value(contains(first.getId().intValue())))
+            .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getMatchRelationMessagesWithInvalidCursor() throws Exception {
+        // Initialize the database
+        matchRelationRepository.saveAndFlush(matchRelation);
+
+        restMatchRelationMockMvc
+            .perform(get(ENTITY_API_URL_MESSAGES, matchRelation.getId()).param("before", "not-a-cursor"))
+            .andExpect(status().isBadRequest());
+        restMatchRelationMockMvc
+            .perform(get(ENTITY_API_URL_MESSAGES, matchRelation.getId()).param("limit", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingMatchRelationMessages() throws Exception {
+        restMatchRelationMockMvc.perform(get(ENTITY_API_URL_MESSAGES, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    private Message persistMessage(ZonedDateTime messageDate) {
+        Message message = new Message().senderId("1").receiverId("2").messageDate(messageDate).matchRelation(matchRelation);
+        em.persist(message);
+        return message;
+    }
+
     @Test
     @Transactional
     void putNewMatchRelation() throws Exception {
@@ -189,7 +324,7 @@ class MatchRelationResourceIT {
         MatchRelation updatedMatchRelation = matchRelationRepository.findById(matchRelation.getId()).get();
         // Disconnect from session so that the updates on updatedMatchRelation are not directly saved in db
         em.detach(updatedMatchRelation);
-        updatedMatchRelation.matchDate(UPDATED_MATCH_DATE);
+        updatedMatchRelation.matchDate(UPDATED_MATCH_DATE).userLowId(UPDATED_USER_LOW_ID).userHighId(UPDATED_USER_HIGH_ID);
 
         restMatchRelationMockMvc
             .perform(
@@ -204,6 +339,8 @@ class MatchRelationResourceIT {
         assertThat(matchRelationList).hasSize(databaseSizeBeforeUpdate);
         MatchRelation testMatchRelation = matchRelationList.get(matchRelationList.size() - 1);
         assertThat(testMatchRelation.getMatchDate()).isEqualTo(UPDATED_MATCH_DATE);
+        assertThat(testMatchRelation.getUserLowId()).isEqualTo(UPDATED_USER_LOW_ID);
+        assertThat(testMatchRelation.getUserHighId()).isEqualTo(UPDATED_USER_HIGH_ID);
 
         // Validate the MatchRelation in Elasticsearch
         verify(mockMatchRelationSearchRepository).save(testMatchRelation);
@@ -0,0 +1,121 @@
+package com.tmrfcb.datingapp.web.rest;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.Country;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.repository.UserAppRepository;
+import java.time.LocalDate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Integration tests for the {@link ProfileCardResource} REST controller.
+ */
+@IntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser
+class ProfileCardResourceIT {
+
+    private static final String ENTITY_API_URL = "/api/profile-cards";
+    private static final String ENTITY_API_URL_ID = ENTITY_API_URL + "/{id}";
+
+    private static final LocalDate BIRTH_DATE = LocalDate.of(1990, 5, 17);
+
+    @Autowired
+    private UserAppRepository userAppRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MockMvc restProfileCardMockMvc;
+
+    @Test
+    @Transactional
+    void getProfileCard() throws Exception {
+        Location location = new Location().city("Lyon");
+        em.persist(location);
+        em.persist(new Country().countryName("France").location(location));
+        UserApp userApp = userAppRepository.saveAndFlush(new UserApp().firstName("Alice").lastName("Martin").birthDate(BIRTH_DATE).location(location));
+        em.clear();
+
+        restProfileCardMockMvc
+            .perform(get(ENTITY_API_URL_ID, userApp.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(userApp.getId().intValue()))
+            .andExpect(jsonPath("$.firstName").value("Alice"))
+            .andExpect(jsonPath("$.birthDate").value(BIRTH_DATE.toString()))
+            .andExpect(jsonPath("$.city").value("Lyon"))
+            .andExpect(jsonPath("$.countryName").value("France"))
+            .andExpect(jsonPath("$.lastName").doesNotExist());
+    }
+
+    @Test
+    @Transactional
+    void getProfileCardsInTheOrderOfTheirIds() throws Exception {
+        UserApp first = userAppRepository.saveAndFlush(new UserApp().firstName("First"));
+        UserApp second = userAppRepository.saveAndFlush(new UserApp().firstName("Second"));
+
+        // Cache the second one, the first one is read from the database
+        restProfileCardMockMvc.perform(get(ENTITY_API_URL_ID, second.getId())).andExpect(status().isOk());
+
+        restProfileCardMockMvc
+            .perform(get(ENTITY_API_URL).param("ids", second.getId() + "," + Long.MAX_VALUE + "," + first.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].firstName").value(contains("Second", "First")))
+            .andExpect(jsonPath("$.[0].city").isEmpty());
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingProfileCard() throws Exception {
+        restProfileCardMockMvc.perform(get(ENTITY_API_URL_ID, Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getTooManyProfileCards() throws Exception {
+        String ids = LongStream
+            .rangeClosed(1, ProfileCardResource.MAX_CARDS_PER_REQUEST + 1)
+            .mapToObj(Long::toString)
+            .collect(Collectors.joining(","));
+
+        restProfileCardMockMvc.perform(get(ENTITY_API_URL).param("ids", ids)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updatedUsersAreEvicted() throws Exception {
+        UserApp userApp = userAppRepository.saveAndFlush(new UserApp().firstName("Before"));
+        try {
+            restProfileCardMockMvc.perform(get(ENTITY_API_URL_ID, userApp.getId())).andExpect(jsonPath("$.firstName").value("Before"));
+
+            restProfileCardMockMvc
+                .perform(
+                    put("/api/user-apps/{id}", userApp.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(userApp.firstName("After")))
+                )
+                .andExpect(status().isOk());
+
+            restProfileCardMockMvc.perform(get(ENTITY_API_URL_ID, userApp.getId())).andExpect(jsonPath("$.firstName").value("After"));
+            restProfileCardMockMvc
+                .perform(get(ENTITY_API_URL).param("ids", userApp.getId().toString()))
+                .andExpect(jsonPath("$.[0].firstName").value("After"));
+        } finally {
+            restProfileCardMockMvc.perform(delete("/api/user-apps/{id}", userApp.getId())).andExpect(status().isNoContent());
+        }
+    }
+}
@@ -9,9 +9,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.tmrfcb.datingapp.IntegrationTest;
 import com.tmrfcb.datingapp.domain.Relation;
+import com.tmrfcb.datingapp.domain.UserApp;
 import com.tmrfcb.datingapp.domain.enumeration.RelationType;
+import com.tmrfcb.datingapp.repository.MatchRelationRepository;
 import com.tmrfcb.datingapp.repository.RelationRepository;
 import com.tmrfcb.datingapp.repository.search.RelationSearchRepository;
+import com.tmrfcb.datingapp.service.dto.SwipeDTO;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -64,6 +68,9 @@ class RelationResourceIT {
     @Autowired
     private RelationSearchRepository mockRelationSearchRepository;
 
+    @Autowired
+    private MatchRelationRepository matchRelationRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -140,6 +147,173 @@ class RelationResourceIT {
         verify(mockRelationSearchRepository, times(0)).save(relation);
     }
 
+    @Test
+    @Transactional
+    void swipeCreatesMatchOnMutualLike() throws Exception {
+        UserApp alice = UserAppResourceIT.createEntity(em);
+        em.persist(alice);
+        UserApp bob = UserAppResourceIT.createEntity(em);
+        em.persist(bob);
+        em.flush();
+        int matchesBefore = matchRelationRepository.findAll().size();
+
+        // Alice likes Bob: no match yet
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), bob.getId(), RelationType.LIKE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.relation.userIdOfOther").value(bob.getId().toString()))
+            .andExpect(jsonPath("$.relation.relationType").value(RelationType.LIKE.toString()))
+            .andExpect(jsonPath("$.matched").value(false));
+
+        // Bob superlikes Alice: they match
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(bob.getId(), alice.getId(), RelationType.SUPERLIKE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.matched").value(true))
+            .andExpect(jsonPath("$.matchRelation.userLowId").value((int) Math.min(alice.getId(), bob.getId())))
+            .andExpect(jsonPath("$.matchRelation.userHighId").value((int) Math.max(alice.getId(), bob.getId())));
+
+        // Swiping again reuses the relation and the match
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), bob.getId(), RelationType.LIKE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.matched").value(true));
+
+        assertThat(matchRelationRepository.findAll()).hasSize(matchesBefore + 1);
+        assertThat(relationRepository.findFirstByUserAppIdAndUserIdOfOther(alice.getId(), bob.getId().toString())).isPresent();
+        assertThat(relationRepository.findAll().stream().filter(r -> r.getUserApp() != null && r.getUserApp().equals(alice))).hasSize(1);
+    }
+
+    @Test
+    @Transactional
+    void swipeDislikeDoesNotMatch() throws Exception {
+        UserApp alice = UserAppResourceIT.createEntity(em);
+        em.persist(alice);
+        UserApp bob = UserAppResourceIT.createEntity(em);
+        em.persist(bob);
+        em.persist(new Relation().userApp(bob).userIdOfOther(alice.getId().toString()).relationType(RelationType.LIKE));
+        em.flush();
+
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), bob.getId(), RelationType.DISLIKE)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.matched").value(false));
+    }
+
+    @Test
+    @Transactional
+    void swipeWithInvalidUsers() throws Exception {
+        UserApp alice = UserAppResourceIT.createEntity(em);
+        em.persist(alice);
+        em.flush();
+
+        // A user cannot swipe on itself
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), alice.getId(), RelationType.LIKE)))
+            )
+            .andExpect(status().isBadRequest());
+
+        // Nor on a missing user
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), Long.MAX_VALUE, RelationType.LIKE)))
+            )
+            .andExpect(status().isBadRequest());
+
+        // The relation type is required
+        restRelationMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/swipe")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(new SwipeDTO(alice.getId(), Long.MAX_VALUE, null)))
+            )
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void swipeBatch() throws Exception {
+        UserApp alice = UserAppResourceIT.createEntity(em);
+        em.persist(alice);
+        UserApp bob = UserAppResourceIT.createEntity(em);
+        em.persist(bob);
+        UserApp carol = UserAppResourceIT.createEntity(em);
+        em.persist(carol);
+        em.persist(new Relation().userApp(bob).userIdOfOther(alice.getId().toString()).relationType(RelationType.LIKE));
+        Relation aliceToCarol = new Relation().userApp(alice).userIdOfOther(carol.getId().toString()).relationType(RelationType.DISLIKE);
+        em.persist(aliceToCarol);
+        em.flush();
+        int relationsBefore = relationRepository.findAll().size();
+        int matchesBefore = matchRelationRepository.findAll().size();
+
+        List<SwipeDTO> swipes = Arrays.asList(
+            new SwipeDTO(alice.getId(), bob.getId(), RelationType.LIKE),
+            new SwipeDTO(alice.getId(), carol.getId(), RelationType.LIKE),
+            new SwipeDTO(alice.getId(), alice.getId(), RelationType.LIKE),
+            new SwipeDTO(alice.getId(), Long.MAX_VALUE, RelationType.LIKE),
+            new SwipeDTO(alice.getId(), carol.getId(), null),
+            new SwipeDTO(alice.getId(), carol.getId(), RelationType.SUPERLIKE),
+            new SwipeDTO(carol.getId(), bob.getId(), RelationType.LIKE),
+            new SwipeDTO(bob.getId(), carol.getId(), RelationType.SUPERLIKE)
+        );
+        restRelationMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(swipes)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(swipes.size()))
+            .andExpect(jsonPath("$[0].matched").value(true))
+            .andExpect(jsonPath("$[0].relation.id").isNumber())
+            .andExpect(jsonPath("$[0].relation.userIdOfOther").value(bob.getId().toString()))
+            .andExpect(jsonPath("$[1].relation.id").value(aliceToCarol.getId().intValue()))
+            .andExpect(jsonPath("$[1].relation.relationType").value(RelationType.SUPERLIKE.toString()))
+            .andExpect(jsonPath("$[1].matched").value(false))
+            .andExpect(jsonPath("$[2].error").value("selfswipe"))
+            .andExpect(jsonPath("$[3].error").value("idnotfound"))
+            .andExpect(jsonPath("$[4].error").value("invalid"))
+            .andExpect(jsonPath("$[5].relation.id").value(aliceToCarol.getId().intValue()))
+            .andExpect(jsonPath("$[6].matched").value(true))
+            .andExpect(jsonPath("$[7].matched").value(true));
+
+        // Only Alice on Bob, Carol on Bob and Bob on Carol are new
+        assertThat(relationRepository.findAll()).hasSize(relationsBefore + 3);
+        assertThat(matchRelationRepository.findAll()).hasSize(matchesBefore + 2);
+        assertThat(relationRepository.findById(aliceToCarol.getId()).get().getRelationType()).isEqualTo(RelationType.SUPERLIKE);
+        assertThat(relationRepository.findFirstByUserAppIdAndUserIdOfOther(alice.getId(), bob.getId().toString()))
+            .get()
+            .extracting(Relation::getMatchRelation)
+            .isNotNull();
+        verify(mockRelationSearchRepository, times(1)).saveAll(anyIterable());
+    }
+
+    @Test
+    @Transactional
+    void swipeBatchTooLarge() throws Exception {
+        List<SwipeDTO> swipes = Collections.nCopies(501, new SwipeDTO(1L, 2L, RelationType.LIKE));
+        restRelationMockMvc
+            .perform(post(ENTITY_API_URL + "/batch").contentType(MediaType.APPLICATION_JSON).content(TestUtil.convertObjectToJsonBytes(swipes)))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getAllRelations() throws Exception {
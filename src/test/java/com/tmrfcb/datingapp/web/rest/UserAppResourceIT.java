@@ -3,14 +3,19 @@ package com.tmrfcb.datingapp.web.rest;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.elasticsearch.index.query.QueryBuilders.queryStringQuery;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import com.tmrfcb.datingapp.IntegrationTest;
+import com.tmrfcb.datingapp.domain.Location;
+import com.tmrfcb.datingapp.domain.Relation;
 import com.tmrfcb.datingapp.domain.UserApp;
+import com.tmrfcb.datingapp.domain.enumeration.RelationType;
 import com.tmrfcb.datingapp.repository.UserAppRepository;
 import com.tmrfcb.datingapp.repository.search.UserAppSearchRepository;
+import com.tmrfcb.datingapp.service.NearbyUserService;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Collections;
@@ -74,6 +79,9 @@ class UserAppResourceIT {
     @Autowired
     private UserAppSearchRepository mockUserAppSearchRepository;
 
+    @Autowired
+    private NearbyUserService nearbyUserService;
+
     @Autowired
     private EntityManager em;
 
@@ -201,6 +209,67 @@ class UserAppResourceIT {
             .andExpect(jsonPath("$.birthDate").value(DEFAULT_BIRTH_DATE.toString()));
     }
 
+    @Test
+    @Transactional
+    void getNearbyUserApps() throws Exception {
+        // Initialize the database: one user in Paris, one in Lyon (~390 km away)
+        Location paris = LocationResourceIT.createEntity(em);
+        em.persist(paris);
+        Location lyon = LocationResourceIT.createUpdatedEntity(em);
+        em.persist(lyon);
+        UserApp parisUser = userAppRepository.saveAndFlush(userApp.location(paris));
+        UserApp lyonUser = userAppRepository.saveAndFlush(createUpdatedEntity(em).location(lyon));
+        nearbyUserService.rebuild();
+
+        // Get the users within 25 km of Paris
+        restUserAppMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=25"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.[*].userId").value(hasItem(parisUser.getId().intValue())))
+            .andExpect(jsonPath("$.[*].userId").value(not(hasItem(lyonUser.getId().intValue()))));
+
+        // Both are within 500 km, nearest first
+        restUserAppMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=500&k=2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].userId").value(parisUser.getId().intValue()))
+            .andExpect(jsonPath("$.[1].userId").value(lyonUser.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getNearbyUserAppsExcludingSeenProfiles() throws Exception {
+        // Initialize the database: three users in Paris, the first one has already disliked the second one
+        Location paris = LocationResourceIT.createEntity(em);
+        em.persist(paris);
+        UserApp seeker = userAppRepository.saveAndFlush(userApp.location(paris));
+        UserApp disliked = userAppRepository.saveAndFlush(createEntity(em).location(paris));
+        UserApp candidate = userAppRepository.saveAndFlush(createEntity(em).location(paris));
+        Relation relation = new Relation().userApp(seeker).userIdOfOther(disliked.getId().toString()).relationType(RelationType.DISLIKE);
+        em.persist(relation);
+        em.flush();
+        nearbyUserService.rebuild();
+
+        restUserAppMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=25&userId=" + seeker.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].userId").value(hasItem(candidate.getId().intValue())))
+            .andExpect(jsonPath("$.[*].userId").value(not(hasItem(disliked.getId().intValue()))))
+            .andExpect(jsonPath("$.[*].userId").value(not(hasItem(seeker.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    void getNearbyUserAppsWithInvalidPosition() throws Exception {
+        restUserAppMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=181&radiusKm=25"))
+            .andExpect(status().isBadRequest());
+        restUserAppMockMvc
+            .perform(get(ENTITY_API_URL + "/nearby?latitude=48.86&longitude=2.35&radiusKm=20000"))
+            .andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void getNonExistingUserApp() throws Exception {